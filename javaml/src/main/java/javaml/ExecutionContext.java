@@ -0,0 +1,178 @@
+package javaml;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Controls how the operations in JavaML are split across threads. An execution context holds the ForkJoinPool that
+ * parallel work is submitted to, the number of threads that work should be split across, and a grain size, which is
+ * the smallest amount of work given to each parallel task. Work is measured in elements read, or in multiply adds for
+ * matrix multiplication. Operations requiring less than twice the grain size are run on the calling thread.
+ * <br><br>
+ * Operations use the context returned by {@link #current()}. This is the default context, unless the calling thread
+ * is running code inside {@link #run(Runnable)} or {@link #call(Supplier)}, in which case it is the context those
+ * methods were called on. For example, a server can bound the threads used by each request with
+ * <pre>{@code
+ * ExecutionContext context = new ExecutionContext(4, ExecutionContext.DEFAULT_GRAIN_SIZE);
+ * Tensor output = context.call(() -> model.forward(input));
+ * }</pre>
+ * Tasks started by an operation use the same context as the operation, even though they run on other threads.
+ * <br><br>
+ * Functions passed to operations such as {@code Tensor.apply} may be called concurrently from several threads, so
+ * they must be thread safe. The results of every operation are the same regardless of the context
+ * @since 0.1.2
+ */
+public final class ExecutionContext implements AutoCloseable {
+
+    /** The grain size of the default context */
+    public static final long DEFAULT_GRAIN_SIZE = 1 << 16;
+
+    private static volatile ExecutionContext defaultContext =
+            new ExecutionContext(ForkJoinPool.commonPool(), DEFAULT_GRAIN_SIZE);
+    private static final ThreadLocal<ExecutionContext> CURRENT = new ThreadLocal<>();
+    private static final ExecutionContext SEQUENTIAL = new ExecutionContext(null, 1, DEFAULT_GRAIN_SIZE, false);
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final long grainSize;
+    /** Whether the pool was created by this context, in which case it is shut down when the context is closed */
+    private final boolean ownsPool;
+
+    private ExecutionContext(ForkJoinPool pool, int parallelism, long grainSize, boolean ownsPool) {
+        if(parallelism < 1)
+            throw new IllegalArgumentException(String.format("Parallelism must be positive, but was %d", parallelism));
+        if(grainSize < 1)
+            throw new IllegalArgumentException(String.format("Grain size must be positive, but was %d", grainSize));
+        this.pool = pool;
+        this.parallelism = parallelism;
+        this.grainSize = grainSize;
+        this.ownsPool = ownsPool;
+    }
+
+    /**
+     * Creates an execution context with its own ForkJoinPool of the given parallelism. The pool is shut down when the
+     * context is closed. A parallelism of one creates no pool, and runs every operation on the calling thread
+     * @param parallelism The number of threads to split work across
+     * @param grainSize The smallest amount of work given to each parallel task
+     * @throws IllegalArgumentException If the parallelism or grain size is not positive
+     */
+    public ExecutionContext(int parallelism, long grainSize) {
+        this(parallelism > 1 ? new ForkJoinPool(parallelism) : null, parallelism, grainSize, parallelism > 1);
+    }
+
+    /**
+     * Creates an execution context that submits work to the given pool, splitting it across as many threads as the
+     * parallelism of the pool. The pool is not shut down when the context is closed
+     * @param pool The pool to submit parallel work to
+     * @param grainSize The smallest amount of work given to each parallel task
+     * @throws IllegalArgumentException If the grain size is not positive
+     */
+    public ExecutionContext(@NotNull ForkJoinPool pool, long grainSize) {
+        this(pool, pool.getParallelism(), grainSize, false);
+    }
+
+    /**
+     * Returns an execution context that runs every operation on the calling thread
+     * @return A sequential execution context
+     */
+    public static @NotNull ExecutionContext sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * Returns the context used by operations on the calling thread. This is the context of the innermost call to
+     * {@link #run(Runnable)} or {@link #call(Supplier)} on this thread, or the default context if there is none
+     * @return The current execution context
+     */
+    public static @NotNull ExecutionContext current() {
+        ExecutionContext context = CURRENT.get();
+        return context != null ? context : defaultContext;
+    }
+
+    /**
+     * Returns the default context, which is used by threads that have not selected a context. Initially, this uses
+     * the common ForkJoinPool, with a grain size of {@link #DEFAULT_GRAIN_SIZE}
+     * @return The default execution context
+     */
+    public static @NotNull ExecutionContext getDefault() {
+        return defaultContext;
+    }
+
+    /**
+     * Sets the default context, which is used by threads that have not selected a context
+     * @param context The new default execution context
+     */
+    public static void setDefault(@NotNull ExecutionContext context) {
+        defaultContext = context;
+    }
+
+    /**
+     * Runs the given task on the calling thread, with this as the current context. The previous context is restored
+     * once the task completes, even if it throws an exception
+     * @param task The task to run
+     */
+    public void run(@NotNull Runnable task) {
+        ExecutionContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try { task.run(); }
+        finally { restore(previous); }
+    }
+
+    /**
+     * Runs the given task on the calling thread, with this as the current context, and returns its result. The
+     * previous context is restored once the task completes, even if it throws an exception
+     * @param task The task to run
+     * @param <T> The type of the result of the task
+     * @return The result of the task
+     */
+    public <T> T call(@NotNull Supplier<T> task) {
+        ExecutionContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try { return task.get(); }
+        finally { restore(previous); }
+    }
+
+    private static void restore(ExecutionContext previous) {
+        if(previous == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(previous);
+    }
+
+    /**
+     * Returns the pool that parallel work is submitted to, or null if this context runs everything on the calling
+     * thread
+     * @return The pool of this context
+     */
+    public ForkJoinPool pool() {
+        return pool;
+    }
+
+    /**
+     * Returns the number of threads that work is split across
+     * @return The parallelism of this context
+     */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Returns the smallest amount of work given to each parallel task
+     * @return The grain size of this context
+     */
+    public long grainSize() {
+        return grainSize;
+    }
+
+    /**
+     * Shuts down the pool of this context, if it was created by this context. Operations that are already running
+     * are allowed to complete
+     */
+    @Override
+    public void close() {
+        if(ownsPool)
+            pool.shutdown();
+    }
+}
@@ -11,6 +11,9 @@ public class JavaML {
      * Random object used for all random number generation in JavaML.
      * If deterministic and reproducible results are required, then set this seed, and every JavaML method will
      * produce the same results across different instances of the program.
+     * Random Tensors draw a single value from this object, which keys a counter based generator that computes each
+     * element independently. This keeps contention on this object low, and the elements are the same however many
+     * threads fill the Tensor.
      */
     public static final Random random = new Random();
 }
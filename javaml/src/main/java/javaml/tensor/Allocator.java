@@ -0,0 +1,36 @@
+package javaml.tensor;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Decides where the elements of a new Tensor are stored. {@link #HEAP} stores them in a float array on the Java heap,
+ * and is used whenever no allocator is given. An {@link Arena} stores them in native memory outside the heap, which
+ * suits large, long lived Tensors such as embedding tables, as the garbage collector never copies or scans them.
+ * <br><br>
+ * Every operation works on Tensors from any allocator, and views share the storage of the Tensor they were created
+ * from. The results of operations are always stored on the heap
+ * @since 0.1.2
+ */
+public abstract class Allocator {
+
+    /** Stores the elements of each Tensor in a float array on the Java heap */
+    public static final Allocator HEAP = new Allocator() {
+        @Override
+        Tensor zeros(int[] shape, long size) {
+            return new Tensor(new float[Tensor.heapSize(shape)], shape);
+        }
+    };
+
+    Allocator() {}
+
+    /**
+     * Creates a Tensor of the given shape filled with zeros, using storage from this allocator. The shape has already
+     * been validated
+     * @param shape The shape of the Tensor
+     * @param size The number of elements in the Tensor
+     * @return A Tensor of the given shape filled with zeros
+     * @throws IllegalArgumentException If the Tensor is too large for this allocator
+     * @since 0.1.2
+     */
+    abstract @NotNull Tensor zeros(int @NotNull [] shape, long size);
+}
@@ -0,0 +1,65 @@
+package javaml.tensor;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An allocator that stores the elements of Tensors in native memory, outside the Java heap. Every Tensor created by
+ * an arena lives until the arena is closed, after which accessing any of them, or any view of them, throws an
+ * {@code IllegalStateException}. For example
+ * <pre>{@code
+ * try(Arena arena = new Arena()) {
+ *     Tensor embeddings = Tensor.zeros(arena, 1_000_000, 256);
+ *     ...
+ * }
+ * }</pre>
+ * Tensors from an arena may be read from any number of threads at once, without copying. An arena must not be closed
+ * while its Tensors are still in use. The memory is returned to the operating system once the closed storage has been
+ * garbage collected, and the total native memory available is limited by the {@code -XX:MaxDirectMemorySize} option
+ * of the JVM
+ * @since 0.1.2
+ */
+public final class Arena extends Allocator implements AutoCloseable {
+
+    private final List<DirectStorage> storages = new ArrayList<>();
+    private boolean closed;
+
+    /**
+     * Creates an open arena
+     * @since 0.1.2
+     */
+    public Arena() {}
+
+    @Override
+    synchronized @NotNull Tensor zeros(int @NotNull [] shape, long size) {
+        if(closed)
+            throw new IllegalStateException("Cannot allocate a Tensor from an Arena that has been closed");
+        DirectStorage storage = new DirectStorage(size);
+        storages.add(storage);
+        return new Tensor(storage, shape);
+    }
+
+    /**
+     * Returns whether this arena has been closed
+     * @return true if this arena is closed, otherwise false
+     * @since 0.1.2
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes this arena, releasing the storage of every Tensor allocated by it. Closing an arena that is already
+     * closed has no effect
+     * @since 0.1.2
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for(DirectStorage storage : storages)
+            storage.close();
+        storages.clear();
+    }
+}
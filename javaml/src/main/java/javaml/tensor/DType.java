@@ -0,0 +1,120 @@
+package javaml.tensor;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The type of the elements of a Tensor. Every type has its own primitive storage, so integers and booleans are stored
+ * exactly, and use less memory than floats where possible. Operations are computed with float32 kernels when every
+ * operand can be represented exactly as a float. Otherwise, operations between integers whose result is an integer,
+ * such as addition, multiplication, comparisons and matrix products, are computed on longs, and all other operations
+ * are computed in double precision, so neither integers nor doubles are rounded to float.
+ * <br><br>
+ * The result of a binary operation between Tensors of different types has the type given by
+ * {@link #promote(DType, DType)}
+ * @since 0.1.2
+ */
+public enum DType {
+    /** Booleans, stored one per byte. Writing any non-zero value stores true, which is read back as 1 */
+    BOOL(1, false),
+    /** 8 bit signed integers. Values outside the range of a byte wrap around when written */
+    INT8(Byte.BYTES, false),
+    /** 32 bit signed integers, which are used for shapes and indices */
+    INT32(Integer.BYTES, false),
+    /**
+     * 64 bit signed integers. Arithmetic between integers is computed on longs, so it is exact, and overflow wraps
+     * around as in Java. Operations with floating point operands convert the values to double
+     */
+    INT64(Long.BYTES, false),
+    /**
+     * 16 bit IEEE half precision floating point numbers, with 11 bits of precision and a largest finite value of
+     * 65504. Values are rounded to the nearest half when written, and are computed with as float32
+     */
+    FLOAT16(Short.BYTES, true),
+    /**
+     * 16 bit brain floating point numbers, which have the same range as a float but only 8 bits of precision. Values
+     * are rounded to the nearest bfloat16 when written, and are computed with as float32
+     */
+    BFLOAT16(Short.BYTES, true),
+    /** 32 bit floating point numbers, which is the type of every Tensor unless another type is requested */
+    FLOAT32(Float.BYTES, true),
+    /** 64 bit floating point numbers */
+    FLOAT64(Double.BYTES, true);
+
+    private final int bytes;
+    private final boolean floatingPoint;
+
+    DType(int bytes, boolean floatingPoint) {
+        this.bytes = bytes;
+        this.floatingPoint = floatingPoint;
+    }
+
+    /**
+     * Returns the number of bytes used to store each element of this type
+     * @return The number of bytes in each element
+     * @since 0.1.2
+     */
+    public int bytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns whether this is a floating point type
+     * @return true if this type is FLOAT16, BFLOAT16, FLOAT32 or FLOAT64, otherwise false
+     * @since 0.1.2
+     */
+    public boolean isFloatingPoint() {
+        return floatingPoint;
+    }
+
+    /**
+     * Returns the type of the result of a binary operation between elements of the given types. Floating point types
+     * take precedence over integer types, which take precedence over BOOL. Between two types of the same kind, the
+     * wider type is used. For example, INT32 and INT64 give INT64, while INT64 and FLOAT32 give FLOAT32. FLOAT16 and
+     * BFLOAT16 cannot represent each other's values, so together they give FLOAT32
+     * @param type1 The first type
+     * @param type2 The second type
+     * @return The type of the result
+     * @since 0.1.2
+     */
+    public static @NotNull DType promote(@NotNull DType type1, @NotNull DType type2) {
+        if(type1 == FLOAT16 && type2 == BFLOAT16 || type1 == BFLOAT16 && type2 == FLOAT16)
+            return FLOAT32;
+        // The constants are declared in order of precedence
+        return type1.ordinal() >= type2.ordinal() ? type1 : type2;
+    }
+
+    /**
+     * Returns whether the result of an operation with the given type can be written into a Tensor of another type
+     * without changing its kind. Floating point results cannot be written into integer or BOOL Tensors, and only BOOL
+     * results can be written into BOOL Tensors
+     * @param from The type of the result
+     * @param to The type of the Tensor it is written into
+     * @return true if the result can be written, otherwise false
+     * @since 0.1.2
+     */
+    public static boolean canCast(@NotNull DType from, @NotNull DType to) {
+        if(from.floatingPoint && !to.floatingPoint)
+            return false;
+        return to != BOOL || from == BOOL;
+    }
+
+    /**
+     * Returns this type if it is floating point, otherwise FLOAT32. Used by operations such as division, whose result
+     * is not an integer
+     * @return A floating point type that can hold the result
+     * @since 0.1.2
+     */
+    @NotNull DType toFloatingPoint() {
+        return floatingPoint ? this : FLOAT32;
+    }
+
+    /**
+     * Returns whether every value of this type is exactly representable as a float, in which case it may be computed
+     * with the float32 kernels
+     * @return true if this type fits in a float, otherwise false
+     * @since 0.1.2
+     */
+    boolean fitsInFloat() {
+        return this != INT32 && this != INT64 && this != FLOAT64;
+    }
+}
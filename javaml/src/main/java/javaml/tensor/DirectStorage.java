@@ -0,0 +1,158 @@
+package javaml.tensor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Stores the elements of an off-heap Tensor in native memory, outside the Java heap, so they are never scanned or
+ * moved by the garbage collector. The memory is either allocated directly, or is a file mapped into memory. A single
+ * buffer can hold at most 2^31 - 1 bytes, so the elements are split across chunks of {@code CHUNK_SIZE} floats, and
+ * positions are longs. Storage may also wrap a buffer provided by the user, which is used in place. Off-heap storage
+ * always holds FLOAT32 elements.
+ * <br><br>
+ * Once closed, the chunks are released, and any further access throws an {@code IllegalStateException}. The memory
+ * itself is returned to the operating system when the buffers are garbage collected, so a storage that is closed while
+ * another thread is still reading from it can never expose freed memory
+ * @since 0.1.2
+ */
+final class DirectStorage extends Storage {
+
+    private static final int CHUNK_BITS = 28;
+    /** The number of floats in each chunk, which is 1 GiB */
+    static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final long size;
+    /** Volatile so that accesses on any thread see that the storage has been closed */
+    private volatile FloatBuffer[] chunks;
+
+    /**
+     * Allocates storage for the given number of floats, with every element initialised to zero
+     * @param size The number of floats to store
+     */
+    DirectStorage(long size) {
+        this.size = size;
+        chunks = new FloatBuffer[chunkCount(size)];
+        for(int i = 0; i < chunks.length; i++)
+            chunks[i] = ByteBuffer.allocateDirect(chunkLength(size, i) * Float.BYTES)
+                    .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+    private DirectStorage(long size, FloatBuffer[] chunks) {
+        this.size = size;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Maps the start of a file into memory, as storage for the given number of little endian floats. The mapping
+     * remains valid after the channel is closed
+     * @param channel The channel of the file to map
+     * @param mode The mode of the mapping
+     * @param size The number of floats to map
+     * @return The storage backed by the file
+     * @throws IOException If the file cannot be mapped
+     */
+    static DirectStorage map(FileChannel channel, FileChannel.MapMode mode, long size) throws IOException {
+        FloatBuffer[] chunks = new FloatBuffer[chunkCount(size)];
+        for(int i = 0; i < chunks.length; i++)
+            chunks[i] = channel.map(mode, ((long) i << CHUNK_BITS) * Float.BYTES, chunkLength(size, i) * Float.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        return new DirectStorage(size, chunks);
+    }
+
+    /**
+     * Creates storage backed by the given buffer, without copying it. The elements start at index 0 of the buffer,
+     * and are read and written in the byte order of the buffer
+     * @param buffer The buffer holding the elements, which must hold at least the given number of floats
+     * @param size The number of floats in the storage
+     * @return The storage backed by the buffer
+     */
+    static DirectStorage wrap(FloatBuffer buffer, long size) {
+        FloatBuffer[] chunks = new FloatBuffer[chunkCount(size)];
+        for(int i = 0; i < chunks.length; i++)
+            chunks[i] = buffer.slice(i << CHUNK_BITS, chunkLength(size, i));
+        return new DirectStorage(size, chunks);
+    }
+
+    private static int chunkCount(long size) {
+        return (int) ((size + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+    }
+
+    /** Returns the number of floats in the given chunk of a storage of the given size */
+    private static int chunkLength(long size, int chunk) {
+        return (int) Math.min(CHUNK_SIZE, size - ((long) chunk << CHUNK_BITS));
+    }
+
+    /** Returns the number of floats held by this storage */
+    long size() {
+        return size;
+    }
+
+    @Override
+    DType dtype() {
+        return DType.FLOAT32;
+    }
+
+    @Override
+    float get(long position) {
+        return chunks()[(int) (position >>> CHUNK_BITS)].get((int) (position & CHUNK_MASK));
+    }
+
+    @Override
+    void set(long position, float value) {
+        chunks()[(int) (position >>> CHUNK_BITS)].put((int) (position & CHUNK_MASK), value);
+    }
+
+    /**
+     * Copies a range of consecutive elements into an array
+     * @param position The position of the first element to copy
+     * @param destination The array to copy into
+     * @param offset The position in the array of the first element
+     * @param length The number of elements to copy
+     */
+    @Override
+    void read(long position, float[] destination, int offset, int length) {
+        FloatBuffer[] chunks = chunks();
+        while(length > 0) {
+            int start = (int) (position & CHUNK_MASK), count = Math.min(length, CHUNK_SIZE - start);
+            chunks[(int) (position >>> CHUNK_BITS)].get(start, destination, offset, count);
+            position += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Copies the elements of an array into a range of consecutive elements
+     * @param position The position of the first element to write
+     * @param source The array to copy from
+     * @param offset The position in the array of the first element
+     * @param length The number of elements to copy
+     */
+    @Override
+    void write(long position, float[] source, int offset, int length) {
+        FloatBuffer[] chunks = chunks();
+        while(length > 0) {
+            int start = (int) (position & CHUNK_MASK), count = Math.min(length, CHUNK_SIZE - start);
+            chunks[(int) (position >>> CHUNK_BITS)].put(start, source, offset, count);
+            position += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /** Releases the chunks of this storage. Closing an already closed storage has no effect */
+    void close() {
+        chunks = null;
+    }
+
+    private FloatBuffer[] chunks() {
+        FloatBuffer[] chunks = this.chunks;
+        if(chunks == null)
+            throw new IllegalStateException("Cannot access a Tensor whose storage has been closed");
+        return chunks;
+    }
+}
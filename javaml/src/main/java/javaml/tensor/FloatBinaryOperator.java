@@ -0,0 +1,19 @@
+package javaml.tensor;
+
+/**
+ * Represents an operation upon two float operands that produces a float result. This is the primitive
+ * specialisation of {@code BinaryOperator} for float, so values are never boxed
+ * @since 0.1.2
+ */
+@FunctionalInterface
+public interface FloatBinaryOperator {
+
+    /**
+     * Applies this operator to the given operands
+     * @param left The first operand
+     * @param right The second operand
+     * @return The operator result
+     * @since 0.1.2
+     */
+    float applyAsFloat(float left, float right);
+}
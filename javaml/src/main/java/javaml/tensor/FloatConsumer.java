@@ -0,0 +1,17 @@
+package javaml.tensor;
+
+/**
+ * Represents an operation that accepts a single float argument and returns no result. This is the primitive
+ * specialisation of {@code Consumer} for float, so values can be consumed without being boxed
+ * @since 0.1.2
+ */
+@FunctionalInterface
+public interface FloatConsumer {
+
+    /**
+     * Performs this operation on the given argument
+     * @param value The input argument
+     * @since 0.1.2
+     */
+    void accept(float value);
+}
@@ -0,0 +1,61 @@
+package javaml.tensor;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+
+/**
+ * An Iterator specialised for float values. Elements can be retrieved with {@code nextFloat()} without being boxed.
+ * This fills the role of the {@code PrimitiveIterator.OfFloat} that is missing from the standard library
+ * @since 0.1.2
+ */
+public interface FloatIterator extends PrimitiveIterator<Float, FloatConsumer> {
+
+    /**
+     * Returns the next float element in the iteration
+     * @return The next float element in the iteration
+     * @throws NoSuchElementException if the iteration has no more elements
+     * @since 0.1.2
+     */
+    float nextFloat();
+
+    /**
+     * Returns the next element in the iteration, boxed into a Float. Prefer {@code nextFloat()}, which does not
+     * allocate
+     * @return The next element in the iteration
+     * @throws NoSuchElementException if the iteration has no more elements
+     * @since 0.1.2
+     */
+    @Override
+    default @NotNull Float next() {
+        return nextFloat();
+    }
+
+    /**
+     * Performs the given action for each remaining element, in the order the elements occur, until all elements have
+     * been processed
+     * @param action The action to be performed for each element
+     * @since 0.1.2
+     */
+    @Override
+    default void forEachRemaining(@NotNull FloatConsumer action) {
+        while(hasNext())
+            action.accept(nextFloat());
+    }
+
+    /**
+     * Performs the given action for each remaining element. If the action is a {@code FloatConsumer}, the elements are
+     * not boxed
+     * @param action The action to be performed for each element
+     * @since 0.1.2
+     */
+    @Override
+    default void forEachRemaining(@NotNull Consumer<? super Float> action) {
+        if(action instanceof FloatConsumer consumer)
+            forEachRemaining(consumer);
+        else
+            forEachRemaining((FloatConsumer) action::accept);
+    }
+}
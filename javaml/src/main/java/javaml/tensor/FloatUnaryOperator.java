@@ -0,0 +1,18 @@
+package javaml.tensor;
+
+/**
+ * Represents an operation on a single float operand that produces a float result. This is the primitive
+ * specialisation of {@code UnaryOperator} for float, so values are never boxed
+ * @since 0.1.2
+ */
+@FunctionalInterface
+public interface FloatUnaryOperator {
+
+    /**
+     * Applies this operator to the given operand
+     * @param operand The operand
+     * @return The operator result
+     * @since 0.1.2
+     */
+    float applyAsFloat(float operand);
+}
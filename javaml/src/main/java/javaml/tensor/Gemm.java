@@ -0,0 +1,239 @@
+package javaml.tensor;
+
+import java.util.Arrays;
+
+/**
+ * General matrix multiplication. Computes {@code C += A * B} for a batch of matrices, where each A is an m x k matrix,
+ * each B is a k x n matrix and each C is a row major m x n matrix. A and B are described by an offset for each matrix
+ * in the batch and a stride for each axis, so transposed, broadcast and other strided views are multiplied directly,
+ * without being copied into a contiguous Tensor first. A and B may each be held in a float array or in storage, such as
+ * off the heap, and positions within them are longs.
+ * <br><br>
+ * The product is computed in the blocked form used by high performance BLAS libraries. Each C is split into tiles of
+ * {@code ROW_BLOCK} rows and {@code COLUMN_BLOCK} columns, and the tiles of every matrix in the batch are computed in
+ * parallel. Tiles are grouped by {@code Parallel}, so each task performs at least the grain size of the current
+ * execution context in multiply adds, which amortises the scheduling overhead over many small matrices. For each
+ * tile, the shared dimension is split into blocks of {@code DEPTH_BLOCK}, and the corresponding blocks of A and B are
+ * packed into contiguous panels that fit in cache. Operands in storage are read element by element while they are
+ * packed, so they are never copied whole.
+ * Each pair of panels is then multiplied by the register tiled micro kernel in {@code Kernels}
+ * @since 0.1.2
+ */
+final class Gemm {
+
+    /** The number of rows of A in each packed panel, which is the height of the tile computed by the micro kernel */
+    static final int PANEL_HEIGHT = 4;
+    /** The number of rows of C in each parallel tile. Must be a multiple of PANEL_HEIGHT */
+    private static final int ROW_BLOCK = 64;
+    /** The length of the shared dimension packed at once */
+    private static final int DEPTH_BLOCK = 256;
+    /** The number of columns of C in each parallel tile */
+    private static final int COLUMN_BLOCK = 512;
+
+    /** Packing buffers, which are reused by each thread to avoid allocating them for every tile */
+    private static final ThreadLocal<float[][]> BUFFERS = ThreadLocal.withInitial(() -> new float[][] {
+            new float[ROW_BLOCK * DEPTH_BLOCK],
+            new float[DEPTH_BLOCK * roundUp(COLUMN_BLOCK, Kernels.INSTANCE.gemmPanelWidth())]});
+
+    private final int m, n, k;
+    private final float[] a, b, c;
+    /** The storage containing A or B when it is not held in a float array, in which case a or b is null */
+    private final Storage aStorage, bStorage;
+    private final long[] aOffsets, bOffsets;
+    private final int[] cOffsets;
+    private final long aRowStride, aColStride;
+    private final long bRowStride, bColStride;
+    private final int cRowStride;
+    private final int columnTiles, tilesPerMatrix;
+    /** The number of multiply adds required to compute a single tile */
+    private final long tileWork;
+
+    private Gemm(int m, int n, int k, float[] a, Storage aStorage, long[] aOffsets, long aRowStride, long aColStride,
+                 float[] b, Storage bStorage, long[] bOffsets, long bRowStride, long bColStride, float[] c,
+                 int[] cOffsets, int cRowStride) {
+        this.m = m;
+        this.n = n;
+        this.k = k;
+        this.a = a;
+        this.aStorage = aStorage;
+        this.aOffsets = aOffsets;
+        this.aRowStride = aRowStride;
+        this.aColStride = aColStride;
+        this.b = b;
+        this.bStorage = bStorage;
+        this.bOffsets = bOffsets;
+        this.bRowStride = bRowStride;
+        this.bColStride = bColStride;
+        this.c = c;
+        this.cOffsets = cOffsets;
+        this.cRowStride = cRowStride;
+        this.columnTiles = (n + COLUMN_BLOCK - 1) / COLUMN_BLOCK;
+        this.tilesPerMatrix = columnTiles * ((m + ROW_BLOCK - 1) / ROW_BLOCK);
+        this.tileWork = (long) Math.min(m, ROW_BLOCK) * Math.min(n, COLUMN_BLOCK) * k;
+    }
+
+    /**
+     * Computes {@code C += A * B} for each matrix in the batch. The matrices at position i in the batch start at
+     * {@code aOffsets[i]}, {@code bOffsets[i]} and {@code cOffsets[i]}. Offsets may be repeated, for example when
+     * the same matrix is broadcast against every matrix in the other batch, but the matrices of C must not overlap.
+     * No error checking is performed, so the caller must ensure the offsets and strides describe matrices of the given
+     * sizes that are within the bounds of their arrays
+     * @param m The number of rows of A and C
+     * @param n The number of columns of B and C
+     * @param k The number of columns of A and rows of B
+     * @param a The array containing A, or null if A is held in storage
+     * @param aStorage The storage containing A, if a is null
+     * @param aOffsets The position in a of the first element of each A
+     * @param aRowStride The distance in a between consecutive rows of A
+     * @param aColStride The distance in a between consecutive columns of A
+     * @param b The array containing B, or null if B is held in storage
+     * @param bStorage The storage containing B, if b is null
+     * @param bOffsets The position in b of the first element of each B
+     * @param bRowStride The distance in b between consecutive rows of B
+     * @param bColStride The distance in b between consecutive columns of B
+     * @param c The array containing C. Columns of C must be consecutive
+     * @param cOffsets The position in c of the first element of each C
+     * @param cRowStride The distance in c between consecutive rows of C
+     */
+    static void multiply(int m, int n, int k, float[] a, Storage aStorage, long[] aOffsets, long aRowStride,
+                         long aColStride, float[] b, Storage bStorage, long[] bOffsets, long bRowStride,
+                         long bColStride, float[] c, int[] cOffsets, int cRowStride) {
+        if(m == 0 || n == 0 || k == 0 || cOffsets.length == 0)
+            return;
+        Gemm gemm = new Gemm(m, n, k, a, aStorage, aOffsets, aRowStride, aColStride, b, bStorage, bOffsets,
+                bRowStride, bColStride, c, cOffsets, cRowStride);
+        Parallel.forRange(gemm.tilesPerMatrix * cOffsets.length, gemm.tileWork, gemm::computeTiles);
+    }
+
+    /**
+     * Computes {@code C += A * B} for each matrix in the batch in double precision, reading and writing the elements
+     * through their storage. This is used for types that do not fit in a float, which are not stored in float arrays,
+     * so the micro kernel cannot be used. Each row of C is accumulated in a double array while the rows of B are read
+     * in order, and the rows of every matrix in the batch are computed in parallel. The arguments are as for
+     * {@code multiply}
+     */
+    static void multiplyExact(int m, int n, int k, Storage a, long[] aOffsets, long aRowStride, long aColStride,
+                              Storage b, long[] bOffsets, long bRowStride, long bColStride,
+                              Storage c, int[] cOffsets, int cRowStride) {
+        if(m == 0 || n == 0 || k == 0 || cOffsets.length == 0)
+            return;
+        Parallel.forRange(cOffsets.length * m, (long) n * k, (from, to) -> {
+            double[] row = new double[n];
+            for(int item = from; item < to; item++) {
+                int batch = item / m, i = item % m;
+                Arrays.fill(row, 0);
+                for(int p = 0; p < k; p++) {
+                    double x = a.getDouble(aOffsets[batch] + i * aRowStride + p * aColStride);
+                    long bPosition = bOffsets[batch] + p * bRowStride;
+                    for(int j = 0; j < n; j++)
+                        row[j] += x * b.getDouble(bPosition + j * bColStride);
+                }
+                int cPosition = cOffsets[batch] + i * cRowStride;
+                for(int j = 0; j < n; j++)
+                    c.setDouble(cPosition + j, c.getDouble(cPosition + j) + row[j]);
+            }
+        });
+    }
+
+    /**
+     * Computes {@code C += A * B} for each matrix in the batch on longs, reading and writing the elements through
+     * their storage, as in {@code multiplyExact}. This is used when both operands have integer types, so INT64
+     * elements beyond 2^53 are multiplied exactly, and overflow wraps around as in Java. The arguments are as for
+     * {@code multiply}
+     */
+    static void multiplyInteger(int m, int n, int k, Storage a, long[] aOffsets, long aRowStride, long aColStride,
+                                Storage b, long[] bOffsets, long bRowStride, long bColStride,
+                                Storage c, int[] cOffsets, int cRowStride) {
+        if(m == 0 || n == 0 || k == 0 || cOffsets.length == 0)
+            return;
+        Parallel.forRange(cOffsets.length * m, (long) n * k, (from, to) -> {
+            long[] row = new long[n];
+            for(int item = from; item < to; item++) {
+                int batch = item / m, i = item % m;
+                Arrays.fill(row, 0);
+                for(int p = 0; p < k; p++) {
+                    long x = a.getLong(aOffsets[batch] + i * aRowStride + p * aColStride);
+                    long bPosition = bOffsets[batch] + p * bRowStride;
+                    for(int j = 0; j < n; j++)
+                        row[j] += x * b.getLong(bPosition + j * bColStride);
+                }
+                int cPosition = cOffsets[batch] + i * cRowStride;
+                for(int j = 0; j < n; j++)
+                    c.setLong(cPosition + j, c.getLong(cPosition + j) + row[j]);
+            }
+        });
+    }
+
+    /**
+     * Computes the tiles in the given range. Tiles are numbered in row major order within each matrix, and the tiles
+     * of each matrix follow those of the previous matrix in the batch
+     * @param from The first tile to compute
+     * @param to One more than the last tile to compute
+     */
+    private void computeTiles(int from, int to) {
+        float[][] buffers = BUFFERS.get();
+        for(int tile = from; tile < to; tile++) {
+            int matrix = tile / tilesPerMatrix, index = tile % tilesPerMatrix;
+            int row = (index / columnTiles) * ROW_BLOCK, col = (index % columnTiles) * COLUMN_BLOCK;
+            computeTile(matrix, row, Math.min(ROW_BLOCK, m - row), col, Math.min(COLUMN_BLOCK, n - col),
+                    buffers[0], buffers[1]);
+        }
+    }
+
+    private void computeTile(int matrix, int row, int rows, int col, int cols, float[] aPacked, float[] bPacked) {
+        Kernels kernels = Kernels.INSTANCE;
+        int width = kernels.gemmPanelWidth();
+        for(int depth = 0; depth < k; depth += DEPTH_BLOCK) {
+            int depths = Math.min(DEPTH_BLOCK, k - depth);
+            packA(aOffsets[matrix], row, rows, depth, depths, aPacked);
+            packB(bOffsets[matrix], depth, depths, col, cols, bPacked, width);
+            // Each panel of B is reused for every panel of A while it is still in the L1 cache
+            for(int j = 0; j < cols; j += width) {
+                for(int i = 0; i < rows; i += PANEL_HEIGHT) {
+                    kernels.gemm(depths, aPacked, i * depths, bPacked, j * depths,
+                            c, cOffsets[matrix] + (row + i) * cRowStride + col + j, cRowStride,
+                            Math.min(PANEL_HEIGHT, rows - i), Math.min(width, cols - j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs a block of A into panels of PANEL_HEIGHT rows. Within a panel, the rows for each step along the depth are
+     * consecutive. Rows beyond the edge of A are filled with zeros
+     */
+    private void packA(long aOffset, int row, int rows, int depth, int depths, float[] packed) {
+        int index = 0;
+        for(int i = 0; i < rows; i += PANEL_HEIGHT) {
+            for(int p = 0; p < depths; p++) {
+                long position = aOffset + (row + i) * aRowStride + (depth + p) * aColStride;
+                for(int r = 0; r < PANEL_HEIGHT; r++, position += aRowStride)
+                    packed[index++] = i + r < rows ? element(a, aStorage, position) : 0;
+            }
+        }
+    }
+
+    /**
+     * Packs a block of B into panels of the given width. Within a panel, the columns for each step along the depth are
+     * consecutive. Columns beyond the edge of B are filled with zeros
+     */
+    private void packB(long bOffset, int depth, int depths, int col, int cols, float[] packed, int width) {
+        int index = 0;
+        for(int j = 0; j < cols; j += width) {
+            for(int p = 0; p < depths; p++) {
+                long position = bOffset + (depth + p) * bRowStride + (col + j) * bColStride;
+                for(int q = 0; q < width; q++, position += bColStride)
+                    packed[index++] = j + q < cols ? element(b, bStorage, position) : 0;
+            }
+        }
+    }
+
+    /** Returns the element at the given position of the array, or of the storage if the array is null */
+    private static float element(float[] array, Storage storage, long position) {
+        return array != null ? array[(int) position] : storage.get(position);
+    }
+
+    private static int roundUp(int value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+}
@@ -0,0 +1,151 @@
+package javaml.tensor;
+
+/**
+ * Elementwise kernels operating directly on the float arrays backing contiguous Tensors. Every kernel processes
+ * {@code length} consecutive elements, reading from each input array starting at its offset, and writing to the
+ * result array starting at its offset. The result array may be the same as an input array, provided the offsets are
+ * equal. No error checking is performed, so it is the responsibility of the caller to ensure all ranges are in bounds.
+ * <br><br>
+ * Two implementations exist. {@code VectorKernels} uses the {@code jdk.incubator.vector} module to process many
+ * elements per instruction, and is used whenever that module is present in the boot layer (i.e. the JVM was started
+ * with {@code --add-modules jdk.incubator.vector}). Otherwise, {@code ScalarKernels} is used. Both implementations
+ * produce identical results for the elementwise kernels. The matrix multiplication kernel may differ by rounding, as
+ * the vector implementation uses fused multiply adds, and so may the sums, as the vector implementation adds the
+ * elements in a different order
+ * @since 0.1.2
+ */
+interface Kernels {
+
+    /** The kernels used by all Tensor operations */
+    Kernels INSTANCE = select();
+
+    /** The angle of a full turn, used by the Box-Muller transform */
+    float TWO_PI = (float) (2 * Math.PI);
+
+    private static Kernels select() {
+        if(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try { return new VectorKernels(); }
+            catch(LinkageError ignored) { /* Fall back to scalar kernels */ }
+        }
+        return new ScalarKernels();
+    }
+
+    /** A kernel taking a single array as input */
+    @FunctionalInterface
+    interface Unary {
+        void apply(float[] a, int aOffset, float[] result, int resultOffset, int length);
+    }
+
+    /** A kernel taking two arrays as input */
+    @FunctionalInterface
+    interface Binary {
+        void apply(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+    }
+
+    /** {@code result = a + b} */
+    void add(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = a - b} */
+    void sub(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = a * b} */
+    void mul(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = a / b} */
+    void div(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = Math.min(a, b)} */
+    void min(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = Math.max(a, b)} */
+    void max(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = Math.fma(a, b, c)}, which computes {@code a * b + c} with a single rounding */
+    void fma(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+             float[] result, int resultOffset, int length);
+
+    /** {@code result = Math.abs(a)} */
+    void abs(float[] a, int aOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = -a} */
+    void neg(float[] a, int aOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = a == b ? 1 : 0} */
+    void eq(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = a < b ? 1 : 0} */
+    void lt(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = a <= b ? 1 : 0} */
+    void le(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = a > b ? 1 : 0} */
+    void gt(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** {@code result = a >= b ? 1 : 0} */
+    void ge(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length);
+
+    /** Replaces NaN, positive infinity and negative infinity in a with the given values */
+    void nanToNum(float[] a, int aOffset, float[] result, int resultOffset, int length,
+                  float nan, float posInf, float negInf);
+
+    /**
+     * Returns the sum of the elements of a. The order of the additions is not specified, so the two implementations
+     * may differ by rounding. Returns 0 if length is 0
+     */
+    float sum(float[] a, int aOffset, int length);
+
+    /**
+     * Returns the sum of the squared differences between the elements of a and the given mean. As with {@code sum},
+     * the two implementations may differ by rounding. Returns 0 if length is 0
+     */
+    float sumSquaredDeviations(float[] a, int aOffset, int length, float mean);
+
+    /**
+     * Returns the sum of the products of the 8 bit integers in a and b. The sum is accumulated in an int, and each
+     * product may be as large as 2^14, so length must be less than 2^17 to prevent it from overflowing. Both
+     * implementations give identical results
+     */
+    int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length);
+
+    /** Returns the largest element of a, or NaN if any element is NaN. Returns negative infinity if length is 0 */
+    float max(float[] a, int aOffset, int length);
+
+    /** Returns the smallest element of a, or NaN if any element is NaN. Returns positive infinity if length is 0 */
+    float min(float[] a, int aOffset, int length);
+
+    /**
+     * Converts pairs of uniform values into pairs of independent standard normal values with the Box-Muller transform.
+     * For each pair, z0 is set to {@code r cos(2 pi u2)} and z1 to {@code r sin(2 pi u2)}, where
+     * {@code r = sqrt(-2 log u1)}. Each u1 must be in (0, 1], so its logarithm is finite, and each u2 must be in
+     * [0, 1). All four arrays are read or written starting at the same offset. Both implementations give identical
+     * results, which do not depend on whether the code has been compiled, so random Tensors are reproducible
+     */
+    void boxMuller(float[] u1, float[] u2, float[] z0, float[] z1, int offset, int length);
+
+    /**
+     * The number of columns of the result computed by each call to {@code gemm}. This is the width of the panels that
+     * the right hand matrix is packed into
+     */
+    int gemmPanelWidth();
+
+    /**
+     * Adds the product of a panel of the left hand matrix and a panel of the right hand matrix to a tile of c. The
+     * left panel holds {@code Gemm.PANEL_HEIGHT} rows, packed so the rows for each step of the depth are consecutive.
+     * The right panel holds {@code gemmPanelWidth()} columns, packed so the columns for each step of the depth are
+     * consecutive. Only the first rows and cols of the tile are written to c, which allows for partial tiles at the
+     * edges of the result, provided the panels were padded with zeros
+     * @param depth The length of the panels along the shared dimension
+     * @param a The packed left hand panel
+     * @param aOffset The start of the left hand panel in a
+     * @param b The packed right hand panel
+     * @param bOffset The start of the right hand panel in b
+     * @param c The row major result matrix
+     * @param cOffset The position in c of the top left element of the tile
+     * @param cRowStride The distance in c between consecutive rows
+     * @param rows The number of rows of the tile to write
+     * @param cols The number of columns of the tile to write
+     */
+    void gemm(int depth, float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset, int cRowStride,
+              int rows, int cols);
+}
@@ -0,0 +1,123 @@
+package javaml.tensor;
+
+import javaml.ExecutionContext;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Splits loops over a range of items across the threads of the current {@link ExecutionContext}. The range is divided
+ * into consecutive subranges, each performing at least the grain size of the context worth of work, which are run in
+ * the pool of the context. There are at most {@code TASKS_PER_THREAD} subranges for each thread, which leaves enough
+ * subranges for the pool to balance uneven work between threads without adding much scheduling overhead. If the range
+ * would not be split into at least two subranges, or the context is sequential, the loop runs on the calling thread.
+ * <br><br>
+ * Each subrange runs with the context that split it as the current context, so operations performed inside the loop
+ * use the same pool, even though they run on a different thread
+ * @since 0.1.2
+ */
+final class Parallel {
+
+    /** The largest number of subranges created for each thread of the context */
+    private static final int TASKS_PER_THREAD = 4;
+
+    /** Performs the work for a range of items */
+    @FunctionalInterface
+    interface RangeAction {
+        void run(int from, int to);
+    }
+
+    /** Tests whether a condition holds for every item in a range */
+    @FunctionalInterface
+    interface RangePredicate {
+        boolean test(int from, int to);
+    }
+
+    private Parallel() {}
+
+    /**
+     * Runs the action over the items from 0 to count, splitting them into subranges that are run in parallel
+     * @param count The number of items
+     * @param workPerItem The amount of work required by each item, in the units of the grain size
+     * @param action The action to perform for each subrange
+     */
+    static void forRange(int count, long workPerItem, RangeAction action) {
+        forRange(count, workPerItem, 1, action);
+    }
+
+    /**
+     * Runs the action over the items from 0 to count, splitting them into subranges that are run in parallel, and
+     * that each contain at least minRange items
+     * @param count The number of items
+     * @param workPerItem The amount of work required by each item, in the units of the grain size
+     * @param minRange The fewest items in each subrange
+     * @param action The action to perform for each subrange
+     */
+    static void forRange(int count, long workPerItem, int minRange, RangeAction action) {
+        ExecutionContext context = ExecutionContext.current();
+        int range = rangeLength(context, count, workPerItem, minRange);
+        if(range >= count)
+            action.run(0, count);
+        else
+            context.pool().invoke(new RangeTask(context, action, 0, count, range));
+    }
+
+    /**
+     * Returns whether the predicate holds for every subrange of the items from 0 to count. The subranges are tested
+     * in parallel, and once the predicate fails for one subrange, the subranges that have not yet started are skipped
+     * @param count The number of items
+     * @param workPerItem The amount of work required by each item, in the units of the grain size
+     * @param predicate The predicate to test for each subrange
+     * @return True if the predicate holds for every subrange
+     */
+    static boolean allMatch(int count, long workPerItem, RangePredicate predicate) {
+        AtomicBoolean failed = new AtomicBoolean();
+        forRange(count, workPerItem, (from, to) -> {
+            if(!failed.get() && !predicate.test(from, to))
+                failed.set(true);
+        });
+        return !failed.get();
+    }
+
+    /**
+     * Returns the number of items in each subrange, which is the count itself if the items should not be split. The
+     * last subrange may be shorter
+     */
+    private static int rangeLength(ExecutionContext context, int count, long workPerItem, int minRange) {
+        if(context.parallelism() == 1 || count < 2)
+            return count;
+        long work = Math.max(workPerItem, 1);
+        long range = Math.max((context.grainSize() + work - 1) / work, minRange);
+        long tasks = (long) context.parallelism() * TASKS_PER_THREAD;
+        range = Math.max(range, (count + tasks - 1) / tasks);
+        return range > count / 2 ? count : (int) range;
+    }
+
+    /** Runs a range of items, splitting it in half on a subrange boundary until it is a single subrange */
+    private static class RangeTask extends RecursiveAction {
+
+        private final ExecutionContext context;
+        private final RangeAction action;
+        private final int from, to, range;
+
+        private RangeTask(ExecutionContext context, RangeAction action, int from, int to, int range) {
+            this.context = context;
+            this.action = action;
+            this.from = from;
+            this.to = to;
+            this.range = range;
+        }
+
+        @Override
+        protected void compute() {
+            int ranges = (int) (((long) to - from + range - 1) / range);
+            if(ranges == 1) {
+                context.run(() -> action.run(from, to));
+                return;
+            }
+            int middle = from + ranges / 2 * range;
+            invokeAll(new RangeTask(context, action, from, middle, range),
+                    new RangeTask(context, action, middle, to, range));
+        }
+    }
+}
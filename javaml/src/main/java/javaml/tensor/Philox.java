@@ -0,0 +1,288 @@
+package javaml.tensor;
+
+/**
+ * The Philox4x32-10 counter based random number generator, from Salmon et al, "Parallel Random Numbers: As Easy as 1,
+ * 2, 3". Rather than advancing a shared state, each block of four random 32-bit words is computed directly from its
+ * position in the stream and a 64-bit key, by ten rounds of multiplication and xor. Any range of the stream can
+ * therefore be generated independently of the rest, so a Tensor is filled in parallel ranges, and its values are the
+ * same regardless of how it is split.
+ * <br><br>
+ * Each random Tensor uses a new key drawn from {@code JavaML.random}, and element i of the Tensor is computed from
+ * position i of the stream for that key, so setting the seed of {@code JavaML.random} makes every Tensor reproducible
+ * @since 0.1.2
+ */
+final class Philox {
+
+    private static final int M0 = 0xD2511F53, M1 = 0xCD9E8D57;
+    /** The constants added to the key after each round, from the fractional parts of the golden ratio and root 3 */
+    private static final int W0 = 0x9E3779B9, W1 = 0xBB67AE85;
+    private static final int ROUNDS = 10;
+    /** Converts the top 24 bits of a random word into a float in [0, 1), with every value exactly representable */
+    private static final float UNIT = 0x1.0p-24f;
+    /** The number of pairs of normal values computed together by the Box-Muller kernel */
+    private static final int BATCH = 256;
+    /**
+     * The smallest probability of the interval of a truncated normal distribution for which values are drawn by
+     * rejection. Narrower intervals, and intervals in the tails, are sampled by inverting the distribution function
+     */
+    private static final double MIN_ACCEPTANCE = 0.25;
+    /**
+     * The number of streams used to redraw rejected values. Values still outside the interval after this many draws
+     * are sampled by inverting the distribution function, so sampling always finishes
+     */
+    private static final int MAX_STREAMS = 16;
+    /** log(sqrt(2 pi)) */
+    private static final double LOG_SQRT_2_PI = 0.91893853320467274178;
+
+    private Philox() {}
+
+    /**
+     * Computes the block of four random words at the given position in the stream. Each key has many independent
+     * streams, which are used when values need to be redrawn
+     * @param key The key of the stream
+     * @param stream The number of the stream for the key
+     * @param block The position of the block in the stream
+     * @param words The array to write the four words into
+     */
+    static void block(long key, int stream, long block, int[] words) {
+        int c0 = (int) block, c1 = (int) (block >>> 32), c2 = stream, c3 = 0;
+        int k0 = (int) key, k1 = (int) (key >>> 32);
+        for(int round = 0; round < ROUNDS; round++) {
+            long p0 = (M0 & 0xFFFFFFFFL) * (c0 & 0xFFFFFFFFL), p1 = (M1 & 0xFFFFFFFFL) * (c2 & 0xFFFFFFFFL);
+            c0 = (int) (p1 >>> 32) ^ c1 ^ k0;
+            c1 = (int) p1;
+            c2 = (int) (p0 >>> 32) ^ c3 ^ k1;
+            c3 = (int) p0;
+            k0 += W0;
+            k1 += W1;
+        }
+        words[0] = c0;
+        words[1] = c1;
+        words[2] = c2;
+        words[3] = c3;
+    }
+
+    /**
+     * Fills part of an array with values drawn from a uniform distribution in the interval [0, 1). The values are
+     * positions start to start + length of the stream with the given key
+     * @param key The key of the stream
+     * @param out The array to fill
+     * @param offset The position in out of the first value
+     * @param start The position in the stream of the first value
+     * @param length The number of values
+     */
+    static void uniform(long key, float[] out, int offset, long start, int length) {
+        int[] words = new int[4];
+        for(long position = start, end = start + length; position < end; ) {
+            block(key, 0, position >>> 2, words);
+            for(int word = (int) (position & 3); word < 4 && position < end; word++, position++)
+                out[offset + (int) (position - start)] = (words[word] >>> 8) * UNIT;
+        }
+    }
+
+    /**
+     * Fills part of an array with values drawn from a normal distribution with the given mean and standard deviation.
+     * The values are positions start to start + length of the given stream. Each consecutive pair of words in the
+     * stream is converted into a pair of normal values by the Box-Muller transform
+     * @param key The key of the stream
+     * @param stream The number of the stream for the key
+     * @param mean The mean of the distribution
+     * @param std The standard deviation of the distribution
+     * @param out The array to fill
+     * @param offset The position in out of the first value
+     * @param start The position in the stream of the first value
+     * @param length The number of values
+     */
+    static void normal(long key, int stream, float mean, float std, float[] out, int offset, long start, int length) {
+        int[] words = new int[4];
+        float[] u1 = new float[BATCH], u2 = new float[BATCH], z0 = new float[BATCH], z1 = new float[BATCH];
+        long end = start + length;
+        for(long batch = start - start % (2 * BATCH); batch < end; batch += 2 * BATCH) {
+            // Each block of four words gives two pairs
+            for(int pair = 0; pair < BATCH; pair += 2) {
+                block(key, stream, (batch >>> 2) + pair / 2, words);
+                // u1 is in (0, 1], so its logarithm is finite
+                u1[pair] = ((words[0] >>> 8) + 1) * UNIT;
+                u2[pair] = (words[1] >>> 8) * UNIT;
+                u1[pair + 1] = ((words[2] >>> 8) + 1) * UNIT;
+                u2[pair + 1] = (words[3] >>> 8) * UNIT;
+            }
+            Kernels.INSTANCE.boxMuller(u1, u2, z0, z1, 0, BATCH);
+            for(long position = Math.max(start, batch); position < Math.min(end, batch + 2 * BATCH); position++) {
+                int index = (int) (position - batch);
+                float z = (index & 1) == 0 ? z0[index >>> 1] : z1[index >>> 1];
+                out[offset + (int) (position - start)] = mean + std * z;
+            }
+        }
+    }
+
+    /**
+     * Fills part of an array with values drawn from a normal distribution with the given mean and standard deviation,
+     * truncated to the interval [low, high]. If the interval holds at least {@code MIN_ACCEPTANCE} of the distribution,
+     * the values are first taken from stream 0, and each value outside the interval is replaced with the value at the
+     * same position in the next stream. Values still outside the interval after {@code MAX_STREAMS} streams, and every
+     * value of an interval holding less of the distribution, are drawn by inverting the distribution function
+     * restricted to the interval, which takes the same time however far the interval is from the mean
+     * @param key The key of the stream
+     * @param mean The mean of the distribution before truncation
+     * @param std The standard deviation of the distribution before truncation
+     * @param low The lower bound of the interval
+     * @param high The upper bound of the interval
+     * @param out The array to fill
+     * @param offset The position in out of the first value
+     * @param start The position in the stream of the first value
+     * @param length The number of values
+     */
+    static void truncatedNormal(long key, float mean, float std, float low, float high, float[] out, int offset,
+                                long start, int length) {
+        Interval interval = new Interval(mean, std, low, high);
+        if(interval.probability() < MIN_ACCEPTANCE) {
+            interval.sample(key, MAX_STREAMS, out, offset, start, length);
+            return;
+        }
+        float[] candidates = new float[2 * BATCH];
+        // Values are redrawn one batch at a time, so only the batches containing rejected values are computed again
+        for(int from = 0; from < length; ) {
+            int to = (int) Math.min(length, from + 2 * BATCH - (start + from) % (2 * BATCH));
+            normal(key, 0, mean, std, out, offset + from, start + from, to - from);
+            for(int stream = 1; ; stream++) {
+                int first = from, last = to - 1;
+                while(first <= last && inside(out[offset + first], low, high))
+                    first++;
+                while(last > first && inside(out[offset + last], low, high))
+                    last--;
+                if(first > last)
+                    break;
+                if(stream == MAX_STREAMS) {
+                    for(int i = first; i <= last; i++)
+                        if(!inside(out[offset + i], low, high))
+                            interval.sample(key, MAX_STREAMS, out, offset + i, start + i, 1);
+                    break;
+                }
+                normal(key, stream, mean, std, candidates, 0, start + first, last - first + 1);
+                for(int i = first; i <= last; i++)
+                    if(!inside(out[offset + i], low, high))
+                        out[offset + i] = candidates[i - first];
+            }
+            from = to;
+        }
+    }
+
+    /**
+     * An interval of a normal distribution, which samples the distribution truncated to the interval by inverting its
+     * distribution function. The interval is standardised to [alpha, beta], and reflected about the mean if most of it
+     * is above the mean, so the probabilities used are as small as possible, and keep their precision far into the
+     * tail. Probabilities are handled as logarithms, so intervals beyond the range of a double are sampled accurately
+     */
+    private static final class Interval {
+
+        private final float mean, std, low, high;
+        private final boolean reflected;
+        private final double alpha, beta, logBeta, ratio;
+
+        Interval(float mean, float std, float low, float high) {
+            this.mean = mean;
+            this.std = std;
+            this.low = low;
+            this.high = high;
+            double alpha = ((double) low - mean) / std, beta = ((double) high - mean) / std;
+            reflected = alpha + beta > 0;
+            this.alpha = reflected ? -beta : alpha;
+            this.beta = reflected ? -alpha : beta;
+            logBeta = logCdf(this.beta);
+            // The probability below alpha as a fraction of the probability below beta
+            ratio = Math.exp(logCdf(this.alpha) - logBeta);
+        }
+
+        /** Returns the probability that a value of the distribution lies in the interval */
+        double probability() {
+            return Math.exp(logBeta) * (1 - ratio);
+        }
+
+        /**
+         * Fills part of an array with values of the truncated distribution. The values are computed from positions
+         * start to start + length of the given stream, so are independent of the values drawn by rejection
+         */
+        void sample(long key, int stream, float[] out, int offset, long start, int length) {
+            int[] words = new int[4];
+            for(long position = start, end = start + length; position < end; ) {
+                block(key, stream, position >>> 2, words);
+                for(int word = (int) (position & 3); word < 4 && position < end; word++, position++) {
+                    // The uniform value is in (0, 1), so the logarithm of the probability is finite
+                    double u = ((words[word] >>> 8) + 0.5) * UNIT;
+                    double z = inverseLogCdf(logBeta + Math.log(ratio + u * (1 - ratio)), alpha, beta);
+                    float value = (float) (mean + std * (reflected ? -z : z));
+                    // Rounding to a float may move a value just outside the interval
+                    out[offset + (int) (position - start)] = Math.max(low, Math.min(high, value));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the logarithm of the standard normal distribution function at x. Near the mean, the distribution
+     * function is computed by its Taylor series, following Marsaglia, "Evaluating the Normal Distribution". In the
+     * tails, it is computed from the density and a continued fraction for Mills' ratio, which keeps its relative
+     * precision however far x is from the mean
+     */
+    static double logCdf(double x) {
+        if(x == Double.NEGATIVE_INFINITY)
+            return x;
+        if(x < -3) {
+            double t = -x, fraction = t;
+            // Laplace's continued fraction, evaluated from the innermost term, which converges quickly for |x| > 3
+            for(int n = 60; n > 0; n--)
+                fraction = t + n / fraction;
+            return -0.5 * x * x - LOG_SQRT_2_PI - Math.log(fraction);
+        }
+        if(x > 3)
+            return Math.log1p(-Math.exp(logCdf(-x)));
+        double term = x, sum = x, previous = 0, square = x * x;
+        for(int i = 1; sum != previous; ) {
+            previous = sum;
+            term *= square / (i += 2);
+            sum += term;
+        }
+        return Math.log(0.5 + sum * Math.exp(-0.5 * square - LOG_SQRT_2_PI));
+    }
+
+    /**
+     * Returns the value of the standard normal distribution whose distribution function has the given logarithm,
+     * which must be in [alpha, beta]. The approximation 26.2.23 of Abramowitz and Stegun is refined by Newton's method,
+     * falling back to bisection if a step leaves the interval known to contain the value
+     */
+    static double inverseLogCdf(double logP, double alpha, double beta) {
+        boolean lower = logP < -Math.log(2);
+        double t = Math.sqrt(-2 * (lower ? logP : Math.log(-Math.expm1(logP))));
+        double z = t - (2.515517 + t * (0.802853 + t * 0.010328)) /
+                (1 + t * (1.432788 + t * (0.189269 + t * 0.001308)));
+        z = Math.max(alpha, Math.min(beta, lower ? -z : z));
+        for(int iteration = 0; iteration < 100; iteration++) {
+            double logCdf = logCdf(z), error = logCdf - logP;
+            if(error == 0)
+                break;
+            if(error < 0)
+                alpha = z;
+            else
+                beta = z;
+            // The derivative of log(cdf(z)) is the density divided by the distribution function
+            double next = z - error / Math.exp(-0.5 * z * z - LOG_SQRT_2_PI - logCdf);
+            if(!(next > alpha && next < beta)) {
+                if(Double.isInfinite(alpha))
+                    next = beta - (1 + Math.abs(beta));
+                else if(Double.isInfinite(beta))
+                    next = alpha + (1 + Math.abs(alpha));
+                else
+                    next = 0.5 * (alpha + beta);
+            }
+            if(Math.abs(next - z) <= 1e-12 * (1 + Math.abs(z)))
+                return next;
+            z = next;
+        }
+        return z;
+    }
+
+    private static boolean inside(float x, float low, float high) {
+        return x >= low && x <= high;
+    }
+}
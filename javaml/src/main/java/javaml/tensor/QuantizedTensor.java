@@ -0,0 +1,267 @@
+package javaml.tensor;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A Tensor whose elements are stored as 8 bit integers, which uses a quarter of the memory of a FLOAT32 Tensor. Each
+ * integer {@code q} represents the real value {@code scale * (q - zeroPoint)}. A quantized Tensor either has a single
+ * scale and zero point, or has its own scale and zero point for each channel along one axis, which represents Tensors
+ * whose channels have very different ranges, such as the rows of a weight matrix, more accurately.
+ * <br><br>
+ * Quantized Tensors are created with {@link Tensor#quantize()} and its overloads, and are converted back with
+ * {@link #dequantize()}. They are immutable. Matrix products of quantized Tensors are computed from the integers
+ * directly, accumulating the products in 32 bit integers, so they are exact until the result is scaled
+ * @since 0.1.2
+ */
+public final class QuantizedTensor {
+
+    /** The smallest and largest values of the integers */
+    private static final int MIN = Byte.MIN_VALUE, MAX = Byte.MAX_VALUE;
+    /**
+     * The longest dot product accumulated in a single int. The magnitude of each product is at most 2^14, so a sum of
+     * this many products is at most 2^30 in magnitude, and cannot overflow
+     */
+    private static final int MAX_DEPTH = 1 << 16;
+    /** The number of columns of the result computed for each row before moving on to the next row */
+    private static final int COLUMN_BLOCK = 64;
+
+    private final byte[] data;
+    private final int[] shape;
+    /** The axis the scales and zero points are given for, or -1 if there is a single scale and zero point */
+    private final int axis;
+    private final float[] scales;
+    private final int[] zeroPoints;
+    /** The number of consecutive elements that belong to the same channel */
+    private final int inner;
+
+    private QuantizedTensor(byte[] data, int[] shape, int axis, float[] scales, int[] zeroPoints) {
+        this.data = data;
+        this.shape = shape;
+        this.axis = axis;
+        this.scales = scales;
+        this.zeroPoints = zeroPoints;
+        this.inner = inner(shape, axis);
+    }
+
+    /**
+     * Quantizes the given elements with the given scales and zero points
+     * @param values The elements, in row-major order
+     * @param shape The shape of the Tensor
+     * @param axis The axis of the channels, which must be valid, or -1 for a single scale and zero point
+     * @param scales The scale of each channel
+     * @param zeroPoints The zero point of each channel
+     * @return The quantized Tensor
+     * @throws IllegalArgumentException If there is not one scale and zero point for each channel, a scale is not
+     * positive and finite, or a zero point is not in the range of a byte
+     */
+    static @NotNull QuantizedTensor quantize(float @NotNull [] values, int @NotNull [] shape, int axis,
+                                             float @NotNull [] scales, int @NotNull [] zeroPoints) {
+        int channels = axis < 0 ? 1 : shape[axis];
+        if(scales.length != channels || zeroPoints.length != channels)
+            throw new IllegalArgumentException(String.format("Expected %d scales and zero points, but got %d scales " +
+                    "and %d zero points", channels, scales.length, zeroPoints.length));
+        for(int channel = 0; channel < channels; channel++) {
+            if(!(scales[channel] > 0) || Float.isInfinite(scales[channel]))
+                throw new IllegalArgumentException(String.format("Scales must be positive and finite, but got %s",
+                        scales[channel]));
+            if(zeroPoints[channel] < MIN || zeroPoints[channel] > MAX)
+                throw new IllegalArgumentException(String.format("Zero points must be between %d and %d, but got %d",
+                        MIN, MAX, zeroPoints[channel]));
+        }
+        QuantizedTensor result = new QuantizedTensor(new byte[values.length], shape, axis, scales.clone(),
+                zeroPoints.clone());
+        Parallel.forRange(values.length, 1, (from, to) -> {
+            for(int i = from; i < to; i++) {
+                int channel = result.channel(i);
+                float scale = result.scales[channel];
+                int zeroPoint = result.zeroPoints[channel];
+                // NaN is quantized to zero, and values outside the range are clamped
+                double q = Float.isNaN(values[i]) ? zeroPoint : Math.rint(values[i] / scale) + zeroPoint;
+                result.data[i] = (byte) Math.max(MIN, Math.min(MAX, q));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Quantizes the given elements, choosing the scale and zero point of each channel so that the integers cover the
+     * range of the channel. The range is extended to include zero, so zero is represented exactly, and elements that
+     * are NaN or infinite are ignored when finding the range
+     * @param values The elements, in row-major order
+     * @param shape The shape of the Tensor
+     * @param axis The axis of the channels, which must be valid, or -1 for a single scale and zero point
+     * @return The quantized Tensor
+     */
+    static @NotNull QuantizedTensor quantize(float @NotNull [] values, int @NotNull [] shape, int axis) {
+        int channels = axis < 0 ? 1 : shape[axis];
+        int inner = inner(shape, axis);
+        float[] min = new float[channels], max = new float[channels];
+        for(int i = 0; i < values.length; i++) {
+            int channel = i / inner % channels;
+            if(Float.isFinite(values[i])) {
+                min[channel] = Math.min(min[channel], values[i]);
+                max[channel] = Math.max(max[channel], values[i]);
+            }
+        }
+        float[] scales = new float[channels];
+        int[] zeroPoints = new int[channels];
+        for(int channel = 0; channel < channels; channel++) {
+            float scale = (float) (((double) max[channel] - min[channel]) / (MAX - MIN));
+            scales[channel] = scale > 0 ? scale : 1;
+            zeroPoints[channel] = (int) Math.max(MIN, Math.min(MAX, Math.rint(MIN - min[channel] / scales[channel])));
+        }
+        return quantize(values, shape, axis, scales, zeroPoints);
+    }
+
+    /** Returns the number of consecutive elements that belong to the same channel */
+    private static int inner(int[] shape, int axis) {
+        int inner = 1;
+        for(int i = axis + 1; i < shape.length; i++)
+            inner *= shape[i];
+        return inner;
+    }
+
+    /** Returns the channel of the element at the given position in data */
+    private int channel(int position) {
+        return axis < 0 ? 0 : position / inner % shape[axis];
+    }
+
+    /**
+     * Converts this Tensor back into a FLOAT32 Tensor. Each element is the real value represented by its integer, so
+     * differs from the element that was quantized by at most half of the scale, unless it was clamped
+     * @return A FLOAT32 Tensor containing the values represented by this Tensor
+     * @since 0.1.2
+     */
+    @Contract("-> new")
+    public @NotNull Tensor dequantize() {
+        float[] values = new float[data.length];
+        Parallel.forRange(data.length, 1, (from, to) -> {
+            for(int i = from; i < to; i++) {
+                int channel = channel(i);
+                values[i] = scales[channel] * (data[i] - zeroPoints[channel]);
+            }
+        });
+        return new Tensor(values, shape.clone());
+    }
+
+    /**
+     * Returns the matrix product of this Tensor and the given Tensor, which must both be two dimensional. The product
+     * is computed from the integers, with the products accumulated in 32 bit integers, and then scaled into a FLOAT32
+     * Tensor. For this to be possible, this Tensor must have a single scale or one for each row, and the given Tensor
+     * must have a single scale or one for each column. Large products are computed in parallel
+     * @param other The right hand side of the product
+     * @return The matrix product, as a FLOAT32 Tensor
+     * @throws IllegalArgumentException If either Tensor is not two dimensional, the shapes are not compatible, or the
+     * scales are given for other axes
+     * @since 0.1.2
+     */
+    @Contract("_ -> new")
+    public @NotNull Tensor matmul(@NotNull QuantizedTensor other) {
+        if(shape.length != 2 || other.shape.length != 2 || shape[1] != other.shape[0])
+            throw new IllegalArgumentException(String.format("Cannot multiply quantized Tensors of shape %s and %s",
+                    Arrays.toString(shape), Arrays.toString(other.shape)));
+        if(axis == 1 || other.axis == 0)
+            throw new IllegalArgumentException("Quantized matrix products require the left hand side to be " +
+                    "quantized by row and the right hand side to be quantized by column");
+        int m = shape[0], k = shape[1], n = other.shape[1];
+        // The columns of the right hand side are transposed into rows, so every dot product reads consecutive bytes
+        byte[] columns = new byte[n * k];
+        for(int p = 0; p < k; p++)
+            for(int j = 0; j < n; j++)
+                columns[j * k + p] = other.data[p * n + j];
+        // The zero points are subtracted after the products are summed, using the sums of each row and column
+        long[] rowSums = rowSums(data, m, k), columnSums = rowSums(columns, n, k);
+        float[] result = new float[m * n];
+        Kernels kernels = Kernels.INSTANCE;
+        Parallel.forRange(m, (long) n * k, (from, to) -> {
+            // The block of columns is reused for every row while it is still in cache
+            for(int col = 0; col < n; col += COLUMN_BLOCK) {
+                for(int i = from; i < to; i++) {
+                    float aScale = scales[axis < 0 ? 0 : i];
+                    long aZero = zeroPoints[axis < 0 ? 0 : i];
+                    for(int j = col; j < Math.min(n, col + COLUMN_BLOCK); j++) {
+                        long dot = 0;
+                        for(int p = 0; p < k; p += MAX_DEPTH)
+                            dot += kernels.dot(data, i * k + p, columns, j * k + p, Math.min(MAX_DEPTH, k - p));
+                        float bScale = other.scales[other.axis < 0 ? 0 : j];
+                        long bZero = other.zeroPoints[other.axis < 0 ? 0 : j];
+                        long exact = dot - bZero * rowSums[i] - aZero * columnSums[j] + k * aZero * bZero;
+                        result[i * n + j] = (float) ((double) aScale * bScale * exact);
+                    }
+                }
+            }
+        });
+        return new Tensor(result, new int[] {m, n});
+    }
+
+    private static long[] rowSums(byte[] matrix, int rows, int cols) {
+        long[] sums = new long[rows];
+        for(int i = 0; i < rows; i++)
+            for(int j = 0; j < cols; j++)
+                sums[i] += matrix[i * cols + j];
+        return sums;
+    }
+
+    /**
+     * Returns an INT32 Tensor containing the shape of this Tensor
+     * @return INT32 Tensor containing the shape of this Tensor
+     * @since 0.1.2
+     */
+    public @NotNull Tensor shape() {
+        return Tensor.from(shape, DType.INT32);
+    }
+
+    /**
+     * Returns the number of elements in this Tensor
+     * @return The number of elements in this Tensor
+     * @since 0.1.2
+     */
+    public long size() {
+        return data.length;
+    }
+
+    /**
+     * Returns the axis that this Tensor has a scale and zero point for each channel of
+     * @return The axis of the channels, or -1 if this Tensor has a single scale and zero point
+     * @since 0.1.2
+     */
+    public int axis() {
+        return axis;
+    }
+
+    /**
+     * Returns the scales of this Tensor, which contains a single element unless this Tensor is quantized per channel
+     * @return A FLOAT32 Tensor containing the scale of each channel
+     * @since 0.1.2
+     */
+    public @NotNull Tensor scales() {
+        return Tensor.from(scales);
+    }
+
+    /**
+     * Returns the zero points of this Tensor, which contains a single element unless this Tensor is quantized per
+     * channel
+     * @return An INT32 Tensor containing the zero point of each channel
+     * @since 0.1.2
+     */
+    public @NotNull Tensor zeroPoints() {
+        return Tensor.from(zeroPoints, DType.INT32);
+    }
+
+    /**
+     * Returns the integers stored in this Tensor, without applying the scales and zero points
+     * @return An INT8 Tensor containing the integers
+     * @since 0.1.2
+     */
+    public @NotNull Tensor intRepr() {
+        return new Tensor(new Storage.Int8(data.clone()), shape.clone());
+    }
+
+    @Override
+    public String toString() {
+        return dequantize().toString();
+    }
+}
@@ -0,0 +1,500 @@
+package javaml.tensor;
+
+import java.util.Arrays;
+
+/**
+ * Reduction of a strided Tensor along some of its axes. The input is described by the shape and strides of the axes
+ * that are kept, and of the axes that are reduced. The result holds one value for each element of the kept axes, in
+ * row major order. Arg reductions write their indices into an int array, so they are exact for any axis. Offsets and
+ * strides are longs, so inputs with more elements than an array, such as large broadcast views, can be reduced, as
+ * long as the result fits in an array.
+ * <br><br>
+ * Two loop orders are used, depending on the layout of the input. If the reduced axes are innermost in memory, each
+ * result is computed separately by reducing a row of the input, so the inner loop runs over consecutive elements and
+ * can use the horizontal reductions in {@code Kernels}. Sums of consecutive elements are computed pairwise by
+ * {@code Summation}. Otherwise, if the kept axes are innermost, the result is accumulated one slice of the reduced
+ * axes at a time, using the elementwise kernels to combine each slice with the result. Either way, the results are
+ * split into ranges that are computed in parallel by {@code Parallel}. When accumulating slices, each range holds at
+ * least {@code SLICE_GRAIN} results, so the kernels run over long enough runs.
+ * <br><br>
+ * Inputs that are not stored in a float array, such as off-heap Tensors, are read from their {@code Storage} instead.
+ * If their type fits in a float, runs of consecutive elements are read into a buffer of {@code BUFFER} elements, which
+ * each parallel range allocates once, and are reduced by the same kernels, so the input is never copied whole. Inputs
+ * whose type does not fit in a float, such as FLOAT64 and INT64, are reduced element by element in double precision,
+ * or on longs for integer types, writing the result into storage of the same type
+ * @since 0.1.2
+ */
+final class Reduction {
+
+    /** The reductions that can be performed. The arg reductions give the flattened index within the reduced axes */
+    enum Operation { SUM, MAX, MIN, ARGMAX, ARGMIN }
+
+    /**
+     * The fewest results in each parallel range when accumulating slices. Each slice is combined with the results of
+     * a range in runs, so short ranges would make the runs too short for the kernels to be efficient
+     */
+    private static final int SLICE_GRAIN = 1024;
+    /** The number of consecutive elements of storage that are read into a buffer at once */
+    private static final int BUFFER = 4096;
+
+    private final Operation operation;
+    private final float[] data;
+    /** The input of a reduction when it is not stored in a float array, which is used instead of data */
+    private final Storage storage;
+    /** Whether the input is reduced in double precision, as its type does not fit in a float */
+    private final boolean exact;
+    private final long offset;
+    private final int[] keptShape, reducedShape;
+    private final long[] keptStrides, reducedStrides;
+    private final long reducedSize;
+    private final float[] result;
+    /** The result of a reduction in double precision, which is used instead of result */
+    private final Storage exactResult;
+    /** The result of an arg reduction, which is used instead of result */
+    private final int[] argIndices;
+    private final boolean rowOrder;
+    /** The fewest results in each parallel range */
+    private final int grain;
+
+    /** The shape and strides of a set of axes */
+    private record Axes(int[] shape, long[] strides) {}
+
+    private Reduction(Operation operation, float[] data, Storage storage, long offset, Axes kept, Axes reduced,
+                      float[] result, Storage exactResult, int[] indices) {
+        this.operation = operation;
+        this.data = data;
+        this.storage = storage;
+        this.exact = storage != null && !storage.dtype().fitsInFloat();
+        this.offset = offset;
+        this.keptShape = kept.shape;
+        this.keptStrides = kept.strides;
+        this.reducedShape = reduced.shape;
+        this.reducedStrides = reduced.strides;
+        this.reducedSize = Arrays.stream(reducedShape).asLongStream().reduce(1, (x, y) -> x * y);
+        this.result = result;
+        this.exactResult = exactResult;
+        this.argIndices = indices;
+        // Rows are reduced directly unless the kept axes are laid out more tightly than the reduced axes
+        long keptInner = keptStrides.length == 0 ? Long.MAX_VALUE : Math.abs(keptStrides[keptStrides.length - 1]);
+        this.rowOrder = reducedStrides.length == 0 || Math.abs(reducedStrides[reducedStrides.length - 1]) == 1 ||
+                keptInner != 1;
+        this.grain = rowOrder || exact ? 1 : SLICE_GRAIN;
+    }
+
+    /**
+     * Reduces the given input along the reduced axes, writing the result for each element of the kept axes into the
+     * result array. The reduced axes must not be empty unless the operation is {@code SUM}. No error checking is
+     * performed, so the caller must ensure the shapes and strides describe elements within the bounds of data
+     * @param operation The reduction to perform, which must not be an arg reduction
+     * @param data The array containing the input
+     * @param offset The position in data of the first element of the input
+     * @param keptShape The shape of the axes that are kept
+     * @param keptStrides The strides of the axes that are kept
+     * @param reducedShape The shape of the axes that are reduced
+     * @param reducedStrides The strides of the axes that are reduced
+     * @param result The array to write the result into, with one element for each element of the kept axes
+     */
+    static void reduce(Operation operation, float[] data, long offset, int[] keptShape, long[] keptStrides,
+                       int[] reducedShape, long[] reducedStrides, float[] result) {
+        run(new Reduction(operation, data, null, offset, coalesce(keptShape, keptStrides),
+                coalesce(reducedShape, reducedStrides), result, null, null), result.length);
+    }
+
+    /**
+     * Reduces the given input in float32, as {@code reduce} does for float arrays, reading it from storage whose type
+     * fits in a float
+     * @param operation The reduction to perform, which must not be an arg reduction
+     * @param data The storage containing the input
+     * @param offset The position in data of the first element of the input
+     * @param keptShape The shape of the axes that are kept
+     * @param keptStrides The strides of the axes that are kept
+     * @param reducedShape The shape of the axes that are reduced
+     * @param reducedStrides The strides of the axes that are reduced
+     * @param result The array to write the result into, with one element for each element of the kept axes
+     */
+    static void reduce(Operation operation, Storage data, long offset, int[] keptShape, long[] keptStrides,
+                       int[] reducedShape, long[] reducedStrides, float[] result) {
+        run(new Reduction(operation, null, data, offset, coalesce(keptShape, keptStrides),
+                coalesce(reducedShape, reducedStrides), result, null, null), result.length);
+    }
+
+    /**
+     * Reduces the given input in double precision, as {@code reduce} does for float arrays
+     * @param operation The reduction to perform, which must not be an arg reduction
+     * @param data The storage containing the input
+     * @param offset The position in data of the first element of the input
+     * @param keptShape The shape of the axes that are kept
+     * @param keptStrides The strides of the axes that are kept
+     * @param reducedShape The shape of the axes that are reduced
+     * @param reducedStrides The strides of the axes that are reduced
+     * @param result The storage to write the result into, with one element for each element of the kept axes
+     * @param count The number of elements of the kept axes
+     */
+    static void reduce(Operation operation, Storage data, long offset, int[] keptShape, long[] keptStrides,
+                       int[] reducedShape, long[] reducedStrides, Storage result, int count) {
+        run(new Reduction(operation, null, data, offset, coalesce(keptShape, keptStrides),
+                coalesce(reducedShape, reducedStrides), null, result, null), count);
+    }
+
+    /**
+     * Finds the flattened index within the reduced axes of the maximum or minimum of the given input, for each element
+     * of the kept axes. The reduced axes must not be empty. As with {@code reduce}, no error checking is performed
+     * @param operation The arg reduction to perform
+     * @param data The array containing the input
+     * @param offset The position in data of the first element of the input
+     * @param keptShape The shape of the axes that are kept
+     * @param keptStrides The strides of the axes that are kept
+     * @param reducedShape The shape of the axes that are reduced
+     * @param reducedStrides The strides of the axes that are reduced
+     * @param indices The array to write the indices into, with one element for each element of the kept axes
+     */
+    static void reduceIndices(Operation operation, float[] data, long offset, int[] keptShape, long[] keptStrides,
+                              int[] reducedShape, long[] reducedStrides, int[] indices) {
+        run(new Reduction(operation, data, null, offset, coalesce(keptShape, keptStrides),
+                coalesce(reducedShape, reducedStrides), null, null, indices), indices.length);
+    }
+
+    /**
+     * Finds the indices of an arg reduction of the given storage, as {@code reduceIndices} does for float arrays. The
+     * elements are compared in double precision if their type does not fit in a float
+     * @param operation The arg reduction to perform
+     * @param data The storage containing the input
+     * @param offset The position in data of the first element of the input
+     * @param keptShape The shape of the axes that are kept
+     * @param keptStrides The strides of the axes that are kept
+     * @param reducedShape The shape of the axes that are reduced
+     * @param reducedStrides The strides of the axes that are reduced
+     * @param indices The array to write the indices into, with one element for each element of the kept axes
+     */
+    static void reduceIndices(Operation operation, Storage data, long offset, int[] keptShape, long[] keptStrides,
+                              int[] reducedShape, long[] reducedStrides, int[] indices) {
+        run(new Reduction(operation, null, data, offset, coalesce(keptShape, keptStrides),
+                coalesce(reducedShape, reducedStrides), null, null, indices), indices.length);
+    }
+
+    /** Computes the given number of results of the reduction, in parallel ranges */
+    private static void run(Reduction reduction, int results) {
+        if(results > 0)
+            Parallel.forRange(results, reduction.reducedSize, reduction.grain, reduction::compute);
+    }
+
+    /**
+     * Removes axes of size one, and merges each pair of adjacent axes that can be traversed with a single stride. This
+     * does not change the order in which the elements are visited, so flattened indices are unaffected. Axes are not
+     * merged if the merged axis would be longer than an int
+     * @return The shape and strides of the merged axes
+     */
+    private static Axes coalesce(int[] shape, long[] strides) {
+        int[] newShape = new int[shape.length];
+        long[] newStrides = new long[shape.length];
+        int axes = 0;
+        for(int i = 0; i < shape.length; i++) {
+            if(shape[i] == 1)
+                continue;
+            if(axes > 0 && newStrides[axes - 1] == strides[i] * shape[i] &&
+                    (long) newShape[axes - 1] * shape[i] <= Integer.MAX_VALUE) {
+                newShape[axes - 1] *= shape[i];
+                newStrides[axes - 1] = strides[i];
+            } else {
+                newShape[axes] = shape[i];
+                newStrides[axes++] = strides[i];
+            }
+        }
+        return new Axes(Arrays.copyOf(newShape, axes), Arrays.copyOf(newStrides, axes));
+    }
+
+    /** Computes the results in the given range */
+    private void compute(int from, int to) {
+        if(exact)
+            computeExact(from, to);
+        else if(rowOrder)
+            computeRows(from, to);
+        else
+            computeSlices(from, to);
+    }
+
+    /** Computes each result in the range by reducing its row of the input */
+    private void computeRows(int from, int to) {
+        int[] indices = unflatten(from, keptShape);
+        long position = offset;
+        for(int axis = 0; axis < keptShape.length; axis++)
+            position += indices[axis] * keptStrides[axis];
+        float[] buffer = data == null ? new float[BUFFER] : null;
+        for(int i = from; i < to; i++) {
+            double value = reduceRow(position, buffer);
+            if(argIndices != null)
+                argIndices[i] = (int) value;
+            else
+                result[i] = (float) value;
+            position = advance(indices, keptShape, keptStrides, keptShape.length - 1, position);
+        }
+    }
+
+    /**
+     * Computes each result in the range in double precision, by reducing its row of the input one element at a time.
+     * Sums are accumulated in double, so only the final result is rounded to the type of the result. Integers are
+     * summed and compared as longs instead, so reductions of INT64 values beyond 2^53 are exact
+     */
+    private void computeExact(int from, int to) {
+        int[] indices = unflatten(from, keptShape), reducedIndices = new int[reducedShape.length];
+        boolean integral = !storage.dtype().isFloatingPoint();
+        boolean greater = operation == Operation.MAX || operation == Operation.ARGMAX;
+        long position = offset;
+        for(int axis = 0; axis < keptShape.length; axis++)
+            position += indices[axis] * keptStrides[axis];
+        for(int i = from; i < to; i++) {
+            Arrays.fill(reducedIndices, 0);
+            double sum = 0, best = reducedSize == 0 ? 0 : storage.getDouble(position);
+            long sumLong = 0, bestLong = reducedSize == 0 ? 0 : storage.getLong(position);
+            int index = 0;
+            long element = position;
+            for(long j = 0; j < reducedSize; j++) {
+                if(integral) {
+                    long value = storage.getLong(element);
+                    if(operation == Operation.SUM)
+                        sumLong += value;
+                    else if(greater ? value > bestLong : value < bestLong) {
+                        bestLong = value;
+                        index = (int) j;
+                    }
+                    element = advance(reducedIndices, reducedShape, reducedStrides, reducedShape.length - 1, element);
+                    continue;
+                }
+                double x = storage.getDouble(element);
+                if(operation == Operation.SUM)
+                    sum += x;
+                else if(operation == Operation.MAX)
+                    best = Math.max(best, x);
+                else if(operation == Operation.MIN)
+                    best = Math.min(best, x);
+                else if(isBetter(x, best)) {
+                    best = x;
+                    index = (int) j;
+                }
+                // NaN is always the arg extreme, so the first NaN ends the search
+                if(argIndices != null && Double.isNaN(best))
+                    break;
+                element = advance(reducedIndices, reducedShape, reducedStrides, reducedShape.length - 1, element);
+            }
+            if(argIndices != null)
+                argIndices[i] = index;
+            else if(integral)
+                exactResult.setLong(i, operation == Operation.SUM ? sumLong : bestLong);
+            else
+                exactResult.setDouble(i, operation == Operation.SUM ? sum : best);
+            position = advance(indices, keptShape, keptStrides, keptShape.length - 1, position);
+        }
+    }
+
+    /**
+     * Reduces the row of the reduced axes starting at the given position. The innermost reduced axis is processed in
+     * segments, and the results of the segments are combined. Consecutive elements of storage are read into the
+     * buffer, one piece of each segment at a time. The result is returned as a double, which holds the index of an arg
+     * reduction exactly
+     */
+    private double reduceRow(long position, float[] buffer) {
+        Kernels kernels = Kernels.INSTANCE;
+        int last = reducedShape.length - 1;
+        int length = last < 0 ? 1 : reducedShape[last];
+        long stride = last < 0 ? 1 : reducedStrides[last];
+        boolean buffered = data == null && stride == 1;
+        int piece = buffered ? BUFFER : length;
+        int[] indices = new int[Math.max(last, 0)];
+        float value = Float.NaN;
+        // Segments are summed separately, so their sums are accumulated in double precision to limit rounding error
+        double sum = 0;
+        long index = 0;
+        for(long start = 0; start < reducedSize; start += length) {
+            if(operation == Operation.SUM) {
+                sum += stride != 1 ? sum(position, stride, length) : buffered ?
+                        Summation.sum(storage, position, length) : Summation.sum(data, (int) position, length);
+                position = advance(indices, reducedShape, reducedStrides, last - 1, position);
+                continue;
+            }
+            for(int done = 0; done < length; done += piece) {
+                int pieceLength = Math.min(piece, length - done);
+                long piecePosition = position + done * stride;
+                // Every position in a float array fits in an int
+                float[] array = buffered ? buffer : data;
+                int arrayPosition = buffered ? 0 : (int) piecePosition;
+                if(buffered)
+                    storage.read(piecePosition, buffer, 0, pieceLength);
+                boolean first = start == 0 && done == 0;
+                if(operation == Operation.MAX || operation == Operation.MIN) {
+                    float extreme = stride != 1 ? extreme(piecePosition, stride, pieceLength) :
+                            operation == Operation.MAX ? kernels.max(array, arrayPosition, pieceLength) :
+                            kernels.min(array, arrayPosition, pieceLength);
+                    value = first ? extreme : (operation == Operation.MAX ? Math.max(value, extreme)
+                            : Math.min(value, extreme));
+                    continue;
+                }
+                int pieceIndex = stride != 1 ? argExtreme(piecePosition, stride, pieceLength)
+                        : argExtreme(array, arrayPosition, pieceLength);
+                float candidate = stride != 1 ? element(piecePosition + pieceIndex * stride)
+                        : array[arrayPosition + pieceIndex];
+                if(first || isBetter(candidate, value)) {
+                    value = candidate;
+                    index = start + done + pieceIndex;
+                }
+                // NaN is always the arg extreme, so the first NaN ends the search
+                if(Float.isNaN(value))
+                    return index;
+            }
+            position = advance(indices, reducedShape, reducedStrides, last - 1, position);
+        }
+        if(operation == Operation.SUM)
+            return sum;
+        return operation == Operation.ARGMAX || operation == Operation.ARGMIN ? index : value;
+    }
+
+    /** Returns the element at the given position of the input, which is not reduced in double precision */
+    private float element(long position) {
+        return data != null ? data[(int) position] : storage.get(position);
+    }
+
+    private float sum(long position, long stride, int length) {
+        float sum = 0;
+        for(int i = 0; i < length; i++)
+            sum += element(position + i * stride);
+        return sum;
+    }
+
+    private float extreme(long position, long stride, int length) {
+        float extreme = element(position);
+        for(int i = 1; i < length; i++) {
+            float x = element(position + i * stride);
+            extreme = operation == Operation.MAX ? Math.max(extreme, x) : Math.min(extreme, x);
+        }
+        return extreme;
+    }
+
+    /**
+     * Returns the index of the first maximum or minimum of the consecutive elements of an array, or of the first NaN if
+     * there is one. The extreme value is found by a kernel, and then the first element equal to it is found
+     */
+    private int argExtreme(float[] array, int start, int length) {
+        float extreme = operation == Operation.ARGMAX ? Kernels.INSTANCE.max(array, start, length)
+                : Kernels.INSTANCE.min(array, start, length);
+        boolean nan = Float.isNaN(extreme);
+        int i = 0;
+        while(nan ? !Float.isNaN(array[start + i]) : array[start + i] != extreme)
+            i++;
+        return i;
+    }
+
+    /** Returns the index of the first maximum or minimum element of a strided segment, or of the first NaN */
+    private int argExtreme(long position, long stride, int length) {
+        int index = 0;
+        float best = element(position);
+        for(int i = 1; i < length && !Float.isNaN(best); i++) {
+            float x = element(position + i * stride);
+            if(isBetter(x, best)) {
+                best = x;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /** Returns whether the candidate should replace the current best value of an arg reduction */
+    private boolean isBetter(double candidate, double best) {
+        if(Double.isNaN(best))
+            return false;
+        return Double.isNaN(candidate) || (operation == Operation.ARGMAX ? candidate > best : candidate < best);
+    }
+
+    /**
+     * Computes the results in the range by combining one slice of the reduced axes at a time with the results. Within
+     * each slice, the results are processed in runs along the innermost kept axis, which is consecutive in memory.
+     * Runs in storage are read into a buffer, one piece at a time
+     */
+    private void computeSlices(int from, int to) {
+        boolean arg = operation == Operation.ARGMAX || operation == Operation.ARGMIN;
+        float[] best = arg ? new float[to - from] : null;
+        float[] buffer = data == null ? new float[BUFFER] : null;
+        int last = keptShape.length - 1;
+        int[] reducedIndices = new int[reducedShape.length];
+        long slicePosition = offset;
+        for(long slice = 0; slice < reducedSize; slice++) {
+            int[] indices = unflatten(from, keptShape);
+            long position = slicePosition;
+            for(int axis = 0; axis < keptShape.length; axis++)
+                position += indices[axis] * keptStrides[axis];
+            for(int i = from; i < to; ) {
+                int length = Math.min(to - i, keptShape[last] - indices[last]);
+                // Runs are consecutive in the float array, so their positions fit in an int
+                if(data != null)
+                    combine(data, (int) position, i, length, slice, best, from);
+                else
+                    for(int done = 0; done < length; done += BUFFER) {
+                        int pieceLength = Math.min(BUFFER, length - done);
+                        storage.read(position + done, buffer, 0, pieceLength);
+                        combine(buffer, 0, i + done, pieceLength, slice, best, from);
+                    }
+                // Move to the start of the next run, which is the start of the next row of the kept axes
+                i += length;
+                position -= indices[last];
+                indices[last] = 0;
+                position = advance(indices, keptShape, keptStrides, last - 1, position);
+            }
+            slicePosition = advance(reducedIndices, reducedShape, reducedStrides, reducedShape.length - 1,
+                    slicePosition);
+        }
+    }
+
+    /**
+     * Combines a run of consecutive elements of a slice with the results starting at the given index
+     * @param source The array containing the run
+     * @param run The position in source of the first element of the run
+     * @param i The index of the first result the run is combined with
+     * @param length The number of elements in the run
+     * @param slice The flattened index of the slice within the reduced axes
+     * @param best The best value found so far for each result in the range, for arg reductions
+     * @param from The first result in the range
+     */
+    private void combine(float[] source, int run, int i, int length, long slice, float[] best, int from) {
+        Kernels kernels = Kernels.INSTANCE;
+        boolean arg = operation == Operation.ARGMAX || operation == Operation.ARGMIN;
+        if(slice == 0 && !arg)
+            System.arraycopy(source, run, result, i, length);
+        else if(operation == Operation.SUM)
+            kernels.add(result, i, source, run, result, i, length);
+        else if(operation == Operation.MAX)
+            kernels.max(result, i, source, run, result, i, length);
+        else if(operation == Operation.MIN)
+            kernels.min(result, i, source, run, result, i, length);
+        else
+            for(int j = 0; j < length; j++) {
+                if(slice == 0 || isBetter(source[run + j], best[i - from + j])) {
+                    best[i - from + j] = source[run + j];
+                    // Arg reductions are along a single axis, so the index of each slice fits in an int
+                    argIndices[i + j] = (int) slice;
+                }
+            }
+    }
+
+    /**
+     * Advances the indices to the next element in row major order, considering only the axes up to and including the
+     * given axis, and returns the position updated to match
+     */
+    private static long advance(int[] indices, int[] shape, long[] strides, int axis, long position) {
+        for(; axis >= 0; axis--) {
+            position += strides[axis];
+            if(++indices[axis] < shape[axis])
+                break;
+            position -= strides[axis] * shape[axis];
+            indices[axis] = 0;
+        }
+        return position;
+    }
+
+    /** Converts a flattened index into the equivalent indices for the given shape */
+    private static int[] unflatten(int index, int[] shape) {
+        int[] indices = new int[shape.length];
+        for(int axis = shape.length - 1; axis >= 0; axis--) {
+            indices[axis] = index % shape[axis];
+            index /= shape[axis];
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,248 @@
+package javaml.tensor;
+
+/**
+ * Implementation of {@code Kernels} using plain loops. This is used when the {@code jdk.incubator.vector} module is
+ * not available
+ * @since 0.1.2
+ */
+final class ScalarKernels implements Kernels {
+
+    /** The mantissa of the logarithm's argument is reduced below this bound, so the polynomial is accurate */
+    static final float SQRT_2 = 1.41421356f;
+    // Coefficients of the polynomials approximating log(1 + x), sin(x) and cos(x), from the Cephes library
+    static final float[] LOG_P = {7.0376836292E-2f, -1.1514610310E-1f, 1.1676998740E-1f, -1.2420140846E-1f,
+            1.4249322787E-1f, -1.6668057665E-1f, 2.0000714765E-1f, -2.4999993993E-1f, 3.3333331174E-1f};
+    /** ln(2) split into two parts, so the exponent can be multiplied by it without rounding error */
+    static final float LN_2_HIGH = 0.693359375f, LN_2_LOW = -2.12194440E-4f;
+    static final float[] SIN_P = {-1.9515295891E-4f, 8.3321608736E-3f, -1.6666654611E-1f};
+    static final float[] COS_P = {2.443315711809948E-5f, -1.388731625493765E-3f, 4.166664568298827E-2f};
+
+    @Override
+    public void add(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] + b[bOffset + i];
+    }
+
+    @Override
+    public void sub(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] - b[bOffset + i];
+    }
+
+    @Override
+    public void mul(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] * b[bOffset + i];
+    }
+
+    @Override
+    public void div(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] / b[bOffset + i];
+    }
+
+    @Override
+    public void min(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = Math.min(a[aOffset + i], b[bOffset + i]);
+    }
+
+    @Override
+    public void max(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = Math.max(a[aOffset + i], b[bOffset + i]);
+    }
+
+    @Override
+    public void fma(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                    float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = Math.fma(a[aOffset + i], b[bOffset + i], c[cOffset + i]);
+    }
+
+    @Override
+    public void abs(float[] a, int aOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = Math.abs(a[aOffset + i]);
+    }
+
+    @Override
+    public void neg(float[] a, int aOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = -a[aOffset + i];
+    }
+
+    @Override
+    public void eq(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] == b[bOffset + i] ? 1 : 0;
+    }
+
+    @Override
+    public void lt(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] < b[bOffset + i] ? 1 : 0;
+    }
+
+    @Override
+    public void le(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] <= b[bOffset + i] ? 1 : 0;
+    }
+
+    @Override
+    public void gt(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] > b[bOffset + i] ? 1 : 0;
+    }
+
+    @Override
+    public void ge(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        for(int i = 0; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] >= b[bOffset + i] ? 1 : 0;
+    }
+
+    @Override
+    public void nanToNum(float[] a, int aOffset, float[] result, int resultOffset, int length,
+                         float nan, float posInf, float negInf) {
+        for(int i = 0; i < length; i++) {
+            float x = a[aOffset + i];
+            result[resultOffset + i] = Float.isNaN(x) ? nan :
+                    (x == Float.POSITIVE_INFINITY ? posInf : (x == Float.NEGATIVE_INFINITY ? negInf : x));
+        }
+    }
+
+    @Override
+    public float sum(float[] a, int aOffset, int length) {
+        // Four independent partial sums, which shortens the chain of additions each element is rounded by
+        float sum0 = 0, sum1 = 0, sum2 = 0, sum3 = 0;
+        int i = 0;
+        for(; i + 4 <= length; i += 4) {
+            sum0 += a[aOffset + i];
+            sum1 += a[aOffset + i + 1];
+            sum2 += a[aOffset + i + 2];
+            sum3 += a[aOffset + i + 3];
+        }
+        for(; i < length; i++)
+            sum0 += a[aOffset + i];
+        return (sum0 + sum1) + (sum2 + sum3);
+    }
+
+    @Override
+    public float sumSquaredDeviations(float[] a, int aOffset, int length, float mean) {
+        float sum = 0;
+        for(int i = 0; i < length; i++) {
+            float deviation = a[aOffset + i] - mean;
+            sum += deviation * deviation;
+        }
+        return sum;
+    }
+
+    @Override
+    public float max(float[] a, int aOffset, int length) {
+        float max = Float.NEGATIVE_INFINITY;
+        for(int i = 0; i < length; i++)
+            max = Math.max(max, a[aOffset + i]);
+        return max;
+    }
+
+    @Override
+    public float min(float[] a, int aOffset, int length) {
+        float min = Float.POSITIVE_INFINITY;
+        for(int i = 0; i < length; i++)
+            min = Math.min(min, a[aOffset + i]);
+        return min;
+    }
+
+    @Override
+    public void boxMuller(float[] u1, float[] u2, float[] z0, float[] z1, int offset, int length) {
+        boxMullerRange(u1, u2, z0, z1, offset, offset + length);
+    }
+
+    /**
+     * Computes the Box-Muller transform of the pairs from index from to index to. The logarithm, sine and cosine are
+     * computed with the polynomials of the Cephes library, using only exactly rounded operations, in the same order as
+     * {@code VectorKernels}. This gives the same result in both implementations, regardless of how the code is compiled
+     */
+    static void boxMullerRange(float[] u1, float[] u2, float[] z0, float[] z1, int from, int to) {
+        for(int i = from; i < to; i++) {
+            // Split u1 into a mantissa in [sqrt(1/2), sqrt(2)) and an exponent
+            int bits = Float.floatToRawIntBits(u1[i]);
+            int exponent = (bits >>> 23) - 127;
+            float mantissa = Float.intBitsToFloat(bits & 0x007FFFFF | 0x3F800000);
+            if(mantissa > SQRT_2) {
+                mantissa *= 0.5f;
+                exponent++;
+            }
+            float x = mantissa - 1, xx = x * x, e = exponent;
+            float p = Math.fma(LOG_P[0], x, LOG_P[1]);
+            for(int j = 2; j < LOG_P.length; j++)
+                p = Math.fma(p, x, LOG_P[j]);
+            float log = Math.fma(e, LN_2_LOW, x * xx * p);
+            log = Math.fma(e, LN_2_HIGH, x + Math.fma(-0.5f, xx, log));
+            float radius = (float) Math.sqrt(-2 * log);
+
+            // Reduce the angle 2 pi u2 to r in [-pi/4, pi/4], plus a number of quarter turns
+            int quarter = (int) (u2[i] * 4 + 0.5f);
+            float r = (u2[i] - quarter * 0.25f) * TWO_PI, rr = r * r;
+            float sin = Math.fma(Math.fma(Math.fma(SIN_P[0], rr, SIN_P[1]), rr, SIN_P[2]) * rr, r, r);
+            float cos = Math.fma(Math.fma(Math.fma(COS_P[0], rr, COS_P[1]), rr, COS_P[2]) * rr, rr,
+                    Math.fma(-0.5f, rr, 1));
+            // Rotate by the quarter turns
+            float cosine = (quarter & 1) == 0 ? cos : sin, sine = (quarter & 1) == 0 ? sin : cos;
+            z0[i] = radius * (((quarter + 1) & 2) == 0 ? cosine : -cosine);
+            z1[i] = radius * ((quarter & 2) == 0 ? sine : -sine);
+        }
+    }
+
+    @Override
+    public int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        int sum = 0;
+        for(int i = 0; i < length; i++)
+            sum += a[aOffset + i] * b[bOffset + i];
+        return sum;
+    }
+
+    @Override
+    public int gemmPanelWidth() {
+        return 4;
+    }
+
+    @Override
+    public void gemm(int depth, float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                     int cRowStride, int rows, int cols) {
+        // The 4x4 tile is held in local variables, so the JIT can keep it in registers
+        float c00 = 0, c01 = 0, c02 = 0, c03 = 0, c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        float c20 = 0, c21 = 0, c22 = 0, c23 = 0, c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+        for(int p = 0; p < depth; p++) {
+            int ai = aOffset + p * Gemm.PANEL_HEIGHT, bi = bOffset + p * 4;
+            float b0 = b[bi], b1 = b[bi + 1], b2 = b[bi + 2], b3 = b[bi + 3];
+            float a0 = a[ai];
+            c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+            float a1 = a[ai + 1];
+            c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+            float a2 = a[ai + 2];
+            c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+            float a3 = a[ai + 3];
+            c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+        }
+        addRow(c, cOffset, cols, c00, c01, c02, c03);
+        if(rows > 1)
+            addRow(c, cOffset + cRowStride, cols, c10, c11, c12, c13);
+        if(rows > 2)
+            addRow(c, cOffset + 2 * cRowStride, cols, c20, c21, c22, c23);
+        if(rows > 3)
+            addRow(c, cOffset + 3 * cRowStride, cols, c30, c31, c32, c33);
+    }
+
+    /** Adds the first cols of the four values to the row of c starting at the given position */
+    private static void addRow(float[] c, int position, int cols, float v0, float v1, float v2, float v3) {
+        c[position] += v0;
+        if(cols > 1)
+            c[position + 1] += v1;
+        if(cols > 2)
+            c[position + 2] += v2;
+        if(cols > 3)
+            c[position + 3] += v3;
+    }
+}
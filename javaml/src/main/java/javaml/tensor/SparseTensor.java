@@ -0,0 +1,470 @@
+package javaml.tensor;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A two dimensional Tensor that only stores its non-zero elements, in compressed sparse row (CSR) format. The
+ * elements of each row are stored consecutively, sorted by column, so the memory used, and the time taken by every
+ * operation, is proportional to the number of stored elements rather than the size of the matrix.
+ * <br><br>
+ * Sparse Tensors are built from lists of coordinates with {@link #fromCoordinates}, or from dense Tensors with
+ * {@link Tensor#toSparse(float)}, and are converted back with {@link #toDense()}. The transpose of a sparse Tensor
+ * is computed by {@link #t()}, which gives the compressed sparse column (CSC) form of the original, and is used to
+ * operate on columns efficiently. Sparse Tensors are immutable
+ * @since 0.1.2
+ */
+public final class SparseTensor {
+
+    private final int rows, columns;
+    /** The position in columnIndices and values of the first element of each row, followed by the number of elements */
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final float[] values;
+
+    private SparseTensor(int rows, int columns, int[] rowPointers, int[] columnIndices, float[] values) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    /**
+     * Creates a sparse Tensor from the coordinates and values of its elements, which is known as the coordinate (COO)
+     * format. The elements may be given in any order, and elements with the same coordinates are added together. All
+     * other elements are zero. For example
+     * <pre>{@code
+     * SparseTensor.fromCoordinates(new int[] {0, 2, 0}, new int[] {1, 0, 1}, new float[] {1, 2, 3}, 3, 2)
+     * }</pre>
+     * creates the matrix {@code [[0, 4], [0, 0], [2, 0]]}
+     * @param rowIndices The row of each element
+     * @param columnIndices The column of each element
+     * @param values The value of each element
+     * @param rows The number of rows of the Tensor
+     * @param columns The number of columns of the Tensor
+     * @return A sparse Tensor containing the given elements
+     * @throws IllegalArgumentException If the arrays have different lengths, the shape is negative, or any of the
+     * coordinates are outside the shape
+     * @since 0.1.2
+     */
+    @Contract("_, _, _, _, _ -> new")
+    public static @NotNull SparseTensor fromCoordinates(int @NotNull [] rowIndices, int @NotNull [] columnIndices,
+                                                        float @NotNull [] values, int rows, int columns) {
+        int count = values.length;
+        if(rowIndices.length != count || columnIndices.length != count)
+            throw new IllegalArgumentException(String.format("Expected the same number of row indices, column " +
+                    "indices and values, but got %d, %d and %d", rowIndices.length, columnIndices.length, count));
+        if(rows < 0 || columns < 0)
+            throw new IllegalArgumentException(String.format("Sparse Tensors cannot have negative dimensions, " +
+                    "but got shape [%d, %d]", rows, columns));
+        for(int i = 0; i < count; i++)
+            if(rowIndices[i] < 0 || rowIndices[i] >= rows || columnIndices[i] < 0 || columnIndices[i] >= columns)
+                throw new IllegalArgumentException(String.format("Coordinates (%d, %d) are out of bounds for " +
+                        "shape [%d, %d]", rowIndices[i], columnIndices[i], rows, columns));
+
+        // Counting sorts by column and then by row, which is stable, so each row is sorted by column
+        int[] byColumn = countingSort(columnIndices, columns, identity(count));
+        int[] order = countingSort(rowIndices, rows, byColumn);
+        int[] rowPointers = new int[rows + 1];
+        int[] sortedColumns = new int[count];
+        float[] sortedValues = new float[count];
+        int stored = 0;
+        for(int i = 0; i < count; i++) {
+            int element = order[i], row = rowIndices[element], column = columnIndices[element];
+            // Duplicates are consecutive once sorted
+            if(stored > 0 && rowPointers[row + 1] > 0 && sortedColumns[stored - 1] == column) {
+                sortedValues[stored - 1] += values[element];
+                continue;
+            }
+            sortedColumns[stored] = column;
+            sortedValues[stored++] = values[element];
+            rowPointers[row + 1]++;
+        }
+        for(int row = 0; row < rows; row++)
+            rowPointers[row + 1] += rowPointers[row];
+        return new SparseTensor(rows, columns, rowPointers, Arrays.copyOf(sortedColumns, stored),
+                Arrays.copyOf(sortedValues, stored));
+    }
+
+    private static int[] identity(int count) {
+        int[] identity = new int[count];
+        for(int i = 0; i < count; i++)
+            identity[i] = i;
+        return identity;
+    }
+
+    /**
+     * Stably sorts the given elements by their key
+     * @param keys The key of every element, which must be between 0 and buckets
+     * @param buckets One more than the largest key
+     * @param elements The elements to sort
+     * @return The sorted elements
+     */
+    private static int[] countingSort(int[] keys, int buckets, int[] elements) {
+        int[] starts = new int[buckets + 1];
+        for(int element : elements)
+            starts[keys[element] + 1]++;
+        for(int i = 0; i < buckets; i++)
+            starts[i + 1] += starts[i];
+        int[] sorted = new int[elements.length];
+        for(int element : elements)
+            sorted[starts[keys[element]]++] = element;
+        return sorted;
+    }
+
+    /**
+     * Creates a sparse Tensor from the elements of the given dense array whose magnitude is greater than the
+     * threshold
+     * @param dense The elements of the matrix, in row-major order
+     * @param rows The number of rows
+     * @param columns The number of columns
+     * @param threshold The largest magnitude of the elements that are dropped
+     * @return A sparse Tensor containing the elements larger than the threshold
+     */
+    static @NotNull SparseTensor fromDense(float @NotNull [] dense, int rows, int columns, float threshold) {
+        int[] rowPointers = new int[rows + 1];
+        for(int row = 0; row < rows; row++) {
+            int count = 0;
+            for(int column = 0; column < columns; column++)
+                if(!(Math.abs(dense[row * columns + column]) <= threshold))
+                    count++;
+            rowPointers[row + 1] = rowPointers[row] + count;
+        }
+        int[] columnIndices = new int[rowPointers[rows]];
+        float[] values = new float[rowPointers[rows]];
+        Parallel.forRange(rows, columns, (from, to) -> {
+            for(int row = from; row < to; row++) {
+                int position = rowPointers[row];
+                for(int column = 0; column < columns; column++) {
+                    float value = dense[row * columns + column];
+                    if(!(Math.abs(value) <= threshold)) {
+                        columnIndices[position] = column;
+                        values[position++] = value;
+                    }
+                }
+            }
+        });
+        return new SparseTensor(rows, columns, rowPointers, columnIndices, values);
+    }
+
+    /**
+     * Converts this Tensor into a dense FLOAT32 Tensor
+     * @return A dense Tensor containing the same elements as this Tensor
+     * @throws UnsupportedOperationException If the Tensor has too many elements to store in an array
+     * @since 0.1.2
+     */
+    @Contract("-> new")
+    public @NotNull Tensor toDense() {
+        if((long) rows * columns > Tensor.MAX_HEAP_SIZE)
+            throw new UnsupportedOperationException(String.format("Sparse Tensor of shape [%d, %d] has too many " +
+                    "elements to convert to a dense Tensor", rows, columns));
+        float[] dense = new float[rows * columns];
+        Parallel.forRange(rows, columns, (from, to) -> {
+            for(int row = from; row < to; row++)
+                for(int i = rowPointers[row]; i < rowPointers[row + 1]; i++)
+                    dense[row * columns + columnIndices[i]] = values[i];
+        });
+        return new Tensor(dense, new int[] {rows, columns});
+    }
+
+    /**
+     * Returns an INT32 Tensor containing the shape of this Tensor
+     * @return INT32 Tensor containing the shape of this Tensor
+     * @since 0.1.2
+     */
+    public @NotNull Tensor shape() {
+        return Tensor.from(new int[] {rows, columns}, DType.INT32);
+    }
+
+    /**
+     * Returns the size of this Tensor along the given axis
+     * <br><br>
+     * Supports negative indexing
+     * @param axis The axis to get the size of
+     * @return The size of this Tensor along the axis
+     * @throws IndexOutOfBoundsException If the axis is out of bounds
+     * @since 0.1.2
+     */
+    public int shape(int axis) {
+        try { return validateAxis(axis) == 0 ? rows : columns; }
+        catch(IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the number of elements stored by this Tensor. Every other element is zero
+     * @return The number of stored elements
+     * @since 0.1.2
+     */
+    public int nonZeros() {
+        return values.length;
+    }
+
+    /**
+     * Returns the element at the given row and column. The stored elements of the row are binary searched, so this
+     * takes time proportional to the logarithm of the number of elements in the row
+     * @param row The row of the element
+     * @param column The column of the element
+     * @return The element at the given position
+     * @throws IndexOutOfBoundsException If the position is outside the Tensor
+     * @since 0.1.2
+     */
+    public float get(int row, int column) {
+        if(row < 0 || row >= rows || column < 0 || column >= columns)
+            throw new IndexOutOfBoundsException(String.format("Index (%d, %d) out of bounds for shape [%d, %d]",
+                    row, column, rows, columns));
+        int position = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+        return position < 0 ? 0 : values[position];
+    }
+
+    /**
+     * Returns the transpose of this Tensor. The result stores the columns of this Tensor consecutively, so it is also
+     * the compressed sparse column (CSC) form of this Tensor
+     * @return The transpose of this Tensor
+     * @since 0.1.2
+     */
+    @Contract("-> new")
+    public @NotNull SparseTensor t() {
+        int[] columnPointers = new int[columns + 1];
+        for(int column : columnIndices)
+            columnPointers[column + 1]++;
+        for(int column = 0; column < columns; column++)
+            columnPointers[column + 1] += columnPointers[column];
+        int[] next = Arrays.copyOf(columnPointers, columns);
+        int[] rowIndices = new int[values.length];
+        float[] transposed = new float[values.length];
+        // Rows are visited in order, so the elements of each column are sorted by row
+        for(int row = 0; row < rows; row++) {
+            for(int i = rowPointers[row]; i < rowPointers[row + 1]; i++) {
+                int position = next[columnIndices[i]]++;
+                rowIndices[position] = row;
+                transposed[position] = values[i];
+            }
+        }
+        return new SparseTensor(columns, rows, columnPointers, rowIndices, transposed);
+    }
+
+    /**
+     * Returns the matrix product of this Tensor and the given dense Tensor. The given Tensor is either a matrix, whose
+     * number of rows is the number of columns of this Tensor, or a vector, which is treated as a column vector and
+     * gives a vector. Each row of the result is the sum of the rows of the dense Tensor selected by the elements of
+     * the corresponding row of this Tensor, so only the stored elements are multiplied. Rows are computed in parallel
+     * @param other The dense right hand side of the product
+     * @return The dense matrix product
+     * @throws IllegalArgumentException If the shapes are not compatible
+     * @since 0.1.2
+     */
+    @Contract("_ -> new")
+    public @NotNull Tensor matmul(@NotNull Tensor other) {
+        int n = other.dims() == 1 ? 1 : other.shape(-1);
+        if(other.dims() > 2 || other.shape(0) != columns)
+            throw new IllegalArgumentException(String.format("Cannot multiply a sparse matrix of shape [%d, %d] by " +
+                    "a Tensor of shape %s", rows, columns, Arrays.toString(other.shape().toIntArray())));
+        float[] b = other.toArray();
+        float[] c = new float[rows * n];
+        long workPerRow = Math.max(1, (long) values.length / Math.max(rows, 1)) * n;
+        Parallel.forRange(rows, workPerRow, (from, to) -> {
+            for(int row = from; row < to; row++) {
+                int cOffset = row * n;
+                for(int i = rowPointers[row]; i < rowPointers[row + 1]; i++) {
+                    float value = values[i];
+                    int bOffset = columnIndices[i] * n;
+                    for(int j = 0; j < n; j++)
+                        c[cOffset + j] += value * b[bOffset + j];
+                }
+            }
+        });
+        return new Tensor(c, other.dims() == 1 ? new int[] {rows} : new int[] {rows, n});
+    }
+
+    /**
+     * Returns the elementwise sum of this Tensor and the given sparse Tensor, which must have the same shape. The
+     * result stores every element that is stored by either Tensor
+     * @param other The Tensor to add
+     * @return The elementwise sum
+     * @throws IllegalArgumentException If the shapes are not equal
+     * @since 0.1.2
+     */
+    @Contract("_ -> new")
+    public @NotNull SparseTensor add(@NotNull SparseTensor other) {
+        try { return union(other, 1); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the elementwise difference of this Tensor and the given sparse Tensor, which must have the same shape.
+     * The result stores every element that is stored by either Tensor
+     * @param other The Tensor to subtract
+     * @return The elementwise difference
+     * @throws IllegalArgumentException If the shapes are not equal
+     * @since 0.1.2
+     */
+    @Contract("_ -> new")
+    public @NotNull SparseTensor sub(@NotNull SparseTensor other) {
+        try { return union(other, -1); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Merges the stored elements of this Tensor and the given Tensor, row by row, adding the elements of the given
+     * Tensor multiplied by the given sign
+     */
+    private SparseTensor union(SparseTensor other, float sign) {
+        checkShape(other);
+        int[] rowPointers = new int[rows + 1];
+        int[] columnIndices = new int[values.length + other.values.length];
+        float[] values = new float[columnIndices.length];
+        int stored = 0;
+        for(int row = 0; row < rows; row++) {
+            int i = this.rowPointers[row], iEnd = this.rowPointers[row + 1];
+            int j = other.rowPointers[row], jEnd = other.rowPointers[row + 1];
+            while(i < iEnd || j < jEnd) {
+                int iColumn = i < iEnd ? this.columnIndices[i] : Integer.MAX_VALUE;
+                int jColumn = j < jEnd ? other.columnIndices[j] : Integer.MAX_VALUE;
+                columnIndices[stored] = Math.min(iColumn, jColumn);
+                values[stored++] = (iColumn <= jColumn ? this.values[i++] : 0)
+                        + (jColumn <= iColumn ? sign * other.values[j++] : 0);
+            }
+            rowPointers[row + 1] = stored;
+        }
+        return new SparseTensor(rows, columns, rowPointers, Arrays.copyOf(columnIndices, stored),
+                Arrays.copyOf(values, stored));
+    }
+
+    /**
+     * Returns the elementwise product of this Tensor and the given sparse Tensor, which must have the same shape. The
+     * result only stores the elements that are stored by both Tensors
+     * @param other The Tensor to multiply by
+     * @return The elementwise product
+     * @throws IllegalArgumentException If the shapes are not equal
+     * @since 0.1.2
+     */
+    @Contract("_ -> new")
+    public @NotNull SparseTensor mul(@NotNull SparseTensor other) {
+        try { checkShape(other); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        int[] rowPointers = new int[rows + 1];
+        int[] columnIndices = new int[Math.min(values.length, other.values.length)];
+        float[] values = new float[columnIndices.length];
+        int stored = 0;
+        for(int row = 0; row < rows; row++) {
+            int i = this.rowPointers[row], iEnd = this.rowPointers[row + 1];
+            int j = other.rowPointers[row], jEnd = other.rowPointers[row + 1];
+            while(i < iEnd && j < jEnd) {
+                if(this.columnIndices[i] < other.columnIndices[j])
+                    i++;
+                else if(this.columnIndices[i] > other.columnIndices[j])
+                    j++;
+                else {
+                    columnIndices[stored] = this.columnIndices[i];
+                    values[stored++] = this.values[i++] * other.values[j++];
+                }
+            }
+            rowPointers[row + 1] = stored;
+        }
+        return new SparseTensor(rows, columns, rowPointers, Arrays.copyOf(columnIndices, stored),
+                Arrays.copyOf(values, stored));
+    }
+
+    /**
+     * Returns the elementwise product of this Tensor and the given dense Tensor, which is broadcast to the shape of
+     * this Tensor. Only the elements of the dense Tensor at the stored positions of this Tensor are read, and the
+     * result stores the same positions as this Tensor
+     * @param other The dense Tensor to multiply by
+     * @return The elementwise product
+     * @throws IllegalArgumentException If the dense Tensor cannot be broadcast to the shape of this Tensor
+     * @since 0.1.2
+     */
+    @Contract("_ -> new")
+    public @NotNull SparseTensor mul(@NotNull Tensor other) {
+        Tensor broadcast;
+        // Views that are not strided are copied, so each element is read directly from its position in storage
+        try { broadcast = (other.strides() == null ? other.contiguous() : other).broadcastTo(rows, columns); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        long[] strides = broadcast.strides();
+        long offset = broadcast.offset();
+        float[] product = new float[values.length];
+        Parallel.forRange(rows, Math.max(1, values.length / Math.max(rows, 1)), (from, to) -> {
+            for(int row = from; row < to; row++) {
+                long rowPosition = offset + row * strides[0];
+                for(int i = rowPointers[row]; i < rowPointers[row + 1]; i++)
+                    product[i] = values[i] * broadcast.getAt(rowPosition + columnIndices[i] * strides[1]);
+            }
+        });
+        return new SparseTensor(rows, columns, rowPointers, columnIndices, product);
+    }
+
+    /**
+     * Returns this Tensor multiplied by the given scalar
+     * @param scalar The value to multiply every element by
+     * @return The product of this Tensor and the scalar
+     * @since 0.1.2
+     */
+    @Contract("_ -> new")
+    public @NotNull SparseTensor mul(float scalar) {
+        float[] product = new float[values.length];
+        for(int i = 0; i < values.length; i++)
+            product[i] = values[i] * scalar;
+        return new SparseTensor(rows, columns, rowPointers, columnIndices, product);
+    }
+
+    /**
+     * Returns the sum of the elements of this Tensor. Only the stored elements are added
+     * @return The sum of the elements
+     * @since 0.1.2
+     */
+    public float sum() {
+        return Summation.sum(values, 0, values.length);
+    }
+
+    /**
+     * Sums this Tensor along the given axis, which gives a dense vector. Summing along axis 0 gives the sum of each
+     * column, and along axis 1 gives the sum of each row. Only the stored elements are added
+     * <br><br>
+     * Supports negative indexing
+     * @param axis The axis to sum along
+     * @return A dense vector containing the sums
+     * @throws IndexOutOfBoundsException If the axis is out of bounds
+     * @since 0.1.2
+     */
+    @Contract("_ -> new")
+    public @NotNull Tensor sum(int axis) {
+        try { axis = validateAxis(axis); }
+        catch(IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        if(axis == 0) {
+            float[] sums = new float[columns];
+            for(int i = 0; i < values.length; i++)
+                sums[columnIndices[i]] += values[i];
+            return new Tensor(sums, new int[] {columns});
+        }
+        float[] sums = new float[rows];
+        for(int row = 0; row < rows; row++)
+            sums[row] = Summation.sum(values, rowPointers[row], rowPointers[row + 1] - rowPointers[row]);
+        return new Tensor(sums, new int[] {rows});
+    }
+
+    private int validateAxis(int axis) {
+        if(axis < -2 || axis >= 2)
+            throw new IndexOutOfBoundsException(String.format(
+                    "Axis %d out of bounds for Tensor with 2 dimensions", axis));
+        return axis < 0 ? axis + 2 : axis;
+    }
+
+    private void checkShape(SparseTensor other) {
+        if(rows != other.rows || columns != other.columns)
+            throw new IllegalArgumentException(String.format("Sparse Tensors of shape [%d, %d] and [%d, %d] are not " +
+                    "the same shape", rows, columns, other.rows, other.columns));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("SparseTensor(shape=[%d, %d], nonZeros=%d",
+                rows, columns, values.length));
+        for(int row = 0; row < rows; row++)
+            for(int i = rowPointers[row]; i < rowPointers[row + 1]; i++)
+                sb.append(String.format(", (%d, %d): %s", row, columnIndices[i], values[i]));
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,412 @@
+package javaml.tensor;
+
+/**
+ * Holds the elements of a Tensor that are not stored in a float array on the heap. Each subclass stores one
+ * {@link DType} in its own primitive representation, without boxing, and converts its elements to and from floats and
+ * doubles when they are read or written. Float32 Tensors on the heap use a float array directly instead, as it can be
+ * passed straight to the kernels.
+ * <br><br>
+ * Positions are longs, as off-heap storage may hold more elements than an array. Values that do not fit in the type
+ * are converted as by a Java cast, so fractions are truncated towards zero, and BOOL stores true for any non-zero
+ * value. The 16 bit floating point types round to the nearest representable value, with ties to even
+ * @since 0.1.2
+ */
+abstract class Storage {
+
+    /**
+     * Allocates storage on the heap for the given number of elements of a type other than FLOAT32, with every element
+     * initialised to zero
+     * @param dtype The type of the elements
+     * @param size The number of elements to store
+     * @return The storage
+     */
+    static Storage allocate(DType dtype, int size) {
+        return switch(dtype) {
+            case BOOL -> new Bool(new boolean[size]);
+            case INT8 -> new Int8(new byte[size]);
+            case INT32 -> new Int32(new int[size]);
+            case INT64 -> new Int64(new long[size]);
+            case FLOAT16 -> new Float16(new short[size]);
+            case BFLOAT16 -> new BFloat16(new short[size]);
+            case FLOAT64 -> new Float64(new double[size]);
+            case FLOAT32 -> throw new IllegalArgumentException("FLOAT32 Tensors are stored in float arrays");
+        };
+    }
+
+    /** Returns the type of the elements held by this storage */
+    abstract DType dtype();
+
+    abstract float get(long position);
+
+    abstract void set(long position, float value);
+
+    double getDouble(long position) {
+        return get(position);
+    }
+
+    void setDouble(long position, double value) {
+        set(position, (float) value);
+    }
+
+    long getLong(long position) {
+        return (long) getDouble(position);
+    }
+
+    void setLong(long position, long value) {
+        setDouble(position, value);
+    }
+
+    /**
+     * Copies a range of consecutive elements into an array, converting each of them to a float
+     * @param position The position of the first element to copy
+     * @param destination The array to copy into
+     * @param offset The position in the array of the first element
+     * @param length The number of elements to copy
+     */
+    void read(long position, float[] destination, int offset, int length) {
+        for(int i = 0; i < length; i++)
+            destination[offset + i] = get(position + i);
+    }
+
+    /**
+     * Copies the elements of an array into a range of consecutive elements, converting each of them to the type of
+     * this storage
+     * @param position The position of the first element to write
+     * @param source The array to copy from
+     * @param offset The position in the array of the first element
+     * @param length The number of elements to copy
+     */
+    void write(long position, float[] source, int offset, int length) {
+        for(int i = 0; i < length; i++)
+            set(position + i, source[offset + i]);
+    }
+
+    static final class Bool extends Storage {
+
+        private final boolean[] data;
+
+        private Bool(boolean[] data) {
+            this.data = data;
+        }
+
+        @Override
+        DType dtype() {
+            return DType.BOOL;
+        }
+
+        @Override
+        float get(long position) {
+            return data[(int) position] ? 1 : 0;
+        }
+
+        @Override
+        void set(long position, float value) {
+            data[(int) position] = value != 0;
+        }
+
+        @Override
+        void setDouble(long position, double value) {
+            data[(int) position] = value != 0;
+        }
+
+        @Override
+        void setLong(long position, long value) {
+            data[(int) position] = value != 0;
+        }
+    }
+
+    static final class Int8 extends Storage {
+
+        private final byte[] data;
+
+        Int8(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        DType dtype() {
+            return DType.INT8;
+        }
+
+        @Override
+        float get(long position) {
+            return data[(int) position];
+        }
+
+        @Override
+        void set(long position, float value) {
+            data[(int) position] = (byte) value;
+        }
+
+        @Override
+        void setDouble(long position, double value) {
+            data[(int) position] = (byte) value;
+        }
+
+        @Override
+        void setLong(long position, long value) {
+            data[(int) position] = (byte) value;
+        }
+    }
+
+    static final class Int32 extends Storage {
+
+        private final int[] data;
+
+        Int32(int[] data) {
+            this.data = data;
+        }
+
+        @Override
+        DType dtype() {
+            return DType.INT32;
+        }
+
+        @Override
+        float get(long position) {
+            return data[(int) position];
+        }
+
+        @Override
+        void set(long position, float value) {
+            data[(int) position] = (int) value;
+        }
+
+        @Override
+        double getDouble(long position) {
+            return data[(int) position];
+        }
+
+        @Override
+        void setDouble(long position, double value) {
+            data[(int) position] = (int) value;
+        }
+
+        @Override
+        long getLong(long position) {
+            return data[(int) position];
+        }
+
+        @Override
+        void setLong(long position, long value) {
+            data[(int) position] = (int) value;
+        }
+    }
+
+    static final class Int64 extends Storage {
+
+        private final long[] data;
+
+        private Int64(long[] data) {
+            this.data = data;
+        }
+
+        @Override
+        DType dtype() {
+            return DType.INT64;
+        }
+
+        @Override
+        float get(long position) {
+            return data[(int) position];
+        }
+
+        @Override
+        void set(long position, float value) {
+            data[(int) position] = (long) value;
+        }
+
+        @Override
+        double getDouble(long position) {
+            return data[(int) position];
+        }
+
+        @Override
+        void setDouble(long position, double value) {
+            data[(int) position] = (long) value;
+        }
+
+        @Override
+        long getLong(long position) {
+            return data[(int) position];
+        }
+
+        @Override
+        void setLong(long position, long value) {
+            data[(int) position] = value;
+        }
+    }
+
+    static final class Float64 extends Storage {
+
+        private final double[] data;
+
+        private Float64(double[] data) {
+            this.data = data;
+        }
+
+        @Override
+        DType dtype() {
+            return DType.FLOAT64;
+        }
+
+        @Override
+        float get(long position) {
+            return (float) data[(int) position];
+        }
+
+        @Override
+        void set(long position, float value) {
+            data[(int) position] = value;
+        }
+
+        @Override
+        double getDouble(long position) {
+            return data[(int) position];
+        }
+
+        @Override
+        void setDouble(long position, double value) {
+            data[(int) position] = value;
+        }
+    }
+
+    /**
+     * Stores IEEE half precision floats in a short array. The conversions are written out with bit manipulation, as
+     * {@code Float.float16ToFloat} is not available before Java 20
+     */
+    static final class Float16 extends Storage {
+
+        private final short[] data;
+
+        private Float16(short[] data) {
+            this.data = data;
+        }
+
+        @Override
+        DType dtype() {
+            return DType.FLOAT16;
+        }
+
+        @Override
+        float get(long position) {
+            return toFloat(data[(int) position]);
+        }
+
+        @Override
+        void set(long position, float value) {
+            data[(int) position] = fromFloat(value);
+        }
+
+        @Override
+        void read(long position, float[] destination, int offset, int length) {
+            for(int i = 0; i < length; i++)
+                destination[offset + i] = toFloat(data[(int) position + i]);
+        }
+
+        @Override
+        void write(long position, float[] source, int offset, int length) {
+            for(int i = 0; i < length; i++)
+                data[(int) position + i] = fromFloat(source[offset + i]);
+        }
+
+        /** Returns the float with the same value as the given half. Every half is exactly representable as a float */
+        static float toFloat(short half) {
+            int sign = (half & 0x8000) << 16;
+            int exponent = (half >>> 10) & 0x1f;
+            int mantissa = half & 0x3ff;
+            if(exponent == 0x1f)
+                return Float.intBitsToFloat(sign | 0x7f800000 | mantissa << 13);
+            if(exponent == 0) {
+                // Zero or subnormal, which is a normal float, so it is easiest to compute with floating point
+                float value = mantissa * 0x1p-24f;
+                return sign == 0 ? value : -value;
+            }
+            return Float.intBitsToFloat(sign | (exponent + 112) << 23 | mantissa << 13);
+        }
+
+        /**
+         * Returns the half closest to the given float, rounding ties to even. Values too large for a half become
+         * infinite, and NaN remains NaN
+         */
+        static short fromFloat(float value) {
+            int bits = Float.floatToRawIntBits(value);
+            int sign = (bits >>> 16) & 0x8000;
+            int exponent = ((bits >>> 23) & 0xff) - 112;
+            int mantissa = bits & 0x7fffff;
+            if(exponent == 0xff - 112)
+                return (short) (sign | 0x7c00 | (mantissa == 0 ? 0 : 0x200 | mantissa >>> 13));
+            if(exponent >= 0x1f)
+                return (short) (sign | 0x7c00);
+            int shift = 13;
+            int half;
+            if(exponent <= 0) {
+                // Subnormal, so the implicit leading bit is shifted into the mantissa
+                if(exponent < -10)
+                    return (short) sign;
+                mantissa |= 0x800000;
+                shift = 14 - exponent;
+                half = mantissa >>> shift;
+            } else
+                half = exponent << 10 | mantissa >>> shift;
+            // A carry out of the mantissa correctly increments the exponent, possibly up to infinity
+            int remainder = mantissa & ((1 << shift) - 1), halfway = 1 << (shift - 1);
+            if(remainder > halfway || remainder == halfway && (half & 1) != 0)
+                half++;
+            return (short) (sign | half);
+        }
+    }
+
+    /**
+     * Stores bfloat16 values in a short array. A bfloat16 is the upper 16 bits of a float, so conversions are shifts
+     */
+    static final class BFloat16 extends Storage {
+
+        private final short[] data;
+
+        private BFloat16(short[] data) {
+            this.data = data;
+        }
+
+        @Override
+        DType dtype() {
+            return DType.BFLOAT16;
+        }
+
+        @Override
+        float get(long position) {
+            return toFloat(data[(int) position]);
+        }
+
+        @Override
+        void set(long position, float value) {
+            data[(int) position] = fromFloat(value);
+        }
+
+        @Override
+        void read(long position, float[] destination, int offset, int length) {
+            for(int i = 0; i < length; i++)
+                destination[offset + i] = toFloat(data[(int) position + i]);
+        }
+
+        @Override
+        void write(long position, float[] source, int offset, int length) {
+            for(int i = 0; i < length; i++)
+                data[(int) position + i] = fromFloat(source[offset + i]);
+        }
+
+        /** Returns the float with the same value as the given bfloat16 */
+        static float toFloat(short value) {
+            return Float.intBitsToFloat(value << 16);
+        }
+
+        /** Returns the bfloat16 closest to the given float, rounding ties to even. NaN is kept as a quiet NaN */
+        static short fromFloat(float value) {
+            int bits = Float.floatToRawIntBits(value);
+            if(Float.isNaN(value))
+                return (short) (bits >>> 16 | 0x40);
+            // Adding just under half of the discarded bits, plus the lowest kept bit, rounds ties to even
+            return (short) ((bits + 0x7fff + (bits >>> 16 & 1)) >>> 16);
+        }
+    }
+}
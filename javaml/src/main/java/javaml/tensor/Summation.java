@@ -0,0 +1,302 @@
+package javaml.tensor;
+
+import javaml.ExecutionContext;
+
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Pairwise summation of consecutive elements of an array or off-heap storage, or of elements gathered from a view
+ * that is not consecutive in memory. The elements are split into blocks of
+ * {@code BLOCK} elements, which are summed by a kernel, and the block sums are added together in a balanced binary
+ * tree. The rounding error therefore grows with the logarithm of the number of elements, rather than linearly as it
+ * does when the elements are added one at a time.
+ * <br><br>
+ * The shape of the tree depends only on the number of elements, and the two halves of each subtree are always added
+ * in the same order. Subtrees larger than the grain size of the current execution context are computed in parallel,
+ * but this only changes which thread computes each subtree, not the order of the additions, so the result is
+ * identical regardless of the execution context.
+ * <br><br>
+ * Elements whose type does not fit in a float are summed in double precision, with each leaf adding its block one
+ * element at a time. Otherwise, the partial sums are rounded to float at every node of the tree, which gives exactly
+ * the result of adding them as floats
+ * @since 0.1.2
+ */
+final class Summation {
+
+    /** The number of elements summed directly by a kernel at each leaf of the tree */
+    private static final int BLOCK = 512;
+
+    /**
+     * The buffer each thread copies blocks of storage into. A leaf never forks, so no thread uses its buffer for two
+     * blocks at once, and a single buffer per thread is reused for every block it sums
+     */
+    private static final ThreadLocal<float[]> BUFFERS = ThreadLocal.withInitial(() -> new float[BLOCK]);
+
+    /** The buffer each thread gathers blocks into when summing in double precision */
+    private static final ThreadLocal<double[]> DOUBLE_BUFFERS = ThreadLocal.withInitial(() -> new double[BLOCK]);
+
+    /**
+     * Sums a block of consecutive elements. Positions are longs, as off-heap storage may hold more elements than an
+     * array
+     */
+    @FunctionalInterface
+    private interface Leaf {
+        double sum(float[] a, long position, int length);
+    }
+
+    /** Copies a block of elements, starting at the given flattened index, into the start of the block array */
+    @FunctionalInterface
+    interface Gather {
+        void read(long index, float[] block, int length);
+    }
+
+    /** Copies a block of elements, starting at the given flattened index, into the start of the block array */
+    @FunctionalInterface
+    interface DoubleGather {
+        void read(long index, double[] block, int length);
+    }
+
+    private Summation() {}
+
+    /**
+     * Returns the sum of the given elements
+     * @param a The array containing the elements
+     * @param offset The position of the first element
+     * @param length The number of elements
+     * @return The sum of the elements
+     */
+    static float sum(float[] a, int offset, int length) {
+        Kernels kernels = Kernels.INSTANCE;
+        return (float) sum((array, position, blockLength) -> kernels.sum(array, (int) position, blockLength),
+                a, offset, length, true);
+    }
+
+    /**
+     * Returns the sum of the squared differences between the given elements and their mean
+     * @param a The array containing the elements
+     * @param offset The position of the first element
+     * @param length The number of elements
+     * @param mean The mean of the elements
+     * @return The sum of the squared deviations from the mean
+     */
+    static float sumSquaredDeviations(float[] a, int offset, int length, float mean) {
+        Kernels kernels = Kernels.INSTANCE;
+        return (float) sum((array, position, blockLength) ->
+                kernels.sumSquaredDeviations(array, (int) position, blockLength, mean), a, offset, length, true);
+    }
+
+    /**
+     * Returns the sum of the given elements of storage. Each block is copied into a buffer owned by the current
+     * thread before it is summed, so the result is identical to summing the same elements in an array
+     * @param storage The storage containing the elements
+     * @param offset The position of the first element
+     * @param length The number of elements
+     * @return The sum of the elements
+     */
+    static float sum(Storage storage, long offset, long length) {
+        Kernels kernels = Kernels.INSTANCE;
+        return (float) sum(fromStorage(storage, kernels::sum), null, offset, length, true);
+    }
+
+    /**
+     * Returns the sum of the squared differences between the given elements of storage and their mean
+     * @param storage The storage containing the elements
+     * @param offset The position of the first element
+     * @param length The number of elements
+     * @param mean The mean of the elements
+     * @return The sum of the squared deviations from the mean
+     */
+    static float sumSquaredDeviations(Storage storage, long offset, long length, float mean) {
+        Kernels kernels = Kernels.INSTANCE;
+        return (float) sum(fromStorage(storage, (array, arrayOffset, blockLength) ->
+                kernels.sumSquaredDeviations(array, arrayOffset, blockLength, mean)), null, offset, length, true);
+    }
+
+    /**
+     * Returns the sum of elements that are not consecutive in memory. Each block is gathered into a buffer owned by
+     * the current thread before it is summed, so the result is identical to summing a contiguous copy of the elements
+     * @param gather Copies the elements with the given flattened indices into a buffer
+     * @param length The number of elements
+     * @return The sum of the elements
+     */
+    static float sum(Gather gather, long length) {
+        Kernels kernels = Kernels.INSTANCE;
+        return (float) sum(fromGather(gather, kernels::sum), null, 0, length, true);
+    }
+
+    /**
+     * Returns the sum of the squared differences between elements that are not consecutive in memory and their mean
+     * @param gather Copies the elements with the given flattened indices into a buffer
+     * @param length The number of elements
+     * @param mean The mean of the elements
+     * @return The sum of the squared deviations from the mean
+     */
+    static float sumSquaredDeviations(Gather gather, long length, float mean) {
+        Kernels kernels = Kernels.INSTANCE;
+        return (float) sum(fromGather(gather, (array, arrayOffset, blockLength) ->
+                kernels.sumSquaredDeviations(array, arrayOffset, blockLength, mean)), null, 0, length, true);
+    }
+
+    /**
+     * Returns the sum of the given elements of storage, computed in double precision
+     * @param storage The storage containing the elements
+     * @param offset The position of the first element
+     * @param length The number of elements
+     * @return The sum of the elements
+     */
+    static double sumDouble(Storage storage, long offset, long length) {
+        return sum((ignored, position, blockLength) -> {
+            double sum = 0;
+            for(int i = 0; i < blockLength; i++)
+                sum += storage.getDouble(position + i);
+            return sum;
+        }, null, offset, length, false);
+    }
+
+    /**
+     * Returns the sum of the squared differences between the given elements of storage and their mean, computed in
+     * double precision
+     * @param storage The storage containing the elements
+     * @param offset The position of the first element
+     * @param length The number of elements
+     * @param mean The mean of the elements
+     * @return The sum of the squared deviations from the mean
+     */
+    static double sumSquaredDeviationsDouble(Storage storage, long offset, long length, double mean) {
+        return sum((ignored, position, blockLength) -> {
+            double sum = 0;
+            for(int i = 0; i < blockLength; i++) {
+                double deviation = storage.getDouble(position + i) - mean;
+                sum += deviation * deviation;
+            }
+            return sum;
+        }, null, offset, length, false);
+    }
+
+    /**
+     * Returns the sum of elements that are not consecutive in memory, computed in double precision
+     * @param gather Copies the elements with the given flattened indices into a buffer
+     * @param length The number of elements
+     * @return The sum of the elements
+     */
+    static double sumDouble(DoubleGather gather, long length) {
+        return sum((ignored, index, blockLength) -> {
+            double[] block = DOUBLE_BUFFERS.get();
+            gather.read(index, block, blockLength);
+            double sum = 0;
+            for(int i = 0; i < blockLength; i++)
+                sum += block[i];
+            return sum;
+        }, null, 0, length, false);
+    }
+
+    /**
+     * Returns the sum of the squared differences between elements that are not consecutive in memory and their mean,
+     * computed in double precision
+     * @param gather Copies the elements with the given flattened indices into a buffer
+     * @param length The number of elements
+     * @param mean The mean of the elements
+     * @return The sum of the squared deviations from the mean
+     */
+    static double sumSquaredDeviationsDouble(DoubleGather gather, long length, double mean) {
+        return sum((ignored, index, blockLength) -> {
+            double[] block = DOUBLE_BUFFERS.get();
+            gather.read(index, block, blockLength);
+            double sum = 0;
+            for(int i = 0; i < blockLength; i++) {
+                double deviation = block[i] - mean;
+                sum += deviation * deviation;
+            }
+            return sum;
+        }, null, 0, length, false);
+    }
+
+    /** Sums a block of consecutive elements of an array */
+    @FunctionalInterface
+    private interface ArrayLeaf {
+        float sum(float[] a, int aOffset, int length);
+    }
+
+    /** Returns a leaf that reads its block from the storage, ignoring the array it is given */
+    private static Leaf fromStorage(Storage storage, ArrayLeaf leaf) {
+        return (ignored, position, length) -> {
+            float[] block = BUFFERS.get();
+            storage.read(position, block, 0, length);
+            return leaf.sum(block, 0, length);
+        };
+    }
+
+    /** Returns a leaf that gathers its block into a buffer, treating positions as flattened indices */
+    private static Leaf fromGather(Gather gather, ArrayLeaf leaf) {
+        return (ignored, index, length) -> {
+            float[] block = BUFFERS.get();
+            gather.read(index, block, length);
+            return leaf.sum(block, 0, length);
+        };
+    }
+
+    /**
+     * Sums the elements with the given leaf. If single is true, every partial sum is rounded to float
+     */
+    private static double sum(Leaf leaf, float[] a, long offset, long length, boolean single) {
+        ExecutionContext context = ExecutionContext.current();
+        // Blocks are never split, so no subtree is smaller than a block
+        long grainSize = Math.max(context.grainSize(), BLOCK);
+        if(context.parallelism() == 1 || length < 2 * grainSize)
+            return sequential(leaf, a, offset, length, single);
+        return context.pool().invoke(new SumTask(leaf, a, offset, length, single, grainSize));
+    }
+
+    private static double sequential(Leaf leaf, float[] a, long offset, long length, boolean single) {
+        if(length <= BLOCK)
+            return leaf.sum(a, offset, (int) length);
+        long half = split(length);
+        return add(sequential(leaf, a, offset, half, single), sequential(leaf, a, offset + half, length - half,
+                single), single);
+    }
+
+    /**
+     * Adds two partial sums. The sum of two floats computed in double precision is exact before it is rounded, so
+     * rounding it to float gives the same result as adding them as floats
+     */
+    private static double add(double first, double second, boolean single) {
+        return single ? (float) (first + second) : first + second;
+    }
+
+    /** Returns the length of the first half of the subtree, which ends on a block boundary */
+    private static long split(long length) {
+        long blocks = (length + BLOCK - 1) / BLOCK;
+        return blocks / 2 * BLOCK;
+    }
+
+    /** Sums a subtree, computing its two halves in parallel while they are large enough */
+    private static class SumTask extends RecursiveTask<Double> {
+
+        private final Leaf leaf;
+        private final float[] a;
+        private final long offset, length;
+        private final boolean single;
+        /** Subtrees with fewer elements than this are summed on the current thread */
+        private final long grainSize;
+
+        private SumTask(Leaf leaf, float[] a, long offset, long length, boolean single, long grainSize) {
+            this.leaf = leaf;
+            this.a = a;
+            this.offset = offset;
+            this.length = length;
+            this.single = single;
+            this.grainSize = grainSize;
+        }
+
+        @Override
+        protected Double compute() {
+            if(length < 2 * grainSize)
+                return sequential(leaf, a, offset, length, single);
+            long half = split(length);
+            SumTask second = new SumTask(leaf, a, offset + half, length - half, single, grainSize);
+            second.fork();
+            double first = new SumTask(leaf, a, offset, half, single, grainSize).compute();
+            return add(first, second.join(), single);
+        }
+    }
+}
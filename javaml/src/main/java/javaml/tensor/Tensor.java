@@ -1,17 +1,29 @@
 package javaml.tensor;
 
+import javaml.ExecutionContext;
 import javaml.JavaML;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
-import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 import java.util.function.IntFunction;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
 import java.util.function.UnaryOperator;
 
 public class Tensor implements Iterable<Float> {
@@ -25,48 +37,119 @@ public class Tensor implements Iterable<Float> {
     public final Iterable<int[]> indices = IndexIterator::new;
     /** The number of dimensions of this Tensor */
     public final int dims;
-    /** The total number of elements in the Tensor */
-    public final int size;
+    /**
+     * The total number of elements in the Tensor. This may exceed the largest int for Tensors stored off the heap, or
+     * for broadcast views
+     */
+    public final long size;
+    /**
+     * The storage holding the elements of this Tensor. Strided views share the storage of the Tensor they were
+     * created from. This is null for views that map their indices onto a base Tensor using {@code view}, for Tensors
+     * stored off the heap, and for Tensors whose type is not FLOAT32
+     */
     private final float[] data;
+    /**
+     * The storage holding the elements of this Tensor when they are not in a float array on the heap, which is used in
+     * place of data by Tensors allocated from an {@link Arena}, Tensors of types other than FLOAT32, and strided views
+     * of them. Otherwise, this is null
+     */
+    private final Storage storage;
+    /** The type of the elements of this Tensor, which views share with the Tensor they were created from */
+    private final DType dtype;
+    /** The position in data of the element with all indices equal to zero */
+    private final long offset;
     private final int[] shape;
-    private final int[] skips;
+    /**
+     * The distance in data between consecutive elements along each axis. This is null for views that map their
+     * indices onto a base Tensor using {@code view}
+     */
+    private final long[] strides;
+    /**
+     * Whether this Tensor is strided, and its elements occupy a single block of its storage in row-major order. This
+     * is computed once, as it is checked on every flat access
+     */
+    private final boolean contiguousLayout;
     protected final Tensor base;
 
+    /**
+     * The largest number of elements in a Tensor stored on the heap, which is the largest float array that every JVM
+     * can allocate
+     */
+    static final int MAX_HEAP_SIZE = Integer.MAX_VALUE - 8;
+    /** The largest number of elements copied directly by each block of a cache-oblivious copy */
+    private static final int COPY_BLOCK = 256;
+    /** The number of rows of each matrix copied by a single parallel task of a blocked copy */
+    private static final int COPY_ROWS = 64;
+    /**
+     * The number of elements gathered into a buffer at once, when Tensors that are not stored in float arrays are
+     * computed or copied in chunks
+     */
+    private static final int BUFFER_SIZE = 4096;
+
     /** A constant Tensor containing a single dimension of zero size */
     public static final Tensor EMPTY = new Tensor(new float[0], new int[] {0});
 
     protected Tensor(float[] data, int @NotNull [] shape) {
+        this(data, null, shape);
+    }
+
+    /**
+     * Creates a Tensor whose elements are held in the given storage, rather than in a float array on the heap. The
+     * type of the Tensor is the type of the storage
+     * @param storage The storage holding the elements, in row-major order
+     * @param shape The shape of the Tensor
+     * @since 0.1.2
+     */
+    Tensor(@NotNull Storage storage, int @NotNull [] shape) {
+        this(null, storage, shape);
+    }
+
+    private Tensor(float[] data, Storage storage, int @NotNull [] shape) {
         this.data = data;
+        this.storage = storage;
+        dtype = storage == null ? DType.FLOAT32 : storage.dtype();
         // This is copied to ensure it can't be changed externally
         this.shape = Arrays.copyOf(shape, shape.length);
-        for(int i : shape)
-            if(i < 0)
-                throw new IllegalArgumentException(String.format("Attempted to create Tensor of shape %s, but cannot " +
-                        "create Tensor with negative dimensions", Arrays.toString(shape)));
+        size = sizeOf(shape);
         dims = shape.length;
         base = null;
-        skips = new int[dims];
-        skips[dims - 1] = 1;
-        for(int i = dims - 2; i >= 0; i--)
-            skips[i] = skips[i+1] * shape[i+1];
-        size = skips[0] * shape[0];
+        offset = 0;
+        strides = new long[dims];
+        long stride = 1;
+        for(int i = dims - 1; i >= 0; i--) {
+            strides[i] = stride;
+            stride *= shape[i];
+        }
+        contiguousLayout = true;
     }
 
     protected Tensor(Tensor base, int @NotNull [] shape) {
-        this.data = null;
+        this(base, shape, null);
+    }
+
+    /**
+     * Creates a view into the base Tensor. If strides is not null, the view shares the storage and offset of the base
+     * Tensor, and each element is located directly using the given strides, so {@code view} is never called. This
+     * requires the base Tensor to be strided itself. If strides is null, elements are located by converting the
+     * indices with {@code view}, and passing them to the base Tensor
+     * @param base The Tensor this is a view into
+     * @param shape The shape of the view
+     * @param strides The strides of the view into the storage of the base Tensor, or null if the view maps its
+     *                indices using {@code view}
+     * @since 0.1.2
+     */
+    protected Tensor(@NotNull Tensor base, int @NotNull [] shape, long @Nullable [] strides) {
         // This is copied to ensure it can't be changed externally
         this.shape = Arrays.copyOf(shape, shape.length);
-        int s = 1;
-        for(int i : shape) {
-            if (i < 0)
-                throw new IllegalArgumentException(String.format("Attempted to create Tensor of shape %s, but cannot " +
-                        "create Tensor with negative dimensions", Arrays.toString(shape)));
-            s *= i;
-        }
-        size = s;
+        size = sizeOf(shape);
         dims = shape.length;
         this.base = base;
-        skips = null;
+        this.strides = strides;
+        this.data = strides == null ? null : base.data;
+        this.storage = strides == null ? null : base.storage;
+        this.offset = strides == null ? 0 : base.offset;
+        this.dtype = base.dtype;
+        this.contiguousLayout = strides != null && isRowMajor(this.shape, strides);
     }
 
     /**
@@ -78,18 +161,156 @@ public class Tensor implements Iterable<Float> {
      */
     @Contract("_ -> new")
     public static @NotNull Tensor zeros(int @NotNull ... shape) {
-        for(int i : shape)
-            if(i < 0)
-                throw new IllegalArgumentException(String.format("Attempted to create Tensor of shape %s, but cannot " +
-                        "create Tensor with negative dimensions", Arrays.toString(shape)));
+        try { return zeros(Allocator.HEAP, shape); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Creates a Tensor of the given shape filled with zeros, whose elements are stored by the given allocator. For
+     * example, {@code Tensor.zeros(arena, 1000, 64)} creates a Tensor stored off the heap, in the given {@link Arena}
+     *
+     * @param allocator The allocator that provides the storage of the Tensor
+     * @param shape The shape of the Tensor
+     * @return A Tensor of the given shape filled with zeros
+     * @throws IllegalStateException If the allocator is an Arena that has been closed
+     * @since 0.1.2
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull Tensor zeros(@NotNull Allocator allocator, int @NotNull ... shape) {
+        return allocator.zeros(shape, sizeOf(shape));
+    }
+
+    /**
+     * Creates a Tensor of the given shape and type filled with zeros. Each type is stored in its own primitive array,
+     * so for example a BOOL Tensor uses a quarter of the memory of a FLOAT32 Tensor. Tensors of types other than
+     * FLOAT32 are always stored on the heap
+     *
+     * @param dtype The type of the elements
+     * @param shape The shape of the Tensor
+     * @return A Tensor of the given shape and type filled with zeros
+     * @throws IllegalArgumentException If the shape has negative dimensions, or too many elements to store on the heap
+     * @since 0.1.2
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull Tensor zeros(@NotNull DType dtype, int @NotNull ... shape) {
+        try {
+            if(dtype == DType.FLOAT32)
+                return zeros(shape);
+            return new Tensor(Storage.allocate(dtype, heapSize(shape)), shape);
+        } catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Creates a Tensor whose elements are stored in the given file, which is mapped into memory rather than read. The
+     * file holds the elements in row-major order, as raw little endian floats, starting at the beginning of the file.
+     * Pages of the file are only read by the operating system once they are accessed, and may be evicted again when
+     * memory is short, so the file may be larger than the available memory.
+     * <br><br>
+     * The mode controls how writes to the Tensor are handled. With {@code READ_ONLY}, any write throws a
+     * {@code ReadOnlyBufferException}. With {@code READ_WRITE}, writes are stored in the file, which is created, or
+     * extended with zeros, if it is too small. With {@code PRIVATE}, writes are only visible to this Tensor and its
+     * views, and the file is not changed, although it must still be writable. The mapping is released once the Tensor
+     * and its views are garbage collected
+     *
+     * @param path The path of the file
+     * @param mode The mode of the mapping
+     * @param shape The shape of the Tensor
+     * @return A Tensor of the given shape, stored in the file
+     * @throws IllegalArgumentException If the shape has negative dimensions, or the mode is not {@code READ_WRITE}
+     * and the file is smaller than the Tensor
+     * @throws IOException If the file cannot be opened or mapped
+     * @since 0.1.2
+     */
+    @Contract("_, _, _ -> new")
+    public static @NotNull Tensor mmap(@NotNull Path path, @NotNull FileChannel.MapMode mode, int @NotNull ... shape)
+            throws IOException {
+        long size;
+        try { size = sizeOf(shape); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        long bytes = size * Float.BYTES;
+        // Private mappings still require the file to be opened for writing, although it is never written
+        OpenOption[] options = mode == FileChannel.MapMode.READ_ONLY ? new OpenOption[] {StandardOpenOption.READ}
+                : mode == FileChannel.MapMode.PRIVATE
+                ? new OpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new OpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE};
+        try(FileChannel channel = FileChannel.open(path, options)) {
+            if(mode != FileChannel.MapMode.READ_WRITE && channel.size() < bytes)
+                throw new IllegalArgumentException(String.format("Attempted to map a Tensor of shape %s, which " +
+                        "requires %d bytes, but %s only contains %d bytes", Arrays.toString(shape), bytes, path,
+                        channel.size()));
+            return new Tensor(DirectStorage.map(channel, mode, size), shape);
+        }
+    }
 
-        int size = 1;
-        for(int dim : shape)
-            size *= dim;
-        float [] data = new float[size];
+    /**
+     * Creates a Tensor that uses the given array as its elements, in row-major order, without copying it. The Tensor
+     * and the array share memory, so changes to the array are visible in the Tensor, and writes to the Tensor, or to
+     * any view of it, change the array. Operations that create new Tensors never write to the array. Only
+     * {@code set}, {@code assign}, and the in place and {@code out} variants of operations write to it
+     *
+     * @param data The elements of the Tensor, which must contain exactly as many elements as the shape
+     * @param shape The shape of the Tensor
+     * @return A Tensor backed by the array
+     * @throws IllegalArgumentException If the shape has negative dimensions, or its size is not the length of the array
+     * @since 0.1.2
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull Tensor wrap(float @NotNull [] data, int @NotNull ... shape) {
+        long size;
+        try { size = sizeOf(shape); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        if(size != data.length)
+            throw new IllegalArgumentException(String.format("Cannot wrap an array of length %d in a Tensor of " +
+                    "shape %s, which has %d elements", data.length, Arrays.toString(shape), size));
         return new Tensor(data, shape);
     }
 
+    /**
+     * Creates a Tensor whose elements are the floats of the given buffer, in row-major order, starting at its
+     * current position, without copying them. As with {@link #wrap(float[], int...)}, the Tensor and the buffer share
+     * memory, so changes made through either are visible in the other. The position and limit of the buffer are not
+     * changed. If the buffer is read only, any write to the Tensor throws a {@code ReadOnlyBufferException}. Buffers
+     * in native memory, such as direct buffers from Netty or JNI, are processed in place, without being copied onto
+     * the heap
+     *
+     * @param buffer The buffer containing the elements
+     * @param shape The shape of the Tensor
+     * @return A Tensor backed by the buffer
+     * @throws IllegalArgumentException If the shape has negative dimensions, or has more elements than the buffer
+     * has remaining
+     * @since 0.1.2
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull Tensor wrap(@NotNull FloatBuffer buffer, int @NotNull ... shape) {
+        long size;
+        try { size = sizeOf(shape); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        if(size > buffer.remaining())
+            throw new IllegalArgumentException(String.format("Attempted to wrap a Tensor of shape %s, which " +
+                    "requires %d floats, but the buffer only has %d floats remaining", Arrays.toString(shape), size,
+                    buffer.remaining()));
+        return new Tensor(DirectStorage.wrap(buffer.slice(), size), shape);
+    }
+
+    /**
+     * Creates a Tensor whose elements are the floats stored in the given buffer, starting at its current position,
+     * without copying them. The floats are read and written in the byte order of the buffer, so for example a buffer
+     * of little endian floats must have its order set with {@code buffer.order(ByteOrder.LITTLE_ENDIAN)} first. The
+     * buffer is shared with the Tensor as in {@link #wrap(FloatBuffer, int...)}
+     *
+     * @param buffer The buffer containing the elements
+     * @param shape The shape of the Tensor
+     * @return A Tensor backed by the buffer
+     * @throws IllegalArgumentException If the shape has negative dimensions, or has more elements than fit in the
+     * bytes the buffer has remaining
+     * @since 0.1.2
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull Tensor wrap(@NotNull ByteBuffer buffer, int @NotNull ... shape) {
+        try { return wrap(buffer.slice().order(buffer.order()).asFloatBuffer(), shape); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
     /**
      * Creates a Tensor of the given shape filled with zeros
      *
@@ -143,24 +364,73 @@ public class Tensor implements Iterable<Float> {
 
     /**
      * Creates a Tensor of the given shape filled with random values drawn from a normal distribution with zero mean
-     * and unit variance
+     * and unit variance. The values depend only on the state of {@code JavaML.random}, and not on the
+     * {@link ExecutionContext} used to generate them
      * @param shape The shape of the Tensor
      * @return Tensor of the given shape filled with random normal values
      * @since 0.1.1
      */
     @Contract("_ -> new")
     public static @NotNull Tensor randn(int @NotNull ... shape) {
-        for(int i : shape)
-            if(i < 0)
-                throw new IllegalArgumentException(String.format("Attempted to create Tensor of shape %s, but cannot " +
-                        "create Tensor with negative dimensions", Arrays.toString(shape)));
+        try { return randn(0, 1, shape); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
 
-        int size = 1;
-        for(int dim : shape)
-            size *= dim;
-        float [] data = new float[size];
-        for(int i = 0; i < data.length; i++)
-            data[i] = (float) JavaML.random.nextGaussian();
+    /**
+     * Creates a Tensor of the given shape filled with random values drawn from a normal distribution with the given
+     * mean and standard deviation. The values depend only on the state of {@code JavaML.random}, and not on the
+     * {@link ExecutionContext} used to generate them. The shape is given as an array, rather than as separate
+     * arguments, so this cannot be confused with {@link #randn(int...)}
+     * @param mean The mean of the distribution
+     * @param std The standard deviation of the distribution, which must not be negative
+     * @param shape The shape of the Tensor
+     * @return Tensor of the given shape filled with random normal values
+     * @throws IllegalArgumentException If the standard deviation is negative, or the shape has negative dimensions
+     * @since 0.1.2
+     */
+    @Contract("_, _, _ -> new")
+    public static @NotNull Tensor randn(float mean, float std, int @NotNull [] shape) {
+        if(!(std >= 0))
+            throw new IllegalArgumentException(String.format("Standard deviation must not be negative, but was %s",
+                    std));
+        float[] data = new float[heapSize(shape)];
+        // Each Tensor draws a single key, so ranges of it can be generated in parallel without sharing any state
+        long key = JavaML.random.nextLong();
+        Parallel.forRange(data.length, 1, (from, to) ->
+                Philox.normal(key, 0, mean, std, data, from, from, to - from));
+        return new Tensor(data, shape);
+    }
+
+    /**
+     * Creates a Tensor of the given shape filled with random values drawn from a normal distribution with the given
+     * mean and standard deviation, truncated to the interval [low, high]. If at least a quarter of the distribution
+     * lies in the interval, values outside it are redrawn a bounded number of times. Otherwise, including for
+     * intervals far in the tails, values are drawn by inverting the distribution function restricted to the interval,
+     * so this finishes quickly for any interval. Truncating to two standard deviations either side of the mean is
+     * common when initialising weights. The values depend only on the state of {@code JavaML.random}, and not on the
+     * {@link ExecutionContext} used to generate them
+     * @param mean The mean of the distribution before truncation
+     * @param std The standard deviation of the distribution before truncation, which must be positive
+     * @param low The lower bound of the values
+     * @param high The upper bound of the values, which must be greater than the lower bound
+     * @param shape The shape of the Tensor
+     * @return Tensor of the given shape filled with random values from the truncated normal distribution
+     * @throws IllegalArgumentException If the standard deviation is not positive, the lower bound is not less than the
+     * upper bound, or the shape has negative dimensions
+     * @since 0.1.2
+     */
+    @Contract("_, _, _, _, _ -> new")
+    public static @NotNull Tensor truncatedRandn(float mean, float std, float low, float high,
+                                                 int @NotNull [] shape) {
+        if(!(std > 0))
+            throw new IllegalArgumentException(String.format("Standard deviation must be positive, but was %s", std));
+        if(!(low < high))
+            throw new IllegalArgumentException(String.format("Lower bound %s must be less than upper bound %s",
+                    low, high));
+        float[] data = new float[heapSize(shape)];
+        long key = JavaML.random.nextLong();
+        Parallel.forRange(data.length, 1, (from, to) ->
+                Philox.truncatedNormal(key, mean, std, low, high, data, from, from, to - from));
         return new Tensor(data, shape);
     }
 
@@ -178,25 +448,60 @@ public class Tensor implements Iterable<Float> {
 
     /**
      * Creates a Tensor of the given shape filled with random values drawn from a uniform distribution in the open
-     * interval [0, 1)
+     * interval [0, 1). The values depend only on the state of {@code JavaML.random}, and not on the
+     * {@link ExecutionContext} used to generate them
      * @param shape The shape of the Tensor
      * @return Tensor of the given shape filled with uniform random values
      * @since 0.1.1
      */
     @Contract("_ -> new")
     public static @NotNull Tensor rand(int @NotNull ... shape) {
+        float[] data;
+        try { data = new float[heapSize(shape)]; }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        long key = JavaML.random.nextLong();
+        Parallel.forRange(data.length, 1, (from, to) -> Philox.uniform(key, data, from, from, to - from));
+        return new Tensor(data, shape);
+    }
+
+    /**
+     * Returns the size of a Tensor of the given shape, after checking the shape is valid
+     * @param shape The shape of the Tensor
+     * @return The number of elements in the Tensor
+     * @throws IllegalArgumentException If the shape has negative dimensions, or more elements than fit in a long
+     * @since 0.1.2
+     */
+    private static long sizeOf(int @NotNull [] shape) {
         for(int i : shape)
             if(i < 0)
                 throw new IllegalArgumentException(String.format("Attempted to create Tensor of shape %s, but cannot " +
                         "create Tensor with negative dimensions", Arrays.toString(shape)));
+        long size = 1;
+        try {
+            for(int dim : shape)
+                size = Math.multiplyExact(size, dim);
+        } catch(ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("Attempted to create Tensor of shape %s, but it has " +
+                    "too many elements to count", Arrays.toString(shape)));
+        }
+        return size;
+    }
 
-        int size = 1;
-        for(int dim : shape)
-            size *= dim;
-        float [] data = new float[size];
-        for(int i = 0; i < data.length; i++)
-            data[i] = JavaML.random.nextFloat();
-        return new Tensor(data, shape);
+    /**
+     * Returns the size of a new Tensor of the given shape, after checking it can be stored in a float array on the
+     * heap
+     * @param shape The shape of the Tensor
+     * @return The number of elements in the Tensor
+     * @throws IllegalArgumentException If the shape has negative dimensions, or too many elements for a float array
+     * @since 0.1.2
+     */
+    static int heapSize(int @NotNull [] shape) {
+        long size = sizeOf(shape);
+        if(size > MAX_HEAP_SIZE)
+            throw new IllegalArgumentException(String.format("Attempted to create Tensor of shape %s, which has %d " +
+                    "elements, but at most %d elements can be stored on the heap. Larger Tensors must be allocated " +
+                    "from an Arena", Arrays.toString(shape), size, MAX_HEAP_SIZE));
+        return (int) size;
     }
 
     /**
@@ -261,7 +566,8 @@ public class Tensor implements Iterable<Float> {
     /**
      * Creates a Tensor from the given object. The Object must be a nested list of primitive types, and the depth of the
      * array must be consistent, and the array cannot be ragged. All primitive values are cast to float values,
-     * so precision may be lost. <br><br>
+     * so precision may be lost. Primitive arrays are copied directly into the Tensor, without boxing their elements,
+     * and arrays of floats are copied in bulk. <br><br>
      * Note: this is not for duplicating a Tensor. To achieve this, use {@code Tensor.copy()}
      *
      * @param o Nested array of primitive types to convert to a Tensor
@@ -269,344 +575,792 @@ public class Tensor implements Iterable<Float> {
      * @since 0.1.0
      */
     public static @NotNull Tensor from(Object o) {
-        Object[] array = multiDimensionalFloatArray(o);
-        if(array == null)
+        try { return from(o, DType.FLOAT32); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Creates a Tensor of the given type from the given object, which must be a nested array of primitive types as in
+     * {@link #from(Object)}. Values are converted directly from the primitive arrays to the type of the Tensor, without
+     * passing through float, so longs are stored exactly in an INT64 Tensor, and doubles in a FLOAT64 Tensor. For
+     * example, {@code Tensor.from(labels, DType.INT32)} creates a Tensor of class indices
+     *
+     * @param o Nested array of primitive types to convert to a Tensor
+     * @param dtype The type of the Tensor
+     * @return A Tensor of the given type representing the provided array
+     * @throws IllegalArgumentException If the array is ragged, has inconsistent depth, or contains values that are not
+     * primitive
+     * @since 0.1.2
+     */
+    public static @NotNull Tensor from(Object o, @NotNull DType dtype) {
+        if(o == null)
             throw new NullPointerException("Cannot create Tensor from 'null'");
-        if(array.length == 0)
-            return Tensor.EMPTY;
-
-        // Determine the number of dimensions as the depth of the arrays
-        int dims = 1;
-        Object head = array[0];
-        while(head instanceof Object[] child) {
-            dims++;
-            if(child.length == 0)
-                break;
-            head = child[0];
-        }
+        try {
+            int[] shape = nestedShape(o);
+            Tensor result = zeros(dtype, shape);
+            if(o.getClass().isArray())
+                result.fillNested(o, 0, 0);
+            else
+                result.fillValue(0, o);
+            return result;
+        } catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
 
-        // Determine the shape as the array lengths of all the first elements.
-        // Note: this doesn't mean the shape is valid
-        int[] shape = new int[dims];
-        shape[0] = array.length;
-        head = array;
-        for(int i = 1; i < dims; i++) {
-            head = ((Object[]) head)[0];
-            shape[i] = ((Object[]) head).length;
+    /**
+     * Returns the shape of the given nested array, as the lengths of its first elements at each depth. This does not
+     * mean the array is valid, which is checked as it is filled. A single primitive value has a shape of {@code [1]}
+     * @param o A nested array, or a single primitive value
+     * @return The shape of the array
+     * @since 0.1.2
+     */
+    private static int @NotNull [] nestedShape(@NotNull Object o) {
+        if(!o.getClass().isArray())
+            return new int[] {1};
+        ArrayList<Integer> shape = new ArrayList<>();
+        Object head = o;
+        while(head != null && head.getClass().isArray()) {
+            int length = Array.getLength(head);
+            shape.add(length);
+            if(length == 0 || head.getClass().getComponentType().isPrimitive())
+                break;
+            head = Array.get(head, 0);
         }
-
-        // Create Tensor, and rethrow the error if it is raised in fill
-        Tensor result = zeros(shape);
-        try { result.fill(array, 0, 0); }
-        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
-        return result;
+        return shape.stream().mapToInt(i -> i).toArray();
     }
 
     /**
-     * Fills the given array into the Tensor, starting at the given index and axis. The index is a flattened index,
-     * meaning it indexes data directly, not the Tensor. The provided array must contain only Floats, must not be
-     * ragged, and must have consistent dimensions, otherwise an IllegalArgumentException will be raised. The depth of
-     * the array must be equal to the number of dimensions after the given axis (e.g. in a 5D Tensor, if axis is 2, then
-     * the array must be 3D).
+     * Fills the given nested array into this contiguous Tensor, starting at the given position and axis. Primitive
+     * arrays along the final axis are converted element by element, without boxing, and float arrays are copied
+     * directly into FLOAT32 Tensors. The depth of the array must be equal to the number of dimensions after the given
+     * axis, and it must not be ragged, which is checked from the lengths of the arrays alone
      * @param a Array to fill into the Tensor
-     * @param index Starting index to start filling, as a flattened index
+     * @param position The position in data or storage of the first element
      * @param axis The axis to fill from
-     * @since 0.1.0
+     * @throws IllegalArgumentException If the array is ragged, has inconsistent depth, or contains values that are not
+     * primitive
+     * @since 0.1.2
      */
-    private void fill(Object @NotNull [] a, int index, int axis) {
-        if(a.length != shape(axis))
+    private void fillNested(@NotNull Object a, long position, int axis) {
+        int length = Array.getLength(a);
+        if(length != shape[axis])
             throw new IllegalArgumentException(String.format("Invalid argument. " +
                     "Tensors cannot be created from ragged lists. " +
-                    "At axis %d size is %d, but found list of length %d", dims, axis, a.length));
-
+                    "At axis %d size is %d, but found list of length %d", axis, shape[axis], length));
         if(axis == dims - 1) {
-            for (int i = 0; i < shape(axis); i++) {
-                if (a[i] == null)
-                    throw new IllegalArgumentException("Invalid argument. " +
-                            "Cannot create Tensors from non primitive types");
-                data[index + i] = (Float) a[i];
+            if(data != null) {
+                fillFloats(a, (int) position, length);
+                return;
             }
+            if(a instanceof long[] array)
+                for(int i = 0; i < length; i++)
+                    storage.setLong(position + i, array[i]);
+            else if(a instanceof double[] array)
+                for(int i = 0; i < length; i++)
+                    storage.setDouble(position + i, array[i]);
+            else if(a instanceof float[] array)
+                for(int i = 0; i < length; i++)
+                    storage.set(position + i, array[i]);
+            else if(a instanceof int[] array)
+                for(int i = 0; i < length; i++)
+                    storage.setDouble(position + i, array[i]);
+            else if(a instanceof short[] array)
+                for(int i = 0; i < length; i++)
+                    storage.set(position + i, array[i]);
+            else if(a instanceof byte[] array)
+                for(int i = 0; i < length; i++)
+                    storage.set(position + i, array[i]);
+            else if(a instanceof char[] array)
+                for(int i = 0; i < length; i++)
+                    storage.set(position + i, array[i]);
+            else if(a instanceof boolean[] array)
+                for(int i = 0; i < length; i++)
+                    storage.set(position + i, array[i] ? 1 : 0);
+            else
+                for(int i = 0; i < length; i++)
+                    fillValue(position + i, ((Object[]) a)[i]);
             return;
         }
-        for(int i = 0; i < shape(axis); i++) {
-            if(a[i] == null)
+        if(a.getClass().getComponentType().isPrimitive())
+            throw new IllegalArgumentException(String.format("Invalid argument. " +
+                    "Inconsistent dimensions found in argument. " +
+                    "Expected %d dimensions, but found primitive value in list at depth %d", dims, axis + 1));
+        for(int i = 0; i < length; i++) {
+            Object child = ((Object[]) a)[i];
+            if(child == null)
                 throw new IllegalArgumentException("Invalid argument. Cannot create Tensors from non primitive types");
-            if(a[i] instanceof Object[])
-                fill((Object[])a[i], index + i*skips[axis], axis+1);
-            else
+            if(!child.getClass().isArray())
                 throw new IllegalArgumentException(String.format("Invalid argument. " +
                         "Inconsistent dimensions found in argument. " +
                         "Expected %d dimensions, but found primitive value in list at depth %d", dims, axis));
+            fillNested(child, position + i * strides[axis], axis + 1);
         }
     }
 
     /**
-     * Converts an arbitrarily nested array into the same array, but every terminal element is a Float, or is null.
-     * Primitive values are converted to Float, while all other objects are converted to null
-     *
-     * @param o An object, which is either an array, or a primitive type
-     * @return A representation of the input array, where every element is a Float, or null
-     * @since 0.1.0
+     * Fills a one dimensional array into data, converting its elements to float as by a Java cast
+     * @param a Array to fill into the Tensor
+     * @param position The position in data of the first element
+     * @param length The length of the array
+     * @throws IllegalArgumentException If the array contains values that are not primitive
+     * @since 0.1.2
      */
-    private static Object @Nullable [] multiDimensionalFloatArray(Object o) {
-        // Is o a primitive?
-        Float f = floatValue(o);
-        if(f != null)
-            return new Float[] {f};
-
-        // Is o an array of primitives?
-        Object[] array = floatArray(o);
-        if(array != null)
-            return array;
-
-        // If o was not a primitive, it should be an object array
-        if(o instanceof Object[] a) {
-            Object[] floatArray = new Object[a.length];
-            for(int i = 0; i < a.length; i++) {
-                f = floatValue(a[i]);
-                if(f != null)
-                    floatArray[i] = f;
-                else
-                    floatArray[i] = multiDimensionalFloatArray(a[i]);
-            }
-            return floatArray;
-        }
-
-        // If o was not a primitive, primitive array or an object array, it is not valid
-        return null;
+    private void fillFloats(@NotNull Object a, int position, int length) {
+        if(a instanceof float[] array)
+            System.arraycopy(array, 0, data, position, length);
+        else if(a instanceof double[] array)
+            for(int i = 0; i < length; i++)
+                data[position + i] = (float) array[i];
+        else if(a instanceof int[] array)
+            for(int i = 0; i < length; i++)
+                data[position + i] = array[i];
+        else if(a instanceof long[] array)
+            for(int i = 0; i < length; i++)
+                data[position + i] = array[i];
+        else if(a instanceof short[] array)
+            for(int i = 0; i < length; i++)
+                data[position + i] = array[i];
+        else if(a instanceof byte[] array)
+            for(int i = 0; i < length; i++)
+                data[position + i] = array[i];
+        else if(a instanceof char[] array)
+            for(int i = 0; i < length; i++)
+                data[position + i] = array[i];
+        else if(a instanceof boolean[] array)
+            for(int i = 0; i < length; i++)
+                data[position + i] = array[i] ? 1 : 0;
+        else
+            for(int i = 0; i < length; i++)
+                fillValue(position + i, ((Object[]) a)[i]);
     }
 
     /**
-     * Converts the given object into a Float object. Works for all primitive wrapper types. null is returned if an
-     * object of another type is used
-     * @param o Object to convert to a Float. Should be a primitive, otherwise null is returned
-     * @return The Float value of the primitive, or null of o is not a primitive
-     * @since 0.1.0
-     */
-    private static Float floatValue(Object o) {
-        if(o instanceof Float)
-            return (float) o;
-        if(o instanceof Double)
-            return ((Double) o).floatValue();
-        if(o instanceof Byte)
-            return (float) (Byte) o;
-        if(o instanceof Short)
-            return (float) (Short) o;
-        if(o instanceof Integer)
-            return (float) (Integer) o;
-        if(o instanceof Long)
-            return (float) (Long) o;
-        if(o instanceof Character)
-            return (float) (Character) o;
-        if(o instanceof Boolean)
-            return (Boolean)o ? 1f : 0f;
-        return null;
-    }
-
-    /**
-     * Converts a primitive array into a Float array. If the array is not primitive, null is returned
-     * @param o An object containing a primitive array. Note: primitive array refers to something such as int[], not
-     *          Integer[]
-     *
-     * @return A Float array, with the same values as the primitive array, or null if the given object is not a
-     * primitive array
-     * @since 0.1.0
+     * Writes a single boxed primitive value into this Tensor
+     * @param position The position in storage to write the value to
+     * @param value The value to write
+     * @throws IllegalArgumentException If the value is not a boxed primitive
+     * @since 0.1.2
      */
-    private static Float[] floatArray(Object o) {
-        if(o instanceof float[] array) {
-            Float[] converted = new Float[array.length];
-            for(int i = 0; i < array.length; i++)
-                converted[i] = array[i];
-            return converted;
-        }
-
-        if(o instanceof double[] array) {
-            Float[] converted = new Float[array.length];
-            for(int i = 0; i < array.length; i++)
-                converted[i] = (float) array[i];
-            return converted;
-        }
-
-        if(o instanceof byte[] array) {
-            Float[] converted = new Float[array.length];
-            for(int i = 0; i < array.length; i++)
-                converted[i] = (float) array[i];
-            return converted;
-        }
-
-        if(o instanceof short[] array) {
-            Float[] converted = new Float[array.length];
-            for(int i = 0; i < array.length; i++)
-                converted[i] = (float) array[i];
-            return converted;
-        }
-
-        if(o instanceof int[] array) {
-            Float[] converted = new Float[array.length];
-            for(int i = 0; i < array.length; i++)
-                converted[i] = (float) array[i];
-            return converted;
-        }
-
-        if(o instanceof long[] array) {
-            Float[] converted = new Float[array.length];
-            for(int i = 0; i < array.length; i++)
-                converted[i] = (float) array[i];
-            return converted;
-        }
-
-        if(o instanceof char[] array) {
-            Float[] converted = new Float[array.length];
-            for(int i = 0; i < array.length; i++)
-                converted[i] = (float) array[i];
-            return converted;
-        }
-
-        if(o instanceof boolean[] array) {
-            Float[] converted = new Float[array.length];
-            for(int i = 0; i < array.length; i++)
-                converted[i] = array[i] ? 1f : 0f;
-            return converted;
-        }
-        return null;
+    private void fillValue(long position, Object value) {
+        if(value instanceof Character c)
+            value = (int) c;
+        else if(value instanceof Boolean b)
+            value = b ? 1 : 0;
+        if(!(value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long
+                || value instanceof Float || value instanceof Double))
+            throw new IllegalArgumentException("Invalid argument. Cannot create Tensors from non primitive types");
+        Number n = (Number) value;
+        if(data != null)
+            data[(int) position] = n.floatValue();
+        else if(n instanceof Long l)
+            storage.setLong(position, l);
+        else
+            storage.setDouble(position, n.doubleValue());
     }
 
     /**
-     * Converts the Tensor into a flattened float array
-     * @return A float array containing the values in the Tensor, flattened into a single dimension
+     * Returns a copy of this Tensor whose elements are stored by the given allocator. For example,
+     * {@code t.to(arena)} moves the elements of {@code t} off the heap, into the given {@link Arena}
+     * @param allocator The allocator that provides the storage of the copy
+     * @return A copy of this Tensor, stored by the allocator
+     * @throws IllegalStateException If the allocator is an Arena that has been closed
      * @since 0.1.2
      */
-    public float[] toArray() {
-        float[] arr = new float[size];
-        int i = 0;
-        for(float f : this)
-            arr[i++] = f;
-        return arr;
+    @Contract("_ -> new")
+    public @NotNull Tensor to(@NotNull Allocator allocator) {
+        return zeros(allocator, shape).assign(this);
     }
 
     /**
-     * Converts the Tensor into a flattened array of arbitrary type, using a generator and converter function. The
-     * generator function is used to initialise the array, and the converter is used to convert the elements from floats
-     * to the desired type. For example, to convert the Tensor {@code t} into a flattened array of type
-     * {@code BigDecimal}, you would use {@code t.toArray(BigDecimal[]::new, BigDecimal::valueOf)}.
-     * @return An array of type T containing the values in the Tensor, flattened into a single dimension, using the
-     * given conversion
+     * Returns a copy of this Tensor converted to the given type. Values that do not fit in the type are converted as
+     * by a Java cast, so for example {@code to(DType.INT32)} truncates fractions towards zero, and
+     * {@code to(DType.BOOL)} gives true for every non-zero element
+     * @param dtype The type of the copy
+     * @return A copy of this Tensor with the given type
+     * @throws IllegalArgumentException If the Tensor has too many elements to store on the heap
      * @since 0.1.2
      */
-    public <T> T[] toArray(IntFunction<T[]> generator, Function<Float, T> converter) {
-        T[] arr = generator.apply(size);
-        int i = 0;
-        for(float f : this)
-            arr[i++] = converter.apply(f);
-        return arr;
+    @Contract("_ -> new")
+    public @NotNull Tensor to(@NotNull DType dtype) {
+        try { return zeros(dtype, shape).assign(this); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
     }
 
     /**
-     * Converts the Tensor into a flattened int array. Values are cast to int, meaning values are all rounded down
-     * towards negative infinity
-     * @return An int array containing the values in the Tensor, flattened into a single dimension
+     * Returns the type of the elements of this Tensor
+     * @return The type of this Tensor
      * @since 0.1.2
      */
-    public int[] toIntArray() {
-        int[] arr = new int[size];
-        int i = 0;
-        for(float f : this)
-            arr[i++] = (int)f;
-        return arr;
+    public @NotNull DType dtype() {
+        return dtype;
     }
 
     /**
-     * Returns the size of the Tensor. The size is the total number of elements within the Tensor, and is equivalent to
-     * the product of all the elements in shape()
-     * @return The number of elements in the Tensor
-     * @since 0.1.0
+     * Converts this two dimensional Tensor into a sparse Tensor, which only stores the elements whose magnitude is
+     * greater than the threshold. Elements that are NaN are always stored
+     * @param threshold The largest magnitude of the elements that are dropped
+     * @return A sparse Tensor containing the elements larger than the threshold
+     * @throws IllegalArgumentException If the Tensor is not two dimensional
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
+     * @since 0.1.2
      */
-    public int size() {
-        return size;
+    @Contract("_ -> new")
+    public @NotNull SparseTensor toSparse(float threshold) {
+        if(dims != 2)
+            throw new IllegalArgumentException(String.format("Only two dimensional Tensors can be converted to " +
+                    "sparse Tensors, but got shape %s", Arrays.toString(shape)));
+        return SparseTensor.fromDense(toArray(), shape[0], shape[1], threshold);
     }
 
     /**
-     * Returns the number of dimensions of this Tensor. This is equivalent to {@code shape().length}
-     * @return The number of dimensions of this Tensor
-     * @since 0.1.0
+     * Converts this two dimensional Tensor into a sparse Tensor, which only stores its non-zero elements
+     * @return A sparse Tensor containing the non-zero elements
+     * @throws IllegalArgumentException If the Tensor is not two dimensional
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
+     * @since 0.1.2
      */
-    public int dims() {
-        return dims;
+    @Contract("-> new")
+    public @NotNull SparseTensor toSparse() {
+        try { return toSparse(0); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
     }
 
     /**
-     * Returns an integer array containing the shape of the Tensor. This is the size of the Tensor along each axis
-     * @return Integer array containing the shape of the Tensor
-     * @since 0.1.0
+     * Quantizes this Tensor to 8 bit integers with a single scale and zero point, which are chosen so the integers
+     * cover the range of the elements. The range is extended to include zero, so zero is represented exactly, and
+     * elements that are NaN or infinite are ignored when finding the range
+     * @return The quantized Tensor
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
+     * @since 0.1.2
      */
-    public Tensor shape() {
-        return Tensor.from(shape);
+    @Contract("-> new")
+    public @NotNull QuantizedTensor quantize() {
+        return QuantizedTensor.quantize(toArray(), shape.clone(), -1);
     }
 
     /**
-     * Returns the shape of the Tensor for a given axis. This is equivalent to {@code shape()[axis]}
+     * Quantizes this Tensor to 8 bit integers with a scale and zero point for each channel along the given axis. The
+     * scale and zero point of each channel are chosen so the integers cover the range of the elements in that channel,
+     * as in {@link #quantize()}. For example, {@code weights.quantize(0)} quantizes each row of a matrix separately
      * <br><br>
      * Supports negative indexing
-     * @param axis The axis to get the size of
-     * @return The size of the Tensor along the given axis
-     * @since 0.1.0
+     * @param axis The axis of the channels
+     * @return The quantized Tensor
+     * @throws IndexOutOfBoundsException If the axis is out of bounds
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
+     * @since 0.1.2
      */
-    public int shape(int axis) {
-        try { return shape[validateAxis(axis)]; }
-        catch (IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    @Contract("_ -> new")
+    public @NotNull QuantizedTensor quantize(int axis) {
+        try { return QuantizedTensor.quantize(toArray(), shape.clone(), validateAxis(axis)); }
+        catch(IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
     }
 
     /**
-     * Converts a set of indices to a flattened index for use in the data array. This method performs no error
-     * checking. It is the responsibility of the calling method to ensure arguments are valid. There must be the same
-     * number of indices as number of dimensions, and each index at position {@code i} must be in the open interval
-     * {@code [0, shape(i))}.
-     *
-     * @param indices indices to convert into a flattened index
-     * @return Flattened version of the provided indices
-     * @since 0.1.0
+     * Quantizes this Tensor to 8 bit integers with the given scale and zero point. Each element {@code x} is stored as
+     * {@code round(x / scale) + zeroPoint}, rounding ties to even, and clamped to the range of a byte. NaN is stored
+     * as the zero point
+     * @param scale The difference between the values represented by consecutive integers
+     * @param zeroPoint The integer that represents zero
+     * @return The quantized Tensor
+     * @throws IllegalArgumentException If the scale is not positive and finite, or the zero point is not in the range
+     * of a byte
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
+     * @since 0.1.2
      */
-    private int toFlatIndex(int @NotNull ... indices) {
-        int index = 0;
-        for(int i = 0; i < dims; i++)
-            index += indices[i] * skips[i];
-        return index;
+    @Contract("_, _ -> new")
+    public @NotNull QuantizedTensor quantize(float scale, int zeroPoint) {
+        try {
+            return QuantizedTensor.quantize(toArray(), shape.clone(), -1, new float[] {scale}, new int[] {zeroPoint});
+        } catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
     }
 
     /**
-     * Checks whether the provided indices are valid, or whether an exception should be raised. Indices are valid if
-     * there are the same number of indices as dimensions, and each index at position {@code i} is in the open
-     * interval [-shape(i), shape(i)), or if there is a single index in the open interval [-size, size).
-     * Negative indices are also converted to the equivalent positive indices, so after
-     * calling this method, there will no longer be negative indices in the array. The resulting array of indices is
-     * returned. The returned array is NOT a reference to the same array, which is necessary so that the original
-     * indices are not changed in internalGet/internalSet
-     * @param indices Array of indices to check the validity of
-     * @return The same array of indices, with positive indices
+     * Quantizes this Tensor to 8 bit integers with the given scale and zero point for each channel along the given
+     * axis. Each element is stored as in {@link #quantize(float, int)}, using the scale and zero point of its channel
+     * <br><br>
+     * Supports negative indexing
+     * @param axis The axis of the channels
+     * @param scales The scale of each channel
+     * @param zeroPoints The zero point of each channel
+     * @return The quantized Tensor
+     * @throws IndexOutOfBoundsException If the axis is out of bounds
+     * @throws IllegalArgumentException If there is not one scale and zero point for each channel, a scale is not
+     * positive and finite, or a zero point is not in the range of a byte
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
      * @since 0.1.2
      */
-    private int[] validateIndices(int[] indices) {
-        if(indices.length != 1 || dims == 1) {
-            if (indices.length > dims)
-                throw new IllegalArgumentException(String.format("Too many indices supplied. " +
-                        "Tensor is %d-dimensional but %d were indexed", dims, indices.length));
-            if (indices.length < dims)
-                throw new IllegalArgumentException(String.format("Not enough indices supplied. " +
-                        "Tensor is %d-dimensional but %d were indexed", dims, indices.length));
-            indices = Arrays.copyOf(indices, dims);
-            for (int i = 0; i < dims; i++) {
-                if (indices[i] < -shape(i) || indices[i] >= shape(i))
-                    throw new IndexOutOfBoundsException(String.format(
-                            "Index %d is out of bounds for axis %d with size %d", indices[i], i, shape[i]));
-                if (indices[i] < 0)
-                    indices[i] += shape[i];
-            }
-            return indices;
-        }
+    @Contract("_, _, _ -> new")
+    public @NotNull QuantizedTensor quantize(int axis, float @NotNull [] scales, int @NotNull [] zeroPoints) {
+        try { return QuantizedTensor.quantize(toArray(), shape.clone(), validateAxis(axis), scales, zeroPoints); }
+        catch(IllegalArgumentException | IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Converts the Tensor into a flattened float array
+     * @return A float array containing the values in the Tensor, flattened into a single dimension
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
+     * @since 0.1.2
+     */
+    public float[] toArray() {
+        float[] arr = new float[arraySize()];
+        copyInto(arr, 0);
+        return arr;
+    }
+
+    /**
+     * Copies the elements of this Tensor into the given array, in row-major order. Contiguous Tensors are copied in
+     * bulk, without checking each element
+     * @param destination The array to copy into
+     * @param offset The position in the array of the first element
+     * @throws IllegalArgumentException If the offset is negative, or the array does not have room for every element
+     * after the offset
+     * @since 0.1.2
+     */
+    public void copyInto(float @NotNull [] destination, int offset) {
+        if(offset < 0 || offset > destination.length || size > destination.length - offset)
+            throw new IllegalArgumentException(String.format("Cannot copy %d elements into an array of length %d " +
+                    "at offset %d", size, destination.length, offset));
+        int size = (int) this.size;
+        if(isContiguous())
+            Parallel.forRange(size, 1, (from, to) ->
+                    System.arraycopy(data, (int) this.offset + from, destination, offset + from, to - from));
+        else if(storage != null && hasContiguousLayout())
+            Parallel.forRange(size, 1, (from, to) ->
+                    storage.read(this.offset + from, destination, offset + from, to - from));
+        else if(data != null && strides != null)
+            blockedCopy(destination, offset);
+        else
+            Parallel.forRange(size, 1, (from, to) -> {
+                FloatIterator iterator = new TensorIterator(from);
+                for(int i = from; i < to; i++)
+                    destination[offset + i] = iterator.nextFloat();
+            });
+    }
+
+    /**
+     * Copies the elements of this Tensor into the start of the given array, in row-major order, as in
+     * {@link #copyInto(float[], int)}
+     * @param destination The array to copy into
+     * @throws IllegalArgumentException If the array is shorter than the size of this Tensor
+     * @since 0.1.2
+     */
+    public void copyInto(float @NotNull [] destination) {
+        try { copyInto(destination, 0); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Overwrites the elements of this Tensor with the elements of the given array, in row-major order, converting
+     * them to the type of this Tensor. Contiguous Tensors are copied in bulk, without checking each element. Views
+     * write through to the Tensor they were created from
+     * @param source The array to copy from
+     * @param offset The position in the array of the first element
+     * @return A reference to this Tensor
+     * @throws IllegalArgumentException If the offset is negative, or the array does not contain enough elements after
+     * the offset
+     * @since 0.1.2
+     */
+    public Tensor copyFrom(float @NotNull [] source, int offset) {
+        if(offset < 0 || offset > source.length || size > source.length - offset)
+            throw new IllegalArgumentException(String.format("Cannot copy %d elements from an array of length %d " +
+                    "at offset %d", size, source.length, offset));
+        int size = (int) this.size;
+        if(isContiguous())
+            Parallel.forRange(size, 1, (from, to) ->
+                    System.arraycopy(source, offset + from, data, (int) this.offset + from, to - from));
+        else if(storage != null && hasContiguousLayout())
+            Parallel.forRange(size, 1, (from, to) ->
+                    storage.write(this.offset + from, source, offset + from, to - from));
+        else
+            // The source is copied if it could overlap with this Tensor
+            assign(new Tensor(offset == 0 && source.length == size && source != data ? source
+                    : Arrays.copyOfRange(source, offset, offset + size), shape));
+        return this;
+    }
+
+    /**
+     * Returns a Tensor with the same elements as this Tensor, stored in row-major order in a single block of memory.
+     * If this Tensor is already laid out that way, it is returned itself. Otherwise, a copy is returned, which no
+     * longer shares memory with this Tensor. Views that are accessed repeatedly, such as transposed matrices, are
+     * faster to read once they are made contiguous, as every element is then read directly, in order
+     * <br><br>
+     * Strided FLOAT32 Tensors are copied in blocks that fit in cache, so transposed and permuted views are copied
+     * efficiently
+     * @return A contiguous Tensor with the same elements and type as this Tensor
+     * @throws IllegalArgumentException If the Tensor has too many elements to copy onto the heap
+     * @since 0.1.2
+     */
+    public @NotNull Tensor contiguous() {
+        if(hasContiguousLayout())
+            return this;
+        if(dtype == DType.FLOAT32)
+            return new Tensor(toArray(), shape);
+        try { return to(dtype); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Copies the elements of this strided Tensor, which is stored on the heap, into the given array in row-major
+     * order. The final two axes are treated as a batch of matrices, and each strip of {@code COPY_ROWS} rows is copied
+     * in parallel by {@code copyMatrix}, which splits it into blocks that fit in cache, so the elements are read in
+     * cache sized blocks, whatever the strides
+     * @param destination The array to copy into
+     * @param destinationOffset The position in the array of the first element
+     * @since 0.1.2
+     */
+    private void blockedCopy(float @NotNull [] destination, int destinationOffset) {
+        if(size == 0)
+            return;
+        int rows = dims == 1 ? 1 : shape[dims - 2], cols = shape[dims - 1];
+        long rowStride = dims == 1 ? 0 : strides[dims - 2], colStride = strides[dims - 1];
+        int strips = (rows + COPY_ROWS - 1) / COPY_ROWS;
+        int batches = (int) (size / ((long) rows * cols));
+        Parallel.forRange(batches * strips, (long) Math.min(rows, COPY_ROWS) * cols, (from, to) -> {
+            for(int item = from; item < to; item++) {
+                int batch = item / strips, row = item % strips * COPY_ROWS;
+                long source = offset + row * rowStride;
+                // Locate the matrix from the indices of the batch along the leading axes
+                for(int axis = dims - 3, index = batch; axis >= 0; axis--) {
+                    source += index % shape[axis] * strides[axis];
+                    index /= shape[axis];
+                }
+                copyMatrix(data, source, rowStride, colStride, destination,
+                        destinationOffset + (batch * rows + row) * cols, cols, Math.min(COPY_ROWS, rows - row), cols);
+            }
+        });
+    }
+
+    /**
+     * Copies a strided matrix into a row-major matrix. The larger dimension is split in half until the block has at
+     * most {@code COPY_BLOCK} elements, so each block is read and written within the cache, regardless of the cache
+     * size, which is known as a cache-oblivious copy
+     */
+    private static void copyMatrix(float[] source, long sourceOffset, long rowStride, long colStride,
+                                   float[] destination, int destinationOffset, int destinationRowStride,
+                                   int rows, int cols) {
+        if((long) rows * cols <= COPY_BLOCK) {
+            for(int i = 0; i < rows; i++) {
+                int position = destinationOffset + i * destinationRowStride;
+                long sourcePosition = sourceOffset + i * rowStride;
+                for(int j = 0; j < cols; j++)
+                    destination[position + j] = source[(int) (sourcePosition + j * colStride)];
+            }
+        } else if(rows >= cols) {
+            int half = rows / 2;
+            copyMatrix(source, sourceOffset, rowStride, colStride, destination, destinationOffset,
+                    destinationRowStride, half, cols);
+            copyMatrix(source, sourceOffset + half * rowStride, rowStride, colStride, destination,
+                    destinationOffset + half * destinationRowStride, destinationRowStride, rows - half, cols);
+        } else {
+            int half = cols / 2;
+            copyMatrix(source, sourceOffset, rowStride, colStride, destination, destinationOffset,
+                    destinationRowStride, rows, half);
+            copyMatrix(source, sourceOffset + half * colStride, rowStride, colStride, destination,
+                    destinationOffset + half, destinationRowStride, rows, cols - half);
+        }
+    }
+
+    /**
+     * Overwrites the elements of this Tensor with the elements at the start of the given array, as in
+     * {@link #copyFrom(float[], int)}
+     * @param source The array to copy from
+     * @return A reference to this Tensor
+     * @throws IllegalArgumentException If the array is shorter than the size of this Tensor
+     * @since 0.1.2
+     */
+    public Tensor copyFrom(float @NotNull [] source) {
+        try { return copyFrom(source, 0); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Converts the Tensor into a flattened array of arbitrary type, using a generator and converter function. The
+     * generator function is used to initialise the array, and the converter is used to convert the elements from floats
+     * to the desired type. For example, to convert the Tensor {@code t} into a flattened array of type
+     * {@code BigDecimal}, you would use {@code t.toArray(BigDecimal[]::new, BigDecimal::valueOf)}.
+     * @return An array of type T containing the values in the Tensor, flattened into a single dimension, using the
+     * given conversion
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
+     * @since 0.1.2
+     */
+    public <T> T[] toArray(IntFunction<T[]> generator, Function<Float, T> converter) {
+        T[] arr = generator.apply(arraySize());
+        FloatIterator iterator = iterator();
+        for(int i = 0; i < size; i++)
+            arr[i] = converter.apply(iterator.nextFloat());
+        return arr;
+    }
+
+    /**
+     * Converts the Tensor into a flattened int array. Values are cast to int, meaning values are all rounded down
+     * towards negative infinity. The elements of INT32 Tensors are copied exactly
+     * @return An int array containing the values in the Tensor, flattened into a single dimension
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
+     * @since 0.1.2
+     */
+    public int[] toIntArray() {
+        int[] arr = new int[arraySize()];
+        TensorIterator iterator = new TensorIterator(0);
+        for(int i = 0; i < size; i++)
+            arr[i] = (int) iterator.nextDouble();
+        return arr;
+    }
+
+    /**
+     * Converts the Tensor into a flattened double array. Unlike {@link #toArray()}, the elements of FLOAT64, INT32 and
+     * INT64 Tensors are not rounded to float
+     * @return A double array containing the values in the Tensor, flattened into a single dimension
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
+     * @since 0.1.2
+     */
+    public double[] toDoubleArray() {
+        double[] arr = new double[arraySize()];
+        Parallel.forRange(arr.length, 1, (from, to) -> {
+            TensorIterator iterator = new TensorIterator(from);
+            for(int i = from; i < to; i++)
+                arr[i] = iterator.nextDouble();
+        });
+        return arr;
+    }
+
+    /**
+     * Returns the size of the Tensor. The size is the total number of elements within the Tensor, and is equivalent to
+     * the product of all the elements in shape()
+     * @return The number of elements in the Tensor
+     * @since 0.1.0
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the size of this Tensor as an int, after checking its elements can be copied into an array on the heap
+     * @return The number of elements in the Tensor
+     * @throws UnsupportedOperationException If the Tensor has too many elements to fit in an array
+     * @since 0.1.2
+     */
+    private int arraySize() {
+        if(size > MAX_HEAP_SIZE)
+            throw new UnsupportedOperationException(String.format("Tensor of shape %s has %d elements, but at most " +
+                    "%d elements can be copied onto the heap", Arrays.toString(shape), size, MAX_HEAP_SIZE));
+        return (int) size;
+    }
+
+    /**
+     * Returns the number of dimensions of this Tensor. This is equivalent to {@code shape().length}
+     * @return The number of dimensions of this Tensor
+     * @since 0.1.0
+     */
+    public int dims() {
+        return dims;
+    }
+
+    /**
+     * Returns an INT32 Tensor containing the shape of the Tensor. This is the size of the Tensor along each axis
+     * @return INT32 Tensor containing the shape of the Tensor
+     * @since 0.1.0
+     */
+    public Tensor shape() {
+        return Tensor.from(shape, DType.INT32);
+    }
+
+    /**
+     * Returns the shape of the Tensor for a given axis. This is equivalent to {@code shape()[axis]}
+     * <br><br>
+     * Supports negative indexing
+     * @param axis The axis to get the size of
+     * @return The size of the Tensor along the given axis
+     * @since 0.1.0
+     */
+    public int shape(int axis) {
+        try { return shape[validateAxis(axis)]; }
+        catch (IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Converts a set of indices to the position of the element in data. This is only valid for strided Tensors, and
+     * performs no error checking, so the indices must be valid
+     * @param indices indices of the element
+     * @return The position of the element in data
+     * @since 0.1.2
+     */
+    private long toStorageIndex(int @NotNull [] indices) {
+        long index = offset;
+        for(int i = 0; i < dims; i++)
+            index += indices[i] * strides[i];
+        return index;
+    }
+
+    /**
+     * Returns the strides of this Tensor, which are the distances in the underlying storage between consecutive
+     * elements along each axis. Returns null if this Tensor is a view that maps its indices onto its base Tensor.
+     * The returned array is not copied, so it must not be modified
+     * @return The strides of this Tensor, or null if it is not strided
+     * @since 0.1.2
+     */
+    long @Nullable [] strides() {
+        return strides;
+    }
+
+    /**
+     * Returns the position in the underlying storage of the element with all indices equal to zero. This is only
+     * meaningful for strided Tensors
+     * @return The offset of this Tensor
+     * @since 0.1.2
+     */
+    long offset() {
+        return offset;
+    }
+
+    /**
+     * Returns the element at the given position in the underlying storage, without any error checking. This is only
+     * valid for strided Tensors, and the position must be computed from the offset and strides of this Tensor
+     * @param position The position of the element in the underlying storage
+     * @return The element at the given position
+     * @since 0.1.2
+     */
+    float getAt(long position) {
+        return data != null ? data[(int) position] : storage.get(position);
+    }
+
+    /**
+     * Returns a copy of the strides of this Tensor as ints. This is only valid for strided Tensors stored on the heap,
+     * as every position in a float array fits in an int
+     * @return The strides of this Tensor
+     * @since 0.1.2
+     */
+    private int @NotNull [] heapStrides() {
+        int[] heapStrides = new int[dims];
+        for(int i = 0; i < dims; i++)
+            heapStrides[i] = (int) strides[i];
+        return heapStrides;
+    }
+
+    /**
+     * Returns whether the elements of this Tensor occupy a single block of data in row-major order, starting at
+     * offset. Axes of size one are ignored, as their stride has no effect. Tensors stored off the heap are never
+     * contiguous, as they have no data array
+     * @return true if this Tensor is contiguous, otherwise false
+     * @since 0.1.2
+     */
+    private boolean isContiguous() {
+        return data != null && hasContiguousLayout();
+    }
+
+    /**
+     * Returns whether the elements of this strided Tensor occupy a single block of its storage in row-major order,
+     * starting at offset, regardless of whether that storage is on the heap
+     * @return true if the layout of this Tensor is contiguous, otherwise false
+     * @since 0.1.2
+     */
+    private boolean hasContiguousLayout() {
+        return contiguousLayout;
+    }
+
+    /**
+     * Returns whether the given strides describe a single block of storage in row-major order
+     * @param shape The shape of the Tensor
+     * @param strides The strides of the Tensor
+     * @return true if the strides are row-major, otherwise false
+     * @since 0.1.2
+     */
+    private static boolean isRowMajor(int @NotNull [] shape, long @NotNull [] strides) {
+        int dims = shape.length;
+        long expected = 1;
+        for(int i = dims - 1; i >= 0; i--) {
+            if(shape[i] != 1 && strides[i] != expected)
+                return false;
+            expected *= shape[i];
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the provided indices are valid, or whether an exception should be raised. Indices are valid if
+     * there are the same number of indices as dimensions, and each index at position {@code i} is in the open
+     * interval [-shape(i), shape(i)), or if there is a single index in the open interval [-size, size).
+     * Negative indices are also converted to the equivalent positive indices, so after
+     * calling this method, there will no longer be negative indices in the array. The resulting array of indices is
+     * returned. The returned array is NOT a reference to the same array, which is necessary so that the original
+     * indices are not changed in internalGet/internalSet
+     * @param indices Array of indices to check the validity of
+     * @return The same array of indices, with positive indices
+     * @since 0.1.2
+     */
+    private int[] validateIndices(int[] indices) {
+        if(indices.length != 1 || dims == 1) {
+            checkIndexCount(indices.length);
+            indices = Arrays.copyOf(indices, dims);
+            for (int i = 0; i < dims; i++)
+                indices[i] = validateIndex(indices[i], i);
+            return indices;
+        }
         // Otherwise, indices only contains one element, so we are indexing the flattened array
         return fromFlatIndex(indices[0]);
     }
 
+    /**
+     * Returns the position in data or storage of the element at the given indices of this strided Tensor, which are
+     * checked as in {@code validateIndices}. The indices are neither copied nor modified, so elements can be accessed
+     * without allocating
+     * @param indices The indices of the element
+     * @return The position of the element in data or storage
+     * @since 0.1.2
+     */
+    private long validatedPosition(int[] indices) {
+        if(indices.length == 1 && dims != 1)
+            return flatPosition(validateFlatIndex(indices[0]));
+        checkIndexCount(indices.length);
+        long position = offset;
+        for(int i = 0; i < dims; i++)
+            position += validateIndex(indices[i], i) * strides[i];
+        return position;
+    }
+
+    private void checkIndexCount(int count) {
+        if (count > dims)
+            throw new IllegalArgumentException(String.format("Too many indices supplied. " +
+                    "Tensor is %d-dimensional but %d were indexed", dims, count));
+        if (count < dims)
+            throw new IllegalArgumentException(String.format("Not enough indices supplied. " +
+                    "Tensor is %d-dimensional but %d were indexed", dims, count));
+    }
+
+    /** Checks the index is in bounds for the given axis, and returns the equivalent positive index */
+    private int validateIndex(int index, int axis) {
+        if (index < -shape[axis] || index >= shape[axis])
+            throw new IndexOutOfBoundsException(String.format(
+                    "Index %d is out of bounds for axis %d with size %d", index, axis, shape[axis]));
+        return index < 0 ? index + shape[axis] : index;
+    }
+
+    /** Checks the flattened index is in bounds, and returns the equivalent positive index */
+    private long validateFlatIndex(long index) {
+        if(index < -size || index >= size)
+            throw new IndexOutOfBoundsException(String.format(
+                    "Index %d out of bounds for Tensor of size %d", index, size));
+        return index < 0 ? index + size : index;
+    }
+
+    /**
+     * Returns the position in data or storage of the element at the given valid, positive flattened index of this
+     * strided Tensor. Contiguous Tensors are indexed directly, and otherwise the index is split into its indices along
+     * each axis without allocating
+     * @param index The flattened index
+     * @return The position of the element
+     * @since 0.1.2
+     */
+    private long flatPosition(long index) {
+        if(contiguousLayout)
+            return offset + index;
+        long position = offset;
+        for(int i = dims - 1; i >= 0; i--) {
+            position += index % shape[i] * strides[i];
+            index /= shape[i];
+        }
+        return position;
+    }
+
     /**
      * Converts the given flattened index into the equivalent non-flattened index. Throws an exception if the index is
      * out of bounds. Supports negative indexing, but the returned result will always contain only positive indices
@@ -614,475 +1368,2179 @@ public class Tensor implements Iterable<Float> {
      * @return The equivalent non-flattened index
      * @since 0.1.2
      */
-    private int[] fromFlatIndex(int index) {
-        if(index < -size || index >= size)
-            throw new IndexOutOfBoundsException(String.format(
-                    "Index %d out of bounds for Tensor of size %d", index, size));
-        if(index < 0)
-            index += size;
+    private int[] fromFlatIndex(long index) {
+        index = validateFlatIndex(index);
         int[] indices = new int[dims];
         for(int i = dims-1; i >= 0; i--) {
-            indices[i] = index % shape[i];
+            indices[i] = (int) (index % shape[i]);
             index /= shape[i];
         }
         return indices;
     }
 
     /**
-     * Returns the element at the specified index. Negative indexing is supported. If only a single index is provided,
-     * then it will be assumed to be a flattened index.
-     * <br><br>
-     * The indices must satisfy {@code indices.length == dims() && indices.length == 1} and
-     * {@code -shape(i) <= indices[i] < shape(i)}, otherwise an Exception will be raised
-     *
-     * @param indices Indices of the element to retrieve
-     * @return The element at the specified index
-     * @since 0.1.0
+     * Returns the element at the specified index. Negative indexing is supported. If only a single index is provided,
+     * then it will be assumed to be a flattened index.
+     * <br><br>
+     * The indices must satisfy {@code indices.length == dims() && indices.length == 1} and
+     * {@code -shape(i) <= indices[i] < shape(i)}, otherwise an Exception will be raised
+     *
+     * @param indices Indices of the element to retrieve
+     * @return The element at the specified index
+     * @since 0.1.0
+     */
+    public float get(int @NotNull ... indices) {
+        try {
+            // Strided Tensors locate the element directly, without copying the indices
+            if(strides != null) {
+                long position = validatedPosition(indices);
+                return data != null ? data[(int) position] : storage.get(position);
+            }
+            indices = validateIndices(indices);
+        } catch(IllegalArgumentException | IndexOutOfBoundsException e)
+        { throw (RuntimeException) e.fillInStackTrace(); }
+
+        return internalGet(indices);
+    }
+
+    /**
+     * Returns the element at the specified index as a double. Unlike {@link #get(int...)}, elements of FLOAT64, INT32
+     * and INT64 Tensors are not rounded to float. The indices are interpreted as in {@code get}
+     *
+     * @param indices Indices of the element to retrieve
+     * @return The element at the specified index
+     * @since 0.1.2
+     */
+    public double getDouble(int @NotNull ... indices) {
+        try {indices = validateIndices(indices); }
+        catch(IllegalArgumentException | IndexOutOfBoundsException e)
+        { throw (RuntimeException) e.fillInStackTrace(); }
+
+        return internalGetDouble(indices);
+    }
+
+    /**
+     * Returns the element at the specified index as a long. Elements of INT64 Tensors are returned exactly, while
+     * floating point elements are truncated towards zero. The indices are interpreted as in {@code get}
+     *
+     * @param indices Indices of the element to retrieve
+     * @return The element at the specified index
+     * @since 0.1.2
+     */
+    public long getLong(int @NotNull ... indices) {
+        try {indices = validateIndices(indices); }
+        catch(IllegalArgumentException | IndexOutOfBoundsException e)
+        { throw (RuntimeException) e.fillInStackTrace(); }
+
+        return internalGetLong(indices);
+    }
+
+    /**
+     * Controls how the indices used to index this Tensor are mapped to the indices used to index the underlying Tensor.
+     * This method is overridden by subclasses of Tensor to create a view into another Tensor. Subclasses overriding
+     * this method can safely assume that the provided indices are valid, and must not modify the provided array. The
+     * length of indices will be equal to {@code dims} and each element at index {@code i} is in the open interval
+     * [0, shape(i)). These checks are all done prior to the call to {@code view}, so no checks need to be done in this
+     * method.
+     * <br><br>
+     * This is only used by views that are not strided. Strided views locate their elements directly in the shared
+     * storage, so {@code view} is never called for them
+     * @param indices The indices to convert to the underlying Tensor's indices
+     * @return The indices used to access the relevant element in the underlying Tensor
+     * @since 0.1.2
+     */
+    protected int[] view(int[] indices) { return indices; }
+
+    /**
+     * This method should only be called from inside the Tensor class or its subclasses. Only valid, positive indices
+     * should be passed into this method so, it is the requirement of the caller to perform error checking and negative
+     * to positive index conversions. The indices are not modified by this method, so the same array can be reused
+     * across calls
+     * @param indices Array of the indices of the element to retrieve
+     * @return The element at the given index
+     * @since 0.1.2
+     */
+    protected float internalGet(int[] indices) {
+        if(strides == null)
+            return base.internalGet(view(indices));
+        return data != null ? data[(int) toStorageIndex(indices)] : storage.get(toStorageIndex(indices));
+    }
+
+    /**
+     * Returns the element at the given valid, positive indices as a double, as in {@code internalGet}
+     * @param indices Array of the indices of the element to retrieve
+     * @return The element at the given index
+     * @since 0.1.2
+     */
+    private double internalGetDouble(int[] indices) {
+        if(strides == null)
+            return base.internalGetDouble(view(indices));
+        return data != null ? data[(int) toStorageIndex(indices)] : storage.getDouble(toStorageIndex(indices));
+    }
+
+    /**
+     * Returns the element at the given valid, positive indices as a long, as in {@code internalGet}
+     * @param indices Array of the indices of the element to retrieve
+     * @return The element at the given index
+     * @since 0.1.2
+     */
+    private long internalGetLong(int[] indices) {
+        if(strides == null)
+            return base.internalGetLong(view(indices));
+        return data != null ? (long) data[(int) toStorageIndex(indices)] : storage.getLong(toStorageIndex(indices));
+    }
+
+    /**
+     * Sets the element at the specified index to the given value. Negative indexing is supported. If only a single
+     * index is given, it is assumed to be a flattened index
+     * <br><br>
+     * The indices must satisfy {@code indices.length == dims() && indices.length == 1} and
+     * {@code -shape(i) <= indices[i] < shape(i)}, otherwise an Exception will be raised
+     *
+     * @param value Value to set the element to
+     * @param indices Indices of the element to set
+     * @return A reference to this Tensor
+     * @since 0.1.0
+     */
+    public Tensor set(float value, int... indices) {
+        try {
+            if(strides != null) {
+                long position = validatedPosition(indices);
+                if(data != null)
+                    data[(int) position] = value;
+                else
+                    storage.set(position, value);
+                return this;
+            }
+            indices = validateIndices(indices);
+        } catch(IllegalArgumentException | IndexOutOfBoundsException e)
+        { throw (RuntimeException) e.fillInStackTrace(); }
+
+        internalSet(value, indices);
+        return this;
+    }
+
+    /**
+     * Returns the element at the given flattened index, which is the position of the element when the Tensor is
+     * flattened in row-major order. Negative indexing is supported. Unlike {@link #get(int...)}, no array of indices
+     * is created, and for contiguous Tensors the element is read directly from the underlying array or storage
+     *
+     * @param index The flattened index of the element
+     * @return The element at the given index
+     * @throws IndexOutOfBoundsException If the index is out of bounds
+     * @since 0.1.2
+     */
+    public float getFlat(long index) {
+        try {
+            index = validateFlatIndex(index);
+            if(strides == null)
+                return internalGet(fromFlatIndex(index));
+        } catch(IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        long position = flatPosition(index);
+        return data != null ? data[(int) position] : storage.get(position);
+    }
+
+    /**
+     * Sets the element at the given flattened index to the given value, as in {@link #getFlat(long)}. Negative
+     * indexing is supported
+     *
+     * @param index The flattened index of the element
+     * @param value Value to set the element to
+     * @return A reference to this Tensor
+     * @throws IndexOutOfBoundsException If the index is out of bounds
+     * @since 0.1.2
+     */
+    public Tensor setFlat(long index, float value) {
+        try {
+            index = validateFlatIndex(index);
+            if(strides == null) {
+                internalSet(value, fromFlatIndex(index));
+                return this;
+            }
+        } catch(IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        long position = flatPosition(index);
+        if(data != null)
+            data[(int) position] = value;
+        else
+            storage.set(position, value);
+        return this;
+    }
+
+    /**
+     * This method should only be called from inside the Tensor class or its subclasses. Only valid, positive indices
+     * should be passed into this method so, it is the requirement of the caller to perform error checking and negative
+     * to positive index conversions. The indices are not modified by this method, so the same array can be reused
+     * across calls
+     * @param value the value to set the element to
+     * @param indices Array of the indices of the element to set
+     * @since 0.1.2
+     */
+    protected void internalSet(float value, int[] indices) {
+        if(strides == null)
+            base.internalSet(value, view(indices));
+        else if(data != null)
+            data[(int) toStorageIndex(indices)] = value;
+        else
+            storage.set(toStorageIndex(indices), value);
+    }
+
+    /**
+     * Sets the element at the given valid, positive indices to a double, as in {@code internalSet}, without rounding it
+     * to float unless this is a FLOAT32 Tensor
+     * @param value the value to set the element to
+     * @param indices Array of the indices of the element to set
+     * @since 0.1.2
+     */
+    private void internalSetDouble(double value, int[] indices) {
+        if(strides == null)
+            base.internalSetDouble(value, view(indices));
+        else if(data != null)
+            data[(int) toStorageIndex(indices)] = (float) value;
+        else
+            storage.setDouble(toStorageIndex(indices), value);
+    }
+
+    /**
+     * Sets the element at the given valid, positive indices to a long, as in {@code internalSet}, without rounding it
+     * to double. This should only be used for Tensors of integer types
+     * @param value the value to set the element to
+     * @param indices Array of the indices of the element to set
+     * @since 0.1.2
+     */
+    private void internalSetLong(long value, int[] indices) {
+        if(strides == null)
+            base.internalSetLong(value, view(indices));
+        else if(data != null)
+            data[(int) toStorageIndex(indices)] = value;
+        else
+            storage.setLong(toStorageIndex(indices), value);
+    }
+
+    /**
+     * Returns the result of deleting the given elements from the given elements. The result shares the same underlying
+     * memory as the original Tensor, so changing one will change the other.
+     * Negative indexing is supported. Exceptions are thrown if the axis is out of bounds, the indices are out of
+     * bounds, or there are duplicate indices
+     * @param axis The axis to delete indices from
+     * @param indices The indices to delete
+     * @return The same Tensor, with the given elements deleted
+     * @since 0.1.2
+     */
+    public Tensor delete(int axis, int... indices) {
+        try { axis = validateAxis(axis); }
+        catch (IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+
+        // Copy array, so it can't be edited externally
+        int[] array = Arrays.copyOf(indices, indices.length);
+        // Check bounds of each index, and convert to positive indices to diagnose duplicate indices easier
+        for(int i = 0; i < array.length; i++) {
+            if(array[i] < -shape(axis) || array[i] >= shape(axis))
+                throw new IndexOutOfBoundsException(String.format(
+                        "Index %d is out of bounds for axis %d with size %d", array[i], axis, shape(axis)));
+            if(array[i] < 0)
+                array[i] += shape(axis);
+        }
+        Arrays.sort(array);
+        // Are there out of bounds indices
+        for(int i = 1; i < array.length; i++) {
+            if(array[i] == array[i-1])
+                throw new IllegalArgumentException(String.format("Attempted to deleted index %d twice in axis %d." +
+                        " Each index can only be deleted once", array[i], axis));
+        }
+        // Arguments should now be valid
+        return new DeletionView(this, axis, array);
+    }
+
+    /**
+     * Swaps the two given axes in the Tensor. For example, if a = b.swapAxes(1, 3), then
+     * a.get(w, x, y, z) == b.get(w, z, y, x) for all valid w, x, y, z. The resulting Tensor shares the same underlying
+     * memory with the original, so changing one will change the other. Negative indexing is supported
+     * @param axis1 The first axis to swap
+     * @param axis2 The second axis to swap
+     * @return The result of swapping axis1 and axis2
+     * @since 0.1.2
+     */
+    public Tensor swapAxes(int axis1, int axis2) {
+        try {
+            axis1 = validateAxis(axis1);
+            axis2 = validateAxis(axis2);
+        } catch (IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        if(axis1 == axis2)
+            return this;
+        int[] permutation = new int[dims];
+        for(int i = 0; i < dims; i++)
+            permutation[i] = i;
+        permutation[axis1] = axis2;
+        permutation[axis2] = axis1;
+        return new PermutedDimsView(this, permutation);
+    }
+
+    /**
+     * Swaps the last two axes of the Tensor. If the Tensor is treated as a collection of matrices, with the final two
+     * dimensions indexing the rows and columns respectively, then this is equivalent to the standard matrix transpose.
+     * If the Tensor is one dimensional, this inserts an extra dimension in position 0. So a one dimensional Tensor gets
+     * converted into a column vector.
+     * @return The same Tensor, with the final two dimensions swapped
+     * @since 0.1.2
+     */
+    public Tensor t() {
+        if(dims == 1)
+            return unsqueeze(1);
+        return swapAxes(-1, -2);
+    }
+
+    /**
+     * Permutes the dimensions of the Tensor by the given permutation. The value at index i in the permutation indicates
+     * the location dimension {@code i} is moved to in the permutation. For example, if t has a shape of (5, 6, 3), then
+     * t.permute(1, 2, 0) will have a shape of (3, 5, 6). The permutation provided must contain all the integers from
+     * 0 to dims-1 exactly once. The resulting Tensor has the same underlying memory as the original, so changing one
+     * will change the other.
+     * @param permutation The permutation to apply to the dimensions of the Tensor
+     * @return The result of applying the permutation to the dimensions of the Tensor
+     * @since 0.1.2
+     */
+    public Tensor permuteDims(int @NotNull ... permutation) {
+        if(permutation.length != dims)
+            throw new IllegalArgumentException(String.format("%d permutation dims provided to Tensor with %d dims",
+                    permutation.length, dims));
+        boolean[] present = new boolean[dims];
+        permutation = Arrays.copyOf(permutation, dims);
+        for(int i = 0; i < dims; i++) {
+            try { permutation[i] = validateAxis(permutation[i]); }
+            catch(IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+            if(present[permutation[i]])
+                throw new IllegalArgumentException(String.format("Dimension %d repeated in permuteDims",
+                        permutation[i]));
+            present[permutation[i]] = true;
+        }
+        return new PermutedDimsView(this, permutation);
+    }
+
+    /**
+     * Moves the axis at source to the destination axis. Other axes remain in their original order. The resulting Tensor
+     * has the same underlying memory as the original, so changing one will change the other.
+     * @param source The axis to move
+     * @param destination The location to move the axis to
+     * @return The Tensor that is the result of moving the given axis to the given location
+     * @since 0.1.2
+     */
+    public Tensor moveAxis(int source, int destination) {
+        try {
+            source = validateAxis(source);
+            destination = validateAxis(destination);
+        } catch(IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        if(source == destination)
+            return this;
+        int[] permutation = new int[dims];
+        int offset = 0;
+        for(int i = 0; i < dims; i++) {
+            if(i == (source > destination ? destination : source + 1))
+                offset = (int)Math.signum(source - destination);
+            if(i == (source > destination ? source : destination + 1))
+                offset = 0;
+            permutation[i] = i + offset;
+        }
+        permutation[source] = destination;
+        return new PermutedDimsView(this, permutation);
+    }
+
+    /**
+     * Inserts axes of size one at the given locations. The provided axes represent the location of the dimensions in
+     * the final Tensor, meaning the given axes don't necessarily need to be within the bounds of this Tensor's dims,
+     * but do need to be within the bounds of the final Tensors dims. Specifically, all axes need to be in the open
+     * interval {@code [-dims - axes.length, dims + axes.length)}. The only exception to this is if there are duplicate
+     * axes. In this case, subsequent occurrences of the same axis are inserted after the previous one. This, may result
+     * in an error, if the bounds stated above are used. For example, if {@code t} is 2 dimensional, and
+     * {@code t.unsqueeze(3, 3)} is called, then an error would be thrown. The resulting Tensor would have 4 dimensions,
+     * so it is valid to insert a dimension into axes 3, however, the second instance of 3 would then be inserted after
+     * this, into dimension 4, which is out of bounds. However, {@code t.unsqueeze(2, 2)} is valid, and would result in
+     * a Tensor of shape {@code [x, y, 1, 1]}, where {@code [x, y]} is the original Tensor shape
+     * @param axes The locations to insert the singleton dimensions
+     * @return The Tensor that is the result if inserting the dimensions
+     * @since 0.1.2
+     */
+    public Tensor unsqueeze(int... axes) {
+        axes = Arrays.copyOf(axes, axes.length);
+        for(int i = 0; i < axes.length; i++) {
+            if(axes[i] < -dims-1-i || axes[i] > dims+i)
+                throw new IndexOutOfBoundsException(String.format(
+                        "Axis %d out of bounds for Tensor with %d dimensions", axes[i], dims+i));
+            axes[i] = axes[i] < 0 ? axes[i] + dims+1+i : axes[i];
+        }
+        Arrays.sort(axes);
+        for(int i = 1; i < axes.length; i++)
+            axes[i] = Math.max(axes[i-1]+1, axes[i]);
+        return new UnsqueezeView(this, axes);
+    }
+
+    /**
+     * Returns a view into the Tensor with all dimensions of size 1 removed. If there are no singleton dimensions, then
+     * a reference to this Tensor is returned
+     *
+     * @return A view into the Tensor with all dimensions of size 1 removed
+     * @since 0.1.2
+     */
+    public Tensor squeeze() {
+        ArrayList<Integer> singletons = new ArrayList<>(dims);
+        for(int i = 0; i < dims; i++)
+            if(shape(i) == 1)
+                singletons.add(i);
+        if(singletons.size() == 0)
+            return this;
+        return new SqueezeView(this, singletons.stream().mapToInt(i -> i).toArray());
+    }
+
+    /**
+     * Returns a view into the Tensor with the given singleton axes removed. If the given axes do not have a size of 1,
+     * and exception is raised. Negative indexing of axes is supported. Each axis must be in the open interval
+     * {@code [-dims, dims)}
+     * @param axes The singleton axes to remove
+     * @return A view into the Tensor with the given axes removed
+     * @throws IndexOutOfBoundsException if any of the given axes are out of bounds
+     * @throws IllegalArgumentException if any of the axes have a size larger than 1
+     * @since 0.1.2
+     */
+    public Tensor squeeze(int... axes) {
+        axes = Arrays.copyOf(axes, axes.length);
+        for(int i = 0; i < axes.length; i++) {
+            if(axes[i] < -dims || axes[i] >= dims)
+                throw new IndexOutOfBoundsException(String.format(
+                        "Axis %d out of bounds for Tensor with %d dimensions", axes[i], dims));
+            if(shape(axes[i]) != 1)
+                throw new IllegalArgumentException(String.format("Axis %d has a size of %d, " +
+                        "but only singleton axes can be removed", axes[i], shape(axes[i])));
+            axes[i] = axes[i] < 0 ? axes[i] + dims : axes[i];
+        }
+        Arrays.sort(axes);
+        return new SqueezeView(this, axes);
+    }
+
+    /**
+     * Returns a view into the Tensor broadcast to the given shape. The shapes are aligned at their final dimension.
+     * Dimensions of size one in this Tensor are stretched to the size of the corresponding dimension in the given
+     * shape, and new dimensions can be added to the start of the shape. All other dimensions must be unchanged. For
+     * example, a Tensor of shape {@code [3, 1]} can be broadcast to {@code [2, 3, 4]}.
+     * <br><br>
+     * No data is copied, as each stretched dimension has a stride of zero. This means several elements of the result
+     * refer to the same element of this Tensor, so setting one of them will change all of them
+     * @param shape The shape to broadcast the Tensor to
+     * @return A view into the Tensor with the given shape
+     * @throws IllegalArgumentException If the Tensor cannot be broadcast to the given shape
+     * @since 0.1.2
+     */
+    public Tensor broadcastTo(int @NotNull ... shape) {
+        boolean valid = shape.length >= dims;
+        for(int i = 1; valid && i <= dims; i++)
+            valid = shape[shape.length - i] == this.shape[dims - i] || this.shape[dims - i] == 1;
+        if(!valid)
+            throw new IllegalArgumentException(String.format("Tensor of shape %s cannot be broadcast to shape %s",
+                    Arrays.toString(this.shape), Arrays.toString(shape)));
+        if(Arrays.equals(shape, this.shape))
+            return this;
+        return new BroadcastView(this, shape);
+    }
+
+    /**
+     * Used to validate an axis value provided to a method. If the axis is out of bounds, an IndexOutOfBoundsException
+     * is thrown. Otherwise, the axis is converted to the equivalent positive axis and returned
+     * @param axis The axis to validate
+     * @return The equivalent positive axis
+     * @since 0.1.2
+     */
+    private int validateAxis(int axis) {
+        if(axis < -dims || axis >= dims)
+            throw new IndexOutOfBoundsException(String.format(
+                    "Axis %d out of bounds for Tensor with %d dimensions", axis, dims));
+        return axis < 0 ? axis + dims : axis;
+    }
+
+    /**
+     * Returns the minimum value in the Tensor
+     * <br><br>
+     * Note: NaN values are propagated, meaning that if the Tensor contains a NaN value, this will return NaN
+     * @return the minimum value in the Tensor
+     * @since 0.1.1
+     */
+    public float min() {
+        if(size == 0)
+            throw new UnsupportedOperationException("Cannot perform max() on an empty Tensor");
+        return reduce(Math::min);
+    }
+
+    /**
+     * Returns the flattened index of the minimum value in this Tensor
+     * <br>
+     * If the minimum value occurs multiple times in the Tensor, the index of the first occurrence of it is returned
+     * <br><br>
+     * Note, if the Tensor contains NaN values, these are considered to be the minimum. The index is a long, as
+     * Tensors may have more elements than an int can index
+     * @return the flattened index of the minimum value in this Tensor
+     * @since 0.1.1
+     */
+    public long argmin() {
+        if(size == 0)
+            throw new UnsupportedOperationException("Cannot perform argmin() on an empty Tensor");
+        FloatIterator iterator = iterator();
+        float min = iterator.nextFloat();
+        long minIndex = 0;
+        for(long i = 1; iterator.hasNext() && !Float.isNaN(min); i++) {
+            float val = iterator.nextFloat();
+            if(Float.isNaN(val) || val < min) {
+                min = val;
+                minIndex = i;
+            }
+        }
+        return minIndex;
+    }
+
+    /**
+     * Returns the maximum value in the Tensor
+     * <br><br>
+     * Note: NaN values are propagated, meaning that if the Tensor contains a NaN value, this will return NaN
+     * @return the maximum value in the Tensor
+     * @since 0.1.1
+     */
+    public float max() {
+        if(size == 0)
+            throw new UnsupportedOperationException("Cannot perform max() on an empty Tensor");
+        return reduce(Math::max);
+    }
+
+    /**
+     * Returns the flattened index of the maximum value in this Tensor
+     * <br>
+     * If the maximum value occurs multiple times in the Tensor, the index of the first occurrence of it is returned
+     * <br><br>
+     * Note, if the Tensor contains NaN values, these are considered to be the maximum. The index is a long, as
+     * Tensors may have more elements than an int can index
+     * @return the flattened index of the maximum value in this Tensor
+     * @since 0.1.1
+     */
+    public long argmax() {
+        if(size == 0)
+            throw new UnsupportedOperationException("Cannot perform argmax() on an empty Tensor");
+        FloatIterator iterator = iterator();
+        float max = iterator.nextFloat();
+        long maxIndex = 0;
+        for(long i = 1; iterator.hasNext() && !Float.isNaN(max); i++) {
+            float val = iterator.nextFloat();
+            if(Float.isNaN(val) || val > max) {
+                max = val;
+                maxIndex = i;
+            }
+        }
+        return maxIndex;
+    }
+
+    /**
+     * Returns the maximum value in the Tensor, ignoring any NaN values. If the Tensor only contains NaN, then NaN is
+     * returned
+     * @return The maximum non-NaN value, or NaN if there are only NaN values in the Tensor
+     * @since 0.1.1
+     */
+    public float nanmax() {
+        return reduce((x, y) -> {
+            if(Float.isNaN(y)) return x;
+            if(Float.isNaN(x)) return y;
+            return Math.max(x, y);
+        });
+    }
+
+    /**
+     * Returns the minimum value in the Tensor, ignoring any NaN values. If the Tensor only contains NaN, then NaN is
+     * returned
+     * @return The minimum non-NaN value, or NaN if there are only NaN values in the Tensor
+     * @since 0.1.1
+     */
+    public float nanmin() {
+        return reduce((x, y) -> {
+            if(Float.isNaN(y)) return x;
+            if(Float.isNaN(x)) return y;
+            return Math.min(x, y);
+        });
+    }
+
+    /**
+     * Returns the sum of all the elements in this Tensor. The elements are added pairwise, in a tree of fixed shape,
+     * so the rounding error grows with the logarithm of the number of elements rather than the number of elements.
+     * Large Tensors are summed in parallel, and the result does not depend on the number of threads. Elements of
+     * FLOAT64, INT32 and INT64 Tensors are summed in double precision, and only the result is rounded to float.
+     * Returns 0 if the Tensor is empty
+     * @return The sum of the elements
+     * @since 0.1.2
+     */
+    public float sum() {
+        if(!dtype.fitsInFloat())
+            return (float) sumDouble();
+        if(isContiguous())
+            return Summation.sum(data, (int) offset, (int) size);
+        if(storage != null && hasContiguousLayout())
+            return Summation.sum(storage, offset, size);
+        return Summation.sum(this::gather, size);
+    }
+
+    /**
+     * Returns the sum of the elements of this Tensor in double precision. This is only valid for Tensors whose type
+     * does not fit in a float, which are never stored in a float array
+     * @return The sum of the elements
+     * @since 0.1.2
+     */
+    private double sumDouble() {
+        if(hasContiguousLayout())
+            return Summation.sumDouble(storage, offset, size);
+        return Summation.sumDouble(this::gatherDouble, size);
+    }
+
+    /**
+     * Copies a block of elements in row major order into an array, so views that are not consecutive in memory, and
+     * Tensors not stored in a float array, can be processed in chunks without copying them whole
+     * @param index The flattened index of the first element
+     * @param block The array to copy into
+     * @param length The number of elements to copy
+     * @since 0.1.2
+     */
+    private void gather(long index, float[] block, int length) {
+        if(isContiguous())
+            System.arraycopy(data, (int) (offset + index), block, 0, length);
+        else if(hasContiguousLayout())
+            storage.read(offset + index, block, 0, length);
+        else {
+            TensorIterator iterator = new TensorIterator(index);
+            for(int i = 0; i < length; i++)
+                block[i] = iterator.nextFloat();
+        }
+    }
+
+    /**
+     * Copies an array into a block of elements in row major order, as the reverse of {@code gather}
+     * @param index The flattened index of the first element
+     * @param block The array to copy from
+     * @param length The number of elements to copy
+     * @since 0.1.2
+     */
+    private void scatter(long index, float[] block, int length) {
+        if(isContiguous())
+            System.arraycopy(block, 0, data, (int) (offset + index), length);
+        else if(hasContiguousLayout())
+            storage.write(offset + index, block, 0, length);
+        else {
+            TensorIterator iterator = new TensorIterator(index);
+            for(int i = 0; i < length; i++)
+                iterator.put(block[i]);
+        }
+    }
+
+    /**
+     * Copies a block of elements in row major order into an array in double precision, as {@code gather} does
+     * @param index The flattened index of the first element
+     * @param block The array to copy into
+     * @param length The number of elements to copy
+     * @since 0.1.2
+     */
+    private void gatherDouble(long index, double[] block, int length) {
+        TensorIterator iterator = new TensorIterator(index);
+        for(int i = 0; i < length; i++)
+            block[i] = iterator.nextDouble();
+    }
+
+    /**
+     * Returns the mean of all the elements in this Tensor. The sum is computed as in {@link #sum()}. Returns NaN if the
+     * Tensor is empty
+     * @return The mean of the elements
+     * @since 0.1.2
+     */
+    public float mean() {
+        if(!dtype.fitsInFloat())
+            return (float) (sumDouble() / size);
+        return sum() / size;
+    }
+
+    /**
+     * Returns the population variance of all the elements in this Tensor, which is the mean of the squared
+     * differences between each element and the mean of the elements. This is computed in two passes, first finding
+     * the mean, and then summing the squared deviations from it, which avoids the cancellation error of computing
+     * {@code E[x^2] - E[x]^2}. Both sums are computed as in {@link #sum()}. Returns NaN if the Tensor is empty
+     * @return The variance of the elements
+     * @since 0.1.2
+     */
+    public float variance() {
+        if(!dtype.fitsInFloat()) {
+            double mean = sumDouble() / size;
+            if(hasContiguousLayout())
+                return (float) (Summation.sumSquaredDeviationsDouble(storage, offset, size, mean) / size);
+            return (float) (Summation.sumSquaredDeviationsDouble(this::gatherDouble, size, mean) / size);
+        }
+        float mean = mean();
+        if(isContiguous())
+            return Summation.sumSquaredDeviations(data, (int) offset, (int) size, mean) / size;
+        if(storage != null && hasContiguousLayout())
+            return Summation.sumSquaredDeviations(storage, offset, size, mean) / size;
+        return Summation.sumSquaredDeviations(this::gather, size, mean) / size;
+    }
+
+    /**
+     * Returns the sum of the elements along the given axes. The reduced axes are removed from the result. If no axes
+     * are given, the sum is taken over every axis. Negative axes are supported
+     * @param axes The axes to sum along
+     * @return The sum along the given axes
+     * @throws IndexOutOfBoundsException If any of the axes are out of bounds
+     * @throws IllegalArgumentException If any of the axes are repeated
+     * @since 0.1.2
+     */
+    public Tensor sum(int... axes) {
+        return sum(false, axes);
+    }
+
+    /**
+     * Returns the sum of the elements along the given axes. If keepDims is true, the reduced axes are kept in the
+     * result with a size of one, so the result can be broadcast against this Tensor. Otherwise, they are removed. If
+     * no axes are given, the sum is taken over every axis. Negative axes are supported
+     * @param keepDims Whether to keep the reduced axes in the result, with a size of one
+     * @param axes The axes to sum along
+     * @return The sum along the given axes
+     * @throws IndexOutOfBoundsException If any of the axes are out of bounds
+     * @throws IllegalArgumentException If any of the axes are repeated
+     * @since 0.1.2
+     */
+    public Tensor sum(boolean keepDims, int... axes) {
+        try { return reduce(Reduction.Operation.SUM, keepDims, axes); }
+        catch(IllegalArgumentException | IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the mean of the elements along the given axes. The reduced axes are removed from the result. If no axes
+     * are given, the mean is taken over every axis. Negative axes are supported
+     * @param axes The axes to take the mean along
+     * @return The mean along the given axes
+     * @throws IndexOutOfBoundsException If any of the axes are out of bounds
+     * @throws IllegalArgumentException If any of the axes are repeated
+     * @since 0.1.2
+     */
+    public Tensor mean(int... axes) {
+        return mean(false, axes);
+    }
+
+    /**
+     * Returns the mean of the elements along the given axes. If keepDims is true, the reduced axes are kept in the
+     * result with a size of one, so the result can be broadcast against this Tensor. Otherwise, they are removed. If
+     * no axes are given, the mean is taken over every axis. Negative axes are supported. The mean along axes of size
+     * zero is NaN
+     * @param keepDims Whether to keep the reduced axes in the result, with a size of one
+     * @param axes The axes to take the mean along
+     * @return The mean along the given axes
+     * @throws IndexOutOfBoundsException If any of the axes are out of bounds
+     * @throws IllegalArgumentException If any of the axes are repeated
+     * @since 0.1.2
+     */
+    public Tensor mean(boolean keepDims, int... axes) {
+        Tensor sum;
+        try { sum = reduce(Reduction.Operation.SUM, keepDims, axes); }
+        catch(IllegalArgumentException | IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        // Sums of types that do not fit in a float are divided in double precision, giving a floating point mean
+        if(sum.dtype != DType.FLOAT32)
+            return sum.div(from(new double[] {sum.size == 0 ? 0 : (double) size / sum.size}, DType.FLOAT64));
+        float count = sum.size == 0 ? 0 : (float) size / sum.size;
+        return sum.applyInPlace(x -> x / count);
+    }
+
+    /**
+     * Returns the maximum of the elements along the given axes. The reduced axes are removed from the result. If no
+     * axes are given, the maximum is taken over every axis. Negative axes are supported. NaN values are propagated
+     * @param axes The axes to take the maximum along
+     * @return The maximum along the given axes
+     * @throws IndexOutOfBoundsException If any of the axes are out of bounds
+     * @throws IllegalArgumentException If any of the axes are repeated
+     * @throws UnsupportedOperationException If any of the axes have a size of zero
+     * @since 0.1.2
+     */
+    public Tensor max(int... axes) {
+        return max(false, axes);
+    }
+
+    /**
+     * Returns the maximum of the elements along the given axes. If keepDims is true, the reduced axes are kept in the
+     * result with a size of one, so the result can be broadcast against this Tensor. Otherwise, they are removed. If
+     * no axes are given, the maximum is taken over every axis. Negative axes are supported. NaN values are propagated
+     * @param keepDims Whether to keep the reduced axes in the result, with a size of one
+     * @param axes The axes to take the maximum along
+     * @return The maximum along the given axes
+     * @throws IndexOutOfBoundsException If any of the axes are out of bounds
+     * @throws IllegalArgumentException If any of the axes are repeated
+     * @throws UnsupportedOperationException If any of the axes have a size of zero
+     * @since 0.1.2
+     */
+    public Tensor max(boolean keepDims, int... axes) {
+        try { return reduce(Reduction.Operation.MAX, keepDims, axes); }
+        catch(IllegalArgumentException | IndexOutOfBoundsException | UnsupportedOperationException e)
+        { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the minimum of the elements along the given axes. The reduced axes are removed from the result. If no
+     * axes are given, the minimum is taken over every axis. Negative axes are supported. NaN values are propagated
+     * @param axes The axes to take the minimum along
+     * @return The minimum along the given axes
+     * @throws IndexOutOfBoundsException If any of the axes are out of bounds
+     * @throws IllegalArgumentException If any of the axes are repeated
+     * @throws UnsupportedOperationException If any of the axes have a size of zero
+     * @since 0.1.2
+     */
+    public Tensor min(int... axes) {
+        return min(false, axes);
+    }
+
+    /**
+     * Returns the minimum of the elements along the given axes. If keepDims is true, the reduced axes are kept in the
+     * result with a size of one, so the result can be broadcast against this Tensor. Otherwise, they are removed. If
+     * no axes are given, the minimum is taken over every axis. Negative axes are supported. NaN values are propagated
+     * @param keepDims Whether to keep the reduced axes in the result, with a size of one
+     * @param axes The axes to take the minimum along
+     * @return The minimum along the given axes
+     * @throws IndexOutOfBoundsException If any of the axes are out of bounds
+     * @throws IllegalArgumentException If any of the axes are repeated
+     * @throws UnsupportedOperationException If any of the axes have a size of zero
+     * @since 0.1.2
+     */
+    public Tensor min(boolean keepDims, int... axes) {
+        try { return reduce(Reduction.Operation.MIN, keepDims, axes); }
+        catch(IllegalArgumentException | IndexOutOfBoundsException | UnsupportedOperationException e)
+        { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the indices of the maximum values along the given axis. The axis is removed from the result. If the
+     * maximum occurs multiple times, the index of its first occurrence is returned. NaN values are considered to be
+     * the maximum. The indices are returned as an INT32 Tensor. For example, this gives the predicted class for each
+     * row of a matrix of logits
+     * @param axis The axis to find the maximum along
+     * @return The indices of the maximum values along the axis
+     * @throws IndexOutOfBoundsException If the axis is out of bounds
+     * @throws UnsupportedOperationException If the axis has a size of zero
+     * @since 0.1.2
+     */
+    public Tensor argmax(int axis) {
+        return argmax(axis, false);
+    }
+
+    /**
+     * Returns the indices of the maximum values along the given axis. If keepDims is true, the axis is kept in the
+     * result with a size of one, otherwise it is removed. If the maximum occurs multiple times, the index of its first
+     * occurrence is returned. NaN values are considered to be the maximum. The indices are returned as an INT32
+     * Tensor
+     * @param axis The axis to find the maximum along
+     * @param keepDims Whether to keep the axis in the result, with a size of one
+     * @return The indices of the maximum values along the axis
+     * @throws IndexOutOfBoundsException If the axis is out of bounds
+     * @throws UnsupportedOperationException If the axis has a size of zero
+     * @since 0.1.2
+     */
+    public Tensor argmax(int axis, boolean keepDims) {
+        try { return reduce(Reduction.Operation.ARGMAX, keepDims, axis); }
+        catch(IndexOutOfBoundsException | UnsupportedOperationException e)
+        { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the indices of the minimum values along the given axis. The axis is removed from the result. If the
+     * minimum occurs multiple times, the index of its first occurrence is returned. NaN values are considered to be
+     * the minimum. The indices are returned as an INT32 Tensor
+     * @param axis The axis to find the minimum along
+     * @return The indices of the minimum values along the axis
+     * @throws IndexOutOfBoundsException If the axis is out of bounds
+     * @throws UnsupportedOperationException If the axis has a size of zero
+     * @since 0.1.2
+     */
+    public Tensor argmin(int axis) {
+        return argmin(axis, false);
+    }
+
+    /**
+     * Returns the indices of the minimum values along the given axis. If keepDims is true, the axis is kept in the
+     * result with a size of one, otherwise it is removed. If the minimum occurs multiple times, the index of its first
+     * occurrence is returned. NaN values are considered to be the minimum. The indices are returned as an INT32
+     * Tensor
+     * @param axis The axis to find the minimum along
+     * @param keepDims Whether to keep the axis in the result, with a size of one
+     * @return The indices of the minimum values along the axis
+     * @throws IndexOutOfBoundsException If the axis is out of bounds
+     * @throws UnsupportedOperationException If the axis has a size of zero
+     * @since 0.1.2
+     */
+    public Tensor argmin(int axis, boolean keepDims) {
+        try { return reduce(Reduction.Operation.ARGMIN, keepDims, axis); }
+        catch(IndexOutOfBoundsException | UnsupportedOperationException e)
+        { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Reduces this Tensor along the given axes. The Tensor is split into the axes that are kept and the axes that are
+     * reduced, each with their own shape and strides, which are passed to {@code Reduction}. Tensors whose type does
+     * not fit in a float are reduced from their own storage, in double precision or on longs for integer types, and
+     * the result has the same type.
+     * Other Tensors are reduced in float32, and Tensors not stored in a float array, such as off-heap Tensors, are read
+     * through their storage in chunks. The indices found by an arg reduction are written directly into an INT32 Tensor
+     * @param operation The reduction to perform
+     * @param keepDims Whether to keep the reduced axes in the result, with a size of one
+     * @param axes The axes to reduce, or an empty array to reduce every axis
+     * @return The result of the reduction
+     * @throws IndexOutOfBoundsException If any of the axes are out of bounds
+     * @throws IllegalArgumentException If any of the axes are repeated
+     * @throws UnsupportedOperationException If the operation is not a sum, and any of the axes have a size of zero, or
+     * the result has too many elements to fit in an array
+     * @since 0.1.2
+     */
+    private Tensor reduce(Reduction.@NotNull Operation operation, boolean keepDims, int @NotNull ... axes) {
+        boolean[] reduced = new boolean[dims];
+        if(axes.length == 0)
+            Arrays.fill(reduced, true);
+        for(int axis : axes) {
+            int positiveAxis = validateAxis(axis);
+            if(reduced[positiveAxis])
+                throw new IllegalArgumentException(String.format("Axis %d is repeated", axis));
+            reduced[positiveAxis] = true;
+        }
+
+        boolean exact = !dtype.fitsInFloat();
+        Tensor source = strided();
+        int reducedAxes = 0;
+        for(boolean r : reduced)
+            reducedAxes += r ? 1 : 0;
+        int[] keptShape = new int[dims - reducedAxes], reducedShape = new int[reducedAxes];
+        long[] keptStrides = new long[dims - reducedAxes], reducedStrides = new long[reducedAxes];
+        int[] resultShape = new int[keepDims ? dims : dims - reducedAxes];
+        for(int i = 0, kept = 0, removed = 0; i < dims; i++) {
+            if(reduced[i]) {
+                if(shape[i] == 0 && operation != Reduction.Operation.SUM)
+                    throw new UnsupportedOperationException(String.format("Cannot perform %s() along axis %d, as " +
+                            "it has a size of zero", operation.name().toLowerCase(), i));
+                reducedShape[removed] = shape[i];
+                reducedStrides[removed++] = source.strides[i];
+            } else {
+                keptShape[kept] = shape[i];
+                keptStrides[kept++] = source.strides[i];
+            }
+            if(keepDims)
+                resultShape[i] = reduced[i] ? 1 : shape[i];
+        }
+        if(!keepDims)
+            System.arraycopy(keptShape, 0, resultShape, 0, keptShape.length);
+
+        if(operation == Reduction.Operation.ARGMAX || operation == Reduction.Operation.ARGMIN) {
+            int[] indices = new int[heapSize(resultShape)];
+            if(source.data == null)
+                Reduction.reduceIndices(operation, source.storage, source.offset, keptShape, keptStrides,
+                        reducedShape, reducedStrides, indices);
+            else
+                Reduction.reduceIndices(operation, source.data, source.offset, keptShape, keptStrides,
+                        reducedShape, reducedStrides, indices);
+            return new Tensor(new Storage.Int32(indices), resultShape);
+        }
+        if(exact) {
+            Tensor result = zeros(dtype, resultShape);
+            Reduction.reduce(operation, source.storage, source.offset, keptShape, keptStrides, reducedShape,
+                    reducedStrides, result.storage, (int) result.size);
+            return result;
+        }
+        Tensor result = zeros(resultShape);
+        if(source.data == null)
+            Reduction.reduce(operation, source.storage, source.offset, keptShape, keptStrides, reducedShape,
+                    reducedStrides, result.data);
+        else
+            Reduction.reduce(operation, source.data, source.offset, keptShape, keptStrides, reducedShape,
+                    reducedStrides, result.data);
+        return result;
+    }
+
+    /**
+     * Returns a Tensor with all instances of NaN, positive infinity and negative infinity replaced with the given
+     * finite values
+     * @param nan The value to replace NaN values with
+     * @param posInf The value to replace positive infinity values with
+     * @param negInf The value to replace negative infinity values with
+     * @return A Tensor with Nan, inf and -inf replaced with the given values
+     * @since 0.1.1
+     */
+    public Tensor nanToNum(float nan, float posInf, float negInf) {
+        return nanToNum(nan, posInf, negInf, zeros(dtype, shape));
+    }
+
+    /**
+     * Replaces all instances of NaN, positive infinity and negative infinity with the given finite values, writing the
+     * result into the given Tensor rather than allocating a new one. {@code out} may be this Tensor
+     * @param nan The value to replace NaN values with
+     * @param posInf The value to replace positive infinity values with
+     * @param negInf The value to replace negative infinity values with
+     * @param out The Tensor to write the result into, which must have the same shape as this Tensor
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shape of {@code out} is not the shape of the result, if the type of this
+     * Tensor cannot be written into {@code out}, or if multiple elements of {@code out} share the same memory, such as
+     * in a broadcast view
+     * @since 0.1.2
+     */
+    public Tensor nanToNum(float nan, float posInf, float negInf, @NotNull Tensor out) {
+        try {
+            checkDestination(out, shape);
+            checkCast(dtype, out);
+            return elementwise(out, (a, aOffset, result, resultOffset, length) ->
+                    Kernels.INSTANCE.nanToNum(a, aOffset, result, resultOffset, length, nan, posInf, negInf),
+                    x -> Float.isNaN(x) ? nan : (Float.isInfinite(x) ? (x < 0 ? negInf : posInf) : x),
+                    x -> Double.isNaN(x) ? nan : (Double.isInfinite(x) ? (x < 0 ? negInf : posInf) : x), x -> x);
+        } catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns a Tensor with all instances of NaN, positive infinity and negative infinity replaced with the given
+     * finite values. Positive infinity is replaces with {@code inf}, while negative infinity is replaces with
+     * {@code -inf}
+     * @param nan The value to replace NaN values with
+     * @param inf The value to replace infinite values with
+     * @return A Tensor with Nan and infinite values replaced with the given values
+     * @since 0.1.1
+     */
+    public Tensor nanToNum(float nan, float inf) {
+        return nanToNum(nan, inf, -inf);
+    }
+
+    /**
+     * Returns a Tensor with all instances of NaN, positive infinity and negative infinity replaced with finite values.
+     * Positive and negative infinity are replaced with positive and negative {@code Float.MAX_VALUE} respectively,
+     * while the value to replace NaN with is provided as an argument
+     * @param nan The value to replace NaN values with
+     * @return A Tensor with Nan and infinite values replaced with finite values
+     * @since 0.1.1
+     */
+    public Tensor nanToNum(float nan) {
+        return nanToNum(nan, Float.MAX_VALUE);
+    }
+
+    /**
+     * Returns a Tensor with all instances of NaN, positive infinity and negative infinity replaced with finite values.
+     * Positive and negative infinity are replaced with positive and negative {@code Float.MAX_VALUE} respectively,
+     * NaN is replaced with 0
+     * @return A Tensor with Nan and infinite values replaced with finite values
+     * @since 0.1.1
+     */
+    public Tensor nanToNum() {
+        return nanToNum(0, Float.MAX_VALUE);
+    }
+
+    /**
+     * Returns the Tensor containing the absolute value of the elements in this Tensor
+     * @return The absolute value of this Tensor
+     * @since 0.1.1
+     */
+    public Tensor abs() {
+        return elementwise(Kernels.INSTANCE::abs, Math::abs, Math::abs, Math::abs);
+    }
+
+    /**
+     * Computes the absolute value of the elements in this Tensor, writing the result into the given Tensor rather than
+     * allocating a new one. {@code out} may be this Tensor
+     * @param out The Tensor to write the result into, which must have the same shape as this Tensor
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shape of {@code out} is not the shape of the result, if the type of this
+     * Tensor cannot be written into {@code out}, or if multiple elements of {@code out} share the same memory, such as
+     * in a broadcast view
+     * @since 0.1.2
+     */
+    public Tensor abs(@NotNull Tensor out) {
+        try {
+            checkDestination(out, shape);
+            checkCast(dtype, out);
+            return elementwise(out, Kernels.INSTANCE::abs, Math::abs, Math::abs, Math::abs);
+        } catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the Tensor containing the negation of the elements in this Tensor
+     * @return The negation of this Tensor
+     * @since 0.1.2
+     */
+    public Tensor neg() {
+        return elementwise(Kernels.INSTANCE::neg, x -> -x, x -> -x, x -> -x);
+    }
+
+    /**
+     * Computes the negation of the elements in this Tensor, writing the result into the given Tensor rather than
+     * allocating a new one. {@code out} may be this Tensor
+     * @param out The Tensor to write the result into, which must have the same shape as this Tensor
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shape of {@code out} is not the shape of the result, if the type of this
+     * Tensor cannot be written into {@code out}, or if multiple elements of {@code out} share the same memory, such as
+     * in a broadcast view
+     * @since 0.1.2
+     */
+    public Tensor neg(@NotNull Tensor out) {
+        try {
+            checkDestination(out, shape);
+            checkCast(dtype, out);
+            return elementwise(out, Kernels.INSTANCE::neg, x -> -x, x -> -x, x -> -x);
+        } catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the element wise sum of this Tensor and the given Tensor. The two Tensors are broadcast to the same
+     * shape, so for example a bias vector can be added to every row of a matrix without being copied
+     * @param other The Tensor to add to this Tensor
+     * @return The element wise sum of the two Tensors
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor add(@NotNull Tensor other) {
+        return elementwise(DType.promote(dtype, other.dtype), this, other, Kernels.INSTANCE::add, Float::sum,
+                Double::sum, Long::sum);
+    }
+
+    /**
+     * Computes the element wise sum of this Tensor and the given Tensor, writing the result into {@code out} rather
+     * than allocating a new Tensor. The two Tensors are broadcast to the same shape. {@code out} may be either operand
+     * @param other The Tensor to add to this Tensor
+     * @param out The Tensor to write the result into, which must have the broadcast shape of the two Tensors
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together, if the shape of
+     * {@code out} is not the broadcast shape, if the type of the result cannot be written into {@code out}, or if
+     * multiple elements of {@code out} share the same memory
+     * @since 0.1.2
+     */
+    public Tensor add(@NotNull Tensor other, @NotNull Tensor out) {
+        try { return into(out, DType.promote(dtype, other.dtype), this, other, Kernels.INSTANCE::add, Float::sum,
+                Double::sum, Long::sum); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the element wise difference of this Tensor and the given Tensor. The two Tensors are broadcast to the
+     * same shape
+     * @param other The Tensor to subtract from this Tensor
+     * @return The element wise difference of the two Tensors
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor sub(@NotNull Tensor other) {
+        return elementwise(DType.promote(dtype, other.dtype), this, other, Kernels.INSTANCE::sub, (x, y) -> x - y,
+                (x, y) -> x - y, (x, y) -> x - y);
+    }
+
+    /**
+     * Computes the element wise difference of this Tensor and the given Tensor, writing the result into {@code out}
+     * rather than allocating a new Tensor. The two Tensors are broadcast to the same shape. {@code out} may be either
+     * operand
+     * @param other The Tensor to subtract from this Tensor
+     * @param out The Tensor to write the result into, which must have the broadcast shape of the two Tensors
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together, if the shape of
+     * {@code out} is not the broadcast shape, if the type of the result cannot be written into {@code out}, or if
+     * multiple elements of {@code out} share the same memory
+     * @since 0.1.2
+     */
+    public Tensor sub(@NotNull Tensor other, @NotNull Tensor out) {
+        try { return into(out, DType.promote(dtype, other.dtype), this, other, Kernels.INSTANCE::sub, (x, y) -> x - y,
+                (x, y) -> x - y, (x, y) -> x - y); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the element wise product of this Tensor and the given Tensor. The two Tensors are broadcast to the
+     * same shape
+     * @param other The Tensor to multiply this Tensor by
+     * @return The element wise product of the two Tensors
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor mul(@NotNull Tensor other) {
+        return elementwise(DType.promote(dtype, other.dtype), this, other, Kernels.INSTANCE::mul, (x, y) -> x * y,
+                (x, y) -> x * y, (x, y) -> x * y);
+    }
+
+    /**
+     * Computes the element wise product of this Tensor and the given Tensor, writing the result into {@code out} rather
+     * than allocating a new Tensor. The two Tensors are broadcast to the same shape. {@code out} may be either operand
+     * @param other The Tensor to multiply this Tensor by
+     * @param out The Tensor to write the result into, which must have the broadcast shape of the two Tensors
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together, if the shape of
+     * {@code out} is not the broadcast shape, if the type of the result cannot be written into {@code out}, or if
+     * multiple elements of {@code out} share the same memory
+     * @since 0.1.2
+     */
+    public Tensor mul(@NotNull Tensor other, @NotNull Tensor out) {
+        try { return into(out, DType.promote(dtype, other.dtype), this, other, Kernels.INSTANCE::mul, (x, y) -> x * y,
+                (x, y) -> x * y, (x, y) -> x * y); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the element wise quotient of this Tensor and the given Tensor. The two Tensors are broadcast to the
+     * same shape
+     * @param other The Tensor to divide this Tensor by
+     * @return The element wise quotient of the two Tensors
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor div(@NotNull Tensor other) {
+        return elementwise(DType.promote(dtype, other.dtype).toFloatingPoint(), this, other, Kernels.INSTANCE::div,
+                (x, y) -> x / y, (x, y) -> x / y, null);
+    }
+
+    /**
+     * Computes the element wise quotient of this Tensor and the given Tensor, writing the result into {@code out}
+     * rather than allocating a new Tensor. The two Tensors are broadcast to the same shape. {@code out} may be either
+     * operand
+     * @param other The Tensor to divide this Tensor by
+     * @param out The Tensor to write the result into, which must have the broadcast shape of the two Tensors
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together, if the shape of
+     * {@code out} is not the broadcast shape, if the type of the result cannot be written into {@code out}, or if
+     * multiple elements of {@code out} share the same memory
+     * @since 0.1.2
+     */
+    public Tensor div(@NotNull Tensor other, @NotNull Tensor out) {
+        try { return into(out, DType.promote(dtype, other.dtype).toFloatingPoint(), this, other,
+                Kernels.INSTANCE::div, (x, y) -> x / y, (x, y) -> x / y, null); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Returns the element wise power of this Tensor raised to the given Tensor. The two Tensors are broadcast to the
+     * same shape
+     * @param exponent The Tensor containing the exponents
+     * @return The element wise power of the two Tensors
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor pow(@NotNull Tensor exponent) {
+        return elementwise(DType.promote(dtype, exponent.dtype).toFloatingPoint(), this, exponent, null,
+                (x, y) -> (float) Math.pow(x, y), Math::pow, null);
+    }
+
+    /**
+     * Returns the element wise minimum of this Tensor and the given Tensor. The two Tensors are broadcast to the same
+     * shape.
+     * <br><br>
+     * Note: NaN values are propagated, so if either element is NaN, the result is NaN
+     * @param other The Tensor to compare with this Tensor
+     * @return The element wise minimum of the two Tensors
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor minimum(@NotNull Tensor other) {
+        return elementwise(DType.promote(dtype, other.dtype), this, other, Kernels.INSTANCE::min, Math::min, Math::min,
+                Math::min);
+    }
+
+    /**
+     * Returns the element wise maximum of this Tensor and the given Tensor. The two Tensors are broadcast to the same
+     * shape.
+     * <br><br>
+     * Note: NaN values are propagated, so if either element is NaN, the result is NaN
+     * @param other The Tensor to compare with this Tensor
+     * @return The element wise maximum of the two Tensors
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor maximum(@NotNull Tensor other) {
+        return elementwise(DType.promote(dtype, other.dtype), this, other, Kernels.INSTANCE::max, Math::max, Math::max,
+                Math::max);
+    }
+
+    /**
+     * Returns the fused multiply add {@code this * multiplier + addend}, computed element wise with a single rounding.
+     * All three Tensors must have the same shape. The type of the result is promoted from the types of the three
+     * Tensors, and is computed in double precision if any of them does not fit in a float, or on longs if they are
+     * all integers
+     * @param multiplier The Tensor to multiply this Tensor by
+     * @param addend The Tensor to add to the product
+     * @return The element wise fused multiply add of the three Tensors
+     * @throws IllegalArgumentException If the shape of the Tensors is different
+     * @since 0.1.2
+     */
+    public Tensor fma(@NotNull Tensor multiplier, @NotNull Tensor addend) {
+        checkSameShape(this, multiplier);
+        checkSameShape(this, addend);
+        return fma(zeros(DType.promote(DType.promote(dtype, multiplier.dtype), addend.dtype), shape), this, multiplier,
+                addend);
+    }
+
+    /**
+     * Computes the fused multiply add {@code this * multiplier + addend} element wise with a single rounding, writing
+     * the result into {@code out} rather than allocating a new Tensor. All four Tensors must have the same shape.
+     * {@code out} may be any of the operands
+     * @param multiplier The Tensor to multiply this Tensor by
+     * @param addend The Tensor to add to the product
+     * @param out The Tensor to write the result into
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shape of the Tensors is different, if the type of the result cannot be
+     * written into {@code out}, or if multiple elements of {@code out} share the same memory
+     * @since 0.1.2
+     */
+    public Tensor fma(@NotNull Tensor multiplier, @NotNull Tensor addend, @NotNull Tensor out) {
+        checkSameShape(this, multiplier);
+        checkSameShape(this, addend);
+        try {
+            checkDestination(out, shape);
+            checkCast(DType.promote(DType.promote(dtype, multiplier.dtype), addend.dtype), out);
+        }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        if(out.hasInternalOverlap())
+            throw new IllegalArgumentException("Cannot write to a Tensor in which multiple elements share the " +
+                    "same memory, such as a broadcast view");
+        // As in elementwiseDouble, the result is only written directly if no operand can be a view of it
+        if(out.base == null && root() != out && multiplier.root() != out && addend.root() != out)
+            return fma(out, this, multiplier, addend);
+        return out.assign(fma(zeros(out.dtype, shape), this, multiplier, addend));
+    }
+
+    /**
+     * Computes the fused multiply add of three Tensors of the same shape, writing the result into the given
+     * destination, which must be a Tensor that is not a view, and that none of the operands share memory with.
+     * Contiguous FLOAT32 operands are computed with the kernel, and other operands are read element by element. If any
+     * of the Tensors has a type that does not fit in a float, the result is computed on longs if all four Tensors have
+     * integer types, and in double precision otherwise. Ranges of elements are computed in parallel
+     * @param destination The Tensor to write the result into
+     * @param t1 The first factor
+     * @param t2 The second factor
+     * @param t3 The Tensor added to the product
+     * @return The destination Tensor
+     * @since 0.1.2
+     */
+    private static Tensor fma(@NotNull Tensor destination, @NotNull Tensor t1, @NotNull Tensor t2,
+                              @NotNull Tensor t3) {
+        boolean exact = !(destination.dtype.fitsInFloat() && t1.dtype.fitsInFloat() && t2.dtype.fitsInFloat() &&
+                t3.dtype.fitsInFloat());
+        boolean integer = exact && !destination.dtype.isFloatingPoint() && !t1.dtype.isFloatingPoint() &&
+                !t2.dtype.isFloatingPoint() && !t3.dtype.isFloatingPoint();
+        boolean contiguous = destination.data != null && t1.isContiguous() && t2.isContiguous() && t3.isContiguous();
+        Parallel.forRange(destination.arraySize(), 1, (from, to) -> {
+            if(contiguous) {
+                Kernels.INSTANCE.fma(t1.data, (int) t1.offset + from, t2.data, (int) t2.offset + from, t3.data,
+                        (int) t3.offset + from, destination.data, from, to - from);
+                return;
+            }
+            TensorIterator it1 = t1.new TensorIterator(from), it2 = t2.new TensorIterator(from),
+                    it3 = t3.new TensorIterator(from);
+            for(int i = from; i < to; i++) {
+                if(integer)
+                    destination.storage.setLong(i, it1.nextLong() * it2.nextLong() + it3.nextLong());
+                else if(exact) {
+                    double value = Math.fma(it1.nextDouble(), it2.nextDouble(), it3.nextDouble());
+                    if(destination.data != null)
+                        destination.data[i] = (float) value;
+                    else
+                        destination.storage.setDouble(i, value);
+                } else {
+                    float value = Math.fma(it1.nextFloat(), it2.nextFloat(), it3.nextFloat());
+                    if(destination.data != null)
+                        destination.data[i] = value;
+                    else
+                        destination.storage.set(i, value);
+                }
+            }
+        });
+        return destination;
+    }
+
+    /**
+     * Returns a BOOL Tensor containing 1 where the elements of this Tensor are equal to the elements of the given
+     * Tensor, and 0 elsewhere. The two Tensors are broadcast to the same shape. NaN is not equal to any value,
+     * including itself
+     * @param other The Tensor to compare with this Tensor
+     * @return The result of the element wise comparison
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor eq(@NotNull Tensor other) {
+        return elementwise(DType.BOOL, this, other, Kernels.INSTANCE::eq, (x, y) -> x == y ? 1 : 0,
+                (x, y) -> x == y ? 1 : 0, (x, y) -> x == y ? 1 : 0);
+    }
+
+    /**
+     * Returns a BOOL Tensor containing 1 where the elements of this Tensor are less than the elements of the given
+     * Tensor, and 0 elsewhere. The two Tensors are broadcast to the same shape. Comparisons involving NaN are always 0
+     * @param other The Tensor to compare with this Tensor
+     * @return The result of the element wise comparison
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor lt(@NotNull Tensor other) {
+        return elementwise(DType.BOOL, this, other, Kernels.INSTANCE::lt, (x, y) -> x < y ? 1 : 0,
+                (x, y) -> x < y ? 1 : 0, (x, y) -> x < y ? 1 : 0);
+    }
+
+    /**
+     * Returns a BOOL Tensor containing 1 where the elements of this Tensor are less than or equal to the elements of
+     * the given Tensor, and 0 elsewhere. The two Tensors are broadcast to the same shape. Comparisons involving NaN
+     * are always 0
+     * @param other The Tensor to compare with this Tensor
+     * @return The result of the element wise comparison
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor le(@NotNull Tensor other) {
+        return elementwise(DType.BOOL, this, other, Kernels.INSTANCE::le, (x, y) -> x <= y ? 1 : 0,
+                (x, y) -> x <= y ? 1 : 0, (x, y) -> x <= y ? 1 : 0);
+    }
+
+    /**
+     * Returns a BOOL Tensor containing 1 where the elements of this Tensor are greater than the elements of the given
+     * Tensor, and 0 elsewhere. The two Tensors are broadcast to the same shape. Comparisons involving NaN are always 0
+     * @param other The Tensor to compare with this Tensor
+     * @return The result of the element wise comparison
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor gt(@NotNull Tensor other) {
+        return elementwise(DType.BOOL, this, other, Kernels.INSTANCE::gt, (x, y) -> x > y ? 1 : 0,
+                (x, y) -> x > y ? 1 : 0, (x, y) -> x > y ? 1 : 0);
+    }
+
+    /**
+     * Returns a BOOL Tensor containing 1 where the elements of this Tensor are greater than or equal to the elements
+     * of the given Tensor, and 0 elsewhere. The two Tensors are broadcast to the same shape. Comparisons involving NaN
+     * are always 0
+     * @param other The Tensor to compare with this Tensor
+     * @return The result of the element wise comparison
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
+     * @since 0.1.2
+     */
+    public Tensor ge(@NotNull Tensor other) {
+        return elementwise(DType.BOOL, this, other, Kernels.INSTANCE::ge, (x, y) -> x >= y ? 1 : 0,
+                (x, y) -> x >= y ? 1 : 0, (x, y) -> x >= y ? 1 : 0);
+    }
+
+    /**
+     * Adds the given Tensor to this Tensor in place, so no new Tensor is allocated. The given Tensor is broadcast to
+     * the shape of this Tensor. If this Tensor is a view, the result is written through to the Tensor it views
+     * @param other The Tensor to add to this Tensor
+     * @return This Tensor
+     * @throws IllegalArgumentException If the given Tensor cannot be broadcast to the shape of this Tensor, if the type
+     * of the result cannot be written into this Tensor, or if multiple elements of this Tensor share the same memory,
+     * such as in a broadcast view
+     * @since 0.1.2
+     */
+    public Tensor addInPlace(@NotNull Tensor other) {
+        try { return inPlace(other, DType.promote(dtype, other.dtype), Kernels.INSTANCE::add, Float::sum,
+                Double::sum, Long::sum); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Subtracts the given Tensor from this Tensor in place, so no new Tensor is allocated. The given Tensor is
+     * broadcast to the shape of this Tensor. If this Tensor is a view, the result is written through to the Tensor it
+     * views
+     * @param other The Tensor to subtract from this Tensor
+     * @return This Tensor
+     * @throws IllegalArgumentException If the given Tensor cannot be broadcast to the shape of this Tensor, if the type
+     * of the result cannot be written into this Tensor, or if multiple elements of this Tensor share the same memory,
+     * such as in a broadcast view
+     * @since 0.1.2
+     */
+    public Tensor subInPlace(@NotNull Tensor other) {
+        try { return inPlace(other, DType.promote(dtype, other.dtype), Kernels.INSTANCE::sub, (x, y) -> x - y,
+                (x, y) -> x - y, (x, y) -> x - y); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Multiplies this Tensor by the given Tensor in place, so no new Tensor is allocated. The given Tensor is
+     * broadcast to the shape of this Tensor. If this Tensor is a view, the result is written through to the Tensor it
+     * views
+     * @param other The Tensor to multiply this Tensor by
+     * @return This Tensor
+     * @throws IllegalArgumentException If the given Tensor cannot be broadcast to the shape of this Tensor, if the type
+     * of the result cannot be written into this Tensor, or if multiple elements of this Tensor share the same memory,
+     * such as in a broadcast view
+     * @since 0.1.2
+     */
+    public Tensor mulInPlace(@NotNull Tensor other) {
+        try { return inPlace(other, DType.promote(dtype, other.dtype), Kernels.INSTANCE::mul, (x, y) -> x * y,
+                (x, y) -> x * y, (x, y) -> x * y); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Divides this Tensor by the given Tensor in place, so no new Tensor is allocated. The given Tensor is broadcast
+     * to the shape of this Tensor. If this Tensor is a view, the result is written through to the Tensor it views
+     * @param other The Tensor to divide this Tensor by
+     * @return This Tensor
+     * @throws IllegalArgumentException If the given Tensor cannot be broadcast to the shape of this Tensor, if the type
+     * of the result cannot be written into this Tensor, or if multiple elements of this Tensor share the same memory,
+     * such as in a broadcast view
+     * @since 0.1.2
      */
-    public float get(int @NotNull ... indices) {
-        try {indices = validateIndices(indices); }
-        catch(IllegalArgumentException | IndexOutOfBoundsException e)
-        { throw (RuntimeException) e.fillInStackTrace(); }
-
-        return internalGet(indices);
+    public Tensor divInPlace(@NotNull Tensor other) {
+        try { return inPlace(other, DType.promote(dtype, other.dtype).toFloatingPoint(), Kernels.INSTANCE::div,
+                (x, y) -> x / y, (x, y) -> x / y, null); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
     }
 
     /**
-     * Controls how the indices used to index this Tensor are mapped to the indices used to index the underlying Tensor.
-     * This method is overridden by subclasses of Tensor to create a view into another Tensor. Subclasses overriding
-     * this method can safely assume that the provided indices are valid. The length of indices will be equal to
-     * {@code dims} and each element at index {@code i} is in the open interval [0, shape(i)). These checks are all
-     * done prior to the call to {@code view}, so no checks need to be done in this method
-     * @param indices The indices to convert to the underlying Tensor's indices
-     * @return The indices used to access the relevant element in the underlying Tensor
+     * Applies the given function to each element of this Tensor in place, so no new Tensor is allocated. If this
+     * Tensor is a view, the result is written through to the Tensor it views
+     * @param function The function to apply to each element
+     * @return This Tensor
+     * @throws IllegalArgumentException If multiple elements of this Tensor share the same memory, such as in a
+     * broadcast view
      * @since 0.1.2
      */
-    protected int[] view(int[] indices) { return indices; }
+    public Tensor applyInPlace(FloatUnaryOperator function) {
+        try { return elementwise(this, null, function, null, null); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
 
     /**
-     * This method should only be called from inside the Tensor class or its subclasses. Only valid, positive indices
-     * should be passed into this method so, it is the requirement of the caller to perform error checking and negative
-     * to positive index conversions. The indices may be edited inside this function, so if the indices array is needed
-     * after this function call, it should be copied to ensure the original values are maintained
-     * @param indices Array of the indices of the element to retrieve
-     * @return The element at the given index
+     * Applies a binary operation in place, with this Tensor as both the first operand and the destination
+     * @param other The second operand, which is broadcast to the shape of this Tensor
+     * @param type The type of the result of the operation
+     * @param kernel The kernel to use for contiguous blocks
+     * @param function The scalar function equivalent to the kernel
+     * @param exact The function computed in double precision, for operands whose type does not fit in a float
+     * @param integer The function computed on longs, for integer operands whose type does not fit in a float, or null
+     *                if the result is not an integer
+     * @return This Tensor
+     * @throws IllegalArgumentException If the other Tensor cannot be broadcast to the shape of this Tensor, if the type
+     * of the result cannot be written into this Tensor, or if multiple elements of this Tensor share the same memory
      * @since 0.1.2
      */
-    protected float internalGet(int[] indices) {
-        return data == null ? base.internalGet(view(indices)) : data[toFlatIndex(view(indices))];
+    private Tensor inPlace(@NotNull Tensor other, @NotNull DType type, Kernels.@NotNull Binary kernel,
+                           FloatBinaryOperator function, DoubleBinaryOperator exact,
+                           @Nullable LongBinaryOperator integer) {
+        if(!Arrays.equals(broadcastShapes(shape, other.shape), shape))
+            throw new IllegalArgumentException(String.format("Cannot broadcast a Tensor of shape %s to shape %s " +
+                    "in place", other.shape(), shape()));
+        checkCast(type, this);
+        return elementwise(this, this, other, kernel, function, exact, integer);
     }
 
     /**
-     * Sets the element at the specified index to the given value. Negative indexing is supported. If only a single
-     * index is given, it is assumed to be a flattened index
+     * Returns the matrix product of this Tensor and the given Tensor. If both Tensors are two dimensional, this is the
+     * standard matrix product, and the number of columns of this Tensor must equal the number of rows of the given
+     * Tensor. Tensors with more than two dimensions are treated as batches of matrices stored in the final two
+     * dimensions, and the leading dimensions are broadcast together. For example, multiplying Tensors of shape
+     * {@code [8, 1, 5, 3]} and {@code [4, 3, 2]} gives a result of shape {@code [8, 4, 5, 2]}. A one dimensional
+     * Tensor on the left is treated as a row vector, and on the right as a column vector, and the inserted dimension is
+     * removed from the result. If both Tensors are one dimensional, the result has shape {@code [1]}.
      * <br><br>
-     * The indices must satisfy {@code indices.length == dims() && indices.length == 1} and
-     * {@code -shape(i) <= indices[i] < shape(i)}, otherwise an Exception will be raised
-     *
-     * @param value Value to set the element to
-     * @param indices Indices of the element to set
-     * @return A reference to this Tensor
-     * @since 0.1.0
+     * Strided views, such as the result of {@code t()}, {@code permuteDims} or {@code unsqueeze}, are multiplied
+     * directly without being copied. Large products, and large batches of small products, are computed in parallel.
+     * If either Tensor has a type that does not fit in a float, such as FLOAT64 or INT64, the product has the promoted
+     * type of the two Tensors, and is accumulated on longs if that is an integer type, or in double precision
+     * otherwise. Otherwise, it is computed in FLOAT32
+     * @param other The right hand side of the product
+     * @return The matrix product
+     * @throws IllegalArgumentException If the shapes of the Tensors are not compatible
+     * @since 0.1.2
      */
-    public Tensor set(float value, int... indices) {
-        try {indices = validateIndices(indices); }
-        catch(IllegalArgumentException | IndexOutOfBoundsException e)
-        { throw (RuntimeException) e.fillInStackTrace(); }
+    public Tensor matmul(@NotNull Tensor other) {
+        // Types that do not fit in a float are multiplied from INT64 copies of the operands if they are both integers,
+        // or from FLOAT64 copies otherwise
+        DType type = DType.promote(dtype, other.dtype);
+        boolean exact = !(dtype.fitsInFloat() && other.dtype.fitsInFloat());
+        DType exactType = type.isFloatingPoint() ? DType.FLOAT64 : DType.INT64;
+        Tensor a = dims == 1 ? unsqueeze(0) : this, b = other.dims == 1 ? other.unsqueeze(1) : other;
+        a = exact ? a.to(exactType) : a.strided();
+        b = exact ? b.to(exactType) : b.strided();
+        int m = a.shape[a.dims - 2], k = a.shape[a.dims - 1], n = b.shape[b.dims - 1];
+        if(k != b.shape[b.dims - 2])
+            throw new IllegalArgumentException(String.format("Cannot multiply matrices of shape %s and %s",
+                    Arrays.toString(shape), Arrays.toString(other.shape)));
+        int[] aBatch = Arrays.copyOf(a.shape, a.dims - 2), bBatch = Arrays.copyOf(b.shape, b.dims - 2);
+        int[] batchShape;
+        try { batchShape = broadcastShapes(aBatch, bBatch); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
 
-        internalSet(value, indices);
-        return this;
+        // The dimensions that were inserted for one dimensional Tensors are removed from the result, which does not
+        // change the layout of its elements
+        int[] resultShape = Arrays.copyOf(batchShape, batchShape.length + 2);
+        resultShape[batchShape.length] = m;
+        resultShape[batchShape.length + 1] = n;
+        if(dims == 1 && other.dims == 1)
+            resultShape = new int[] {1};
+        else if(dims == 1 || other.dims == 1) {
+            resultShape = Arrays.copyOf(resultShape, resultShape.length - 1);
+            if(dims == 1)
+                resultShape[resultShape.length - 1] = n;
+        }
+        Tensor result = exact ? zeros(exactType, resultShape) : zeros(resultShape);
+        int batches = 1;
+        for(int size : batchShape)
+            batches *= size;
+        long[] aOffsets = a.batchOffsets(batchShape, batches);
+        long[] bOffsets = b.batchOffsets(batchShape, batches);
+        int[] cOffsets = new int[batches];
+        for(int i = 0; i < batches; i++)
+            cOffsets[i] = i * m * n;
+        if(exact && exactType == DType.INT64)
+            Gemm.multiplyInteger(m, n, k, a.storage, aOffsets, a.strides[a.dims - 2], a.strides[a.dims - 1],
+                    b.storage, bOffsets, b.strides[b.dims - 2], b.strides[b.dims - 1], result.storage, cOffsets, n);
+        else if(exact)
+            Gemm.multiplyExact(m, n, k, a.storage, aOffsets, a.strides[a.dims - 2], a.strides[a.dims - 1],
+                    b.storage, bOffsets, b.strides[b.dims - 2], b.strides[b.dims - 1], result.storage, cOffsets, n);
+        else
+            Gemm.multiply(m, n, k, a.data, a.storage, aOffsets, a.strides[a.dims - 2], a.strides[a.dims - 1],
+                    b.data, b.storage, bOffsets, b.strides[b.dims - 2], b.strides[b.dims - 1], result.data, cOffsets,
+                    n);
+        // The exact product is computed in INT64 or FLOAT64, and then converted to the promoted type of the operands
+        return exact && type != exactType ? result.to(type) : result;
     }
 
     /**
-     * This method should only be called from inside the Tensor class or its subclasses. Only valid, positive indices
-     * should be passed into this method so, it is the requirement of the caller to perform error checking and negative
-     * to positive index conversions. The indices may be edited inside this function, so if the indices array is needed
-     * after this function call, it should be copied to ensure the original values are maintained
-     * @param value the value to set the element to
-     * @param indices Array of the indices of the element to set
+     * Returns the position in data of the first element of each matrix, when the leading dimensions of this Tensor
+     * are broadcast to the given batch shape. The final two dimensions of this Tensor are treated as matrices. Leading
+     * dimensions that are missing or of size one are broadcast by repeating the same offset
+     * @param batchShape The shape the leading dimensions are broadcast to
+     * @param batches The product of the batch shape
+     * @return The offset of each matrix in the broadcast batch, in row-major order
      * @since 0.1.2
      */
-    protected void internalSet(float value, int[] indices) {
-        if(data == null)
-            base.internalSet(value, view(indices));
-        else
-            data[toFlatIndex(view(indices))] = value;
+    private long @NotNull [] batchOffsets(int @NotNull [] batchShape, int batches) {
+        long[] offsets = new long[batches];
+        int[] indices = new int[batchShape.length];
+        int leading = dims - 2, skipped = batchShape.length - leading;
+        long position = offset;
+        for(int i = 0; i < batches; i++) {
+            offsets[i] = position;
+            // Advance the indices, keeping position in step. Broadcast dimensions do not move position
+            for(int axis = batchShape.length - 1; axis >= 0; axis--) {
+                long stride = axis < skipped || shape[axis - skipped] == 1 ? 0 : strides[axis - skipped];
+                if(++indices[axis] < batchShape[axis]) {
+                    position += stride;
+                    break;
+                }
+                position -= stride * (batchShape[axis] - 1);
+                indices[axis] = 0;
+            }
+        }
+        return offsets;
     }
 
     /**
-     * Returns the result of deleting the given elements from the given elements. The result shares the same underlying
-     * memory as the original Tensor, so changing one will change the other.
-     * Negative indexing is supported. Exceptions are thrown if the axis is out of bounds, the indices are out of
-     * bounds, or there are duplicate indices
-     * @param axis The axis to delete indices from
-     * @param indices The indices to delete
-     * @return The same Tensor, with the given elements deleted
+     * Computes the shape that the given shapes are broadcast to. Shapes are aligned at their final dimension, and
+     * missing leading dimensions are treated as having a size of one. Along each dimension, the sizes must either be
+     * equal, or one of them must be one, in which case it is stretched to match the other
+     * @param shape1 The first shape
+     * @param shape2 The second shape
+     * @return The broadcast shape
+     * @throws IllegalArgumentException If the shapes cannot be broadcast together
      * @since 0.1.2
      */
-    public Tensor delete(int axis, int... indices) {
-        try { axis = validateAxis(axis); }
-        catch (IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
-
-        // Copy array, so it can't be edited externally
-        int[] array = Arrays.copyOf(indices, indices.length);
-        // Check bounds of each index, and convert to positive indices to diagnose duplicate indices easier
-        for(int i = 0; i < array.length; i++) {
-            if(array[i] < -shape(axis) || array[i] >= shape(axis))
-                throw new IndexOutOfBoundsException(String.format(
-                        "Index %d is out of bounds for axis %d with size %d", array[i], axis, shape(axis)));
-            if(array[i] < 0)
-                array[i] += shape(axis);
-        }
-        Arrays.sort(array);
-        // Are there out of bounds indices
-        for(int i = 1; i < array.length; i++) {
-            if(array[i] == array[i-1])
-                throw new IllegalArgumentException(String.format("Attempted to deleted index %d twice in axis %d." +
-                        " Each index can only be deleted once", array[i], axis));
+    private static int @NotNull [] broadcastShapes(int @NotNull [] shape1, int @NotNull [] shape2) {
+        int[] shape = new int[Math.max(shape1.length, shape2.length)];
+        for(int i = 1; i <= shape.length; i++) {
+            int size1 = i <= shape1.length ? shape1[shape1.length - i] : 1;
+            int size2 = i <= shape2.length ? shape2[shape2.length - i] : 1;
+            if(size1 != size2 && size1 != 1 && size2 != 1)
+                throw new IllegalArgumentException(String.format("Shapes %s and %s cannot be broadcast together",
+                        Arrays.toString(shape1), Arrays.toString(shape2)));
+            shape[shape.length - i] = size1 == 1 ? size2 : size1;
         }
-        // Arguments should now be valid
-        return new DeletionView(this, axis, array);
+        return shape;
     }
 
     /**
-     * Swaps the two given axes in the Tensor. For example, if a = b.swapAxes(1, 3), then
-     * a.get(w, x, y, z) == b.get(w, z, y, x) for all valid w, x, y, z. The resulting Tensor shares the same underlying
-     * memory with the original, so changing one will change the other. Negative indexing is supported
-     * @param axis1 The first axis to swap
-     * @param axis2 The second axis to swap
-     * @return The result of swapping axis1 and axis2
+     * Returns this Tensor if it is strided, otherwise returns a contiguous copy of it. Used by operations that locate
+     * elements through their strides, which read them from the data array, or from storage if there is no data array
+     * @return A strided Tensor with the same elements as this Tensor
      * @since 0.1.2
      */
-    public Tensor swapAxes(int axis1, int axis2) {
-        try {
-            axis1 = validateAxis(axis1);
-            axis2 = validateAxis(axis2);
-        } catch (IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
-        if(axis1 == axis2)
-            return this;
-        int[] permutation = new int[dims];
-        for(int i = 0; i < dims; i++)
-            permutation[i] = i;
-        permutation[axis1] = axis2;
-        permutation[axis2] = axis1;
-        return new PermutedDimsView(this, permutation);
+    private Tensor strided() {
+        return strides != null ? this : contiguous();
     }
 
     /**
-     * Swaps the last two axes of the Tensor. If the Tensor is treated as a collection of matrices, with the final two
-     * dimensions indexing the rows and columns respectively, then this is equivalent to the standard matrix transpose.
-     * If the Tensor is one dimensional, this inserts an extra dimension in position 0. So a one dimensional Tensor gets
-     * converted into a column vector.
-     * @return The same Tensor, with the final two dimensions swapped
+     * Applies a unary operation to this Tensor, writing the result into a new Tensor of the same type
+     * @param kernel The kernel to use for contiguous blocks
+     * @param function The scalar function equivalent to the kernel
+     * @param exact The function computed in double precision, for Tensors whose type does not fit in a float
+     * @param integer The function computed on longs, for integer Tensors whose type does not fit in a float
+     * @return The result of the operation
      * @since 0.1.2
      */
-    public Tensor t() {
-        if(dims == 1)
-            return unsqueeze(1);
-        return swapAxes(-1, -2);
+    private Tensor elementwise(Kernels.Unary kernel, FloatUnaryOperator function, DoubleUnaryOperator exact,
+                               LongUnaryOperator integer) {
+        return elementwise(zeros(dtype, shape), kernel, function, exact, integer);
     }
 
     /**
-     * Permutes the dimensions of the Tensor by the given permutation. The value at index i in the permutation indicates
-     * the location dimension {@code i} is moved to in the permutation. For example, if t has a shape of (5, 6, 3), then
-     * t.permute(1, 2, 0) will have a shape of (3, 5, 6). The permutation provided must contain all the integers from
-     * 0 to dims-1 exactly once. The resulting Tensor has the same underlying memory as the original, so changing one
-     * will change the other.
-     * @param permutation The permutation to apply to the dimensions of the Tensor
-     * @return The result of applying the permutation to the dimensions of the Tensor
+     * Applies a binary operation to the given Tensors, after broadcasting them to the same shape. Broadcasting is done
+     * with zero strides, so neither Tensor is copied
+     * @param type The type of the result
+     * @param t1 The first Tensor
+     * @param t2 The second Tensor
+     * @param kernel The kernel to use for contiguous blocks, or null if only the scalar function should be used
+     * @param function The scalar function equivalent to the kernel
+     * @param exact The function computed in double precision, for Tensors whose type does not fit in a float, or null
+     *              if the operation is always computed in float32
+     * @param integer The function computed on longs, for integer Tensors whose type does not fit in a float, or null
+     *                if the result is not an integer, or the operation is always computed in float32
+     * @return The result of the operation
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
      * @since 0.1.2
      */
-    public Tensor permuteDims(int @NotNull ... permutation) {
-        if(permutation.length != dims)
-            throw new IllegalArgumentException(String.format("%d permutation dims provided to Tensor with %d dims",
-                    permutation.length, dims));
-        boolean[] present = new boolean[dims];
-        permutation = Arrays.copyOf(permutation, dims);
-        for(int i = 0; i < dims; i++) {
-            try { permutation[i] = validateAxis(permutation[i]); }
-            catch(IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
-            if(present[permutation[i]])
-                throw new IllegalArgumentException(String.format("Dimension %d repeated in permuteDims",
-                        permutation[i]));
-            present[permutation[i]] = true;
-        }
-        return new PermutedDimsView(this, permutation);
+    private static Tensor elementwise(@NotNull DType type, @NotNull Tensor t1, @NotNull Tensor t2,
+                                      Kernels.@Nullable Binary kernel, FloatBinaryOperator function,
+                                      @Nullable DoubleBinaryOperator exact, @Nullable LongBinaryOperator integer) {
+        int[] shape;
+        try { shape = broadcastShapes(t1.shape, t2.shape); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        return elementwise(zeros(type, shape), t1, t2, kernel, function, exact, integer);
     }
 
     /**
-     * Moves the axis at source to the destination axis. Other axes remain in their original order. The resulting Tensor
-     * has the same underlying memory as the original, so changing one will change the other.
-     * @param source The axis to move
-     * @param destination The location to move the axis to
-     * @return The Tensor that is the result of moving the given axis to the given location
+     * Applies a binary operation to the given Tensors, writing the result into the given destination, after checking
+     * that the destination has the shape that the two Tensors are broadcast to, and a type the result can be written
+     * into
+     * @param destination The Tensor to write the result into
+     * @param type The type of the result
+     * @param t1 The first Tensor
+     * @param t2 The second Tensor
+     * @param kernel The kernel to use for contiguous blocks, or null if only the scalar function should be used
+     * @param function The scalar function equivalent to the kernel
+     * @param exact The function computed in double precision, for Tensors whose type does not fit in a float, or null
+     *              if the operation is always computed in float32
+     * @param integer The function computed on longs, for integer Tensors whose type does not fit in a float, or null
+     *                if the result is not an integer, or the operation is always computed in float32
+     * @return The destination Tensor
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together, if the
+     * destination does not have the broadcast shape, if the type of the result cannot be written into the destination,
+     * or if multiple elements of the destination share the same memory
      * @since 0.1.2
      */
-    public Tensor moveAxis(int source, int destination) {
-        try {
-            source = validateAxis(source);
-            destination = validateAxis(destination);
-        } catch(IndexOutOfBoundsException e) { throw (RuntimeException) e.fillInStackTrace(); }
-        if(source == destination)
-            return this;
-        int[] permutation = new int[dims];
-        int offset = 0;
-        for(int i = 0; i < dims; i++) {
-            if(i == (source > destination ? destination : source + 1))
-                offset = (int)Math.signum(source - destination);
-            if(i == (source > destination ? source : destination + 1))
-                offset = 0;
-            permutation[i] = i + offset;
-        }
-        permutation[source] = destination;
-        return new PermutedDimsView(this, permutation);
+    private static Tensor into(@NotNull Tensor destination, @NotNull DType type, @NotNull Tensor t1,
+                               @NotNull Tensor t2, Kernels.@Nullable Binary kernel, FloatBinaryOperator function,
+                               @Nullable DoubleBinaryOperator exact, @Nullable LongBinaryOperator integer) {
+        checkDestination(destination, broadcastShapes(t1.shape, t2.shape));
+        checkCast(type, destination);
+        return elementwise(destination, t1, t2, kernel, function, exact, integer);
     }
 
     /**
-     * Inserts axes of size one at the given locations. The provided axes represent the location of the dimensions in
-     * the final Tensor, meaning the given axes don't necessarily need to be within the bounds of this Tensor's dims,
-     * but do need to be within the bounds of the final Tensors dims. Specifically, all axes need to be in the open
-     * interval {@code [-dims - axes.length, dims + axes.length)}. The only exception to this is if there are duplicate
-     * axes. In this case, subsequent occurrences of the same axis are inserted after the previous one. This, may result
-     * in an error, if the bounds stated above are used. For example, if {@code t} is 2 dimensional, and
-     * {@code t.unsqueeze(3, 3)} is called, then an error would be thrown. The resulting Tensor would have 4 dimensions,
-     * so it is valid to insert a dimension into axes 3, however, the second instance of 3 would then be inserted after
-     * this, into dimension 4, which is out of bounds. However, {@code t.unsqueeze(2, 2)} is valid, and would result in
-     * a Tensor of shape {@code [x, y, 1, 1]}, where {@code [x, y]} is the original Tensor shape
-     * @param axes The locations to insert the singleton dimensions
-     * @return The Tensor that is the result if inserting the dimensions
+     * Throws an exception if a result of the given type cannot be written into the given destination Tensor
+     * @param type The type of the result
+     * @param destination The Tensor the result will be written to
+     * @throws IllegalArgumentException If the type cannot be cast to the type of the destination
      * @since 0.1.2
      */
-    public Tensor unsqueeze(int... axes) {
-        axes = Arrays.copyOf(axes, axes.length);
-        for(int i = 0; i < axes.length; i++) {
-            if(axes[i] < -dims-1-i || axes[i] > dims+i)
-                throw new IndexOutOfBoundsException(String.format(
-                        "Axis %d out of bounds for Tensor with %d dimensions", axes[i], dims+i));
-            axes[i] = axes[i] < 0 ? axes[i] + dims+1+i : axes[i];
-        }
-        Arrays.sort(axes);
-        for(int i = 1; i < axes.length; i++)
-            axes[i] = Math.max(axes[i-1]+1, axes[i]);
-        return new UnsqueezeView(this, axes);
+    private static void checkCast(@NotNull DType type, @NotNull Tensor destination) {
+        if(!DType.canCast(type, destination.dtype))
+            throw new IllegalArgumentException(String.format("Cannot write a result of type %s into a Tensor of " +
+                    "type %s", type, destination.dtype));
     }
 
     /**
-     * Returns a view into the Tensor with all dimensions of size 1 removed. If there are no singleton dimensions, then
-     * a reference to this Tensor is returned
-     *
-     * @return A view into the Tensor with all dimensions of size 1 removed
+     * Throws an exception if the given destination Tensor does not have the shape of the result being written to it
+     * @param destination The Tensor the result will be written to
+     * @param shape The shape of the result
+     * @throws IllegalArgumentException If the shape of the destination is different to the shape of the result
      * @since 0.1.2
      */
-    public Tensor squeeze() {
-        ArrayList<Integer> singletons = new ArrayList<>(dims);
-        for(int i = 0; i < dims; i++)
-            if(shape(i) == 1)
-                singletons.add(i);
-        if(singletons.size() == 0)
-            return this;
-        return new SqueezeView(this, singletons.stream().mapToInt(i -> i).toArray());
+    private static void checkDestination(@NotNull Tensor destination, int @NotNull [] shape) {
+        if(!Arrays.equals(destination.shape, shape))
+            throw new IllegalArgumentException(String.format("The destination Tensor has shape %s, but the result " +
+                    "has shape %s", destination.shape(), Arrays.toString(shape)));
     }
 
     /**
-     * Returns a view into the Tensor with the given singleton axes removed. If the given axes do not have a size of 1,
-     * and exception is raised. Negative indexing of axes is supported. Each axis must be in the open interval
-     * {@code [-dims, dims)}
-     * @param axes The singleton axes to remove
-     * @return A view into the Tensor with the given axes removed
-     * @throws IndexOutOfBoundsException if any of the given axes are out of bounds
-     * @throws IllegalArgumentException if any of the axes have a size larger than 1
+     * Applies a binary operation to the given Tensors, writing the result into the destination Tensor. Both Tensors
+     * are broadcast to the shape of the destination, which must be checked by the caller. The result is computed in
+     * blocks along the trailing dimensions over which all three Tensors are contiguous. If a kernel is given, it is
+     * run directly over each block, otherwise the scalar function is applied to each pair of elements. Ranges of
+     * blocks are computed in parallel, or ranges of elements if there is only one block.
+     * <br><br>
+     * The destination may share memory with either operand. An operand that is laid out identically to the
+     * destination is safe to read, as each element is read before it is overwritten, but an operand that overlaps the
+     * destination in any other way is copied first, so no element is read after it has been written.
+     * <br><br>
+     * If any of the Tensors is not stored in a float array, such as an off-heap Tensor or a view that maps its indices
+     * onto a base Tensor, the result is computed in chunks by {@code elementwiseBuffered} instead, so no Tensor is
+     * copied whole. If any of the Tensors has a type that does not fit in a float, and a double precision function is
+     * given, the result is computed with it instead, so the elements are never rounded to float. If all three Tensors
+     * have integer types, and an integer function is given, the result is computed on longs instead, so integers are
+     * exact beyond 2^53
+     * @param destination The Tensor to write the result into
+     * @param t1 The first Tensor
+     * @param t2 The second Tensor
+     * @param kernel The kernel to use for contiguous blocks, or null if only the scalar function should be used
+     * @param function The scalar function equivalent to the kernel
+     * @param exact The function computed in double precision, or null if the operation is always computed in float32
+     * @param integer The function computed on longs, or null if the result is not an integer, or the operation is
+     *                always computed in float32
+     * @return The destination Tensor
+     * @throws IllegalArgumentException If more than one element of the destination refers to the same memory
      * @since 0.1.2
      */
-    public Tensor squeeze(int... axes) {
-        axes = Arrays.copyOf(axes, axes.length);
-        for(int i = 0; i < axes.length; i++) {
-            if(axes[i] < -dims || axes[i] >= dims)
-                throw new IndexOutOfBoundsException(String.format(
-                        "Axis %d out of bounds for Tensor with %d dimensions", axes[i], dims));
-            if(shape(axes[i]) != 1)
-                throw new IllegalArgumentException(String.format("Axis %d has a size of %d, " +
-                        "but only singleton axes can be removed", axes[i], shape(axes[i])));
-            axes[i] = axes[i] < 0 ? axes[i] + dims : axes[i];
+    private static Tensor elementwise(@NotNull Tensor destination, @NotNull Tensor t1, @NotNull Tensor t2,
+                                      Kernels.@Nullable Binary kernel, FloatBinaryOperator function,
+                                      @Nullable DoubleBinaryOperator exact, @Nullable LongBinaryOperator integer) {
+        if(destination.hasInternalOverlap())
+            throw new IllegalArgumentException("Cannot write to a Tensor in which multiple elements share the " +
+                    "same memory, such as a broadcast view");
+        if(exact != null && !(destination.dtype.fitsInFloat() && t1.dtype.fitsInFloat() && t2.dtype.fitsInFloat())) {
+            if(integer != null && !destination.dtype.isFloatingPoint() && !t1.dtype.isFloatingPoint() &&
+                    !t2.dtype.isFloatingPoint())
+                return elementwiseLong(destination, t1, t2, integer);
+            return elementwiseDouble(destination, t1, t2, exact);
         }
-        Arrays.sort(axes);
-        return new SqueezeView(this, axes);
+        // Views that map their indices onto a base Tensor, and Tensors not stored in a float array, cannot be read or
+        // written in blocks of the array, so they are streamed through buffers instead
+        if(destination.data == null || t1.data == null || t2.data == null)
+            return elementwiseBuffered(destination, t1, t2, kernel, function);
+
+        int[] shape = destination.shape;
+        Tensor out = destination, a = out.operand(t1), b = out.operand(t2);
+        if(out.size == 0)
+            return destination;
+
+        // Merge the trailing dimensions over which all the Tensors are contiguous into a single block. If there are
+        // none, the final dimension is used as the block, with the strides of each Tensor along it
+        // Every Tensor is stored on the heap, so all positions fit in an int
+        int[] outStrides = out.heapStrides(), aStrides = a.heapStrides(), bStrides = b.heapStrides();
+        int block = 1, outer = shape.length;
+        while(outer > 0 && (shape[outer - 1] == 1 || (outStrides[outer - 1] == block &&
+                aStrides[outer - 1] == block && bStrides[outer - 1] == block))) {
+            block *= shape[outer - 1];
+            outer--;
+        }
+        boolean strided = block == 1 && outer > 0;
+        int axes = strided ? outer - 1 : outer, length = strided ? shape[axes] : block;
+        int outStride = strided ? outStrides[axes] : 1, aStride = strided ? aStrides[axes] : 1,
+                bStride = strided ? bStrides[axes] : 1;
+        Kernels.Binary blockKernel = outStride == 1 && aStride == 1 && bStride == 1 ? kernel : null;
+
+        if(axes == 0) {
+            // There is a single block, so it is split into ranges of elements
+            Parallel.forRange(length, 1, (from, to) -> elementwiseBlock(blockKernel, function, to - from,
+                    out.data, (int) out.offset + from * outStride, outStride, a.data, (int) a.offset + from * aStride,
+                    aStride, b.data, (int) b.offset + from * bStride, bStride));
+            return destination;
+        }
+        Parallel.forRange((int) out.size / length, length, (from, to) -> {
+            int[] indices = new int[axes];
+            int outPosition = (int) out.offset, aPosition = (int) a.offset, bPosition = (int) b.offset;
+            for(int axis = axes - 1, index = from; axis >= 0; axis--) {
+                indices[axis] = index % shape[axis];
+                index /= shape[axis];
+                outPosition += indices[axis] * outStrides[axis];
+                aPosition += indices[axis] * aStrides[axis];
+                bPosition += indices[axis] * bStrides[axis];
+            }
+            for(int i = from; i < to; i++) {
+                elementwiseBlock(blockKernel, function, length, out.data, outPosition, outStride,
+                        a.data, aPosition, aStride, b.data, bPosition, bStride);
+                // Advance to the next block, keeping all the positions in step with the indices
+                for(int axis = axes - 1; axis >= 0; axis--) {
+                    outPosition += outStrides[axis];
+                    aPosition += aStrides[axis];
+                    bPosition += bStrides[axis];
+                    if(++indices[axis] < shape[axis])
+                        break;
+                    outPosition -= outStrides[axis] * shape[axis];
+                    aPosition -= aStrides[axis] * shape[axis];
+                    bPosition -= bStrides[axis] * shape[axis];
+                    indices[axis] = 0;
+                }
+            }
+        });
+        return destination;
     }
 
     /**
-     * Used to validate an axis value provided to a method. If the axis is out of bounds, an IndexOutOfBoundsException
-     * is thrown. Otherwise, the axis is converted to the equivalent positive axis and returned
-     * @param axis The axis to validate
-     * @return The equivalent positive axis
+     * Applies a binary operation in float32 to Tensors that are not all stored in float arrays, such as off-heap
+     * Tensors, 16 bit Tensors and views that map their indices onto a base Tensor. The destination is processed in
+     * chunks of {@code BUFFER_SIZE} consecutive flattened indices. For each chunk, the elements of both operands are
+     * gathered into buffers, the kernel or function is applied to the buffers, and the result is scattered into the
+     * destination, so no Tensor is copied whole. Ranges of chunks are computed in parallel, and each range allocates
+     * its own buffers. Operands that overlap the destination are handled as in {@code elementwise}, as each chunk of
+     * the operands is read before the same chunk of the destination is written
+     * @param destination The Tensor to write the result into
+     * @param t1 The first Tensor
+     * @param t2 The second Tensor
+     * @param kernel The kernel to apply to each chunk, or null if the scalar function should be used
+     * @param function The scalar function equivalent to the kernel
+     * @return The destination Tensor
      * @since 0.1.2
      */
-    private int validateAxis(int axis) {
-        if(axis < -dims || axis >= dims)
-            throw new IndexOutOfBoundsException(String.format(
-                    "Axis %d out of bounds for Tensor with %d dimensions", axis, dims));
-        return axis < 0 ? axis + dims : axis;
+    private static Tensor elementwiseBuffered(@NotNull Tensor destination, @NotNull Tensor t1, @NotNull Tensor t2,
+                                              Kernels.@Nullable Binary kernel, FloatBinaryOperator function) {
+        long size = destination.size;
+        if(size == 0)
+            return destination;
+        // Unary operations pass the same Tensor twice, so it is only gathered once
+        Tensor a = destination.operand(t1), b = t2 == t1 ? a : destination.operand(t2);
+        Parallel.forRange((int) ((size + BUFFER_SIZE - 1) / BUFFER_SIZE), BUFFER_SIZE, (from, to) -> {
+            int length = (int) Math.min(BUFFER_SIZE, size);
+            float[] first = new float[length], second = b == a ? first : new float[length], out = new float[length];
+            for(int chunk = from; chunk < to; chunk++) {
+                long start = (long) chunk * BUFFER_SIZE;
+                int chunkLength = (int) Math.min(BUFFER_SIZE, size - start);
+                a.gather(start, first, chunkLength);
+                if(b != a)
+                    b.gather(start, second, chunkLength);
+                if(kernel != null)
+                    kernel.apply(first, 0, second, 0, out, 0, chunkLength);
+                else
+                    for(int i = 0; i < chunkLength; i++)
+                        out[i] = function.applyAsFloat(first[i], second[i]);
+                destination.scatter(start, out, chunkLength);
+            }
+        });
+        return destination;
     }
 
     /**
-     * Returns the minimum value in the Tensor
-     * <br><br>
-     * Note: NaN values are propagated, meaning that if the Tensor contains a NaN value, this will return NaN
-     * @return the minimum value in the Tensor
-     * @since 0.1.1
+     * Applies a binary operation in double precision, reading the operands element by element in row-major order after
+     * broadcasting them to the shape of the destination. The result is written directly into the destination if it is
+     * a Tensor that neither operand is a view of, otherwise it is computed separately and then copied in, so no element
+     * is read after it has been written
+     * @param destination The Tensor to write the result into
+     * @param t1 The first Tensor
+     * @param t2 The second Tensor
+     * @param function The function to apply to each pair of elements
+     * @return The destination Tensor
+     * @since 0.1.2
      */
-    public float min() {
-        if(size == 0)
-            throw new UnsupportedOperationException("Cannot perform max() on an empty Tensor");
-        return reduce(Math::min);
+    private static Tensor elementwiseDouble(@NotNull Tensor destination, @NotNull Tensor t1, @NotNull Tensor t2,
+                                            @NotNull DoubleBinaryOperator function) {
+        Tensor a = t1.broadcastTo(destination.shape), b = t2.broadcastTo(destination.shape);
+        boolean direct = destination.base == null && t1.root() != destination && t2.root() != destination;
+        Tensor result = direct ? destination : zeros(destination.dtype, destination.shape);
+        // The result is contiguous, so each range of flattened indices is written to the same range of its storage
+        Parallel.forRange(result.arraySize(), 1, (from, to) -> {
+            TensorIterator it1 = a.new TensorIterator(from), it2 = b.new TensorIterator(from);
+            for(int i = from; i < to; i++) {
+                double value = function.applyAsDouble(it1.nextDouble(), it2.nextDouble());
+                if(result.data != null)
+                    result.data[i] = (float) value;
+                else
+                    result.storage.setDouble(i, value);
+            }
+        });
+        return direct ? destination : destination.assign(result);
+    }
+
+    /**
+     * Applies a binary operation to integers on longs, reading the operands element by element in row-major order
+     * after broadcasting them to the shape of the destination, as in {@code elementwiseDouble}. Every type of the
+     * operands and the destination is an integer type, so INT64 elements are never rounded to double
+     * @param destination The Tensor to write the result into
+     * @param t1 The first Tensor
+     * @param t2 The second Tensor
+     * @param function The function to apply to each pair of elements
+     * @return The destination Tensor
+     * @since 0.1.2
+     */
+    private static Tensor elementwiseLong(@NotNull Tensor destination, @NotNull Tensor t1, @NotNull Tensor t2,
+                                          @NotNull LongBinaryOperator function) {
+        Tensor a = t1.broadcastTo(destination.shape), b = t2.broadcastTo(destination.shape);
+        boolean direct = destination.base == null && t1.root() != destination && t2.root() != destination;
+        Tensor result = direct ? destination : zeros(destination.dtype, destination.shape);
+        // The result is contiguous and not a FLOAT32 Tensor, so each range of flattened indices is written to the same
+        // range of its storage
+        Parallel.forRange(result.arraySize(), 1, (from, to) -> {
+            TensorIterator it1 = a.new TensorIterator(from), it2 = b.new TensorIterator(from);
+            for(int i = from; i < to; i++)
+                result.storage.setLong(i, function.applyAsLong(it1.nextLong(), it2.nextLong()));
+        });
+        return direct ? destination : destination.assign(result);
     }
 
     /**
-     * Returns the flattened index of the minimum value in this Tensor
-     * <br>
-     * If the minimum value occurs multiple times in the Tensor, the index of the first occurrence of it is returned
-     * <br><br>
-     * Note, if the Tensor contains NaN values, these are considered to be the minimum
-     * @return the flattened index of the minimum value in this Tensor
-     * @since 0.1.1
+     * Returns the Tensor at the root of the chain of views this Tensor was created from, which owns its storage
+     * @return The Tensor that is not a view, that this Tensor views, or this Tensor if it is not a view
+     * @since 0.1.2
      */
-    public int argmin() {
-        int minIndex = 0;
-        float min = get(0);
-        for(int[] i : indices) {
-            float val = get(i);
-            if(Float.isNaN(val))
-                return toFlatIndex(i);
-            if(val < min) {
-                min = val;
-                minIndex = toFlatIndex(i);
-            }
-        }
-        return minIndex;
+    private @NotNull Tensor root() {
+        Tensor root = this;
+        while(root.base != null)
+            root = root.base;
+        return root;
     }
 
     /**
-     * Returns the maximum value in the Tensor
-     * <br><br>
-     * Note: NaN values are propagated, meaning that if the Tensor contains a NaN value, this will return NaN
-     * @return the maximum value in the Tensor
-     * @since 0.1.1
+     * Applies a binary operation to a single block of elements. If a kernel is given, the strides must all be one
+     * @param kernel The kernel to apply to the block, or null if the scalar function should be used
+     * @param function The scalar function equivalent to the kernel
+     * @param length The number of elements in the block
+     * @since 0.1.2
      */
-    public float max() {
-        if(size == 0)
-            throw new UnsupportedOperationException("Cannot perform max() on an empty Tensor");
-        return reduce(Math::max);
+    private static void elementwiseBlock(Kernels.@Nullable Binary kernel, FloatBinaryOperator function, int length,
+                                         float[] out, int outPosition, int outStride, float[] a, int aPosition,
+                                         int aStride, float[] b, int bPosition, int bStride) {
+        if(kernel != null) {
+            kernel.apply(a, aPosition, b, bPosition, out, outPosition, length);
+            return;
+        }
+        for(int i = 0; i < length; i++)
+            out[outPosition + i * outStride] = function.applyAsFloat(a[aPosition + i * aStride],
+                    b[bPosition + i * bStride]);
     }
 
     /**
-     * Returns the flattened index of the maximum value in this Tensor
-     * <br>
-     * If the maximum value occurs multiple times in the Tensor, the index of the first occurrence of it is returned
-     * <br><br>
-     * Note, if the Tensor contains NaN values, these are considered to be the maximum
-     * @return the flattened index of the maximum value in this Tensor
-     * @since 0.1.1
+     * Applies a unary operation to this Tensor, writing the result into the destination Tensor, which must have the
+     * same shape as this Tensor. This is done with the binary implementation, passing this Tensor as both operands
+     * @param destination The Tensor to write the result into
+     * @param kernel The kernel to use for contiguous blocks, or null if only the scalar function should be used
+     * @param function The scalar function equivalent to the kernel
+     * @param exact The function computed in double precision, or null if the operation is always computed in float32
+     * @param integer The function computed on longs, or null if the result is not an integer, or the operation is
+     *                always computed in float32
+     * @return The destination Tensor
+     * @throws IllegalArgumentException If more than one element of the destination refers to the same memory
+     * @since 0.1.2
      */
-    public int argmax() {
-        int maxIndex = -1;
-        float max = get(0);
-        for(int[] i : indices) {
-            float val = get(i);
-            if(Float.isNaN(val))
-                return toFlatIndex(i);
-            if(val > max) {
-                max = val;
-                maxIndex = toFlatIndex(i);
-            }
-        }
-        return maxIndex;
+    private Tensor elementwise(@NotNull Tensor destination, Kernels.@Nullable Unary kernel,
+                               FloatUnaryOperator function, @Nullable DoubleUnaryOperator exact,
+                               @Nullable LongUnaryOperator integer) {
+        Kernels.Binary binary = kernel == null ? null : (a, aOffset, b, bOffset, result, resultOffset, length) ->
+                kernel.apply(a, aOffset, result, resultOffset, length);
+        return elementwise(destination, this, this, binary, (x, y) -> function.applyAsFloat(x),
+                exact == null ? null : (x, y) -> exact.applyAsDouble(x),
+                integer == null ? null : (x, y) -> integer.applyAsLong(x));
     }
 
     /**
-     * Returns the maximum value in the Tensor, ignoring any NaN values. If the Tensor only contains NaN, then NaN is
-     * returned
-     * @return The maximum non-NaN value, or NaN if there are only NaN values in the Tensor
-     * @since 0.1.1
+     * Prepares a Tensor to be read while writing into this Tensor. The operand is broadcast to the shape of this
+     * Tensor, and copied only if it shares memory with this Tensor, and may overlap it without being laid out
+     * identically to it. Views that map their indices onto a base Tensor are assumed to overlap any Tensor they share
+     * memory with. The operand is otherwise read in place, whether it is stored in a float array or in storage
+     * @param operand The Tensor that will be read
+     * @return A Tensor, with the shape of this Tensor, that is safe to read while writing to this Tensor
+     * @since 0.1.2
      */
-    public float nanmax() {
-        return reduce((x, y) -> {
-            if(Float.isNaN(y)) return x;
-            if(Float.isNaN(x)) return y;
-            return Math.max(x, y);
-        });
+    private Tensor operand(@NotNull Tensor operand) {
+        Tensor broadcast = Arrays.equals(shape, operand.shape) ? operand : new BroadcastView(operand, shape);
+        if(broadcast.memory() != memory() || strides != null && broadcast.strides != null &&
+                (broadcast.offset == offset && Arrays.equals(broadcast.strides, strides) || !broadcast.overlaps(this)))
+            return broadcast;
+        Tensor copy = new Tensor(operand.toArray(), operand.shape);
+        return Arrays.equals(shape, copy.shape) ? copy : new BroadcastView(copy, shape);
     }
 
     /**
-     * Returns the minimum value in the Tensor, ignoring any NaN values. If the Tensor only contains NaN, then NaN is
-     * returned
-     * @return The minimum non-NaN value, or NaN if there are only NaN values in the Tensor
-     * @since 0.1.1
+     * Returns the array or storage holding the elements of this Tensor, which views share with the Tensor at the root
+     * of their chain of views
+     * @return The data array, or the storage if the elements are not stored in a float array
+     * @since 0.1.2
      */
-    public float nanmin() {
-        return reduce((x, y) -> {
-            if(Float.isNaN(y)) return x;
-            if(Float.isNaN(x)) return y;
-            return Math.min(x, y);
-        });
+    private @NotNull Object memory() {
+        Tensor root = root();
+        return root.data != null ? root.data : root.storage;
     }
 
     /**
-     * Returns a Tensor with all instances of NaN, positive infinity and negative infinity replaced with the given
-     * finite values
-     * @param nan The value to replace NaN values with
-     * @param posInf The value to replace positive infinity values with
-     * @param negInf The value to replace negative infinity values with
-     * @return A Tensor with Nan, inf and -inf replaced with the given values
-     * @since 0.1.1
+     * Returns whether the range of storage positions spanned by this strided Tensor intersects the range spanned by
+     * the given strided Tensor. This is conservative, as the Tensors may interleave without sharing any elements
+     * @param other The Tensor to compare against
+     * @return true if the two Tensors may share elements, otherwise false
+     * @since 0.1.2
      */
-    public Tensor nanToNum(float nan, float posInf, float negInf) {
-        return apply(x -> Float.isNaN(x) ? nan :
-                         (Float.isInfinite(x) && x < 0 ? negInf :
-                         (Float.isInfinite(x) ? posInf : x)));
+    private boolean overlaps(@NotNull Tensor other) {
+        if(size == 0 || other.size == 0)
+            return false;
+        long[] range = storageRange(), otherRange = other.storageRange();
+        return range[0] <= otherRange[1] && otherRange[0] <= range[1];
     }
 
     /**
-     * Returns a Tensor with all instances of NaN, positive infinity and negative infinity replaced with the given
-     * finite values. Positive infinity is replaces with {@code inf}, while negative infinity is replaces with
-     * {@code -inf}
-     * @param nan The value to replace NaN values with
-     * @param inf The value to replace infinite values with
-     * @return A Tensor with Nan and infinite values replaced with the given values
-     * @since 0.1.1
+     * Returns the lowest and highest positions in data that are referred to by this non-empty, strided Tensor
+     * @return An array containing the lowest and highest positions
+     * @since 0.1.2
      */
-    public Tensor nanToNum(float nan, float inf) {
-        return apply(x -> Float.isNaN(x) ? nan :
-                (Float.isInfinite(x) ? Math.signum(x) * inf : x));
+    private long @NotNull [] storageRange() {
+        long low = offset, high = offset;
+        for(int i = 0; i < dims; i++) {
+            long extent = strides[i] * (shape[i] - 1);
+            if(extent < 0)
+                low += extent;
+            else
+                high += extent;
+        }
+        return new long[] {low, high};
     }
 
     /**
-     * Returns a Tensor with all instances of NaN, positive infinity and negative infinity replaced with finite values.
-     * Positive and negative infinity are replaced with positive and negative {@code Float.MAX_VALUE} respectively,
-     * while the value to replace NaN with is provided as an argument
-     * @param nan The value to replace NaN values with
-     * @return A Tensor with Nan and infinite values replaced with finite values
-     * @since 0.1.1
+     * Returns whether more than one element of this Tensor refers to the same memory, in which case it cannot be
+     * written to element wise. For strided Tensors, the axes are sorted by stride, and each stride must exceed the
+     * span of all the smaller axes. This is exact for any layout reachable through views, although it may reject some
+     * unusual hand made layouts. Views that map their indices onto a base Tensor overlap if their base does, or if
+     * they broadcast it
+     * @return true if multiple elements share memory, otherwise false
+     * @since 0.1.2
      */
-    public Tensor nanToNum(float nan) {
-        return nanToNum(nan, Float.MAX_VALUE);
+    private boolean hasInternalOverlap() {
+        if(strides == null)
+            return base.hasInternalOverlap() || (this instanceof BroadcastView && size > base.size);
+        if(size <= 1)
+            return false;
+        Integer[] axes = new Integer[dims];
+        for(int i = 0; i < dims; i++)
+            axes[i] = i;
+        Arrays.sort(axes, (i, j) -> Long.compare(Math.abs(strides[i]), Math.abs(strides[j])));
+        long span = 0;
+        for(int axis : axes) {
+            if(shape[axis] == 1)
+                continue;
+            if(Math.abs(strides[axis]) <= span)
+                return true;
+            span += Math.abs(strides[axis]) * (shape[axis] - 1);
+        }
+        return false;
     }
 
     /**
-     * Returns a Tensor with all instances of NaN, positive infinity and negative infinity replaced with finite values.
-     * Positive and negative infinity are replaced with positive and negative {@code Float.MAX_VALUE} respectively,
-     * NaN is replaced with 0
-     * @return A Tensor with Nan and infinite values replaced with finite values
-     * @since 0.1.1
+     * Copies the elements of the given Tensor, which must have the same shape, into this Tensor element by element.
+     * This is used to write into views that are not strided, and into Tensors not stored in a float array. Contiguous
+     * Tensors are written in bulk, unless the type of the source does not fit in a float, in which case the elements
+     * are copied as doubles, or as longs if both types are integer types
+     * @param source The Tensor to copy
+     * @return This Tensor
+     * @since 0.1.2
      */
-    public Tensor nanToNum() {
-        return nanToNum(0, Float.MAX_VALUE);
+    private Tensor assign(@NotNull Tensor source) {
+        if(!source.dtype.fitsInFloat() && !source.dtype.isFloatingPoint() && !dtype.isFloatingPoint()) {
+            TensorIterator values = source.new TensorIterator(0);
+            IndexIterator indices = new IndexIterator();
+            while(indices.hasNext())
+                internalSetLong(values.nextLong(), indices.next());
+            return this;
+        }
+        if(!source.dtype.fitsInFloat()) {
+            TensorIterator values = source.new TensorIterator(0);
+            IndexIterator indices = new IndexIterator();
+            while(indices.hasNext())
+                internalSetDouble(values.nextDouble(), indices.next());
+            return this;
+        }
+        if(storage != null && hasContiguousLayout()) {
+            // The source is gathered in chunks, so neither Tensor is copied whole
+            Parallel.forRange((int) ((size + BUFFER_SIZE - 1) / BUFFER_SIZE), BUFFER_SIZE, (from, to) -> {
+                float[] buffer = new float[(int) Math.min(BUFFER_SIZE, size)];
+                for(int chunk = from; chunk < to; chunk++) {
+                    long start = (long) chunk * BUFFER_SIZE;
+                    int length = (int) Math.min(BUFFER_SIZE, size - start);
+                    source.gather(start, buffer, length);
+                    storage.write(offset + start, buffer, 0, length);
+                }
+            });
+            return this;
+        }
+        FloatIterator values = source.iterator();
+        IndexIterator indices = new IndexIterator();
+        while(indices.hasNext())
+            internalSet(values.nextFloat(), indices.next());
+        return this;
     }
 
     /**
-     * Returns the Tensor containing the absolute value of the elements in this Tensor
-     * @return The absolute value of this Tensor
-     * @since 0.1.1
+     * Throws an exception if the two given Tensors do not have the same shape
+     * @param t1 The first Tensor
+     * @param t2 The second Tensor
+     * @throws IllegalArgumentException If the shape of the two Tensors is different
+     * @since 0.1.2
      */
-    public Tensor abs() {
-        return apply(Math::abs);
+    private static void checkSameShape(@NotNull Tensor t1, @NotNull Tensor t2) {
+        if(!Arrays.equals(t1.shape, t2.shape))
+            throw new IllegalArgumentException(String.format("Tensors must have the same shape. " +
+                    "Tensor 1 has shape %s and Tensor 2 has shape %s", t1.shape(), t2.shape()));
     }
 
     /**
@@ -1091,11 +3549,8 @@ public class Tensor implements Iterable<Float> {
      * @return The result of applying the function to each element in this Tensor
      * @since 0.1.1
      */
-    public Tensor apply(UnaryOperator<Float> function) {
-        Tensor result = Tensor.zerosLike(this);
-        for(int[] i : indices)
-            result.set(function.apply(get(i)), i);
-        return result;
+    public Tensor apply(FloatUnaryOperator function) {
+        return elementwise(zerosLike(this), null, function, null, null);
     }
 
     /**
@@ -1106,18 +3561,76 @@ public class Tensor implements Iterable<Float> {
      * @return The result of applying the function to each element in this Tensor
      * @since 0.1.2
      */
-    public Tensor apply(BinaryOperator<Float> function) {
+    public Tensor apply(FloatBinaryOperator function) {
         Tensor result = Tensor.zerosLike(this);
-        for(int[] i : indices)
-            result.set(function.apply((float)toFlatIndex(i), get(i)), i);
+        boolean contiguous = isContiguous();
+        // The result is contiguous, so each range of flattened indices is written to the same range of the result
+        Parallel.forRange((int) size, 1, (from, to) -> {
+            if(contiguous) {
+                for(int i = from; i < to; i++)
+                    result.data[i] = function.applyAsFloat(i, data[(int) offset + i]);
+            } else {
+                FloatIterator iterator = new TensorIterator(from);
+                for(int i = from; i < to; i++)
+                    result.data[i] = function.applyAsFloat(i, iterator.nextFloat());
+            }
+        });
         return result;
     }
 
+    /**
+     * Applies the given function to each element separately in this Tensor, writing the result into the given Tensor
+     * rather than allocating a new one. {@code out} may be this Tensor
+     * @param function the function to apply to each element
+     * @param out The Tensor to write the result into, which must have the same shape as this Tensor
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shape of {@code out} is not the shape of the result, or if multiple
+     * elements of {@code out} share the same memory, such as in a broadcast view
+     * @since 0.1.2
+     */
+    public Tensor apply(FloatUnaryOperator function, @NotNull Tensor out) {
+        try {
+            checkDestination(out, shape);
+            return elementwise(out, null, function, null, null);
+        } catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Applies the given function to each element separately in this Tensor, writing the result into the given Tensor
+     * rather than allocating a new one. The function takes two arguments, (i, x), where i is the flattened index of
+     * the element, and x is the value of the element. {@code out} may be this Tensor
+     * @param function the function to apply to each element
+     * @param out The Tensor to write the result into, which must have the same shape as this Tensor
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shape of {@code out} is not the shape of the result, or if multiple
+     * elements of {@code out} share the same memory, such as in a broadcast view
+     * @since 0.1.2
+     */
+    public Tensor apply(FloatBinaryOperator function, @NotNull Tensor out) {
+        try {
+            checkDestination(out, shape);
+            if(out.hasInternalOverlap())
+                throw new IllegalArgumentException("Cannot write to a Tensor in which multiple elements share the " +
+                        "same memory, such as a broadcast view");
+        } catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        // Destinations that cannot be written in row-major order are computed separately and then copied in
+        if(!out.isContiguous())
+            return out.assign(apply(function));
+        // Each range starts its iterator at its first flattened index, so the ranges are independent of each other
+        Tensor source = out.operand(this);
+        Parallel.forRange((int) size, 1, (from, to) -> {
+            FloatIterator iterator = source.new TensorIterator(from);
+            for(int i = from; i < to; i++)
+                out.data[(int) out.offset + i] = function.applyAsFloat(i, iterator.nextFloat());
+        });
+        return out;
+    }
+
     /**
      * Repeatedly apply a given function of two arguments cumulatively on the contents of the array. The initial value
      * The initial value is placed before the elements of the Tensor in the calculation. If the Tensor is empty, then
      * the initial value is returned, so this can be used as a 'default value'. The first argument to the
-     * BinaryOperator is the accumulated value, and the second is the next element in the Tensor. This
+     * FloatBinaryOperator is the accumulated value, and the second is the next element in the Tensor. This
      * function operates as though the Tensor is flattened
      * <br><br>
      * For example if t = [1, 2, 3, 4, 5], then t.reduce((x, y) -> x*y, -1) computes {@code (((((-1*1)*2)*3)*4)*5)}.
@@ -1126,68 +3639,104 @@ public class Tensor implements Iterable<Float> {
      * @return The result of reducing the Tensor with the given function
      * @since 0.1.1
      */
-    public float reduce(BinaryOperator<Float> function, float initialValue) {
+    public float reduce(FloatBinaryOperator function, float initialValue) {
         float value = initialValue;
-        for(float f : this)
-            value = function.apply(value, f);
+        if(isContiguous()) {
+            for(int i = (int) offset, end = i + (int) size; i < end; i++)
+                value = function.applyAsFloat(value, data[i]);
+            return value;
+        }
+        FloatIterator iterator = iterator();
+        while(iterator.hasNext())
+            value = function.applyAsFloat(value, iterator.nextFloat());
         return value;
     }
 
     /**
      * Returns the result of applying the given function element wise to the elements of the two Tensors. The two
-     * Tensors must have the same shape, and the resulting Tensor will also have this shape
-     *
-     * Future plans: The two tensors can be of different shapes, provided they can be broadcast into the same shape
+     * Tensors are broadcast to the same shape, and the resulting Tensor will also have this shape. Shapes are aligned
+     * at their final dimension, and along each dimension the sizes must either be equal, or one of them must be one.
+     * Missing leading dimensions are treated as having a size of one. For example, Tensors of shape {@code [5, 1, 3]}
+     * and {@code [4, 1]} are broadcast to the shape {@code [5, 4, 3]}
      * @param t1 The first Tensor to apply the binary operator to
      * @param t2 The second Tensor to apply the binary operator to
      * @param function The function to apply to the two Tensors
      * @return The result of applying the function to the Tensors
-     * @throws IllegalArgumentException If the shape of the two input Tensors is different
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together
      * @since 0.1.2
      */
-    public static @NotNull Tensor apply(@NotNull Tensor t1, @NotNull Tensor t2, BinaryOperator<Float> function) {
-        if(!t1.shape().equals(t2.shape()))
-            throw new IllegalArgumentException(String.format("Tensors must have the same shape. " +
-                    "Tensor 1 has shape %s and Tensor 2 has shape %s", t1.shape(), t2.shape()));
-        Tensor result = zerosLike(t1);
-        for(int[] i : t1.indices)
-            result.set(function.apply(t1.get(i), t2.get(i)), i);
-        return result;
+    public static @NotNull Tensor apply(@NotNull Tensor t1, @NotNull Tensor t2, FloatBinaryOperator function) {
+        try { return elementwise(DType.FLOAT32, t1, t2, null, function, null, null); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
+    }
+
+    /**
+     * Applies the given function element wise to the elements of the two Tensors, writing the result into
+     * {@code out} rather than allocating a new Tensor. The two Tensors are broadcast to the same shape, as in
+     * {@link #apply(Tensor, Tensor, FloatBinaryOperator)}. {@code out} may be either of the two Tensors
+     * @param t1 The first Tensor to apply the binary operator to
+     * @param t2 The second Tensor to apply the binary operator to
+     * @param function The function to apply to the two Tensors
+     * @param out The Tensor to write the result into, which must have the broadcast shape of the two Tensors
+     * @return {@code out}
+     * @throws IllegalArgumentException If the shapes of the two Tensors cannot be broadcast together, if the shape of
+     * {@code out} is not the broadcast shape, or if multiple elements of {@code out} share the same memory
+     * @since 0.1.2
+     */
+    public static @NotNull Tensor apply(@NotNull Tensor t1, @NotNull Tensor t2, FloatBinaryOperator function,
+                                        @NotNull Tensor out) {
+        try { return into(out, out.dtype, t1, t2, null, function, null, null); }
+        catch(IllegalArgumentException e) { throw (RuntimeException) e.fillInStackTrace(); }
     }
 
     /**
      * Repeatedly apply a given function of two arguments cumulatively on the contents of the array. If the Tensor is
      * empty, an exception is raised, as there is no meaningful answer. To prevent this, provide an initial answer with
-     * {@code reduce(BinaryOperator<Float> func, float initialValue)}. If the Tensor contains only one element, this
-     * element is returned. The first argument to the BinaryOperator is the accumulated value, and the second is the
-     * next element in the Tensor. This function operates as though the Tensor is flattened
+     * {@code reduce(FloatBinaryOperator func, float initialValue)}. If the Tensor contains only one element, this
+     * element is returned. The first argument to the FloatBinaryOperator is the accumulated value, and the second is
+     * the next element in the Tensor. This function operates as though the Tensor is flattened
      * <br><br>
      * For example if t = [1, 2, 3, 4, 5], then t.reduce((x, y) -> x*y) computes {@code ((((1*2)*3)*4)*5)}.
      * @param function function of two arguments used to reduce the Tensor
      * @return The result of reducing the Tensor with the given function
      * @since 0.1.1
      */
-    public float reduce(BinaryOperator<Float> function) {
+    public float reduce(FloatBinaryOperator function) {
         if(size == 0)
             throw new UnsupportedOperationException("Cannot reduce an empty Tensor without an initial value");
-        Iterator<Float> iterator = iterator();
-        float value = iterator.next();
+        if(isContiguous()) {
+            float value = data[(int) offset];
+            for(int i = (int) offset + 1, end = (int) (offset + size); i < end; i++)
+                value = function.applyAsFloat(value, data[i]);
+            return value;
+        }
+        FloatIterator iterator = iterator();
+        float value = iterator.nextFloat();
         while(iterator.hasNext())
-            value = function.apply(value, iterator.next());
+            value = function.applyAsFloat(value, iterator.nextFloat());
         return value;
     }
 
     @Override
     public String toString() {
-        // If the size is zero, the formatting parameters are never used
+        // If the size is zero, the format is never used
         if(size == 0)
-            return toString(new StringBuilder(), new int[dims], 0,
-                    0, 0, 0, false).toString();
+            return toString(new StringBuilder(), new int[dims], 0, indices -> "").toString();
+        // Integers and booleans are printed without a decimal point, right aligned to the widest element
+        if(!dtype.isFloatingPoint()) {
+            int width = 1;
+            TensorIterator iterator = new TensorIterator(0);
+            while(iterator.hasNext())
+                width = Math.max(width, String.valueOf((long) iterator.nextDouble()).length());
+            String format = "%" + width + "d";
+            return toString(new StringBuilder(), new int[dims], 0, indices ->
+                    String.format(format, internalGetLong(indices))).toString();
+        }
         // We want min and max values to ignore NaN and infinite values
-        UnaryOperator<BinaryOperator<Float>> ignoreNanAndInf = (f) -> (x, y) -> {
+        UnaryOperator<FloatBinaryOperator> ignoreNanAndInf = (f) -> (x, y) -> {
             if (Float.isNaN(y) || Float.isInfinite(y)) return x;
             if (Float.isNaN(x) || Float.isInfinite(x)) return y;
-            return f.apply(x, y);
+            return f.applyAsFloat(x, y);
         };
         float maxAbs = reduce(ignoreNanAndInf.apply((x, y) -> Math.max(Math.abs(x), Math.abs(y))));
         float minAbs = reduce(ignoreNanAndInf.apply((x, y) -> Math.min(Math.abs(x), Math.abs(y))));
@@ -1210,26 +3759,35 @@ public class Tensor implements Iterable<Float> {
 
         boolean exponentialSign = minAbs < 1;
         int exponentialDigits = exponential ? (maxAbs > 1e10 ? 2 : 1) : 0;
-        int charsAfter = (int)apply(x -> (float)requiredCharsAfter(x, exponential)).max();
+        int charsAfter = (int)reduce((m, x) -> Math.max(m, requiredCharsAfter(x, exponential)), 0);
         charsAfter = Math.min(exponential ? 4 : 5, charsAfter);
-        return toString(new StringBuilder(), new int[dims], 0, charsBefore, charsAfter,
-                exponentialDigits, exponentialSign).toString();
+        int finalCharsBefore = charsBefore, finalCharsAfter = charsAfter;
+        return toString(new StringBuilder(), new int[dims], 0, indices -> floatToString(internalGet(indices),
+                finalCharsBefore, finalCharsAfter, exponentialDigits, exponentialSign)).toString();
     }
 
-    private @NotNull StringBuilder toString(StringBuilder s, int[] indices, int depth, int charsBefore,
-                                            int charsAfter, int exponentialDigits, boolean exponentialSign) {
+    /**
+     * Appends the elements of this Tensor from the given depth onwards to the string builder, in nested brackets
+     * @param s The string builder to append to
+     * @param indices The indices of the current element, of which the first depth are fixed
+     * @param depth The axis being appended
+     * @param format Converts the element at the given indices into a string
+     * @return The string builder
+     */
+    private @NotNull StringBuilder toString(StringBuilder s, int[] indices, int depth,
+                                            Function<int[], String> format) {
         if(depth == dims) {
-            return s.append(floatToString(get(indices), charsBefore, charsAfter, exponentialDigits, exponentialSign));
+            return s.append(format.apply(indices));
         } else {
             indices[depth] = 0;
             s.append('[');
             if(shape(depth) > 0)
-                toString(s, indices, depth + 1, charsBefore, charsAfter, exponentialDigits, exponentialSign);
+                toString(s, indices, depth + 1, format);
             for (indices[depth] = 1; indices[depth] < shape(depth); indices[depth]++) {
                 s.append(",")
                         .append("\n".repeat(dims - depth - 1))
                         .append(" ".repeat(depth == dims - 1 ? 1 : depth + 1));
-                toString(s, indices, depth + 1, charsBefore, charsAfter, exponentialDigits, exponentialSign);
+                toString(s, indices, depth + 1, format);
             }
             return s.append(']');
         }
@@ -1319,14 +3877,52 @@ public class Tensor implements Iterable<Float> {
             return false;
         if(!Arrays.equals(shape, tensor.shape))
             return false;
-        for(int[] i : indices) {
-            float f1 = get(i), f2 = tensor.get(i);
+        // Both Tensors have the same shape, so their iterators visit the same indices in the same order. Tensors
+        // too large to split into int ranges are compared on the calling thread
+        boolean integral1 = !dtype.isFloatingPoint(), integral2 = !tensor.dtype.isFloatingPoint();
+        if(size > Integer.MAX_VALUE)
+            return elementsEqual(new TensorIterator(0), integral1, tensor.new TensorIterator(0), integral2, size);
+        return Parallel.allMatch((int) size, 2, (from, to) -> elementsEqual(new TensorIterator(from), integral1,
+                tensor.new TensorIterator(from), integral2, to - from));
+    }
+
+    /**
+     * Returns whether the next count elements of the two iterators are equal. NaN is equal to itself, and 0.0 is
+     * equal to -0.0. Elements are compared by their exact values, so Tensors of different types are equal if their
+     * values are. Integers are compared as longs, so INT64 values beyond 2^53 are never rounded, and elements of
+     * FLOAT64 Tensors are not rounded to float before they are compared
+     * @param it1 The first iterator
+     * @param integral1 Whether the type of the first Tensor is an integer type
+     * @param it2 The second iterator
+     * @param integral2 Whether the type of the second Tensor is an integer type
+     * @param count The number of elements to compare
+     * @return true if every pair of elements is equal, otherwise false
+     * @since 0.1.2
+     */
+    private static boolean elementsEqual(@NotNull TensorIterator it1, boolean integral1,
+                                         @NotNull TensorIterator it2, boolean integral2, long count) {
+        for(long i = 0; i < count; i++) {
+            if(integral1 && integral2) {
+                if(it1.nextLong() != it2.nextLong())
+                    return false;
+                continue;
+            }
+            if(integral1 || integral2) {
+                long l = integral1 ? it1.nextLong() : it2.nextLong();
+                double d = integral1 ? it2.nextDouble() : it1.nextDouble();
+                // The double is equal to the long only if it converts to it exactly in both directions. Doubles of
+                // 2^63 or more would be saturated to the largest long by the conversion
+                if(d != (double) l || d >= 0x1p63 || (long) d != l)
+                    return false;
+                continue;
+            }
+            double f1 = it1.nextDouble(), f2 = it2.nextDouble();
             // These two conditions may seem identical, but they both have slightly different results.
             // We want NaN == NaN, and 0.0 == -0.0
             // Java equality returns false for NaN == NaN and true for 0.0 == -0.0
             // .equals returns true for NaN == NaN and false for 0.0 == -0.0
             // By using both methods we get the desired behaviour
-            if (f1 != f2 && !Float.valueOf(f1).equals(f2))
+            if (f1 != f2 && !Double.valueOf(f1).equals(f2))
                 return false;
         }
         return true;
@@ -1335,56 +3931,173 @@ public class Tensor implements Iterable<Float> {
     @Override
     public int hashCode() {
         int result = Arrays.hashCode(shape);
-        for(float f : this)
-            result = 31 * result + Float.floatToIntBits(f);
+        TensorIterator iterator = new TensorIterator(0);
+        boolean integral = !dtype.isFloatingPoint();
+        while(iterator.hasNext())
+            result = 31 * result + (integral ? Long.hashCode(iterator.nextLong()) : hashElement(iterator.nextDouble()));
         return result;
     }
 
+    /**
+     * Returns the hash code of an element of a floating point Tensor. Elements that equals treats as equal have the
+     * same hash code, across every type. Integral values are hashed as the long they are equal to, which also maps
+     * -0.0 to 0, and all other values are hashed as doubles, which maps every NaN to the same value
+     * @param value The element to hash
+     * @return The hash code of the element
+     * @since 0.1.2
+     */
+    private static int hashElement(double value) {
+        if(value == Math.rint(value) && value >= -0x1p63 && value < 0x1p63)
+            return Long.hashCode((long) value);
+        return Double.hashCode(value);
+    }
+
+    /**
+     * Returns an iterator over the elements of the Tensor, in row-major order. The returned iterator is a
+     * {@code FloatIterator}, so elements can be retrieved with {@code nextFloat()} without being boxed
+     * @return An iterator over the elements of the Tensor
+     */
     @NotNull
     @Override
-    public Iterator<Float> iterator() {
-        return new TensorIterator();
+    public FloatIterator iterator() {
+        return new TensorIterator(0);
+    }
+
+    /**
+     * Performs the given action on each element of the Tensor, in row-major order. Unlike {@code forEach}, the
+     * elements are not boxed
+     * @param action The action to perform on each element
+     * @since 0.1.2
+     */
+    public void forEachFloat(@NotNull FloatConsumer action) {
+        if(isContiguous()) {
+            for(int i = (int) offset, end = i + (int) size; i < end; i++)
+                action.accept(data[i]);
+            return;
+        }
+        iterator().forEachRemaining(action);
     }
 
     // This implementation is around 65% faster than iterating using flatGet()
     private class IndexIterator implements Iterator<int[]> {
 
         private final int[] indices = new int[dims];
-        private boolean hasNext = size > 0;
+        private long remaining = size;
 
         @Override
         public boolean hasNext() {
-            return hasNext;
+            return remaining > 0;
         }
 
         @Override
         public int @NotNull [] next() {
-            if(!hasNext)
+            if(remaining == 0)
                 throw new NoSuchElementException();
-            int[] val = Arrays.copyOf(indices, dims);
-            int i = dims - 1;
-            while(i >= 0 && ++indices[i] == shape[i])
-                indices[i--] = 0;
-            hasNext = i >= 0;
-            return val;
+            // The same array is returned every time, so only advance it once the previous index has been used
+            if(remaining-- != size) {
+                int i = dims - 1;
+                while(++indices[i] == shape[i])
+                    indices[i--] = 0;
+            }
+            return indices;
         }
     }
 
-    private class TensorIterator implements Iterator<Float> {
+    /**
+     * Iterates over the elements in row-major order. For strided Tensors, the position in data is updated
+     * incrementally as the indices advance, so each step is a single addition rather than a full index calculation
+     */
+    private class TensorIterator implements FloatIterator {
+
+        private final int[] indices = new int[dims];
+        private long position = offset;
+        private long remaining;
 
-        private final Iterator<int[]> iterator = indices.iterator();
+        /**
+         * Creates an iterator starting at the element with the given flattened index
+         * @param start The flattened index of the first element to visit
+         */
+        private TensorIterator(long start) {
+            remaining = size - start;
+            for(int i = dims - 1; i >= 0 && start > 0; i--) {
+                indices[i] = (int) (start % shape[i]);
+                start /= shape[i];
+                if(strides != null)
+                    position += indices[i] * strides[i];
+            }
+        }
 
         @Override
         public boolean hasNext() {
-            return iterator.hasNext();
+            return remaining > 0;
         }
 
         @Override
-        public @NotNull Float next() {
-            try {
-                // We can use internal get, as we can be certain that the indices are valid (no error checking required)
-                return internalGet(iterator.next());
-            } catch(NoSuchElementException e) { throw (RuntimeException) e.fillInStackTrace(); }
+        public float nextFloat() {
+            if(remaining == 0)
+                throw new NoSuchElementException();
+            // We can use internal get, as we can be certain that the indices are valid (no error checking required)
+            float value = strides == null ? internalGet(indices)
+                    : data != null ? data[(int) position] : storage.get(position);
+            advance();
+            return value;
+        }
+
+        /**
+         * Returns the next element as a double, without rounding elements of FLOAT64, INT32 or INT64 Tensors to float
+         * @return The next element
+         */
+        double nextDouble() {
+            if(remaining == 0)
+                throw new NoSuchElementException();
+            double value = strides == null ? internalGetDouble(indices)
+                    : data != null ? data[(int) position] : storage.getDouble(position);
+            advance();
+            return value;
+        }
+
+        /**
+         * Returns the next element as a long, without rounding elements of INT64 Tensors to double. This should only be
+         * used for Tensors of integer types, as the fractional part of other elements is discarded
+         * @return The next element
+         */
+        long nextLong() {
+            if(remaining == 0)
+                throw new NoSuchElementException();
+            long value = strides == null ? internalGetLong(indices)
+                    : data != null ? (long) data[(int) position] : storage.getLong(position);
+            advance();
+            return value;
+        }
+
+        /**
+         * Writes the next element, instead of reading it, and moves on to the element after it
+         * @param value The value to write
+         */
+        void put(float value) {
+            if(remaining == 0)
+                throw new NoSuchElementException();
+            if(strides == null)
+                internalSet(value, indices);
+            else if(data != null)
+                data[(int) position] = value;
+            else
+                storage.set(position, value);
+            advance();
+        }
+
+        /** Moves the indices and position on to the next element */
+        private void advance() {
+            if(--remaining > 0) {
+                int i = dims - 1;
+                while(++indices[i] == shape[i]) {
+                    if(strides != null)
+                        position -= (shape[i] - 1) * strides[i];
+                    indices[i--] = 0;
+                }
+                if(strides != null)
+                    position += strides[i];
+            }
         }
     }
 }
@@ -1421,134 +4134,201 @@ class DeletionView extends Tensor {
             offset--;
         if(offset < 0)
             offset = -offset - 1;
-        indices[axis] += offset;
-        return indices;
+        int[] internalIndices = Arrays.copyOf(indices, indices.length);
+        internalIndices[axis] += offset;
+        return internalIndices;
     }
 }
 
-class PermutedDimsView extends Tensor {
+/**
+ * A view whose every axis is either an axis of the base Tensor, or an inserted axis of size one. Axes of the base
+ * Tensor that are not mapped to an axis of the view are removed, and are always indexed at 0. Permuting, unsqueezing
+ * and squeezing are all of this form, so a view of this kind created from another one is composed with it into a
+ * single mapping onto the base of the other view, rather than adding a level to the chain of views. Accessing an
+ * element of a view that is not strided therefore translates its indices once, however many of these views were
+ * stacked to create it
+ * @since 0.1.2
+ */
+abstract class AxisMapView extends Tensor {
 
-    private final int[] indexPermutation;
+    /** The axis of the base Tensor that each axis of this view is, or -1 for inserted axes */
+    private final int[] axisMap;
 
     /**
-     * Creates a view into the base Tensor, with the dimensions permuted by the given permutation. This does not create
-     * a new Tensor, but instead creates a view into the original Tensor. The permutation array should be copied before
-     * being passed into this class, to ensure it is not changed externally. No error checking is performed, it is the
-     * responsibility of the caller to perform error checking
-     * @param base The base Tensor to delete elements from
-     * @param permutation The permutation of the Tensors dimensions
-     * @since 0.1.2
+     * Creates a view with the given mapping onto the axes of the base Tensor, composing it with the mapping of the
+     * base Tensor if it is also a view of this kind
+     * @param base The Tensor this is a view into
+     * @param axisMap The axis of the base Tensor that each axis of the view is, or -1 for inserted axes
      */
-    PermutedDimsView(@NotNull Tensor base, int[] permutation) {
-        super(base, computeShape(base, permutation));
-        this.indexPermutation = permutation;
+    AxisMapView(@NotNull Tensor base, int @NotNull [] axisMap) {
+        super(source(base), computeShape(source(base), compose(base, axisMap)),
+                computeStrides(source(base), compose(base, axisMap)));
+        this.axisMap = compose(base, axisMap);
     }
 
-    private static int @NotNull [] computeShape(Tensor base, int @NotNull [] permutation) {
-        int[] shape = new int[permutation.length];
-        for(int i = 0; i < permutation.length; i++)
-            shape[permutation[i]] = base.shape(i);
+    /** Returns the Tensor that a view of the given Tensor maps its axes onto */
+    private static @NotNull Tensor source(@NotNull Tensor base) {
+        return base instanceof AxisMapView view ? view.base : base;
+    }
+
+    private static int @NotNull [] compose(@NotNull Tensor base, int @NotNull [] axisMap) {
+        if(!(base instanceof AxisMapView view))
+            return axisMap;
+        int[] composed = new int[axisMap.length];
+        for(int i = 0; i < axisMap.length; i++)
+            composed[i] = axisMap[i] < 0 ? -1 : view.axisMap[axisMap[i]];
+        return composed;
+    }
+
+    private static int @NotNull [] computeShape(@NotNull Tensor source, int @NotNull [] axisMap) {
+        int[] shape = new int[axisMap.length];
+        for(int i = 0; i < axisMap.length; i++)
+            shape[i] = axisMap[i] < 0 ? 1 : source.shape(axisMap[i]);
         return shape;
     }
 
+    private static long @Nullable [] computeStrides(@NotNull Tensor source, int @NotNull [] axisMap) {
+        long[] sourceStrides = source.strides();
+        if(sourceStrides == null)
+            return null;
+        // Inserted axes only ever have an index of 0, so their stride has no effect
+        long[] strides = new long[axisMap.length];
+        for(int i = 0; i < axisMap.length; i++)
+            strides[i] = axisMap[i] < 0 ? 0 : sourceStrides[axisMap[i]];
+        return strides;
+    }
+
     @Override
     protected int[] view(int @NotNull [] indices) {
-        int[] internalIndices = new int[indices.length];
+        // Removed axes are always indexed at 0
+        int[] newIndices = new int[base.dims];
         for(int i = 0; i < indices.length; i++)
-            internalIndices[i] = indices[indexPermutation[i]];
-        return internalIndices;
+            if(axisMap[i] >= 0)
+                newIndices[axisMap[i]] = indices[i];
+        return newIndices;
     }
 }
 
-class UnsqueezeView extends Tensor {
+class PermutedDimsView extends AxisMapView {
+
+    /**
+     * Creates a view into the base Tensor, with the dimensions permuted by the given permutation. This does not create
+     * a new Tensor, but instead creates a view into the original Tensor. If the base Tensor is strided, the view is
+     * given the permuted strides, so elements are accessed directly in the shared storage. Axis i of the base Tensor
+     * becomes axis {@code permutation[i]} of the view. No error checking is performed, it is the responsibility of the
+     * caller to perform error checking
+     * @param base The base Tensor to permute
+     * @param permutation The permutation of the Tensors dimensions
+     * @since 0.1.2
+     */
+    PermutedDimsView(@NotNull Tensor base, int @NotNull [] permutation) {
+        super(base, computeAxisMap(permutation));
+    }
+
+    private static int @NotNull [] computeAxisMap(int @NotNull [] permutation) {
+        int[] axisMap = new int[permutation.length];
+        for(int i = 0; i < permutation.length; i++)
+            axisMap[permutation[i]] = i;
+        return axisMap;
+    }
+}
 
-    private final int[] insertedAxes;
+class UnsqueezeView extends AxisMapView {
 
     /**
      * Creates a view into the base Tensor, with the new axes of size one inserted at the given locations. This does not
-     * create a new Tensor, but instead creates a view into the original Tensor. The insertedAxes array should be copied
-     * before being passed into this class, to ensure it is not changed externally. No error checking is performed, it
-     * is the responsibility of the caller to perform error checking. The insertedAxes are expected to be sorted.
-     * Behaviour is not defined if insertedAxes is not in ascending order
-     * @param base The base Tensor to delete elements from
+     * create a new Tensor, but instead creates a view into the original Tensor. If the base Tensor is strided, the view
+     * is given the base strides with the inserted axes, so elements are accessed directly in the shared storage. No
+     * error checking is performed, it is the responsibility of the caller to perform error checking. The insertedAxes
+     * are expected to be sorted. Behaviour is not defined if insertedAxes is not in ascending order
+     * @param base The base Tensor to insert axes into
      * @param insertedAxes The locations of the axes to insert
      * @since 0.1.2
      */
-    UnsqueezeView(@NotNull Tensor base, int[] insertedAxes) {
-        super(base, computeShape(base, insertedAxes));
-        this.insertedAxes = insertedAxes;
+    UnsqueezeView(@NotNull Tensor base, int @NotNull [] insertedAxes) {
+        super(base, computeAxisMap(base, insertedAxes));
     }
 
-    private static int @NotNull [] computeShape(@NotNull Tensor base, int @NotNull [] insertedAxes) {
-        int[] shape = new int[base.dims + insertedAxes.length];
-        int insAxesIdx = 0, shapeIdx = 0;
-        for(int i = 0; i < shape.length; i++) {
+    private static int @NotNull [] computeAxisMap(@NotNull Tensor base, int @NotNull [] insertedAxes) {
+        int[] axisMap = new int[base.dims + insertedAxes.length];
+        int insAxesIdx = 0, baseAxis = 0;
+        for(int i = 0; i < axisMap.length; i++) {
             if (insAxesIdx < insertedAxes.length && i == insertedAxes[insAxesIdx]) {
-                shape[i] = 1;
+                axisMap[i] = -1;
                 insAxesIdx++;
             } else
-                shape[i] = base.shape(shapeIdx++);
-        }
-        return shape;
-    }
-
-    @Override
-    protected int[] view(int[] indices) {
-        int[] newIndices = new int[base.dims];
-        int insAxesIdx = 0, newIdx = 0;
-        for(int i = 0; i < indices.length; i++) {
-            if (insAxesIdx < insertedAxes.length && i == insertedAxes[insAxesIdx])
-                insAxesIdx++;
-            else
-                newIndices[newIdx++] = indices[i];
+                axisMap[i] = baseAxis++;
         }
-        return newIndices;
+        return axisMap;
     }
 }
 
-class SqueezeView extends Tensor {
-
-    private final int[] removedAxes;
+class SqueezeView extends AxisMapView {
 
     /**
      * Creates a view into the base Tensor, given axes removed. This does not create a new Tensor, but instead creates
-     * a view into the original Tensor. The removedAxes array should be copied before being passed into this class,
-     * to ensure it is not changed externally. It is expected that only dimensions of size 1 are removed, however, this
-     * is not checked so it is possible to remove non singleton dimensions. In this case, the first element along this
-     * dimension is taken, and the rest are discarded. No error checking is performed, it is the responsibility of the
-     * caller to perform error checking. The removedAxes are expected to be sorted.
-     * @param base The base Tensor to delete elements from
-     * @param removedAxes The locations of the axes to insert
+     * a view into the original Tensor. If the base Tensor is strided, the view is given the base strides without the
+     * removed axes, so elements are accessed directly in the shared storage. It is expected that only dimensions
+     * of size 1 are removed, however, this is not checked so it is possible to remove non singleton dimensions. In this
+     * case, the first element along this dimension is taken, and the rest are discarded. No error checking is
+     * performed, it is the responsibility of the caller to perform error checking. The removedAxes are expected to be
+     * sorted.
+     * @param base The base Tensor to remove axes from
+     * @param removedAxes The locations of the axes to remove
      * @since 0.1.2
      */
-    SqueezeView(@NotNull Tensor base, int[] removedAxes) {
-        super(base, computeShape(base, removedAxes));
-        this.removedAxes = removedAxes;
+    SqueezeView(@NotNull Tensor base, int @NotNull [] removedAxes) {
+        super(base, computeAxisMap(base, removedAxes));
     }
 
-    private static int @NotNull [] computeShape(@NotNull Tensor base, int @NotNull [] removedAxes) {
-        int[] shape = new int[base.dims - removedAxes.length];
-        int remAxesIdx = 0, shapeIdx = 0;
+    private static int @NotNull [] computeAxisMap(@NotNull Tensor base, int @NotNull [] removedAxes) {
+        int[] axisMap = new int[base.dims - removedAxes.length];
+        int remAxesIdx = 0, idx = 0;
         for(int i = 0; i < base.dims; i++) {
             if(remAxesIdx < removedAxes.length && i == removedAxes[remAxesIdx])
                 remAxesIdx++;
             else
-                shape[shapeIdx++] = base.shape(i);
+                axisMap[idx++] = i;
         }
-        return shape;
+        return axisMap;
+    }
+}
+
+class BroadcastView extends Tensor {
+
+    private final int leadingAxes;
+
+    /**
+     * Creates a view into the base Tensor, broadcast to the given shape. This does not create a new Tensor, but instead
+     * creates a view into the original Tensor. If the base Tensor is strided, the view is given a stride of zero along
+     * every stretched or inserted axis, so elements are accessed directly in the shared storage. No error checking is
+     * performed, it is the responsibility of the caller to ensure the base Tensor can be broadcast to the shape
+     * @param base The base Tensor to broadcast
+     * @param shape The shape to broadcast the base Tensor to
+     * @since 0.1.2
+     */
+    BroadcastView(@NotNull Tensor base, int @NotNull [] shape) {
+        super(base, shape, computeStrides(base, shape));
+        this.leadingAxes = shape.length - base.dims;
+    }
+
+    private static long @Nullable [] computeStrides(@NotNull Tensor base, int @NotNull [] shape) {
+        long[] baseStrides = base.strides();
+        if(baseStrides == null)
+            return null;
+        long[] strides = new long[shape.length];
+        int leadingAxes = shape.length - base.dims;
+        for(int i = leadingAxes; i < shape.length; i++)
+            strides[i] = base.shape(i - leadingAxes) == 1 ? 0 : baseStrides[i - leadingAxes];
+        return strides;
     }
 
     @Override
-    protected int[] view(int[] indices) {
-        int[] newIndices = new int[base.dims + removedAxes.length];
-        int remAxesIdx = 0, shapeIdx = 0;
-        for(int i = 0; i < newIndices.length; i++) {
-            if (remAxesIdx < removedAxes.length && i == removedAxes[remAxesIdx]) {
-                newIndices[i] = 1;
-                remAxesIdx++;
-            } else
-                newIndices[i] = base.shape(shapeIdx++);
-        }
+    protected int[] view(int @NotNull [] indices) {
+        // Stretched axes are always indexed at 0 in the base Tensor
+        int[] newIndices = new int[base.dims];
+        for(int i = 0; i < newIndices.length; i++)
+            newIndices[i] = base.shape(i) == 1 ? 0 : indices[i + leadingAxes];
         return newIndices;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,403 @@
+package javaml.tensor;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation of {@code Kernels} using the {@code jdk.incubator.vector} module. Each loop processes as many
+ * elements as fit in the preferred vector shape of the platform, and the remaining tail is processed one element at a
+ * time. This class must only be loaded when the module is present, which is checked by {@code Kernels}
+ * @since 0.1.2
+ */
+final class VectorKernels implements Kernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = SPECIES.withLanes(int.class);
+    private static final VectorSpecies<Byte> BYTE_SPECIES = SPECIES.withLanes(byte.class);
+
+    // Each kernel has its own loop, rather than sharing a loop that takes the operator as an argument. A shared loop is
+    // too large to be inlined into every kernel, so the operator would not be a constant, and the vector operations
+    // would not be compiled to vector instructions
+
+    @Override
+    public void add(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            va.add(vb).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] + b[bOffset + i];
+    }
+
+    @Override
+    public void sub(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            va.sub(vb).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] - b[bOffset + i];
+    }
+
+    @Override
+    public void mul(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            va.mul(vb).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] * b[bOffset + i];
+    }
+
+    @Override
+    public void div(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            va.div(vb).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] / b[bOffset + i];
+    }
+
+    @Override
+    public void min(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            va.min(vb).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = Math.min(a[aOffset + i], b[bOffset + i]);
+    }
+
+    @Override
+    public void max(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            va.max(vb).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = Math.max(a[aOffset + i], b[bOffset + i]);
+    }
+
+    @Override
+    public void fma(float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                    float[] result, int resultOffset, int length) {
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            FloatVector vc = FloatVector.fromArray(SPECIES, c, cOffset + i);
+            va.fma(vb, vc).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = Math.fma(a[aOffset + i], b[bOffset + i], c[cOffset + i]);
+    }
+
+    @Override
+    public void abs(float[] a, int aOffset, float[] result, int resultOffset, int length) {
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length())
+            FloatVector.fromArray(SPECIES, a, aOffset + i).abs().intoArray(result, resultOffset + i);
+        for(; i < length; i++)
+            result[resultOffset + i] = Math.abs(a[aOffset + i]);
+    }
+
+    @Override
+    public void neg(float[] a, int aOffset, float[] result, int resultOffset, int length) {
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length())
+            FloatVector.fromArray(SPECIES, a, aOffset + i).neg().intoArray(result, resultOffset + i);
+        for(; i < length; i++)
+            result[resultOffset + i] = -a[aOffset + i];
+    }
+
+    @Override
+    public void eq(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        FloatVector zero = FloatVector.zero(SPECIES), one = FloatVector.broadcast(SPECIES, 1);
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            zero.blend(one, va.compare(VectorOperators.EQ, vb)).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] == b[bOffset + i] ? 1 : 0;
+    }
+
+    @Override
+    public void lt(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        FloatVector zero = FloatVector.zero(SPECIES), one = FloatVector.broadcast(SPECIES, 1);
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            zero.blend(one, va.compare(VectorOperators.LT, vb)).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] < b[bOffset + i] ? 1 : 0;
+    }
+
+    @Override
+    public void le(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        FloatVector zero = FloatVector.zero(SPECIES), one = FloatVector.broadcast(SPECIES, 1);
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            zero.blend(one, va.compare(VectorOperators.LE, vb)).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] <= b[bOffset + i] ? 1 : 0;
+    }
+
+    @Override
+    public void gt(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        FloatVector zero = FloatVector.zero(SPECIES), one = FloatVector.broadcast(SPECIES, 1);
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            zero.blend(one, va.compare(VectorOperators.GT, vb)).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] > b[bOffset + i] ? 1 : 0;
+    }
+
+    @Override
+    public void ge(float[] a, int aOffset, float[] b, int bOffset, float[] result, int resultOffset, int length) {
+        FloatVector zero = FloatVector.zero(SPECIES), one = FloatVector.broadcast(SPECIES, 1);
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            zero.blend(one, va.compare(VectorOperators.GE, vb)).intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++)
+            result[resultOffset + i] = a[aOffset + i] >= b[bOffset + i] ? 1 : 0;
+    }
+
+    @Override
+    public void nanToNum(float[] a, int aOffset, float[] result, int resultOffset, int length,
+                         float nan, float posInf, float negInf) {
+        FloatVector vNan = FloatVector.broadcast(SPECIES, nan);
+        FloatVector vPosInf = FloatVector.broadcast(SPECIES, posInf);
+        FloatVector vNegInf = FloatVector.broadcast(SPECIES, negInf);
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector v = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            v.blend(vNan, v.test(VectorOperators.IS_NAN))
+                    .blend(vPosInf, v.compare(VectorOperators.EQ, Float.POSITIVE_INFINITY))
+                    .blend(vNegInf, v.compare(VectorOperators.EQ, Float.NEGATIVE_INFINITY))
+                    .intoArray(result, resultOffset + i);
+        }
+        for(; i < length; i++) {
+            float x = a[aOffset + i];
+            result[resultOffset + i] = Float.isNaN(x) ? nan :
+                    (x == Float.POSITIVE_INFINITY ? posInf : (x == Float.NEGATIVE_INFINITY ? negInf : x));
+        }
+    }
+
+    @Override
+    public float sum(float[] a, int aOffset, int length) {
+        // Four independent accumulators hide the latency of the additions
+        int lanes = SPECIES.length(), i = 0;
+        FloatVector sum0 = FloatVector.zero(SPECIES), sum1 = sum0, sum2 = sum0, sum3 = sum0;
+        for(int bound = length - 4 * lanes; i <= bound; i += 4 * lanes) {
+            sum0 = sum0.add(FloatVector.fromArray(SPECIES, a, aOffset + i));
+            sum1 = sum1.add(FloatVector.fromArray(SPECIES, a, aOffset + i + lanes));
+            sum2 = sum2.add(FloatVector.fromArray(SPECIES, a, aOffset + i + 2 * lanes));
+            sum3 = sum3.add(FloatVector.fromArray(SPECIES, a, aOffset + i + 3 * lanes));
+        }
+        for(int bound = SPECIES.loopBound(length); i < bound; i += lanes)
+            sum0 = sum0.add(FloatVector.fromArray(SPECIES, a, aOffset + i));
+        float sum = sum0.add(sum1).add(sum2.add(sum3)).reduceLanes(VectorOperators.ADD);
+        for(; i < length; i++)
+            sum += a[aOffset + i];
+        return sum;
+    }
+
+    @Override
+    public float sumSquaredDeviations(float[] a, int aOffset, int length, float mean) {
+        int lanes = SPECIES.length(), i = 0;
+        FloatVector vMean = FloatVector.broadcast(SPECIES, mean);
+        FloatVector sum0 = FloatVector.zero(SPECIES), sum1 = sum0;
+        for(int bound = length - 2 * lanes; i <= bound; i += 2 * lanes) {
+            FloatVector deviation0 = FloatVector.fromArray(SPECIES, a, aOffset + i).sub(vMean);
+            FloatVector deviation1 = FloatVector.fromArray(SPECIES, a, aOffset + i + lanes).sub(vMean);
+            sum0 = deviation0.fma(deviation0, sum0);
+            sum1 = deviation1.fma(deviation1, sum1);
+        }
+        float sum = sum0.add(sum1).reduceLanes(VectorOperators.ADD);
+        for(; i < length; i++) {
+            float deviation = a[aOffset + i] - mean;
+            sum += deviation * deviation;
+        }
+        return sum;
+    }
+
+    @Override
+    public float max(float[] a, int aOffset, int length) {
+        FloatVector max = FloatVector.broadcast(SPECIES, Float.NEGATIVE_INFINITY);
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length())
+            max = max.max(FloatVector.fromArray(SPECIES, a, aOffset + i));
+        float result = max.reduceLanes(VectorOperators.MAX);
+        for(; i < length; i++)
+            result = Math.max(result, a[aOffset + i]);
+        return result;
+    }
+
+    @Override
+    public float min(float[] a, int aOffset, int length) {
+        FloatVector min = FloatVector.broadcast(SPECIES, Float.POSITIVE_INFINITY);
+        int i = 0;
+        for(int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length())
+            min = min.min(FloatVector.fromArray(SPECIES, a, aOffset + i));
+        float result = min.reduceLanes(VectorOperators.MIN);
+        for(; i < length; i++)
+            result = Math.min(result, a[aOffset + i]);
+        return result;
+    }
+
+    @Override
+    public void boxMuller(float[] u1, float[] u2, float[] z0, float[] z1, int offset, int length) {
+        // The same operations as ScalarKernels.boxMullerRange, in the same order, so the results are identical
+        FloatVector lowLn2 = FloatVector.broadcast(SPECIES, ScalarKernels.LN_2_LOW);
+        FloatVector highLn2 = FloatVector.broadcast(SPECIES, ScalarKernels.LN_2_HIGH);
+        FloatVector minusHalf = FloatVector.broadcast(SPECIES, -0.5f);
+        FloatVector sin2 = FloatVector.broadcast(SPECIES, ScalarKernels.SIN_P[2]);
+        FloatVector cos2 = FloatVector.broadcast(SPECIES, ScalarKernels.COS_P[2]);
+        int i = offset;
+        for(int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            IntVector bits = FloatVector.fromArray(SPECIES, u1, i).reinterpretAsInts();
+            IntVector exponent = bits.lanewise(VectorOperators.LSHR, 23).sub(127);
+            FloatVector mantissa = bits.and(0x007FFFFF).or(0x3F800000).reinterpretAsFloats();
+            VectorMask<Float> large = mantissa.compare(VectorOperators.GT, ScalarKernels.SQRT_2);
+            mantissa = mantissa.blend(mantissa.mul(0.5f), large);
+            exponent = exponent.blend(exponent.add(1), large.cast(INT_SPECIES));
+            FloatVector x = mantissa.sub(1), xx = x.mul(x);
+            FloatVector e = (FloatVector) exponent.convert(VectorOperators.I2F, 0);
+            FloatVector p = x.fma(ScalarKernels.LOG_P[0], ScalarKernels.LOG_P[1]);
+            for(int j = 2; j < ScalarKernels.LOG_P.length; j++)
+                p = p.fma(x, FloatVector.broadcast(SPECIES, ScalarKernels.LOG_P[j]));
+            FloatVector log = e.fma(lowLn2, x.mul(xx).mul(p));
+            log = e.fma(highLn2, x.add(xx.fma(minusHalf, log)));
+            FloatVector radius = log.mul(-2f).sqrt();
+
+            FloatVector v2 = FloatVector.fromArray(SPECIES, u2, i);
+            IntVector quarter = (IntVector) v2.mul(4f).add(0.5f).convert(VectorOperators.F2I, 0);
+            FloatVector r = v2.sub(((FloatVector) quarter.convert(VectorOperators.I2F, 0)).mul(0.25f)).mul(TWO_PI);
+            FloatVector rr = r.mul(r);
+            FloatVector sin = rr.fma(ScalarKernels.SIN_P[0], ScalarKernels.SIN_P[1]).fma(rr, sin2).mul(rr).fma(r, r);
+            FloatVector cos = rr.fma(ScalarKernels.COS_P[0], ScalarKernels.COS_P[1]).fma(rr, cos2).mul(rr)
+                    .fma(rr, rr.fma(-0.5f, 1f));
+            VectorMask<Float> odd = quarter.and(1).compare(VectorOperators.NE, 0).cast(SPECIES);
+            FloatVector cosine = cos.blend(sin, odd), sine = sin.blend(cos, odd);
+            VectorMask<Float> negateCosine = quarter.add(1).and(2).compare(VectorOperators.NE, 0).cast(SPECIES);
+            VectorMask<Float> negateSine = quarter.and(2).compare(VectorOperators.NE, 0).cast(SPECIES);
+            radius.mul(cosine.blend(cosine.neg(), negateCosine)).intoArray(z0, i);
+            radius.mul(sine.blend(sine.neg(), negateSine)).intoArray(z1, i);
+        }
+        ScalarKernels.boxMullerRange(u1, u2, z0, z1, i, offset + length);
+    }
+
+    @Override
+    public int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        // A byte vector has four times as many lanes as an int vector of the same shape, so it is widened in four parts
+        int i = 0, parts = BYTE_SPECIES.length() / INT_SPECIES.length();
+        IntVector sum = IntVector.zero(INT_SPECIES);
+        for(int bound = BYTE_SPECIES.loopBound(length); i < bound; i += BYTE_SPECIES.length()) {
+            ByteVector va = ByteVector.fromArray(BYTE_SPECIES, a, aOffset + i);
+            ByteVector vb = ByteVector.fromArray(BYTE_SPECIES, b, bOffset + i);
+            for(int part = 0; part < parts; part++) {
+                IntVector ia = (IntVector) va.convertShape(VectorOperators.B2I, INT_SPECIES, part);
+                IntVector ib = (IntVector) vb.convertShape(VectorOperators.B2I, INT_SPECIES, part);
+                sum = ia.mul(ib).add(sum);
+            }
+        }
+        // Integer addition is exact, so the order of the sum does not change the result
+        int result = sum.reduceLanes(VectorOperators.ADD);
+        for(; i < length; i++)
+            result += a[aOffset + i] * b[bOffset + i];
+        return result;
+    }
+
+    @Override
+    public int gemmPanelWidth() {
+        return 2 * SPECIES.length();
+    }
+
+    @Override
+    public void gemm(int depth, float[] a, int aOffset, float[] b, int bOffset, float[] c, int cOffset,
+                     int cRowStride, int rows, int cols) {
+        // The 4 x 2 vector tile is held in local variables, so the JIT can keep it in registers
+        int lanes = SPECIES.length();
+        FloatVector c00 = FloatVector.zero(SPECIES), c01 = c00, c10 = c00, c11 = c00;
+        FloatVector c20 = c00, c21 = c00, c30 = c00, c31 = c00;
+        for(int p = 0; p < depth; p++) {
+            int ai = aOffset + p * Gemm.PANEL_HEIGHT, bi = bOffset + p * 2 * lanes;
+            FloatVector b0 = FloatVector.fromArray(SPECIES, b, bi);
+            FloatVector b1 = FloatVector.fromArray(SPECIES, b, bi + lanes);
+            FloatVector a0 = FloatVector.broadcast(SPECIES, a[ai]);
+            c00 = a0.fma(b0, c00);
+            c01 = a0.fma(b1, c01);
+            FloatVector a1 = FloatVector.broadcast(SPECIES, a[ai + 1]);
+            c10 = a1.fma(b0, c10);
+            c11 = a1.fma(b1, c11);
+            FloatVector a2 = FloatVector.broadcast(SPECIES, a[ai + 2]);
+            c20 = a2.fma(b0, c20);
+            c21 = a2.fma(b1, c21);
+            FloatVector a3 = FloatVector.broadcast(SPECIES, a[ai + 3]);
+            c30 = a3.fma(b0, c30);
+            c31 = a3.fma(b1, c31);
+        }
+        if(cols == 2 * lanes) {
+            addInto(c00, c01, c, cOffset, lanes);
+            if(rows > 1)
+                addInto(c10, c11, c, cOffset + cRowStride, lanes);
+            if(rows > 2)
+                addInto(c20, c21, c, cOffset + 2 * cRowStride, lanes);
+            if(rows > 3)
+                addInto(c30, c31, c, cOffset + 3 * cRowStride, lanes);
+            return;
+        }
+        // Partial tiles at the right edge of the result are written with masks, so c is never read past the tile
+        VectorMask<Float> mask0 = SPECIES.indexInRange(0, cols), mask1 = SPECIES.indexInRange(lanes, cols);
+        addInto(c00, c01, c, cOffset, lanes, mask0, mask1);
+        if(rows > 1)
+            addInto(c10, c11, c, cOffset + cRowStride, lanes, mask0, mask1);
+        if(rows > 2)
+            addInto(c20, c21, c, cOffset + 2 * cRowStride, lanes, mask0, mask1);
+        if(rows > 3)
+            addInto(c30, c31, c, cOffset + 3 * cRowStride, lanes, mask0, mask1);
+    }
+
+    /** Adds two consecutive vectors to the row of c starting at the given position */
+    private static void addInto(FloatVector v0, FloatVector v1, float[] c, int position, int lanes) {
+        FloatVector.fromArray(SPECIES, c, position).add(v0).intoArray(c, position);
+        FloatVector.fromArray(SPECIES, c, position + lanes).add(v1).intoArray(c, position + lanes);
+    }
+
+    /** Adds the lanes of two consecutive vectors selected by the masks to the row of c starting at a position */
+    private static void addInto(FloatVector v0, FloatVector v1, float[] c, int position, int lanes,
+                                VectorMask<Float> mask0, VectorMask<Float> mask1) {
+        FloatVector.fromArray(SPECIES, c, position, mask0).add(v0).intoArray(c, position, mask0);
+        FloatVector.fromArray(SPECIES, c, position + lanes, mask1).add(v1).intoArray(c, position + lanes, mask1);
+    }
+}
@@ -1,9 +1,23 @@
 package javaml;
 
+import javaml.tensor.Arena;
+import javaml.tensor.DType;
+import javaml.tensor.QuantizedTensor;
+import javaml.tensor.SparseTensor;
+import javaml.tensor.FloatIterator;
 import javaml.tensor.Tensor;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -49,6 +63,13 @@ public class TensorTest {
         array[3] = new Object[] {0, 1, BigInteger.ZERO};
         assertThrows(IllegalArgumentException.class, () -> Tensor.from(array),
                 "Non primitive datatype replacing primitive in 'from'");
+
+        // Primitive arrays are copied without boxing, including nested arrays of each primitive type
+        assertEquals(Tensor.from(new float[][] {{1, 2}, {3, 4}}), Tensor.from(new double[][] {{1, 2}, {3, 4}}));
+        assertEquals(Tensor.from(new float[][] {{1, 0}, {3, 4}}), Tensor.from(new Object[] {new boolean[] {true, false},
+                new long[] {3, 4}}));
+        assertEquals(Tensor.zeros(2, 0), Tensor.from(new int[2][0]));
+        assertThrows(IllegalArgumentException.class, () -> Tensor.from(new int[][] {{1, 2}, {3}}));
     }
 
     @Test void testDims() {
@@ -96,6 +117,91 @@ public class TensorTest {
         assertEquals(8, t.argmin());
         assertEquals(87, t.nanmax());
         assertEquals(-8, t.nanmin());
+        assertEquals(0, Tensor.from(new int[] {5, 1, 5}).argmax());
+        assertEquals(1, Tensor.from(new int[][] {{5, 1}, {0, 5}}).t().argmin());
+    }
+
+    @Test void testSum() {
+        Tensor t = Tensor.from(new float[][] {{4, 23, 87, 12}, {4, 65, 2, -6}, {-4, 2, 0, -8}});
+        assertEquals(181, t.sum());
+        assertEquals(181, t.t().sum());
+        assertEquals(181f / 12, t.mean());
+        assertEquals(126f / 4, t.delete(0, 1, 2).t().mean());
+        assertEquals(1.25f, Tensor.range(4).variance());
+        assertEquals(1.25f, Tensor.range(4).apply(x -> x + 1e6f).variance());
+        assertEquals(0, Tensor.EMPTY.sum());
+        assertEquals(Float.NaN, Tensor.EMPTY.mean());
+
+        // Adding 0.1 one element at a time drifts by over 1% with this many elements
+        int n = 1 << 22;
+        Tensor tenths = Tensor.zeros(n).apply(x -> 0.1f);
+        assertEquals(0.1 * n, tenths.sum(), 0.1 * n * 1e-5);
+        assertEquals(0.1f, tenths.mean(), 1e-7f);
+        assertEquals(0, tenths.variance(), 1e-12f);
+        assertEquals(tenths.sum(), tenths.sum());
+
+        // Views that are not consecutive in memory are summed exactly as a contiguous copy of them would be
+        Tensor view = Tensor.rand(300, 500).t();
+        assertEquals(view.contiguous().sum(), view.sum());
+        assertEquals(view.contiguous().variance(), view.variance());
+        Tensor exactView = Tensor.rand(300, 500).to(DType.FLOAT64).t();
+        assertEquals(exactView.contiguous().sum(), exactView.sum());
+        assertEquals(exactView.contiguous().variance(), exactView.variance());
+    }
+
+    @Test void testAxisReductions() {
+        Tensor t = Tensor.from(new float[][] {{4, 23, 87, 12}, {4, 65, 2, -6}, {-4, 2, 0, -8}});
+        assertEquals(Tensor.from(new int[] {4, 90, 89, -2}), t.sum(0));
+        assertEquals(Tensor.from(new int[] {126, 65, -10}), t.sum(1));
+        assertEquals(Tensor.from(new int[][] {{126}, {65}, {-10}}), t.sum(true, -1));
+        assertEquals(Tensor.from(new int[] {181}).squeeze(), t.sum(0, 1));
+        assertEquals(Tensor.from(new int[][] {{181}}), t.t().sum(true, 0, 1));
+        assertEquals(Tensor.from(new float[] {31.5f, 16.25f, -2.5f}), t.mean(1));
+        assertEquals(Tensor.from(new int[] {4, 65, 87, 12}), t.max(0));
+        assertEquals(Tensor.from(new int[] {87, 65, 2}), t.t().max(0));
+        assertEquals(Tensor.from(new int[] {-4, 2, 0, -8}), t.min(0));
+        assertEquals(Tensor.from(new int[] {0, 1, 0, 0}), t.argmax(0));
+        assertEquals(Tensor.from(new int[] {2, 1, 1}), t.argmax(1));
+        assertEquals(Tensor.from(new int[][] {{0}, {3}, {3}}), t.argmin(-1, true));
+        assertEquals(Tensor.from(new int[] {2, 2, 2, 2}), t.argmin(0));
+        assertEquals(Tensor.from(new int[] {1, 1, 1}), t.delete(1, 2).argmax(1));
+
+        t.set(Float.NaN, 1, 2);
+        assertEquals(Tensor.from(new float[] {4, 65, Float.NaN, 12}), t.max(0));
+        assertEquals(Tensor.from(new float[] {87, Float.NaN, 2}), t.t().max(0));
+        assertEquals(Tensor.from(new float[] {2, 2, 1, 2}), t.argmin(0));
+        assertEquals(Tensor.from(new float[] {2, 2, 1}), t.argmax(1));
+
+        // Large enough to be split into parallel ranges, in both loop orders
+        Tensor large = Tensor.rand(300, 500);
+        Tensor rowSums = large.sum(1), rowArgmax = large.argmax(1), columnMaxima = large.max(0);
+        for(int i = 0; i < 300; i += 13) {
+            float sum = 0, max = Float.NEGATIVE_INFINITY;
+            for(int j = 0; j < 500; j++) {
+                sum += large.get(i, j);
+                max = Math.max(max, large.get(i, j));
+            }
+            assertEquals(sum, rowSums.get(i), 1e-3f);
+            assertEquals(max, large.get(i, (int) rowArgmax.get(i)));
+        }
+        for(int j = 0; j < 500; j += 17) {
+            float max = Float.NEGATIVE_INFINITY;
+            for(int i = 0; i < 300; i++)
+                max = Math.max(max, large.get(i, j));
+            assertEquals(max, columnMaxima.get(j));
+        }
+
+        // Indices are exact beyond 2^24, where consecutive integers are no longer representable as floats
+        Tensor wide = Tensor.zeros(1, (1 << 24) + 2);
+        wide.set(1, 0, (1 << 24) + 1);
+        assertEquals(DType.INT32, wide.argmax(1).dtype());
+        assertEquals((1 << 24) + 1, wide.argmax(1).getLong(0));
+        assertEquals((1 << 24) + 1, wide.t().argmax(0).getLong(0));
+
+        assertEquals(Tensor.zeros(0, 3).sum(0), Tensor.zeros(3));
+        assertThrows(UnsupportedOperationException.class, () -> Tensor.zeros(0, 3).max(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> t.sum(2));
+        assertThrows(IllegalArgumentException.class, () -> t.sum(1, -1));
     }
 
     @Test void testNanToNum() {
@@ -111,6 +217,184 @@ public class TensorTest {
         float inf = Float.POSITIVE_INFINITY, nan = Float.NaN;
         Tensor t = Tensor.from(new float[] {-inf, 2, -3.4f, 4, inf, 6, -7, -0, nan});
         assertEquals(Tensor.from(new float[] {inf, 2, 3.4f, 4, inf, 6, 7, 0, nan}), t.abs());
+        // Equal Tensors have equal hash codes, including when they differ by the sign of zero
+        Tensor negativeZero = Tensor.from(new float[] {-0f, nan});
+        assertEquals(negativeZero, negativeZero.abs());
+        assertEquals(negativeZero.hashCode(), negativeZero.abs().hashCode());
+    }
+
+    @Test void testElementwise() {
+        // Large enough to use full vectors and a partial tail
+        Tensor a = Tensor.range(-18, 19).apply(x -> x * 0.5f), b = Tensor.range(37).apply(x -> 10 - x);
+        assertEquals(Tensor.apply(a, b, Float::sum), a.add(b));
+        assertEquals(Tensor.apply(a, b, (x, y) -> x - y), a.sub(b));
+        assertEquals(Tensor.apply(a, b, (x, y) -> x * y), a.mul(b));
+        assertEquals(Tensor.apply(a, b, (x, y) -> x / y), a.div(b));
+        assertEquals(Tensor.apply(a, b, Math::min), a.minimum(b));
+        assertEquals(Tensor.apply(a, b, Math::max), a.maximum(b));
+        assertEquals(Tensor.apply(a.mul(b), b, Float::sum), a.fma(b, b));
+        Tensor out = Tensor.zeros(37), e = a.add(out);
+        assertSame(out, a.fma(b, b, out));
+        assertEquals(a.fma(b, b), out);
+        assertEquals(a.fma(b, b), e.fma(b, b, e));
+        assertEquals(a.apply(x -> -x), a.neg());
+        assertEquals(Tensor.apply(a, b, (x, y) -> x < y ? 1 : 0), a.lt(b));
+        assertEquals(Tensor.apply(a, b, (x, y) -> x >= y ? 1 : 0), a.ge(b));
+        assertThrows(IllegalArgumentException.class, () -> a.add(Tensor.zeros(36)));
+
+        float nan = Float.NaN;
+        Tensor c = Tensor.from(new float[][] {{1, nan, 3}, {4, 5, 6}});
+        Tensor d = Tensor.from(new float[][] {{1, 2}, {nan, 5}, {6, 7}});
+        assertEquals(Tensor.from(new float[][] {{1, 0, 0}, {0, 1, 0}}), c.eq(d.t()));
+        assertEquals(Tensor.from(new float[][] {{0, 0, 1}, {0, 0, 1}}), c.lt(d.t()));
+        assertEquals(Tensor.from(new float[][] {{1, 0, 1}, {0, 1, 1}}), c.le(d.t()));
+        assertEquals(Tensor.from(new float[][] {{0, 0, 0}, {1, 0, 0}}), c.gt(d.t()));
+        assertEquals(Tensor.from(new float[][] {{2, nan, 9}, {6, 10, 13}}), c.add(d.t()));
+        assertEquals(Tensor.from(new float[][] {{1, 4}, {0, 5}, {3, 6}}), c.t().nanToNum());
+    }
+
+    @Test void testBroadcasting() {
+        Tensor matrix = Tensor.from(new int[][] {{1, 2, 3}, {4, 5, 6}});
+        Tensor row = Tensor.from(new int[] {10, 20, 30}), column = Tensor.from(new int[][] {{100}, {200}});
+        assertEquals(Tensor.from(new int[][] {{11, 22, 33}, {14, 25, 36}}), matrix.add(row));
+        assertEquals(Tensor.from(new int[][] {{9, 18, 27}, {6, 15, 24}}), row.sub(matrix));
+        assertEquals(Tensor.from(new int[][] {{100, 200, 300}, {800, 1000, 1200}}), matrix.mul(column));
+        assertEquals(Tensor.from(new int[][] {{110, 120, 130}, {210, 220, 230}}), row.add(column));
+        assertEquals(Tensor.from(new int[][] {{10, 10, 10}, {3, 4, 5}}), row.div(matrix.t().t()).apply(Math::round));
+        assertEquals(Tensor.from(new int[][] {{1, 4, 9}, {16, 25, 36}}), matrix.pow(Tensor.from(new int[] {2})));
+        assertEquals(Tensor.from(new int[][] {{1, 1, 0}, {0, 0, 0}}), matrix.lt(Tensor.from(new int[] {3})));
+        assertEquals(Tensor.from(new int[][] {{2, 8}, {4, 10}, {6, 12}}),
+                Tensor.apply(matrix.t(), matrix.t(), Float::sum));
+        assertEquals(Tensor.from(new int[][] {{101, 104}, {201, 204}}),
+                Tensor.apply(column, matrix.delete(1, 2).delete(1, 1).t(), Float::sum));
+        assertThrows(IllegalArgumentException.class, () -> matrix.add(column.t()));
+        assertThrows(IllegalArgumentException.class, () -> Tensor.apply(matrix, Tensor.zeros(2), Float::sum));
+
+        Tensor broadcast = column.broadcastTo(2, 2, 3);
+        assertEquals(Tensor.from(new int[][][] {{{100, 100, 100}, {200, 200, 200}},
+                {{100, 100, 100}, {200, 200, 200}}}), broadcast);
+        assertEquals(Tensor.from(new int[][] {{200, 200}, {400, 400}}), column.delete(1).broadcastTo(2, 2).add(column));
+        assertEquals(Tensor.from(new int[][] {{100, 100}, {200, 200}}),
+                Tensor.from(new int[][] {{100}, {200}, {300}}).delete(0, 2).broadcastTo(2, 2));
+        assertThrows(IllegalArgumentException.class, () -> matrix.broadcastTo(3, 3));
+        assertThrows(IllegalArgumentException.class, () -> matrix.broadcastTo(3));
+    }
+
+    @Test void testInPlace() {
+        Tensor matrix = Tensor.from(new int[][] {{1, 2, 3}, {4, 5, 6}});
+        Tensor row = Tensor.from(new int[] {10, 20, 30}), column = Tensor.from(new int[][] {{1}, {2}});
+        assertSame(matrix, matrix.addInPlace(row));
+        assertEquals(Tensor.from(new int[][] {{11, 22, 33}, {14, 25, 36}}), matrix);
+        matrix.t().mulInPlace(column.t());
+        assertEquals(Tensor.from(new int[][] {{11, 22, 33}, {28, 50, 72}}), matrix);
+        matrix.subInPlace(row).divInPlace(column);
+        assertEquals(Tensor.from(new int[][] {{1, 2, 3}, {9, 15, 21}}), matrix);
+        matrix.delete(1, 1).applyInPlace(x -> -x);
+        assertEquals(Tensor.from(new int[][] {{-1, 2, -3}, {-9, 15, -21}}), matrix);
+
+        // Operands that overlap the destination are read before any element is overwritten
+        Tensor square = Tensor.from(new int[][] {{1, 2}, {3, 4}});
+        square.addInPlace(square.t());
+        assertEquals(Tensor.from(new int[][] {{2, 5}, {5, 8}}), square);
+        square.addInPlace(square);
+        assertEquals(Tensor.from(new int[][] {{4, 10}, {10, 16}}), square);
+
+        assertThrows(IllegalArgumentException.class, () -> row.addInPlace(matrix));
+        assertThrows(IllegalArgumentException.class, () -> column.broadcastTo(2, 3).addInPlace(row));
+        assertThrows(IllegalArgumentException.class, () -> column.broadcastTo(2, 3).delete(1, 0).applyInPlace(x -> x));
+    }
+
+    @Test void testOut() {
+        float nan = Float.NaN, inf = Float.POSITIVE_INFINITY;
+        Tensor matrix = Tensor.from(new int[][] {{1, -2, 3}, {-4, 5, -6}}), row = Tensor.from(new int[] {1, 2, 3});
+        Tensor out = Tensor.zeros(2, 3);
+        assertSame(out, matrix.abs(out));
+        assertEquals(Tensor.from(new int[][] {{1, 2, 3}, {4, 5, 6}}), out);
+        assertEquals(Tensor.from(new int[][] {{2, 0, 6}, {-3, 7, -3}}), matrix.add(row, out));
+        assertEquals(Tensor.from(new int[][] {{1, -4, 9}, {-4, 10, -18}}), matrix.mul(row, out));
+        assertEquals(Tensor.from(new int[][] {{0, -4, 0}, {-5, 3, -9}}), matrix.sub(row, out));
+        assertEquals(Tensor.from(new float[][] {{1, -1, 1}, {-4, 2.5f, -2}}), matrix.div(row, out));
+        assertEquals(Tensor.from(new int[][] {{-1, 2, -3}, {4, -5, 6}}), matrix.neg(out));
+        assertEquals(Tensor.from(new int[][] {{1, 2, 3}, {1, 5, 3}}), Tensor.apply(matrix, row, Math::max, out));
+        assertEquals(Tensor.from(new int[][] {{1, 4, 9}, {16, 25, 36}}), matrix.apply(x -> x * x, out));
+        assertEquals(Tensor.from(new int[][] {{0, 1, 2}, {3, 4, 5}}), matrix.apply((i, x) -> i, out));
+        Tensor indexed = Tensor.zeros(3, 2);
+        matrix.apply((i, x) -> i * 10 + x, indexed.t());
+        assertEquals(Tensor.from(new int[][] {{1, 26}, {8, 45}, {23, 44}}), indexed);
+        indexed.apply((i, x) -> i * 10 + x, indexed);
+        assertEquals(Tensor.from(new int[][] {{1, 36}, {28, 75}, {63, 94}}), indexed);
+
+        // Writing into a transposed view and into the operand itself
+        Tensor transposed = Tensor.zeros(3, 2);
+        matrix.abs(transposed.t());
+        assertEquals(Tensor.from(new int[][] {{1, 4}, {2, 5}, {3, 6}}), transposed);
+        Tensor special = Tensor.from(new float[] {nan, inf, -inf, 1});
+        special.nanToNum(0, 10, -10, special);
+        assertEquals(Tensor.from(new int[] {0, 10, -10, 1}), special);
+
+        assertThrows(IllegalArgumentException.class, () -> matrix.abs(Tensor.zeros(3, 2)));
+        assertThrows(IllegalArgumentException.class, () -> row.add(row, out));
+        assertThrows(IllegalArgumentException.class, () -> matrix.add(row, row.broadcastTo(2, 3)));
+    }
+
+    @Test void testMatmul() {
+        Tensor a = Tensor.from(new int[][] {{1, 2, 3}, {4, 5, 6}});
+        Tensor b = Tensor.from(new int[][] {{7, 8}, {9, 10}, {11, 12}});
+        assertEquals(Tensor.from(new int[][] {{58, 64}, {139, 154}}), a.matmul(b));
+        assertEquals(Tensor.from(new int[][] {{58, 139}, {64, 154}}), b.t().matmul(a.t()));
+        assertEquals(Tensor.from(new int[][] {{1, 4}, {4, 16}}), a.delete(1, 1, 2).matmul(a.delete(1, 1, 2).t()));
+        assertEquals(Tensor.zeros(2, 0), a.matmul(Tensor.zeros(3, 0)));
+        assertThrows(IllegalArgumentException.class, () -> a.matmul(a));
+        assertEquals(Tensor.from(new int[] {14, 32}), a.matmul(Tensor.from(new int[] {1, 2, 3})));
+        assertEquals(Tensor.from(new int[] {9, 12, 15}), Tensor.from(new int[] {1, 2}).matmul(a));
+        assertEquals(Tensor.from(new int[] {14}), Tensor.range(4).matmul(Tensor.range(4)));
+
+        // Large enough to be split into several parallel tiles, with partial tiles and depth blocks at the edges
+        Tensor c = Tensor.rand(130, 300), d = Tensor.rand(530, 300).t();
+        Tensor product = c.matmul(d);
+        for(int i = 0; i < 130; i += 7) {
+            for(int j = 0; j < 530; j += 11) {
+                float expected = 0;
+                for(int k = 0; k < 300; k++)
+                    expected += c.get(i, k) * d.get(k, j);
+                assertEquals(expected, product.get(i, j), 1e-3f);
+            }
+        }
+    }
+
+    @Test void testBatchedMatmul() {
+        Tensor a = Tensor.rand(2, 3, 5, 4), b = Tensor.rand(3, 6, 4).swapAxes(-1, -2);
+        Tensor product = a.matmul(b);
+        assertArrayEquals(new int[] {2, 3, 5, 6}, product.shape().toIntArray());
+        for(int i = 0; i < 2; i++) {
+            for(int j = 0; j < 3; j++) {
+                Tensor expected = a.delete(0, 1 - i).delete(1, (j + 1) % 3, (j + 2) % 3).squeeze()
+                        .matmul(b.delete(0, (j + 1) % 3, (j + 2) % 3).squeeze());
+                Tensor actual = product.delete(0, 1 - i).delete(1, (j + 1) % 3, (j + 2) % 3).squeeze();
+                for(int k = 0; k < expected.size(); k++)
+                    assertEquals(expected.get(k), actual.get(k), 1e-5f);
+            }
+        }
+        // A single matrix is broadcast against every matrix in the batch
+        Tensor c = Tensor.from(new int[][] {{1, 0}, {0, 2}});
+        Tensor batch = Tensor.from(new int[][][] {{{1, 2}, {3, 4}}, {{5, 6}, {7, 8}}, {{9, 10}, {11, 12}}});
+        assertEquals(Tensor.from(new int[][][] {{{1, 2}, {6, 8}}, {{5, 6}, {14, 16}}, {{9, 10}, {22, 24}}}),
+                c.matmul(batch));
+        assertEquals(Tensor.from(new int[][][] {{{1, 4}, {3, 8}}, {{5, 12}, {7, 16}}, {{9, 20}, {11, 24}}}),
+                batch.matmul(c.unsqueeze(0)));
+        assertEquals(Tensor.from(new int[][] {{5, 11}, {17, 23}, {29, 35}}),
+                batch.matmul(Tensor.from(new int[] {1, 2})));
+        assertArrayEquals(new int[] {4, 3, 2, 2}, Tensor.zeros(4, 1, 2, 2).matmul(batch).shape().toIntArray());
+        assertThrows(IllegalArgumentException.class, () -> Tensor.zeros(2, 2, 2).matmul(batch));
+
+        // Many small matrices are grouped into each parallel task
+        Tensor small = Tensor.rand(4000, 3, 3);
+        Tensor squares = small.matmul(small);
+        for(int i = 0; i < 4000; i += 97)
+            for(int r = 0; r < 3; r++)
+                for(int col = 0; col < 3; col++)
+                    assertEquals(small.get(i, r, 0) * small.get(i, 0, col) + small.get(i, r, 1) * small.get(i, 1, col)
+                            + small.get(i, r, 2) * small.get(i, 2, col), squares.get(i, r, col), 1e-5f);
     }
 
     @Test void testReduce() {
@@ -148,6 +432,11 @@ public class TensorTest {
         assertEquals(Tensor.from(new int[] {4, 16, 36}), t1.apply(x -> x*x));
         Tensor t2 = Tensor.range(1, 7, 2);
         assertEquals(Tensor.from(new int[] {2, 12, 30, }), Tensor.apply(t1, t2, (x, y) -> x*y));
+        Tensor t3 = Tensor.from(new int[][] {{1, 2}, {3, 4}, {5, 6}});
+        assertEquals(Tensor.from(new int[][] {{1, 3, 5}, {2, 4, 6}}), t3.t().apply(x -> x));
+        assertEquals(Tensor.from(new int[][] {{1, 4, 7}, {5, 8, 11}}), t3.t().apply((i, x) -> i + x));
+        assertEquals(Tensor.from(new int[][] {{2, 4}, {6, 8}, {10, 12}}), Tensor.apply(t3, t3.t().t(), Float::sum));
+        assertEquals(Tensor.from(new int[][] {{2, 6, 10}, {4, 8, 12}}), Tensor.apply(t3.t(), t3.t(), Float::sum));
     }
 
     @Test void testSwapAxes() {
@@ -224,6 +513,488 @@ public class TensorTest {
         assertEquals(Tensor.range(10), Tensor.range(10).t().squeeze());
     }
 
+    @Test void testViewsShareMemory() {
+        Tensor t = Tensor.from(new int[][][]{{{1, 2, 3}, {4, 5, 6}, {7, 8, 9}, {10, 11, 12}}});
+        Tensor view = t.permuteDims(2, 0, 1).unsqueeze(0).squeeze();
+        view.set(-5, 1, 2);
+        assertEquals(-5, t.get(0, 1, 2));
+        t.set(-9, 0, 3, 0);
+        assertEquals(-9, view.get(3, 0));
+        // Views of a deletion view are not strided, so they fall back to mapping indices onto the base Tensor
+        Tensor deleted = t.delete(1, 0, 2).squeeze();
+        assertEquals(Tensor.from(new int[][] {{4, -9}, {5, 11}, {-5, 12}}), deleted.t());
+        deleted.t().set(20, 0, 1);
+        assertEquals(20, t.get(0, 3, 0));
+    }
+
+    @Test void testIterator() {
+        Tensor t = Tensor.from(new int[][][]{{{1, 2, 3}, {4, 5, 6}, {7, 8, 9}, {10, 11, 12}}});
+        FloatIterator iterator = t.swapAxes(1, 2).iterator();
+        float[] expected = {1, 4, 7, 10, 2, 5, 8, 11, 3, 6, 9, 12};
+        for(float f : expected)
+            assertEquals(f, iterator.nextFloat());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::nextFloat);
+        assertArrayEquals(expected, t.swapAxes(1, 2).toArray());
+        assertArrayEquals(new float[] {1, 3, 7, 9}, t.delete(1, 1, 3).delete(2, 1).toArray());
+
+        float[] sum = new float[1];
+        t.forEachFloat(x -> sum[0] += x);
+        assertEquals(78, sum[0]);
+        int count = 0;
+        for(int[] ignored : t.indices)
+            count++;
+        assertEquals(12, count);
+    }
+
+    @Test void testRandom() {
+        JavaML.random.setSeed(42);
+        Tensor uniform = Tensor.rand(1000, 1000), normal = Tensor.randn(1000, 1000);
+        assertTrue(uniform.min() >= 0 && uniform.max() < 1);
+        assertEquals(0.5, uniform.mean(), 2e-3);
+        assertEquals(1 / 12.0, uniform.variance(), 2e-3);
+        assertEquals(0, normal.mean(), 5e-3);
+        assertEquals(1, normal.variance(), 5e-3);
+        assertNotEquals(uniform, Tensor.randLike(uniform));
+
+        JavaML.random.setSeed(7);
+        Tensor shifted = Tensor.randn(3, 0.5f, new int[] {1000, 1000});
+        assertEquals(3, shifted.mean(), 2e-3);
+        assertEquals(0.25, shifted.variance(), 2e-3);
+        Tensor truncated = Tensor.truncatedRandn(1, 2, -3, 5, new int[] {1000, 1000});
+        assertTrue(truncated.min() >= -3 && truncated.max() <= 5);
+        // Truncating symmetrically keeps the mean, but reduces the variance to about 0.774 times the original
+        assertEquals(1, truncated.mean(), 1e-2);
+        assertEquals(4 * 0.774, truncated.variance(), 2e-2);
+        assertThrows(IllegalArgumentException.class, () -> Tensor.randn(0, -1, new int[] {3}));
+        assertThrows(IllegalArgumentException.class, () -> Tensor.truncatedRandn(0, 1, 2, -2, new int[] {3}));
+        // Intervals in the tails, which rejection would almost never reach, are sampled by inverting the distribution
+        Tensor tail = Tensor.truncatedRandn(0, 1, 6, 7, new int[] {100000});
+        assertTrue(tail.min() >= 6 && tail.max() <= 7);
+        assertEquals(6.1572, tail.mean(), 2e-3);
+        Tensor far = Tensor.truncatedRandn(3, 0.5f, -100, -99, new int[] {1000});
+        assertTrue(far.min() >= -100 && far.max() <= -99);
+        assertEquals(-99 - 0.5 / 204, far.mean(), 1e-3);
+        assertEquals(-0.2066, Tensor.truncatedRandn(0, 1, -1, 0.5f, new int[] {100000}).mean(), 5e-3);
+
+        // The same seed gives the same values, however many threads generate them
+        try(ExecutionContext context = new ExecutionContext(4, 16)) {
+            JavaML.random.setSeed(42);
+            assertEquals(uniform, context.call(() -> Tensor.rand(1000, 1000)));
+            assertEquals(normal, context.call(() -> Tensor.randnLike(normal)));
+            JavaML.random.setSeed(7);
+            assertEquals(shifted, context.call(() -> Tensor.randn(3, 0.5f, new int[] {1000, 1000})));
+            assertEquals(truncated, context.call(() -> Tensor.truncatedRandn(1, 2, -3, 5, new int[] {1000, 1000})));
+        }
+    }
+
+    @Test void testExecutionContext() {
+        Tensor a = Tensor.randn(67, 45), b = Tensor.randn(45, 130), c = Tensor.randn(70, 45), v = Tensor.randn(100000);
+        ExecutionContext sequential = ExecutionContext.sequential();
+        Tensor[] expected = sequential.call(() -> new Tensor[] {a.add(c.delete(0, 3, 4, 7)),
+                a.t().mul(a.t()), a.apply((i, x) -> i * x), a.matmul(b), a.sum(0), a.t().max(1), a.argmin(1),
+                Tensor.from(a.t().toArray()), Tensor.from(new float[] {v.sum()}),
+                a.t().apply((i, x) -> i - x, Tensor.zeros(45, 67))});
+
+        // A small grain size splits even these small Tensors into many parallel tasks
+        try(ExecutionContext context = new ExecutionContext(4, 16)) {
+            assertSame(context, context.call(ExecutionContext::current));
+            Tensor[] actual = context.call(() -> new Tensor[] {a.add(c.delete(0, 3, 4, 7)),
+                    a.t().mul(a.t()), a.apply((i, x) -> i * x), a.matmul(b), a.sum(0), a.t().max(1), a.argmin(1),
+                    Tensor.from(a.t().toArray()), Tensor.from(new float[] {v.sum()}),
+                    a.t().apply((i, x) -> i - x, Tensor.zeros(45, 67))});
+            context.run(() -> {
+                for(int i = 0; i < expected.length; i++)
+                    assertEquals(expected[i], actual[i]);
+                assertNotEquals(a, a.apply(x -> x == a.get(66, 44) ? x + 1 : x));
+            });
+        }
+        assertSame(ExecutionContext.getDefault(), ExecutionContext.current());
+        assertThrows(IllegalArgumentException.class, () -> new ExecutionContext(0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new ExecutionContext(4, 0));
+    }
+
+    @Test void testOffHeap() {
+        Tensor a = Tensor.randn(30, 40), b = Tensor.randn(40, 20);
+        Tensor view;
+        try(Arena arena = new Arena()) {
+            Tensor t = a.to(arena), zeros = Tensor.zeros(arena, 30, 40);
+            assertEquals(a, t);
+            assertEquals(Tensor.zerosLike(a), zeros);
+            assertEquals(a.t().matmul(a), t.t().matmul(t));
+            assertEquals(a.sum(1), t.sum(1));
+            assertEquals(a.delete(0, 2, 5).add(a.max(0)), t.delete(0, 2, 5).add(t.max(0)));
+            assertEquals(a.matmul(b), t.matmul(b.to(arena)));
+            assertEquals(a.variance(), t.variance());
+
+            // Writes into off-heap Tensors and their views
+            zeros.addInPlace(a);
+            assertEquals(a, zeros);
+            a.t().mul(a.t(), zeros.t());
+            assertEquals(a.mul(a), zeros);
+            zeros.t().delete(1, 0).set(5, 2, 0);
+            assertEquals(5, zeros.get(1, 2));
+            view = t.t();
+
+            // Larger off-heap Tensors are streamed through the kernels in chunks, and give the same results as the heap
+            Tensor large = Tensor.rand(300, 500), offHeap = large.to(arena), row = Tensor.rand(500);
+            assertEquals(large.add(row), offHeap.add(row.to(arena)));
+            assertEquals(large.t().mul(large.t()), offHeap.t().mul(offHeap.t()));
+            assertEquals(large.neg(), offHeap.neg());
+            assertEquals(large.sum(0), offHeap.sum(0));
+            assertEquals(large.t().max(1), offHeap.t().max(1));
+            assertEquals(large.argmax(1), offHeap.argmax(1));
+            assertEquals(large.argmin(0), offHeap.argmin(0));
+            assertEquals(large.t().matmul(large), offHeap.t().matmul(offHeap));
+            Tensor square = Tensor.rand(200, 200), offHeapSquare = square.to(arena);
+            offHeapSquare.addInPlace(offHeapSquare.t());
+            assertEquals(square.add(square.t()), offHeapSquare);
+            Tensor halves = large.to(DType.FLOAT16);
+            assertEquals(halves.to(DType.FLOAT32).sum(1), halves.sum(1));
+            assertEquals(halves.to(DType.FLOAT32).t().matmul(large), halves.t().matmul(offHeap));
+        }
+        assertThrows(IllegalStateException.class, () -> view.get(0, 0));
+        assertThrows(IllegalStateException.class, view::sum);
+        Arena closed = new Arena();
+        closed.close();
+        assertTrue(closed.isClosed());
+        assertThrows(IllegalStateException.class, () -> Tensor.zeros(closed, 3));
+    }
+
+    @Test void testMemoryMapped() throws IOException {
+        Path file = Files.createTempFile("tensor", ".bin");
+        file.toFile().deleteOnExit();
+        Tensor expected = Tensor.range(24).apply(x -> x / 2);
+        ByteBuffer bytes = ByteBuffer.allocate(24 * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for(float x : expected.toArray())
+            bytes.putFloat(x);
+        Files.write(file, bytes.array());
+
+        Tensor t = Tensor.mmap(file, FileChannel.MapMode.READ_ONLY, 2, 1, 3, 4);
+        assertEquals(expected.sum(), t.sum());
+        assertEquals(expected.variance(), t.variance());
+        assertEquals(t.squeeze().permuteDims(2, 0, 1).sum(1), t.permuteDims(3, 1, 0, 2).sum(2).squeeze(1));
+        float total = 0;
+        for(FloatIterator it = t.iterator(); it.hasNext(); )
+            total += it.nextFloat();
+        assertEquals(expected.sum(), total);
+        assertThrows(ReadOnlyBufferException.class, () -> t.set(1, 0, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> Tensor.mmap(file, FileChannel.MapMode.READ_ONLY, 5, 5));
+
+        // Private writes never reach the file, but writes to a READ_WRITE mapping do
+        Tensor copy = Tensor.mmap(file, FileChannel.MapMode.PRIVATE, 24);
+        copy.mulInPlace(Tensor.zeros(24));
+        assertEquals(Tensor.zeros(24), copy);
+        Tensor shared = Tensor.mmap(file, FileChannel.MapMode.READ_WRITE, 4, 6);
+        assertEquals(expected.sum(), shared.sum());
+        shared.t().set(-1, 5, 3);
+        assertEquals(-1, Tensor.mmap(file, FileChannel.MapMode.READ_ONLY, 24).get(23));
+    }
+
+    @Test void testLongSizes() {
+        // Broadcasting a single element gives a Tensor with more elements than an int can count, without storage
+        Tensor huge = Tensor.ones(1).broadcastTo(1 << 16, 1 << 16);
+        assertEquals(1L << 32, huge.size());
+        assertEquals(1, huge.get(-1, -1));
+        assertEquals(1, huge.t().unsqueeze(0).get(0, 65535, 3));
+        assertThrows(UnsupportedOperationException.class, huge::toArray);
+        assertEquals(Tensor.zeros(1 << 16).apply(x -> 1 << 16), huge.sum(0));
+        assertThrows(IllegalArgumentException.class, () -> huge.add(huge));
+
+        // Shapes that used to overflow silently are rejected
+        assertThrows(IllegalArgumentException.class, () -> Tensor.zeros(1 << 16, 1 << 16));
+        assertThrows(IllegalArgumentException.class, () -> Tensor.randn(1 << 16, 1 << 16));
+        assertThrows(IllegalArgumentException.class, () -> Tensor.zeros(Integer.MAX_VALUE, Integer.MAX_VALUE, 4));
+        assertThrows(IllegalArgumentException.class, () -> huge.broadcastTo(1 << 16, 1 << 16, 1 << 16, 1 << 16, 2));
+    }
+
+    @Test void testWrap() {
+        // Wrapped arrays share memory with the Tensor
+        float[] array = {1, 2, 3, 4, 5, 6};
+        Tensor t = Tensor.wrap(array, 2, 3);
+        t.set(10, 1, 0);
+        assertEquals(10, array[3]);
+        array[0] = -1;
+        assertEquals(-1, t.get(0, 0));
+        t.t().set(7, 2, 1);
+        assertEquals(7, array[5]);
+        assertThrows(IllegalArgumentException.class, () -> Tensor.wrap(array, 5));
+
+        // Buffers are wrapped from their position, in their byte order
+        ByteBuffer bytes = ByteBuffer.allocateDirect(7 * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for(int i = 0; i < 7; i++)
+            bytes.putFloat(i);
+        bytes.position(Float.BYTES);
+        Tensor fromBytes = Tensor.wrap(bytes, 3, 2);
+        assertEquals(Tensor.from(new float[][] {{1, 2}, {3, 4}, {5, 6}}), fromBytes);
+        fromBytes.set(-3, 1, 0);
+        assertEquals(-3, bytes.getFloat(3 * Float.BYTES));
+        assertEquals(Float.BYTES, bytes.position());
+        assertThrows(IllegalArgumentException.class, () -> Tensor.wrap(bytes, 7));
+
+        Tensor fromFloats = Tensor.wrap(bytes.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer(), 6);
+        assertEquals(15, fromFloats.sum());
+        assertThrows(ReadOnlyBufferException.class, () -> fromFloats.set(1, 0));
+    }
+
+    @Test void testFlatAccess() {
+        Tensor t = Tensor.from(new float[][] {{0, 1, 2, 3}, {4, 5, 6, 7}, {8, 9, 10, 11}});
+        assertEquals(7, t.getFlat(7));
+        assertEquals(11, t.getFlat(-1));
+        // Flat indices follow the row-major order of the view, not of the underlying storage
+        assertEquals(t.t().get(1, 2), t.t().getFlat(5));
+        assertEquals(t.delete(0, 1).get(1, 3), t.delete(0, 1).getFlat(7));
+        t.t().setFlat(5, -1);
+        assertEquals(-1, t.get(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> t.getFlat(12));
+        assertThrows(IndexOutOfBoundsException.class, () -> t.setFlat(-13, 0));
+
+        // Bulk copies in and out of arrays, at an offset
+        float[] array = new float[14];
+        t.t().copyInto(array, 2);
+        assertArrayEquals(t.t().toArray(), Arrays.copyOfRange(array, 2, 14));
+        assertEquals(t.t(), Tensor.zeros(4, 3).copyFrom(array, 2));
+        t.copyInto(array, 1);
+        assertEquals(t.get(1, 0), array[5]);
+        assertThrows(IllegalArgumentException.class, () -> t.copyInto(array, 3));
+        t.t().copyFrom(new float[12]);
+        assertEquals(Tensor.zeros(3, 4), t);
+        assertThrows(IllegalArgumentException.class, () -> t.copyFrom(new float[11]));
+        try(Arena arena = new Arena()) {
+            Tensor offHeap = Tensor.zeros(arena, 2, 2).copyFrom(new float[] {0, 1, 2, 3, 4}, 1);
+            assertEquals(4, offHeap.getFlat(3));
+            assertEquals(3, offHeap.t().getFlat(1));
+        }
+    }
+
+    @Test void testContiguous() {
+        Tensor t = Tensor.from(new float[][] {{0, 1, 2, 3}, {4, 5, 6, 7}, {8, 9, 10, 11}});
+        // A chain of views over an index-mapped view is folded into a single mapping of the axes
+        Tensor chain = t.delete(0, 1).swapAxes(0, 1).unsqueeze(0).squeeze();
+        assertEquals(Tensor.from(new float[][] {{0, 8}, {1, 9}, {2, 10}, {3, 11}}), chain);
+        chain.set(-1, 3, 1);
+        assertEquals(-1, t.get(2, 3));
+
+        assertSame(t, t.contiguous());
+        Tensor transposed = t.t().contiguous();
+        assertNotSame(t.t(), transposed);
+        assertEquals(t.t(), transposed);
+        transposed.set(100, 0, 0);
+        assertEquals(0, t.get(0, 0));
+        assertEquals(chain, chain.contiguous());
+        Tensor ints = Tensor.from(new int[][] {{1, 2}, {3, 4}}, DType.INT32).t().contiguous();
+        assertEquals(DType.INT32, ints.dtype());
+        assertEquals(Tensor.from(new int[][] {{1, 3}, {2, 4}}), ints);
+
+        // Large permuted views are copied in blocks, which must cover every element exactly once
+        Tensor large = Tensor.randn(3, 130, 70);
+        Tensor permuted = large.permuteDims(2, 0, 1).contiguous();
+        for(int i = 0; i < 3; i++)
+            for(int j = 0; j < 130; j++)
+                for(int k = 0; k < 70; k++)
+                    assertEquals(large.get(i, j, k), permuted.get(j, k, i));
+    }
+
+    @Test void testDTypes() {
+        assertEquals(DType.INT64, DType.promote(DType.INT32, DType.INT64));
+        assertEquals(DType.FLOAT32, DType.promote(DType.INT64, DType.FLOAT32));
+        assertEquals(DType.INT8, DType.promote(DType.BOOL, DType.INT8));
+        assertEquals(DType.FLOAT64, DType.promote(DType.FLOAT64, DType.FLOAT32));
+
+        // Values are stored exactly, without passing through float
+        long big = (1L << 53) + 1;
+        Tensor longs = Tensor.from(new long[][] {{big, -big}, {3, 4}}, DType.INT64);
+        assertEquals(DType.INT64, longs.dtype());
+        assertEquals(big, longs.getLong(0, 0));
+        assertEquals(-big, longs.t().getLong(1, 0));
+        assertEquals(0.1, Tensor.from(new double[] {0.1}, DType.FLOAT64).getDouble(0));
+        assertEquals(Tensor.from(new int[] {1, 0, 1}), Tensor.from(new boolean[] {true, false, true}, DType.BOOL));
+
+        // Binary operations promote their operands, and compute in double when they do not fit in a float
+        Tensor ints = Tensor.from(new int[] {1, 2, 3}, DType.INT32);
+        Tensor sum = ints.add(Tensor.from(new long[] {10, 20, 30}, DType.INT64));
+        assertEquals(DType.INT64, sum.dtype());
+        assertEquals(Tensor.from(new int[] {11, 22, 33}), sum);
+        Tensor precise = Tensor.from(new double[] {1}, DType.FLOAT64).add(Tensor.from(new double[] {1e-10},
+                DType.FLOAT64));
+        assertEquals(1 + 1e-10, precise.getDouble(0));
+        Tensor x = Tensor.from(new double[] {1.0000000001}, DType.FLOAT64);
+        assertEquals(DType.FLOAT64, x.fma(x, x).dtype());
+        assertEquals(x.mul(x).add(x).getDouble(0), x.fma(x, x).getDouble(0), 1e-15);
+        Tensor odd = Tensor.from(new int[] {(1 << 24) + 1}, DType.INT32);
+        assertEquals((1 << 24) + 1, odd.fma(Tensor.ones(1).to(DType.INT32), odd.sub(odd)).getLong(0));
+        assertThrows(IllegalArgumentException.class, () -> odd.fma(odd, x, odd));
+        assertEquals(DType.FLOAT32, ints.div(ints).dtype());
+        assertEquals(0.5f, Tensor.from(new int[] {1}, DType.INT32).div(Tensor.from(new int[] {2}, DType.INT32)).get(0));
+        assertEquals(1 << 30, Tensor.from(new int[] {(1 << 30) - 1}, DType.INT32).add(
+                Tensor.from(new int[] {1}, DType.INT8)).getLong(0));
+        assertThrows(IllegalArgumentException.class, () -> ints.addInPlace(Tensor.ones(3)));
+        assertEquals(Tensor.from(new int[] {2, 4, 6}), ints.addInPlace(ints));
+
+        // Masks, shapes and indices use their own types
+        assertEquals(DType.BOOL, ints.gt(Tensor.ones(1)).dtype());
+        assertEquals(DType.INT32, Tensor.zeros(2, 3).shape().dtype());
+        assertEquals(DType.INT32, Tensor.randn(4, 5).argmax(1).dtype());
+        assertEquals(2, ints.gt(Tensor.from(new int[] {3})).sum());
+
+        // Sums of double precision Tensors do not lose small elements
+        assertEquals(1, Tensor.from(new double[] {1e8, 1, -1e8}, DType.FLOAT64).sum());
+        assertEquals(Tensor.from(new int[] {1, -1}), Tensor.from(new float[] {1.7f, -1.7f}).to(DType.INT32));
+        assertEquals("[ 2, 40]", Tensor.from(new int[] {2, 40}, DType.INT64).toString());
+        assertEquals(4, Tensor.zeros(DType.FLOAT64, 2, 2).add(Tensor.ones(2)).sum());
+
+        // Reductions along axes and matrix products of double precision Tensors keep their type and precision
+        Tensor doubles = Tensor.from(new double[][] {{1, 1e-10}, {1 + 1e-10, 1}}, DType.FLOAT64);
+        assertEquals(DType.FLOAT64, doubles.sum(1).dtype());
+        assertEquals(1 + 1e-10, doubles.sum(1).getDouble(0));
+        assertEquals(1, doubles.argmax(0).getLong(0));
+        assertEquals(DType.FLOAT64, doubles.matmul(doubles).dtype());
+        assertEquals(1 + 1e-10, doubles.matmul(doubles).getDouble(0, 0));
+        Tensor wide = Tensor.from(new long[][] {{(1L << 53) + 1}, {3}}, DType.INT64);
+        assertEquals(DType.INT64, wide.max(0).dtype());
+        assertEquals((1L << 53) + 1, wide.max(0).getLong(0));
+        assertEquals(Tensor.from(new float[] {1.5f, 3.5f}), Tensor.from(new int[][] {{1, 2}, {3, 4}}).mean(1));
+
+        // Integers are compared exactly, and Tensors that are equal across types have the same hash code
+        Tensor exact = Tensor.from(new long[] {1L << 53}, DType.INT64);
+        assertNotEquals(exact, Tensor.from(new long[] {(1L << 53) + 1}, DType.INT64));
+        assertNotEquals(Tensor.from(new double[] {0x1p53}, DType.FLOAT64), Tensor.from(new long[] {(1L << 53) + 1},
+                DType.INT64));
+        assertNotEquals(Tensor.from(new double[] {0x1p63}, DType.FLOAT64), Tensor.from(new long[] {Long.MAX_VALUE},
+                DType.INT64));
+        assertEquals(Tensor.from(new double[] {0x1p53}, DType.FLOAT64), exact);
+        assertEquals(exact.hashCode(), Tensor.from(new double[] {0x1p53}, DType.FLOAT64).hashCode());
+        Tensor mixed = Tensor.from(new float[] {-0f, 3, 0.5f, Float.NaN, Float.NEGATIVE_INFINITY});
+        assertEquals(mixed, mixed.to(DType.FLOAT64));
+        assertEquals(mixed.hashCode(), mixed.to(DType.FLOAT64).hashCode());
+        assertEquals(ints, ints.to(DType.FLOAT32));
+        assertEquals(ints.hashCode(), ints.to(DType.INT64).hashCode());
+        assertEquals(ints.hashCode(), ints.to(DType.FLOAT32).hashCode());
+
+        // Integer arithmetic is computed on longs, so INT64 results beyond 2^53 are exact
+        Tensor odd64 = Tensor.from(new long[] {(1L << 53) + 1}, DType.INT64);
+        Tensor zero64 = Tensor.zeros(DType.INT64, 1), one64 = Tensor.ones(1).to(DType.INT64);
+        assertEquals((1L << 53) + 1, odd64.add(zero64).getLong(0));
+        assertEquals((1L << 53) + 2, odd64.add(one64).getLong(0));
+        assertEquals((1L << 53) + 1, odd64.mul(one64).getLong(0));
+        assertEquals((1L << 53) + 1, odd64.add(Tensor.from(new int[] {0}, DType.INT32)).getLong(0));
+        assertEquals(1, odd64.sub(exact).getLong(0));
+        assertEquals(0, odd64.eq(exact).getLong(0));
+        assertEquals(1, odd64.gt(exact).getLong(0));
+        assertEquals((1L << 53) + 1, odd64.maximum(exact).getLong(0));
+        assertEquals(-(1L << 53) - 1, odd64.neg().getLong(0));
+        assertEquals((1L << 53) + 1, odd64.unsqueeze(0).matmul(one64.unsqueeze(0)).getLong(0, 0));
+        assertEquals(DType.INT64, odd64.unsqueeze(0).matmul(one64.unsqueeze(0)).dtype());
+        assertEquals((1L << 53) + 1, odd64.fma(one64, zero64).getLong(0));
+        assertEquals((1L << 53) + 1, Tensor.from(new long[][] {{1L << 53, 1}}, DType.INT64).sum(1).getLong(0));
+        assertEquals((1L << 53) + 1, odd64.to(DType.INT64).getLong(0));
+        Tensor inPlace = Tensor.zeros(DType.INT64, 2);
+        inPlace.addInPlace(odd64);
+        assertEquals(Tensor.from(new long[] {(1L << 53) + 1, (1L << 53) + 1}, DType.INT64), inPlace);
+        // Integers that overflow wrap around, as in Java
+        Tensor maxInt = Tensor.from(new int[] {Integer.MAX_VALUE}, DType.INT32);
+        assertEquals(Integer.MIN_VALUE, maxInt.add(Tensor.from(new int[] {1}, DType.INT32)).getLong(0));
+    }
+
+    @Test void testHalfPrecision() {
+        // Values are rounded to the nearest half, with ties to even
+        Tensor halves = Tensor.from(new float[] {1, 65504, 1e5f, 2049, 2051, 0x1p-24f, 1e-9f, -0.5f, Float.NaN},
+                DType.FLOAT16);
+        assertEquals(DType.FLOAT16, halves.dtype());
+        assertArrayEquals(new float[] {1, 65504, Float.POSITIVE_INFINITY, 2048, 2052, 0x1p-24f, 0, -0.5f, Float.NaN},
+                halves.toArray());
+        Tensor brains = Tensor.from(new float[] {1, 257, 259, Float.MAX_VALUE, -3}, DType.BFLOAT16);
+        assertArrayEquals(new float[] {1, 256, 260, Float.POSITIVE_INFINITY, -3}, brains.toArray());
+
+        // Computation is done in float32, and the result is rounded to the type of the result
+        Tensor a = Tensor.from(new float[] {1, 2, 3}, DType.FLOAT16);
+        assertEquals(DType.FLOAT16, a.add(a).dtype());
+        assertEquals(Tensor.from(new float[] {2, 4, 6}), a.add(a));
+        assertEquals(DType.FLOAT32, a.add(Tensor.from(new float[] {1}, DType.BFLOAT16)).dtype());
+        assertEquals(DType.FLOAT16, a.add(Tensor.from(new int[] {1}, DType.INT64)).dtype());
+        assertEquals(DType.FLOAT32, a.add(Tensor.ones(3)).dtype());
+        assertEquals(6, a.sum());
+        assertEquals(Tensor.from(new float[] {14}), a.matmul(a));
+        assertEquals("[1.0, 2.0, 3.0]", a.toString());
+    }
+
+    @Test void testQuantization() {
+        // Values are rounded to the nearest multiple of the scale, and clamped to the range of a byte
+        QuantizedTensor q = Tensor.from(new float[] {0, 0.26f, -1, 100, Float.NaN}).quantize(0.5f, 3);
+        assertEquals(Tensor.from(new int[] {3, 4, 1, 127, 3}, DType.INT8), q.intRepr());
+        assertEquals(Tensor.from(new float[] {0, 0.5f, -1, 62, 0}), q.dequantize());
+        assertThrows(IllegalArgumentException.class, () -> Tensor.ones(2).quantize(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> Tensor.ones(2).quantize(1, 128));
+
+        // The chosen scales cover the range of each channel, so the error is at most half of the scale
+        Tensor weights = Tensor.randn(16, 40).mul(Tensor.range(1, 17).unsqueeze(1));
+        QuantizedTensor perTensor = weights.quantize(), perRow = weights.quantize(0);
+        assertEquals(1, perTensor.scales().size());
+        assertEquals(16, perRow.scales().size());
+        assertEquals(0, perRow.axis());
+        float maxScale = perRow.scales().max();
+        assertTrue(weights.sub(perRow.dequantize()).abs().max() <= maxScale / 2 * 1.0001f);
+        assertTrue(weights.sub(perTensor.dequantize()).abs().max() <= perTensor.scales().get(0) / 2 * 1.0001f);
+        assertEquals(0, Tensor.zeros(3).quantize().dequantize().abs().max());
+
+        // Quantized products equal the products of the dequantized Tensors
+        Tensor x = Tensor.rand(70, 40).sub(Tensor.from(new float[] {0.3f}));
+        QuantizedTensor qx = x.quantize(0), qw = weights.t().quantize(1);
+        Tensor expected = qx.dequantize().matmul(qw.dequantize());
+        assertTrue(qx.matmul(qw).sub(expected).abs().max() < 1e-3f);
+        assertTrue(qx.matmul(weights.t().quantize()).sub(qx.dequantize().matmul(weights.t().quantize().dequantize()))
+                .abs().max() < 1e-3f);
+        assertThrows(IllegalArgumentException.class, () -> qx.matmul(weights.quantize(0)));
+        assertThrows(IllegalArgumentException.class, () -> qx.matmul(weights.t().quantize(0)));
+
+        // The longest dot products of the most negative integers would overflow an int if accumulated in one piece
+        Tensor minimum = Tensor.from(new float[] {-128});
+        QuantizedTensor row = Tensor.ones(1, 1 << 17).mul(minimum).quantize(1, 0);
+        QuantizedTensor column = Tensor.ones(1 << 17, 1).mul(minimum).quantize(1, 0);
+        assertEquals(-128, row.intRepr().max());
+        assertEquals(Tensor.from(new float[][] {{1L << 31}}), row.matmul(column));
+    }
+
+    @Test void testSparse() {
+        // Duplicate coordinates are added together
+        SparseTensor s = SparseTensor.fromCoordinates(new int[] {2, 0, 0, 2}, new int[] {0, 1, 1, 2},
+                new float[] {2, 1, 3, 5}, 3, 3);
+        Tensor dense = Tensor.from(new float[][] {{0, 4, 0}, {0, 0, 0}, {2, 0, 5}});
+        assertEquals(3, s.nonZeros());
+        assertEquals(dense, s.toDense());
+        assertEquals(4, s.get(0, 1));
+        assertEquals(0, s.get(1, 1));
+        assertEquals(dense.t(), s.t().toDense());
+        assertEquals(s.toDense(), dense.toSparse().toDense());
+        assertEquals(2, Tensor.from(new float[][] {{0.1f, 3}, {-2, 0}}).toSparse(0.5f).nonZeros());
+        assertThrows(IllegalArgumentException.class, () -> SparseTensor.fromCoordinates(new int[] {3}, new int[] {0},
+                new float[] {1}, 3, 3));
+        assertThrows(IllegalArgumentException.class, () -> Tensor.ones(3).toSparse());
+
+        // Products only touch the stored elements
+        Tensor b = Tensor.randn(3, 5);
+        assertTrue(s.matmul(b).sub(dense.matmul(b)).abs().max() < 1e-5f);
+        assertEquals(dense.matmul(Tensor.from(new float[] {1, 2, 3})), s.matmul(Tensor.from(new float[] {1, 2, 3})));
+        Tensor square = Tensor.randn(3, 3);
+        assertEquals(dense.mul(square), s.mul(square).toDense());
+        assertEquals(dense.mul(square.t()), s.mul(square.t()).toDense());
+        Tensor column = Tensor.from(new float[][] {{1}, {2}, {3}});
+        assertEquals(dense.mul(column), s.mul(column).toDense());
+        assertEquals(dense.mul(Tensor.from(new float[] {2})), s.mul(2).toDense());
+
+        // Elementwise operations between sparse Tensors merge their stored elements
+        SparseTensor other = Tensor.from(new float[][] {{1, 1, 0}, {0, 0, 0}, {0, 0, 1}}).toSparse();
+        assertEquals(dense.add(other.toDense()), s.add(other).toDense());
+        assertEquals(dense.sub(other.toDense()), s.sub(other).toDense());
+        assertEquals(dense.mul(other.toDense()), s.mul(other).toDense());
+        assertEquals(2, s.mul(other).nonZeros());
+
+        // Reductions
+        assertEquals(11, s.sum());
+        assertEquals(Tensor.from(new float[] {2, 4, 5}), s.sum(0));
+        assertEquals(Tensor.from(new float[] {4, 0, 7}), s.sum(-1));
+    }
+
     @Test void randomTestingFunction() {
         Tensor t = Tensor.from(new int[][][]{{{1, 2, 3}, {4, 5, 6}, {7, 8, 9}, {10, 11, 12}}});
         System.out.println(t.shape());